@@ -0,0 +1,66 @@
+/*
+ * MethodReaderBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import com.strobel.assembler.ir.attributes.AttributeNames;
+import com.strobel.assembler.ir.attributes.SourceAttribute;
+import com.strobel.decompiler.benchmarks.CorpusBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@link MethodReader#readBody()} for every method of a class.  Each body is read the way
+ * {@link MethodDefinition} reads it on demand, with a fresh metadata scope.  This lives alongside
+ * {@link MethodReader} because that scope is package-private.
+ *
+ * @author Mike Strobel
+ */
+public class MethodReaderBenchmark extends CorpusBenchmark {
+    private TypeDefinition _type;
+    private List<MethodDefinition> _methods;
+
+    @Override
+    protected void prepare() {
+        //
+        // Read the class with its code attributes intact, so each method has the bytes of its
+        // body at hand, and nothing is left to load when the benchmark runs.
+        //
+        _type = ClassFileReader.readClass(
+            ClassFileReader.OPTIONS_DEFAULT | ClassFileReader.OPTION_PROCESS_CODE,
+            getMetadataSystem(),
+            new Buffer(getClassFile())
+        );
+
+        _methods = new ArrayList<>();
+
+        for (final MethodDefinition method : _type.getDeclaredMethods()) {
+            if (SourceAttribute.find(AttributeNames.Code, method.getSourceAttributes()) != null) {
+                _methods.add(method);
+            }
+        }
+    }
+
+    @Benchmark
+    public void readBody(final Blackhole blackhole) {
+        for (final MethodDefinition method : _methods) {
+            final MetadataParser parser = new MetadataParser(_type);
+            final IMetadataScope scope = new ClassFileReader.Scope(parser, _type, _type.getConstantPool());
+
+            blackhole.consume(new MethodReader(method, scope).readBody());
+        }
+    }
+}
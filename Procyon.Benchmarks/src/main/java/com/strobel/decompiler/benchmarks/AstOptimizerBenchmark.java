@@ -0,0 +1,63 @@
+/*
+ * AstOptimizerBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.benchmarks;
+
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.ast.AstBuilder;
+import com.strobel.decompiler.ast.AstOptimizationStep;
+import com.strobel.decompiler.ast.AstOptimizer;
+import com.strobel.decompiler.ast.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Measures {@link AstOptimizer#optimize} for every method of a class, stopping before
+ * {@link #abortBeforeStep}; {@link AstOptimizationStep#None} runs every step.  The optimizer
+ * rewrites the AST in place, so each operation builds a fresh one first.  Subtract the score of one
+ * step from the next to get the cost of the step in between; the score for the first step is the
+ * cost of building the AST, plus the optimizer's own setup.
+ * <p/>
+ * By default this runs once per step, which takes a while; narrow it down with, e.g.,
+ * {@code -p abortBeforeStep=TypeInference,None}.
+ *
+ * @author Mike Strobel
+ */
+public class AstOptimizerBenchmark extends CorpusBenchmark {
+    @Param
+    public AstOptimizationStep abortBeforeStep;
+
+    @Benchmark
+    public void optimize(final Blackhole blackhole) {
+        final DecompilerContext context = createContext();
+        final List<MethodDefinition> methods = getMethods();
+        final List<MethodBody> methodBodies = getMethodBodies();
+
+        for (int i = 0; i < methods.size(); i++) {
+            final Block block = new Block();
+
+            context.setCurrentMethod(methods.get(i));
+
+            block.getBody().addAll(AstBuilder.build(methodBodies.get(i), true, context));
+
+            AstOptimizer.optimize(context, block, abortBeforeStep);
+
+            blackhole.consume(block);
+        }
+    }
+}
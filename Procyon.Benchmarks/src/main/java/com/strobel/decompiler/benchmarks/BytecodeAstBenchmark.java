@@ -0,0 +1,43 @@
+/*
+ * BytecodeAstBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.benchmarks;
+
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.ast.AstBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Measures {@link AstBuilder#build} for every method of a class, which turns already-read method
+ * bodies into unoptimized bytecode ASTs.
+ *
+ * @author Mike Strobel
+ */
+public class BytecodeAstBenchmark extends CorpusBenchmark {
+    @Benchmark
+    public void build(final Blackhole blackhole) {
+        final DecompilerContext context = createContext();
+        final List<MethodDefinition> methods = getMethods();
+        final List<MethodBody> methodBodies = getMethodBodies();
+
+        for (int i = 0; i < methods.size(); i++) {
+            context.setCurrentMethod(methods.get(i));
+            blackhole.consume(AstBuilder.build(methodBodies.get(i), true, context));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * ClassFileReaderBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.benchmarks;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClassFileReader;
+import com.strobel.assembler.metadata.TypeDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures {@link ClassFileReader#readClass} with the options the metadata system uses by default,
+ * which leave method bodies to be read on demand.
+ *
+ * @author Mike Strobel
+ */
+public class ClassFileReaderBenchmark extends CorpusBenchmark {
+    private Buffer _buffer;
+
+    @Override
+    protected void prepare() {
+        _buffer = new Buffer(getClassFile());
+    }
+
+    @Benchmark
+    public TypeDefinition readClass() {
+        _buffer.position(0);
+        return ClassFileReader.readClass(ClassFileReader.OPTIONS_DEFAULT, getMetadataSystem(), _buffer);
+    }
+}
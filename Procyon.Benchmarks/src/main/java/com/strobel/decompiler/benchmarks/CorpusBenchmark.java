@@ -0,0 +1,193 @@
+/*
+ * CorpusBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.benchmarks;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.DeobfuscationUtilities;
+import com.strobel.assembler.metadata.ITypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.assembler.metadata.TypeReference;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.DecompilerSettings;
+import com.strobel.decompiler.languages.java.ast.AstBuilder;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for benchmarks which run one stage of the decompiler over a single class.  Every
+ * benchmark runs over the same corpus: the top-level classes in the compiler tools' test resources,
+ * and a handful of larger classes from the running JDK.  One operation always covers one whole
+ * class, so with {@code -prof gc}, JMH's normalized allocation rate gives the garbage per class.
+ * <p/>
+ * Run a subset with the usual JMH options, e.g. {@code -p className=java/util/HashMap}.
+ *
+ * @author Mike Strobel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class CorpusBenchmark {
+    @Param({
+        "ArgumentTypes",
+        "Circle",
+        "Drawable",
+        "Hello",
+        "Issue216GotoWVulnerability",
+        "Java12ClassConstants",
+        "Java14ClassConstants",
+        "JsrWithoutRet",
+        "LiteralAssignments",
+        "OddsAndEnds",
+        "Rectangle",
+        "SkipJSR",
+        "SootOptimizationTest",
+        "Switch",
+        "UnboxToNumber",
+        "WhileLoops",
+        "java/lang/String",
+        "java/util/ArrayList",
+        "java/util/HashMap",
+        "java/util/regex/Pattern"
+    })
+    public String className;
+
+    private DecompilerSettings _settings;
+    private MetadataSystem _metadataSystem;
+    private TypeDefinition _type;
+    private byte[] _classFile;
+    private List<MethodDefinition> _methods;
+    private List<MethodBody> _methodBodies;
+
+    @Setup(Level.Trial)
+    public final void setUp() {
+        final ITypeLoader typeLoader = new ClasspathTypeLoader();
+        final Buffer buffer = new Buffer();
+
+        if (!typeLoader.tryLoadType(className, buffer)) {
+            throw new IllegalStateException("Could not find class " + className + ".");
+        }
+
+        _classFile = Arrays.copyOf(buffer.array(), buffer.size());
+
+        _settings = DecompilerSettings.javaDefaults();
+        _settings.setTypeLoader(typeLoader);
+
+        _metadataSystem = new MetadataSystem(typeLoader);
+
+        final TypeReference type = _metadataSystem.lookupType(className);
+
+        if (type == null || (_type = type.resolve()) == null) {
+            throw new IllegalStateException("Could not load class " + className + ".");
+        }
+
+        DeobfuscationUtilities.processType(_type);
+
+        final List<MethodDefinition> methods = new ArrayList<>();
+        final List<MethodBody> methodBodies = new ArrayList<>();
+
+        for (final MethodDefinition method : _type.getDeclaredMethods()) {
+            final MethodBody body = method.getBody();
+
+            if (body != null) {
+                methods.add(method);
+                methodBodies.add(body);
+            }
+        }
+
+        //
+        // Method bodies are only softly reachable from their methods, so hold onto them here to
+        // keep stages which start from a body from measuring the odd reload.
+        //
+        _methods = Collections.unmodifiableList(methods);
+        _methodBodies = Collections.unmodifiableList(methodBodies);
+
+        prepare();
+    }
+
+    /**
+     * Called once the class has been loaded, before the first iteration.
+     */
+    protected void prepare() {
+    }
+
+    protected final DecompilerSettings getSettings() {
+        return _settings;
+    }
+
+    protected final MetadataSystem getMetadataSystem() {
+        return _metadataSystem;
+    }
+
+    protected final TypeDefinition getType() {
+        return _type;
+    }
+
+    /**
+     * Returns the bytes of the class file.  Callers must not modify the array.
+     */
+    protected final byte[] getClassFile() {
+        return _classFile;
+    }
+
+    /**
+     * Returns the methods which have a body, in declaration order.
+     */
+    protected final List<MethodDefinition> getMethods() {
+        return _methods;
+    }
+
+    /**
+     * Returns the bodies of {@link #getMethods()}, in the same order.
+     */
+    protected final List<MethodBody> getMethodBodies() {
+        return _methodBodies;
+    }
+
+    protected final DecompilerContext createContext() {
+        final DecompilerContext context = new DecompilerContext(_settings);
+        context.setCurrentType(_type);
+        return context;
+    }
+
+    /**
+     * Builds the Java AST for the class, without running any transforms.
+     */
+    protected final AstBuilder createAst() {
+        final AstBuilder builder = new AstBuilder(createContext());
+        builder.addType(_type);
+        return builder;
+    }
+}
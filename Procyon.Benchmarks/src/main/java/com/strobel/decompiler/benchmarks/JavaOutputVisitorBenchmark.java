@@ -0,0 +1,49 @@
+/*
+ * JavaOutputVisitorBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.benchmarks;
+
+import com.strobel.decompiler.PlainTextOutput;
+import com.strobel.decompiler.languages.java.JavaOutputVisitor;
+import com.strobel.decompiler.languages.java.ast.AstBuilder;
+import com.strobel.decompiler.languages.java.ast.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.io.StringWriter;
+
+/**
+ * Measures {@link JavaOutputVisitor} writing out the fully transformed AST of a class.  The AST is
+ * built once, up front.
+ *
+ * @author Mike Strobel
+ */
+public class JavaOutputVisitorBenchmark extends CorpusBenchmark {
+    private CompilationUnit _compilationUnit;
+
+    @Override
+    protected void prepare() {
+        final AstBuilder builder = createAst();
+        builder.runTransformations();
+        _compilationUnit = builder.getCompilationUnit();
+    }
+
+    @Benchmark
+    public String writeSource() {
+        final StringWriter writer = new StringWriter();
+        final JavaOutputVisitor visitor = new JavaOutputVisitor(new PlainTextOutput(writer), getSettings());
+
+        _compilationUnit.acceptVisitor(visitor, null);
+
+        return writer.toString();
+    }
+}
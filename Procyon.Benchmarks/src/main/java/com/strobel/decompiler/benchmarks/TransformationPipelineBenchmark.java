@@ -0,0 +1,40 @@
+/*
+ * TransformationPipelineBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.benchmarks;
+
+import com.strobel.decompiler.languages.java.ast.AstBuilder;
+import com.strobel.decompiler.languages.java.ast.CompilationUnit;
+import com.strobel.decompiler.languages.java.ast.transforms.TransformationPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures the {@link TransformationPipeline} over the Java AST of a class.  The transforms rewrite
+ * the AST in place, so each operation builds a fresh one first.  {@link #buildAst()} measures that
+ * alone; subtract its score from {@link #transformAst()} to get the cost of the transforms.
+ *
+ * @author Mike Strobel
+ */
+public class TransformationPipelineBenchmark extends CorpusBenchmark {
+    @Benchmark
+    public CompilationUnit buildAst() {
+        return createAst().getCompilationUnit();
+    }
+
+    @Benchmark
+    public CompilationUnit transformAst() {
+        final AstBuilder builder = createAst();
+        builder.runTransformations();
+        return builder.getCompilationUnit();
+    }
+}
@@ -132,7 +132,7 @@ public class InputTypeLoader implements ITypeLoader {
                tryLoadFile(internalName, filePath.substring(lastSeparatorIndex + 1), buffer, true);
     }
 
-    private boolean tryLoadFromKnownLocation(final String internalName, final Buffer buffer) {
+    private synchronized boolean tryLoadFromKnownLocation(final String internalName, final Buffer buffer) {
         final File knownFile = _knownFiles.get(internalName);
 
         if (knownFile != null && tryLoadFile(knownFile, buffer)) {
@@ -214,7 +214,7 @@ public class InputTypeLoader implements ITypeLoader {
         }
     }
 
-    private boolean tryLoadFile(final String internalName, final String typeNameOrPath, final Buffer buffer, final boolean trustName) {
+    private synchronized boolean tryLoadFile(final String internalName, final String typeNameOrPath, final Buffer buffer, final boolean trustName) {
         final File file = new File(typeNameOrPath);
 
         if (!tryLoadFile(file, buffer)) {
@@ -326,7 +326,7 @@ public class InputTypeLoader implements ITypeLoader {
         b.readUnsignedShort(); // minor version
         b.readUnsignedShort(); // major version
 
-        final ConstantPool constantPool = ConstantPool.read(b);
+        final ConstantPool constantPool = ConstantPool.readLazy(b);
 
         b.readUnsignedShort(); // access flags
 
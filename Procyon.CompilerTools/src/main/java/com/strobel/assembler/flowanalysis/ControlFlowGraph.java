@@ -28,15 +28,21 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.util.BitSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 public final class ControlFlowGraph {
+    private final static AtomicInteger _nextMark = new AtomicInteger();
+
     private final List<ControlFlowNode> _nodes;
 
+    private DominatorTreeIndex _dominatorTreeIndex;
+
     public final ControlFlowNode getEntryPoint() {
         return _nodes.get(0);
     }
@@ -138,9 +144,22 @@ public final class ControlFlowGraph {
                 immediateDominator.getDominatorTreeChildren().add(node);
             }
         }
+
+        //
+        // Number the dominator tree so dominance checks no longer need to walk up the tree.
+        //
+        _dominatorTreeIndex = DominatorTreeIndex.build(entryPoint, _nodes.size());
     }
 
     public final void computeDominanceFrontier() {
+        DominatorTreeIndex index = _dominatorTreeIndex;
+
+        if (index == null || !index.isValid()) {
+            _dominatorTreeIndex = index = DominatorTreeIndex.build(getEntryPoint(), _nodes.size());
+        }
+
+        final DominatorTreeIndex frontierIndex = index;
+
         resetVisited();
 
         getEntryPoint().traversePostOrder(
@@ -153,20 +172,20 @@ public final class ControlFlowGraph {
             new Block<ControlFlowNode>() {
                 @Override
                 public void accept(final ControlFlowNode n) {
-                    final Set<ControlFlowNode> dominanceFrontier = n.getDominanceFrontier();
-
-                    dominanceFrontier.clear();
+                    final BitSet dominanceFrontier = n.resetDominanceFrontier(frontierIndex);
 
                     for (final ControlFlowNode s : n.getSuccessors()) {
                         if (s.getImmediateDominator() != n) {
-                            dominanceFrontier.add(s);
+                            dominanceFrontier.set(frontierIndex.indexOf(s));
                         }
                     }
 
                     for (final ControlFlowNode child : n.getDominatorTreeChildren()) {
-                        for (final ControlFlowNode p : child.getDominanceFrontier()) {
-                            if (p.getImmediateDominator() != n) {
-                                dominanceFrontier.add(p);
+                        final BitSet childFrontier = child.getDominanceFrontierIndexes();
+
+                        for (int i = childFrontier.nextSetBit(0); i >= 0; i = childFrontier.nextSetBit(i + 1)) {
+                            if (frontierIndex.get(i).getImmediateDominator() != n) {
+                                dominanceFrontier.set(i);
                             }
                         }
                     }
@@ -176,17 +195,36 @@ public final class ControlFlowGraph {
     }
 
     public static ControlFlowNode findCommonDominator(final ControlFlowNode a, final ControlFlowNode b) {
-        final Set<ControlFlowNode> path1 = new LinkedHashSet<>();
+        final DominatorTreeIndex index = a != null ? a.getDominatorTreeIndex() : null;
+
+        if (index != null && index.isValid() && b != null && b.getDominatorTreeIndex() == index) {
+            //
+            // With a numbered dominator tree, each dominance check is constant time.
+            //
+            for (ControlFlowNode node = a; node != null; node = node.getImmediateDominator()) {
+                if (node.dominates(b)) {
+                    return node;
+                }
+            }
+        }
+
+        //
+        // Otherwise, mark the dominators of 'a' and find the first marked dominator of 'b'.  While
+        // dominance is being computed, the entry point dominates itself, so stop at the first node
+        // which is already marked.
+        //
+        final int mark = _nextMark.incrementAndGet();
 
         ControlFlowNode node1 = a;
         ControlFlowNode node2 = b;
 
-        while (node1 != null && path1.add(node1)) {
+        while (node1 != null && node1.getMark() != mark) {
+            node1.setMark(mark);
             node1 = node1.getImmediateDominator();
         }
 
         while (node2 != null) {
-            if (path1.contains(node2)) {
+            if (node2.getMark() == mark) {
                 return node2;
             }
             node2 = node2.getImmediateDominator();
@@ -30,9 +30,10 @@ import com.strobel.functions.Block;
 import com.strobel.functions.Function;
 import com.strobel.util.ContractUtils;
 
+import java.util.AbstractSet;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -43,13 +44,19 @@ public final class ControlFlowNode implements Comparable<ControlFlowNode> {
     private final ControlFlowNodeType _nodeType;
     private final ControlFlowNode _endFinallyNode;
     private final List<ControlFlowNode> _dominatorTreeChildren = new Collection<>();
-    private final Set<ControlFlowNode> _dominanceFrontier = new LinkedHashSet<>();
+    private final BitSet _dominanceFrontierIndexes = new BitSet();
+    private final Set<ControlFlowNode> _dominanceFrontier = new DominanceFrontier();
     private final List<ControlFlowEdge> _incoming = new Collection<>();
     private final List<ControlFlowEdge> _outgoing = new Collection<>();
 
     private boolean _visited;
     private ControlFlowNode _copyFrom;
     private ControlFlowNode _immediateDominator;
+    private DominatorTreeIndex _dominatorTreeIndex;
+    private DominatorTreeIndex _dominanceFrontierIndex;
+    private int _preOrderIndex;
+    private int _postOrderIndex;
+    private int _mark;
     private Instruction _start;
     private Instruction _end;
     private ExceptionHandler _exceptionHandler;
@@ -161,6 +168,9 @@ public final class ControlFlowNode implements Comparable<ControlFlowNode> {
     }
 
     public final void setImmediateDominator(final ControlFlowNode immediateDominator) {
+        if (immediateDominator != _immediateDominator && _dominatorTreeIndex != null) {
+            _dominatorTreeIndex.invalidate();
+        }
         _immediateDominator = immediateDominator;
     }
 
@@ -272,6 +282,14 @@ public final class ControlFlowNode implements Comparable<ControlFlowNode> {
     }
 
     public final boolean dominates(final ControlFlowNode node) {
+        final DominatorTreeIndex index = _dominatorTreeIndex;
+
+        if (index != null && node != null && node._dominatorTreeIndex == index && index.isValid() &&
+            _postOrderIndex >= 0 && node._postOrderIndex >= 0) {
+
+            return _preOrderIndex <= node._preOrderIndex && node._postOrderIndex <= _postOrderIndex;
+        }
+
         ControlFlowNode current = node;
 
         while (current != null) {
@@ -284,6 +302,46 @@ public final class ControlFlowNode implements Comparable<ControlFlowNode> {
         return false;
     }
 
+    // <editor-fold defaultstate="collapsed" desc="Dominator Tree Numbering">
+
+    final DominatorTreeIndex getDominatorTreeIndex() {
+        return _dominatorTreeIndex;
+    }
+
+    final int getPreOrderIndex() {
+        return _preOrderIndex;
+    }
+
+    final void setDominatorTreeIndex(final DominatorTreeIndex index, final int preOrderIndex) {
+        _dominatorTreeIndex = index;
+        _preOrderIndex = preOrderIndex;
+        _postOrderIndex = -1;
+    }
+
+    final void setPostOrderIndex(final int postOrderIndex) {
+        _postOrderIndex = postOrderIndex;
+    }
+
+    final BitSet getDominanceFrontierIndexes() {
+        return _dominanceFrontierIndexes;
+    }
+
+    final BitSet resetDominanceFrontier(final DominatorTreeIndex index) {
+        _dominanceFrontierIndex = index;
+        _dominanceFrontierIndexes.clear();
+        return _dominanceFrontierIndexes;
+    }
+
+    final int getMark() {
+        return _mark;
+    }
+
+    final void setMark(final int mark) {
+        _mark = mark;
+    }
+
+    // </editor-fold>
+
     @Override
     public final String toString() {
         final PlainTextOutput output = new PlainTextOutput();
@@ -386,6 +444,61 @@ public final class ControlFlowNode implements Comparable<ControlFlowNode> {
 
     // <editor-fold defaultstate="collapsed" desc="Iterators">
 
+    private final class DominanceFrontier extends AbstractSet<ControlFlowNode> {
+        @NotNull
+        @Override
+        public final Iterator<ControlFlowNode> iterator() {
+            return new Iterator<ControlFlowNode>() {
+                private int _position = _dominanceFrontierIndexes.nextSetBit(0);
+
+                @Override
+                public final boolean hasNext() {
+                    return _position >= 0;
+                }
+
+                @Override
+                public final ControlFlowNode next() {
+                    if (_position < 0) {
+                        throw new NoSuchElementException();
+                    }
+
+                    final ControlFlowNode next = _dominanceFrontierIndex.get(_position);
+
+                    _position = _dominanceFrontierIndexes.nextSetBit(_position + 1);
+                    return next;
+                }
+
+                @Override
+                public final void remove() {
+                    throw ContractUtils.unsupported();
+                }
+            };
+        }
+
+        @Override
+        public final int size() {
+            return _dominanceFrontierIndexes.cardinality();
+        }
+
+        @Override
+        public final boolean isEmpty() {
+            return _dominanceFrontierIndexes.isEmpty();
+        }
+
+        @Override
+        public final boolean contains(final Object o) {
+            if (!(o instanceof ControlFlowNode)) {
+                return false;
+            }
+
+            final ControlFlowNode node = (ControlFlowNode) o;
+
+            return _dominanceFrontierIndex != null &&
+                   node._dominatorTreeIndex == _dominanceFrontierIndex &&
+                   _dominanceFrontierIndexes.get(node._preOrderIndex);
+        }
+    }
+
     private final class PredecessorIterator implements Iterator<ControlFlowNode> {
         private Iterator<ControlFlowEdge> _innerIterator;
 
@@ -0,0 +1,112 @@
+/*
+ * DominatorTreeIndex.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.flowanalysis;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Numbers the nodes of a dominator tree in depth-first pre-order and post-order.  A node dominates
+ * another exactly when the other's pre-order number is no lower, and its post-order number no higher,
+ * than its own, so dominance checks between numbered nodes take constant time.
+ * <p/>
+ * The pre-order numbers also serve as dense indexes for bit sets of nodes, like dominance frontiers.
+ * Nodes outside the tree which need an index are appended after the tree nodes, without a post-order
+ * number.  The numbering is abandoned as soon as any immediate dominator changes.
+ *
+ * @author Mike Strobel
+ */
+final class DominatorTreeIndex {
+    private ControlFlowNode[] _nodes;
+    private int _size;
+    private boolean _valid = true;
+
+    private DominatorTreeIndex(final int capacity) {
+        _nodes = new ControlFlowNode[Math.max(capacity, 4)];
+    }
+
+    static DominatorTreeIndex build(final ControlFlowNode root, final int capacity) {
+        final DominatorTreeIndex index = new DominatorTreeIndex(capacity);
+
+        ControlFlowNode[] path = new ControlFlowNode[16];
+        int[] positions = new int[16];
+        int depth = 0;
+        int postOrder = 0;
+
+        path[0] = root;
+        index.add(root);
+
+        while (depth >= 0) {
+            final ControlFlowNode node = path[depth];
+            final List<ControlFlowNode> children = node.getDominatorTreeChildren();
+            final int position = positions[depth];
+
+            if (position < children.size()) {
+                final ControlFlowNode child = children.get(position);
+
+                positions[depth] = position + 1;
+
+                //
+                // A graph whose dominance was computed more than once may list a child twice.
+                //
+                if (child.getDominatorTreeIndex() == index) {
+                    continue;
+                }
+
+                if (++depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                    positions = Arrays.copyOf(positions, depth * 2);
+                }
+
+                path[depth] = child;
+                positions[depth] = 0;
+                index.add(child);
+            }
+            else {
+                node.setPostOrderIndex(postOrder++);
+                path[depth--] = null;
+            }
+        }
+
+        return index;
+    }
+
+    final boolean isValid() {
+        return _valid;
+    }
+
+    final void invalidate() {
+        _valid = false;
+    }
+
+    final ControlFlowNode get(final int index) {
+        return _nodes[index];
+    }
+
+    final int indexOf(final ControlFlowNode node) {
+        if (node.getDominatorTreeIndex() != this) {
+            add(node);
+        }
+        return node.getPreOrderIndex();
+    }
+
+    private void add(final ControlFlowNode node) {
+        if (_size == _nodes.length) {
+            _nodes = Arrays.copyOf(_nodes, _size * 2);
+        }
+
+        _nodes[_size] = node;
+        node.setDominatorTreeIndex(this, _size++);
+    }
+}
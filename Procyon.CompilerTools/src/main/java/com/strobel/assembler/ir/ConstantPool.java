@@ -35,20 +35,58 @@ import java.util.Iterator;
 @SuppressWarnings({ "PublicField", "ProtectedField" })
 public final class ConstantPool extends Freezable implements Iterable<ConstantPool.Entry> {
     private final ArrayList<Entry> _pool = new ArrayList<>();
-    private final HashMap<Key, Entry> _entryMap = new HashMap<>();
     private final Key _lookupKey = new Key();
     private final Key _newKey = new Key();
 
+    //
+    // Lazily read pools record only the offset of each entry within a private copy of the
+    // pool's bytes, and decode entries on first access.  They have no de-duplication map
+    // unless one of the interning lookups is called.
+    //
+    private final Buffer _lazyData;
+    private final int[] _lazyOffsets;
+
+    private HashMap<Key, Entry> _entryMap;
+    private int _decodingIndex;
     private int _size;
 
+    public ConstantPool() {
+        _entryMap = new HashMap<>();
+        _lazyData = null;
+        _lazyOffsets = null;
+    }
+
+    private ConstantPool(final Buffer lazyData, final int[] lazyOffsets) {
+        _lazyData = lazyData;
+        _lazyOffsets = lazyOffsets;
+        _size = lazyOffsets.length - 1;
+
+        for (int i = 0; i < _size; i++) {
+            _pool.add(null);
+        }
+
+        freeze();
+    }
+
+    /**
+     * Returns whether this pool was read with {@link #readLazy(Buffer)}, and decodes its
+     * entries on demand.
+     */
+    public boolean isLazy() {
+        return _lazyOffsets != null;
+    }
+
     @Override
     public Iterator<Entry> iterator() {
+        decodeAll();
         return _pool.iterator();
     }
 
     public void accept(final Visitor visitor) {
         VerifyArgument.notNull(visitor, "visitor");
 
+        decodeAll();
+
         for (final Entry entry : _pool) {
             if (entry != null) {
                 visitor.visit(entry);
@@ -56,6 +94,14 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         }
     }
 
+    /**
+     * The number of slots in the constant pool, excluding the unused slot at index 0.  Valid
+     * entry indices lie in the range {@code [1, getSize()]}.
+     */
+    public int getSize() {
+        return _size;
+    }
+
     public void write(final Buffer stream) {
         stream.writeShort(_size + 1);
         accept(new Writer(stream));
@@ -65,7 +111,11 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
     public <T extends Entry> T getEntry(final int index) {
         VerifyArgument.inRange(0, _size + 1, index, "index");
 
-        final Entry info = _pool.get(index - 1);
+        Entry info = _pool.get(index - 1);
+
+        if (info == null && _lazyOffsets != null) {
+            info = decode(index);
+        }
 
         if (info == null) {
             throw new IndexOutOfBoundsException();
@@ -77,7 +127,11 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
     public Entry get(final int index) {
         VerifyArgument.inRange(0, _size + 1, index, "index");
 
-        final Entry info = _pool.get(index - 1);
+        Entry info = _pool.get(index - 1);
+
+        if (info == null && _lazyOffsets != null) {
+            info = decode(index);
+        }
 
         if (info == null) {
             throw new IndexOutOfBoundsException();
@@ -143,7 +197,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     public Utf8StringConstantEntry getUtf8StringConstant(final String value) {
         _lookupKey.set(value);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -157,7 +211,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
     public StringConstantEntry getStringConstant(final String value) {
         final Utf8StringConstantEntry utf8Constant = getUtf8StringConstant(value);
         _lookupKey.set(Tag.StringConstant, utf8Constant.index);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -170,7 +224,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     public IntegerConstantEntry getIntegerConstant(final int value) {
         _lookupKey.set(value);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -183,7 +237,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     public FloatConstantEntry getFloatConstant(final float value) {
         _lookupKey.set(value);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -196,7 +250,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     public LongConstantEntry getLongConstant(final long value) {
         _lookupKey.set(value);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -209,7 +263,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     public DoubleConstantEntry getDoubleConstant(final double value) {
         _lookupKey.set(value);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -223,7 +277,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
     public TypeInfoEntry getTypeInfo(final TypeReference type) {
         final Utf8StringConstantEntry name = getUtf8StringConstant(type.getInternalName());
         _lookupKey.set(Tag.TypeInfo, name.index);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -241,7 +295,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             field.getErasedSignature()
         );
         _lookupKey.set(Tag.FieldReference, typeInfo.index, nameAndDescriptor.index);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -259,7 +313,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             method.getErasedSignature()
         );
         _lookupKey.set(Tag.MethodReference, typeInfo.index, nameAndDescriptor.index);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -277,7 +331,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             method.getErasedSignature()
         );
         _lookupKey.set(Tag.InterfaceMethodReference, typeInfo.index, nameAndDescriptor.index);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -292,7 +346,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         final Utf8StringConstantEntry utf8Name = getUtf8StringConstant(name);
         final Utf8StringConstantEntry utf8Descriptor = getUtf8StringConstant(typeDescriptor);
         _lookupKey.set(Tag.NameAndTypeDescriptor, utf8Name.index, utf8Descriptor.index);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -305,7 +359,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     MethodHandleEntry getMethodHandle(final ReferenceKind referenceKind, final int referenceIndex) {
         _lookupKey.set(Tag.MethodHandle, referenceIndex, referenceKind);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -318,7 +372,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     MethodTypeEntry getMethodType(final int descriptorIndex) {
         _lookupKey.set(Tag.MethodType, descriptorIndex);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -333,7 +387,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         final int bootstrapMethodAttributeIndex,
         final int nameAndTypeDescriptorIndex) {
         _lookupKey.set(Tag.InvokeDynamicInfo, bootstrapMethodAttributeIndex, nameAndTypeDescriptorIndex);
-        Entry entry = _entryMap.get(_lookupKey);
+        Entry entry = entryMap().get(_lookupKey);
         if (entry == null) {
             if (isFrozen()) {
                 return null;
@@ -349,7 +403,6 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
         final ConstantPool pool = new ConstantPool();
         final int size = b.readUnsignedShort();
-        final Key key = new Key();
 
         for (int i = 1; i < size; i++) {
             if (skipOne) {
@@ -357,61 +410,184 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
                 continue;
             }
 
-            key.clear();
+            final Entry entry = readEntry(pool, b);
+
+            skipOne = entry.size() > 1;
+        }
+
+        return pool;
+    }
+
+    /**
+     * Reads a frozen, read-only constant pool which only records the offset of each entry.
+     * Entries are decoded the first time they are accessed, so readers which consult only a
+     * few entries avoid decoding the rest.  The pool's bytes are copied, and the buffer may
+     * be reused once this method returns.
+     */
+    public static ConstantPool readLazy(final Buffer b) {
+        final int size = b.readUnsignedShort();
+        final int start = b.position();
+        final int[] offsets = new int[Math.max(size, 1)];
+
+        for (int i = 1; i < size; i++) {
+            offsets[i] = b.position() - start;
 
             final Tag tag = Tag.fromValue(b.readUnsignedByte());
 
             switch (tag) {
                 case Utf8StringConstant:
-                    new Utf8StringConstantEntry(pool, b.readUtf8());
-                    break;
-                case IntegerConstant:
-                    new IntegerConstantEntry(pool, b.readInt());
-                    break;
-                case FloatConstant:
-                    new FloatConstantEntry(pool, b.readFloat());
+                    b.advance(b.readUnsignedShort());
                     break;
                 case LongConstant:
-                    new LongConstantEntry(pool, b.readLong());
-                    skipOne = true;
-                    break;
                 case DoubleConstant:
-                    new DoubleConstantEntry(pool, b.readDouble());
-                    skipOne = true;
-                    break;
-                case TypeInfo:
-                    new TypeInfoEntry(pool, b.readUnsignedShort());
-                    break;
-                case StringConstant:
-                    new StringConstantEntry(pool, b.readUnsignedShort());
+                    b.advance(8);
+                    offsets[++i] = -1;
                     break;
+                case IntegerConstant:
+                case FloatConstant:
                 case FieldReference:
-                    new FieldReferenceEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
-                    break;
                 case MethodReference:
-                    new MethodReferenceEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
-                    break;
                 case InterfaceMethodReference:
-                    new InterfaceMethodReferenceEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
-                    break;
                 case NameAndTypeDescriptor:
-                    new NameAndTypeDescriptorEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+                case InvokeDynamicInfo:
+                    b.advance(4);
                     break;
                 case MethodHandle:
-                    new MethodHandleEntry(pool, ReferenceKind.fromTag(b.readUnsignedByte()), b.readUnsignedShort());
+                    b.advance(3);
                     break;
+                case TypeInfo:
+                case StringConstant:
                 case MethodType:
-                    new MethodTypeEntry(pool, b.readUnsignedShort());
-                    break;
-                case InvokeDynamicInfo:
-                    new InvokeDynamicInfoEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+                    b.advance(2);
                     break;
             }
         }
 
-        return pool;
+        final byte[] data = new byte[b.position() - start];
+
+        System.arraycopy(b.array(), start, data, 0, data.length);
+
+        return new ConstantPool(new Buffer(data), offsets);
+    }
+
+    private static Entry readEntry(final ConstantPool pool, final Buffer b) {
+        final Tag tag = Tag.fromValue(b.readUnsignedByte());
+
+        switch (tag) {
+            case Utf8StringConstant:
+                return new Utf8StringConstantEntry(pool, b.readUtf8());
+            case IntegerConstant:
+                return new IntegerConstantEntry(pool, b.readInt());
+            case FloatConstant:
+                return new FloatConstantEntry(pool, b.readFloat());
+            case LongConstant:
+                return new LongConstantEntry(pool, b.readLong());
+            case DoubleConstant:
+                return new DoubleConstantEntry(pool, b.readDouble());
+            case TypeInfo:
+                return new TypeInfoEntry(pool, b.readUnsignedShort());
+            case StringConstant:
+                return new StringConstantEntry(pool, b.readUnsignedShort());
+            case FieldReference:
+                return new FieldReferenceEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+            case MethodReference:
+                return new MethodReferenceEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+            case InterfaceMethodReference:
+                return new InterfaceMethodReferenceEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+            case NameAndTypeDescriptor:
+                return new NameAndTypeDescriptorEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+            case MethodHandle:
+                return new MethodHandleEntry(pool, ReferenceKind.fromTag(b.readUnsignedByte()), b.readUnsignedShort());
+            case MethodType:
+                return new MethodTypeEntry(pool, b.readUnsignedShort());
+            case InvokeDynamicInfo:
+                return new InvokeDynamicInfoEntry(pool, b.readUnsignedShort(), b.readUnsignedShort());
+            default:
+                throw new IllegalStateException("Unexpected constant pool tag: " + tag);
+        }
     }
 
+    // <editor-fold defaultstate="collapsed" desc="Lazy Decoding">
+
+    private synchronized Entry decode(final int index) {
+        final Entry existing = _pool.get(index - 1);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        final int offset = _lazyOffsets[index];
+
+        if (offset < 0) {
+            //
+            // Second slot of a long or double constant.
+            //
+            return null;
+        }
+
+        _lazyData.position(offset);
+        _decodingIndex = index;
+
+        final Entry entry;
+
+        try {
+            entry = readEntry(this, _lazyData);
+        }
+        finally {
+            _decodingIndex = 0;
+        }
+
+        //
+        // Entries are immutable, so publishing them without a lock is safe; a reader which
+        // misses the write simply takes the lock and finds the entry here.
+        //
+        _pool.set(index - 1, entry);
+
+        return entry;
+    }
+
+    private void decodeAll() {
+        if (_lazyOffsets == null) {
+            return;
+        }
+
+        for (int i = 1; i <= _size; i++) {
+            if (_pool.get(i - 1) == null) {
+                decode(i);
+            }
+        }
+    }
+
+    private synchronized HashMap<Key, Entry> entryMap() {
+        if (_entryMap == null) {
+            decodeAll();
+
+            final HashMap<Key, Entry> entryMap = new HashMap<>();
+
+            for (final Entry entry : _pool) {
+                if (entry != null) {
+                    final Key key = new Key();
+                    entry.fixupKey(key);
+                    entryMap.put(key, entry);
+                }
+            }
+
+            _entryMap = entryMap;
+        }
+
+        return _entryMap;
+    }
+
+    final void register(final Entry entry) {
+        if (_entryMap != null) {
+            entry.fixupKey(_newKey);
+            _entryMap.put(_newKey.clone(), entry);
+            _newKey.clear();
+        }
+    }
+
+    // </editor-fold>
+
     // <editor-fold defaultstate="collapsed" desc="Entry Base Class">
 
     public static abstract class Entry {
@@ -421,6 +597,15 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
         Entry(final ConstantPool owner) {
             this.owner = owner;
+
+            if (owner._decodingIndex != 0) {
+                //
+                // Decoding an entry of a lazy pool; its slot was reserved when the pool was read.
+                //
+                this.index = owner._decodingIndex;
+                return;
+            }
+
             this.index = owner._size + 1;
             owner._pool.add(this);
             owner._size += size();
@@ -760,9 +945,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public TypeInfoEntry(final ConstantPool owner, final int nameIndex) {
             super(owner);
             this.nameIndex = nameIndex;
-            owner._newKey.set(getTag(), nameIndex);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         public String getName() {
@@ -801,9 +984,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public MethodTypeEntry(final ConstantPool owner, final int descriptorIndex) {
             super(owner);
             this.descriptorIndex = descriptorIndex;
-            owner._newKey.set(getTag(), descriptorIndex);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         public String getType() {
@@ -846,9 +1027,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             this.tag = tag;
             this.typeInfoIndex = typeInfoIndex;
             this.nameAndTypeDescriptorIndex = nameAndTypeDescriptorIndex;
-            owner._newKey.set(tag, typeInfoIndex, nameAndTypeDescriptorIndex);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         public Tag getTag() {
@@ -939,9 +1118,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             super(owner);
             this.referenceKind = referenceKind;
             this.referenceIndex = referenceIndex;
-            owner._newKey.set(getTag(), referenceIndex, referenceKind);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         public ReferenceEntry getReference() {
@@ -988,9 +1165,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             super(owner);
             this.nameIndex = nameIndex;
             this.typeDescriptorIndex = typeDescriptorIndex;
-            owner._newKey.set(getTag(), nameIndex, typeDescriptorIndex);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
@@ -1037,9 +1212,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             super(owner);
             this.bootstrapMethodAttributeIndex = bootstrapMethodAttributeIndex;
             this.nameAndTypeDescriptorIndex = nameAndTypeDescriptorIndex;
-            owner._newKey.set(getTag(), bootstrapMethodAttributeIndex, nameAndTypeDescriptorIndex);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
@@ -1079,9 +1252,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public DoubleConstantEntry(final ConstantPool owner, final double value) {
             super(owner);
             this.value = value;
-            owner._newKey.set(value);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
@@ -1126,9 +1297,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public FloatConstantEntry(final ConstantPool owner, final float value) {
             super(owner);
             this.value = value;
-            owner._newKey.set(value);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
@@ -1168,9 +1337,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public IntegerConstantEntry(final ConstantPool owner, final int value) {
             super(owner);
             this.value = value;
-            owner._newKey.set(value);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
@@ -1210,9 +1377,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public LongConstantEntry(final ConstantPool owner, final long value) {
             super(owner);
             this.value = value;
-            owner._newKey.set(value);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
@@ -1257,9 +1422,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public StringConstantEntry(final ConstantPool owner, final int stringIndex) {
             super(owner);
             this.stringIndex = stringIndex;
-            owner._newKey.set(getTag(), stringIndex);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         public String getValue() {
@@ -1303,9 +1466,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         public Utf8StringConstantEntry(final ConstantPool owner, final String value) {
             super(owner);
             this.value = value;
-            owner._newKey.set(getTag(), value);
-            owner._entryMap.put(owner._newKey.clone(), this);
-            owner._newKey.clear();
+            owner.register(this);
         }
 
         @Override
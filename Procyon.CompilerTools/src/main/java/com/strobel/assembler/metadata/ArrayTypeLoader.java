@@ -103,7 +103,7 @@ public final class ArrayTypeLoader implements ITypeLoader {
         b.readUnsignedShort(); // minor version
         b.readUnsignedShort(); // major version
 
-        final ConstantPool constantPool = ConstantPool.read(b);
+        final ConstantPool constantPool = ConstantPool.readLazy(b);
 
         b.readUnsignedShort(); // access flags
 
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * @author Mike Strobel
@@ -341,7 +342,7 @@ public final class ClassFileReader extends MetadataReader {
         final int minorVersion = b.readUnsignedShort();
         final int majorVersion = b.readUnsignedShort();
 
-        final ConstantPool constantPool = ConstantPool.read(b);
+        final ConstantPool constantPool = ConstantPool.readLazy(b);
 
         final int accessFlags = b.readUnsignedShort();
 
@@ -1205,21 +1206,53 @@ public final class ClassFileReader extends MetadataReader {
         private final MetadataParser _parser;
         private final TypeDefinition _typeDefinition;
         private final ConstantPool _constantPool;
+        private final AtomicReferenceArray<Object> _resolvedReferences;
 
         Scope(final MetadataParser parser, final TypeDefinition typeDefinition, final ConstantPool constantPool) {
             _parser = parser;
             _typeDefinition = typeDefinition;
             _constantPool = constantPool;
+            _resolvedReferences = typeDefinition.getResolvedReferences(constantPool.getSize());
+        }
+
+        //
+        // Type, field, method, method handle, and call site references depend only on the
+        // constant pool entry they were read from, so each is resolved at most once per token.
+        // Signature-based type lookups may depend on the generic context and are not memoized.
+        //
+
+        @SuppressWarnings("unchecked")
+        private <T> T getResolved(final int token, final Class<T> referenceType) {
+            final Object resolved = _resolvedReferences.get(token);
+            return referenceType.isInstance(resolved) ? (T) resolved : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T setResolved(final int token, final T reference) {
+            if (reference != null && !_resolvedReferences.compareAndSet(token, null, reference)) {
+                //
+                // Another thread got here first; use its reference so that every reader of
+                // this token sees the same instance.
+                //
+                return (T) _resolvedReferences.get(token);
+            }
+            return reference;
         }
 
         @Override
         public TypeReference lookupType(final int token) {
+            final TypeReference resolved = getResolved(token, TypeReference.class);
+
+            if (resolved != null) {
+                return resolved;
+            }
+
             final ConstantPool.Entry entry = _constantPool.get(token);
 
             if (entry instanceof ConstantPool.TypeInfoEntry) {
                 final ConstantPool.TypeInfoEntry typeInfo = (ConstantPool.TypeInfoEntry) entry;
 
-                return _parser.parseTypeDescriptor(typeInfo.getName());
+                return setResolved(token, _parser.parseTypeDescriptor(typeInfo.getName()));
             }
 
             final String typeName = _constantPool.lookupConstant(token);
@@ -1229,34 +1262,51 @@ public final class ClassFileReader extends MetadataReader {
 
         @Override
         public FieldReference lookupField(final int token) {
+            final FieldReference resolved = getResolved(token, FieldReference.class);
+
+            if (resolved != null) {
+                return resolved;
+            }
+
             final ConstantPool.FieldReferenceEntry entry = _constantPool.getEntry(token);
-            return lookupField(entry.typeInfoIndex, entry.nameAndTypeDescriptorIndex);
+            return setResolved(token, lookupField(entry.typeInfoIndex, entry.nameAndTypeDescriptorIndex));
         }
 
         @Override
         public MethodReference lookupMethod(final int token) {
             final ConstantPool.Entry entry = _constantPool.getEntry(token);
-            final ConstantPool.ReferenceEntry reference;
 
             if (entry instanceof ConstantPool.MethodHandleEntry) {
                 final ConstantPool.MethodHandleEntry methodHandle = (ConstantPool.MethodHandleEntry) entry;
-                reference = _constantPool.getEntry(methodHandle.referenceIndex);
+                return lookupMethod(methodHandle.referenceIndex);
             }
-            else {
-                reference = (ConstantPool.ReferenceEntry) entry;
+
+            final MethodReference resolved = getResolved(token, MethodReference.class);
+
+            if (resolved != null) {
+                return resolved;
             }
 
-            return lookupMethod(reference.typeInfoIndex, reference.nameAndTypeDescriptorIndex);
+            final ConstantPool.ReferenceEntry reference = (ConstantPool.ReferenceEntry) entry;
+            return setResolved(token, lookupMethod(reference.typeInfoIndex, reference.nameAndTypeDescriptorIndex));
         }
 
         @Override
         public MethodHandle lookupMethodHandle(final int token) {
+            final MethodHandle resolved = getResolved(token, MethodHandle.class);
+
+            if (resolved != null) {
+                return resolved;
+            }
+
             final ConstantPool.MethodHandleEntry entry = _constantPool.getEntry(token);
-            final ConstantPool.ReferenceEntry reference = _constantPool.getEntry(entry.referenceIndex);
 
-            return new MethodHandle(
-                lookupMethod(reference.typeInfoIndex, reference.nameAndTypeDescriptorIndex),
-                METHOD_HANDLE_TYPES[entry.referenceKind.ordinal()]
+            return setResolved(
+                token,
+                new MethodHandle(
+                    lookupMethod(entry.referenceIndex),
+                    METHOD_HANDLE_TYPES[entry.referenceKind.ordinal()]
+                )
             );
         }
 
@@ -1268,6 +1318,12 @@ public final class ClassFileReader extends MetadataReader {
 
         @Override
         public DynamicCallSite lookupDynamicCallSite(final int token) {
+            final DynamicCallSite resolved = getResolved(token, DynamicCallSite.class);
+
+            if (resolved != null) {
+                return resolved;
+            }
+
             final ConstantPool.InvokeDynamicInfoEntry entry = _constantPool.getEntry(token);
             final BootstrapMethodsAttribute attribute = SourceAttribute.find(AttributeNames.BootstrapMethods, _typeDefinition.getSourceAttributes());
 
@@ -1276,12 +1332,15 @@ public final class ClassFileReader extends MetadataReader {
 
             final ConstantPool.NameAndTypeDescriptorEntry nameAndType = _constantPool.getEntry(entry.nameAndTypeDescriptorIndex);
 
-            return new DynamicCallSite(
-                entry.bootstrapMethodAttributeIndex,
-                bootstrapMethod.getMethodHandle(),
-                bootstrapMethod.getArguments(),
-                nameAndType.getName(),
-                _parser.parseMethodSignature(nameAndType.getType())
+            return setResolved(
+                token,
+                new DynamicCallSite(
+                    entry.bootstrapMethodAttributeIndex,
+                    bootstrapMethod.getMethodHandle(),
+                    bootstrapMethod.getArguments(),
+                    nameAndType.getName(),
+                    _parser.parseMethodSignature(nameAndType.getType())
+                )
             );
         }
 
@@ -0,0 +1,673 @@
+/*
+ * MappedJarTypeLoader.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is based on Mono.Cecil from Jb Evain, Copyright (c) Jb Evain;
+ * and ILSpy/ICSharpCode from SharpDevelop, Copyright (c) AlphaSierraPapa.
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import com.strobel.core.VerifyArgument;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A type loader which memory-maps a jar file and indexes its class entries by internal name
+ * using the archive's central directory.  The index is built once, up front, and is never
+ * modified afterward, so a single instance may be shared by many threads.
+ * <p>
+ * Stored entries are copied directly out of the mapped region into the caller's buffer.
+ * Deflated entries are inflated directly into the caller's buffer using a pool of reusable
+ * {@link Inflater}s.  Archives larger than 2GB cannot be mapped; use {@link JarTypeLoader}
+ * for those.
+ * <p>
+ * The mapping is held until {@link #close()} is called, after which no more types can be loaded.
+ */
+public class MappedJarTypeLoader implements ITypeLoader, Closeable {
+    private final static Logger LOG = Logger.getLogger(MappedJarTypeLoader.class.getSimpleName());
+
+    private final static int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private final static int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private final static int END_HEADER_SIGNATURE = 0x06054b50;
+    private final static int ZIP64_END_HEADER_SIGNATURE = 0x06064b50;
+    private final static int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private final static int LOCAL_HEADER_SIZE = 30;
+    private final static int CENTRAL_HEADER_SIZE = 46;
+    private final static int END_HEADER_SIZE = 22;
+    private final static int ZIP64_LOCATOR_SIZE = 20;
+    private final static int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private final static int METHOD_STORED = 0;
+    private final static int METHOD_DEFLATED = 8;
+    private final static int FLAG_ENCRYPTED = 0x1;
+    private final static int ZIP64_EXTRA_ID = 0x0001;
+
+    private final static int MAX_POOLED_INFLATERS = 16;
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String _name;
+    private final ReadWriteLock _lock;
+    private final Map<String, Entry> _entries;
+    private final List<String> _typeNames;
+    private final Map<String, String> _knownMappings;
+    private final ConcurrentLinkedQueue<InflaterContext> _inflaterPool;
+    private final AtomicInteger _pooledInflaterCount;
+
+    private MappedByteBuffer _data;
+
+    public MappedJarTypeLoader(final File jarFile) throws IOException {
+        VerifyArgument.notNull(jarFile, "jarFile");
+
+        _name = jarFile.getPath();
+        _lock = new ReentrantReadWriteLock();
+
+        try (final RandomAccessFile file = new RandomAccessFile(jarFile, "r");
+             final FileChannel channel = file.getChannel()) {
+
+            final long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archive is too large to be memory-mapped: " + _name);
+            }
+
+            _data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        _data.order(ByteOrder.LITTLE_ENDIAN);
+
+        final HashMap<String, Entry> entries = new HashMap<>();
+        final ArrayList<String> typeNames = new ArrayList<>();
+
+        readCentralDirectory(entries, typeNames);
+
+        _entries = entries;
+        _typeNames = Collections.unmodifiableList(typeNames);
+        _knownMappings = new ConcurrentHashMap<>();
+        _inflaterPool = new ConcurrentLinkedQueue<>();
+        _pooledInflaterCount = new AtomicInteger();
+    }
+
+    /**
+     * Gets the internal names of all class entries in the archive, in central directory order.
+     */
+    public final List<String> getTypeNames() {
+        return _typeNames;
+    }
+
+    @Override
+    public boolean tryLoadType(final String internalName, final Buffer buffer) {
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("Attempting to load type: " + internalName + "...");
+        }
+
+        final Entry entry = _entries.get(internalName);
+
+        if (entry == null) {
+            final String mappedName = _knownMappings.get(internalName);
+
+            return mappedName != null &&
+                   !mappedName.equals(internalName) &&
+                   tryLoadType(mappedName, buffer);
+        }
+
+        final Lock lock = _lock.readLock();
+
+        lock.lock();
+
+        try {
+            final MappedByteBuffer data = _data;
+
+            if (data == null) {
+                LOG.fine("Cannot load type from closed archive: " + _name + "!" + internalName + ".class.");
+                return false;
+            }
+
+            if (!readEntry(data, entry, buffer)) {
+                return false;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        final String actualName = getInternalNameIfDifferent(buffer, internalName);
+
+        if (actualName != null) {
+            _knownMappings.put(actualName, internalName);
+        }
+
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("Type loaded from " + _name + "!" + internalName + ".class.");
+        }
+
+        return true;
+    }
+
+    /**
+     * Unmaps the archive and releases any pooled inflaters.  Loads already in progress are
+     * allowed to finish first; any later attempt to load a type will fail.
+     */
+    @Override
+    public void close() {
+        final Lock lock = _lock.writeLock();
+        final MappedByteBuffer data;
+
+        lock.lock();
+
+        try {
+            data = _data;
+            _data = null;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (data == null) {
+            return;
+        }
+
+        unmap(data);
+
+        InflaterContext context;
+
+        while ((context = _inflaterPool.poll()) != null) {
+            _pooledInflaterCount.decrementAndGet();
+            context.inflater.end();
+        }
+    }
+
+    private void unmap(final MappedByteBuffer data) {
+        //
+        // There is no public API for unmapping a buffer.  Newer runtimes expose a cleaner hook
+        // on Unsafe, while older ones let us run the buffer's own cleaner.  If neither works,
+        // the mapping is released whenever the buffer gets collected.
+        //
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field instanceField = unsafeClass.getDeclaredField("theUnsafe");
+
+            instanceField.setAccessible(true);
+            invokeCleaner.invoke(instanceField.get(null), data);
+            return;
+        }
+        catch (final NoSuchMethodException ignored) {
+        }
+        catch (final Throwable t) {
+            LOG.log(Level.FINE, "Could not unmap archive: " + _name, t);
+            return;
+        }
+
+        try {
+            final Method cleanerMethod = data.getClass().getMethod("cleaner");
+
+            cleanerMethod.setAccessible(true);
+
+            final Object cleaner = cleanerMethod.invoke(data);
+
+            if (cleaner != null) {
+                final Method cleanMethod = cleaner.getClass().getMethod("clean");
+
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        }
+        catch (final Throwable t) {
+            LOG.log(Level.FINE, "Could not unmap archive: " + _name, t);
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Entry Decoding">
+
+    private boolean readEntry(final ByteBuffer data, final Entry entry, final Buffer buffer) {
+        final int headerOffset = entry.localHeaderOffset;
+
+        if (headerOffset + LOCAL_HEADER_SIZE > data.limit() ||
+            data.getInt(headerOffset) != LOCAL_HEADER_SIGNATURE) {
+
+            LOG.warning("Invalid local file header for entry: " + _name + "!" + entry.name);
+            return false;
+        }
+
+        final int dataOffset = headerOffset +
+                               LOCAL_HEADER_SIZE +
+                               (data.getShort(headerOffset + 26) & 0xFFFF) +
+                               (data.getShort(headerOffset + 28) & 0xFFFF);
+
+        if (dataOffset + entry.compressedSize > data.limit()) {
+            LOG.warning("Truncated entry: " + _name + "!" + entry.name);
+            return false;
+        }
+
+        buffer.reset(entry.uncompressedSize);
+
+        switch (entry.method) {
+            case METHOD_STORED: {
+                final ByteBuffer view = data.duplicate();
+                view.position(dataOffset);
+                view.get(buffer.array(), 0, entry.uncompressedSize);
+                return true;
+            }
+
+            case METHOD_DEFLATED: {
+                return inflate(data, entry, dataOffset, buffer);
+            }
+
+            default: {
+                LOG.warning("Unsupported compression method " + entry.method + " for entry: " + _name + "!" + entry.name);
+                return false;
+            }
+        }
+    }
+
+    private boolean inflate(final ByteBuffer data, final Entry entry, final int dataOffset, final Buffer buffer) {
+        final InflaterContext context = acquireInflater(entry.compressedSize);
+
+        try {
+            final byte[] input = context.input;
+            final ByteBuffer view = data.duplicate();
+
+            view.position(dataOffset);
+            view.get(input, 0, entry.compressedSize);
+
+            //
+            // With 'nowrap' set, the inflater may need an extra dummy byte past the end of the input.
+            //
+            input[entry.compressedSize] = 0;
+
+            final Inflater inflater = context.inflater;
+            final byte[] output = buffer.array();
+
+            inflater.setInput(input, 0, entry.compressedSize + 1);
+
+            int offset = 0;
+
+            while (offset < entry.uncompressedSize && !inflater.finished()) {
+                final int count = inflater.inflate(output, offset, entry.uncompressedSize - offset);
+
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                offset += count;
+            }
+
+            if (offset != entry.uncompressedSize) {
+                LOG.warning("Could not fully inflate entry: " + _name + "!" + entry.name);
+                return false;
+            }
+
+            return true;
+        }
+        catch (final DataFormatException e) {
+            LOG.log(Level.WARNING, "Corrupt entry: " + _name + "!" + entry.name, e);
+            return false;
+        }
+        finally {
+            releaseInflater(context);
+        }
+    }
+
+    private InflaterContext acquireInflater(final int inputSize) {
+        InflaterContext context = _inflaterPool.poll();
+
+        if (context == null) {
+            context = new InflaterContext();
+        }
+        else {
+            _pooledInflaterCount.decrementAndGet();
+        }
+
+        if (context.input.length < inputSize + 1) {
+            context.input = new byte[Math.max(inputSize + 1, context.input.length * 2)];
+        }
+
+        return context;
+    }
+
+    private void releaseInflater(final InflaterContext context) {
+        context.inflater.reset();
+
+        if (_pooledInflaterCount.incrementAndGet() <= MAX_POOLED_INFLATERS) {
+            _inflaterPool.offer(context);
+        }
+        else {
+            _pooledInflaterCount.decrementAndGet();
+            context.inflater.end();
+        }
+    }
+
+    /**
+     * Checks the {@code this_class} name in a class file against the name under which we
+     * loaded it.  The constant pool is only scanned for offsets, and the name is only decoded
+     * if it does not match.
+     *
+     * @return the actual internal name if it differs from {@code expectedName}; otherwise {@code null}.
+     */
+    private static String getInternalNameIfDifferent(final Buffer b, final String expectedName) {
+        final byte[] data = b.array();
+        final int length = b.size();
+
+        if (length < 10 || (readInt(data, 0) & 0xFFFFFFFFL) != ClassFileReader.MAGIC) {
+            return null;
+        }
+
+        final int constantCount = readUnsignedShort(data, 8);
+        final int[] offsets = new int[constantCount];
+
+        int position = 10;
+
+        for (int i = 1; i < constantCount; i++) {
+            if (position >= length) {
+                return null;
+            }
+
+            offsets[i] = position;
+
+            final int tag = data[position++] & 0xFF;
+
+            switch (tag) {
+                case 1:
+                    position += 2 + readUnsignedShort(data, position);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    position += 4;
+                    break;
+                case 5:
+                case 6:
+                    position += 8;
+                    ++i;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    position += 2;
+                    break;
+                case 15:
+                    position += 3;
+                    break;
+                default:
+                    return null;
+            }
+        }
+
+        if (position + 4 > length) {
+            return null;
+        }
+
+        final int thisClass = readUnsignedShort(data, position + 2);
+
+        if (thisClass <= 0 || thisClass >= constantCount) {
+            return null;
+        }
+
+        final int nameIndex = readUnsignedShort(data, offsets[thisClass] + 1);
+
+        if (nameIndex <= 0 || nameIndex >= constantCount) {
+            return null;
+        }
+
+        final int nameOffset = offsets[nameIndex];
+        final int nameLength = readUnsignedShort(data, nameOffset + 1);
+
+        if (nameLength == expectedName.length()) {
+            boolean matches = true;
+
+            for (int i = 0; i < nameLength; i++) {
+                if (data[nameOffset + 3 + i] != expectedName.charAt(i)) {
+                    matches = false;
+                    break;
+                }
+            }
+
+            if (matches) {
+                return null;
+            }
+        }
+
+        final int oldPosition = b.position();
+
+        try {
+            b.position(nameOffset + 1);
+            final String actualName = b.readUtf8();
+            return expectedName.equals(actualName) ? null : actualName;
+        }
+        finally {
+            b.position(oldPosition);
+        }
+    }
+
+    private static int readUnsignedShort(final byte[] data, final int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static int readInt(final byte[] data, final int offset) {
+        return ((data[offset] & 0xFF) << 24) |
+               ((data[offset + 1] & 0xFF) << 16) |
+               ((data[offset + 2] & 0xFF) << 8) |
+               (data[offset + 3] & 0xFF);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Central Directory">
+
+    private void readCentralDirectory(final Map<String, Entry> entries, final List<String> typeNames) throws IOException {
+        final ByteBuffer data = _data;
+        final int endOffset = findEndOfCentralDirectory();
+
+        long entryCount = data.getShort(endOffset + 10) & 0xFFFF;
+        long directoryOffset = data.getInt(endOffset + 16) & 0xFFFFFFFFL;
+
+        if (entryCount == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+            //
+            // ZIP64 archive; the real values live in the ZIP64 end of central directory record.
+            //
+            final int locatorOffset = endOffset - ZIP64_LOCATOR_SIZE;
+
+            if (locatorOffset >= 0 && data.getInt(locatorOffset) == ZIP64_LOCATOR_SIGNATURE) {
+                final long zip64EndOffset = data.getLong(locatorOffset + 8);
+
+                if (zip64EndOffset < 0 ||
+                    zip64EndOffset + 56 > data.limit() ||
+                    data.getInt((int) zip64EndOffset) != ZIP64_END_HEADER_SIGNATURE) {
+
+                    throw new IOException("Invalid ZIP64 end of central directory record: " + _name);
+                }
+
+                entryCount = data.getLong((int) zip64EndOffset + 32);
+                directoryOffset = data.getLong((int) zip64EndOffset + 48);
+            }
+        }
+
+        if (directoryOffset < 0 || directoryOffset > data.limit()) {
+            throw new IOException("Invalid central directory offset: " + _name);
+        }
+
+        int position = (int) directoryOffset;
+
+        for (long i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_HEADER_SIZE > data.limit() ||
+                data.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+
+                throw new IOException("Invalid central directory header: " + _name);
+            }
+
+            final int flags = data.getShort(position + 8) & 0xFFFF;
+            final int method = data.getShort(position + 10) & 0xFFFF;
+            final int nameLength = data.getShort(position + 28) & 0xFFFF;
+            final int extraLength = data.getShort(position + 30) & 0xFFFF;
+            final int commentLength = data.getShort(position + 32) & 0xFFFF;
+
+            long compressedSize = data.getInt(position + 20) & 0xFFFFFFFFL;
+            long uncompressedSize = data.getInt(position + 24) & 0xFFFFFFFFL;
+            long localHeaderOffset = data.getInt(position + 42) & 0xFFFFFFFFL;
+
+            final String name = readName(position + CENTRAL_HEADER_SIZE, nameLength);
+
+            if (uncompressedSize == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+                final long[] values = { uncompressedSize, compressedSize, localHeaderOffset };
+                readZip64Extra(position + CENTRAL_HEADER_SIZE + nameLength, extraLength, values);
+                uncompressedSize = values[0];
+                compressedSize = values[1];
+                localHeaderOffset = values[2];
+            }
+
+            position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+
+            if (!name.endsWith(".class") || (flags & FLAG_ENCRYPTED) != 0) {
+                continue;
+            }
+
+            if (uncompressedSize > Integer.MAX_VALUE ||
+                compressedSize > Integer.MAX_VALUE ||
+                localHeaderOffset > Integer.MAX_VALUE) {
+
+                continue;
+            }
+
+            final String internalName = name.substring(0, name.length() - ".class".length());
+
+            if (!entries.containsKey(internalName)) {
+                entries.put(
+                    internalName,
+                    new Entry(name, method, (int) compressedSize, (int) uncompressedSize, (int) localHeaderOffset)
+                );
+                typeNames.add(internalName);
+            }
+        }
+    }
+
+    private int findEndOfCentralDirectory() throws IOException {
+        final ByteBuffer data = _data;
+        final int limit = data.limit();
+        final int lowerBound = Math.max(0, limit - END_HEADER_SIZE - MAX_COMMENT_LENGTH);
+
+        for (int offset = limit - END_HEADER_SIZE; offset >= lowerBound; offset--) {
+            if (data.getInt(offset) == END_HEADER_SIGNATURE) {
+                return offset;
+            }
+        }
+
+        throw new IOException("Could not find end of central directory record: " + _name);
+    }
+
+    private void readZip64Extra(final int offset, final int length, final long[] values) {
+        final ByteBuffer data = _data;
+        final int end = offset + length;
+
+        int position = offset;
+
+        while (position + 4 <= end) {
+            final int id = data.getShort(position) & 0xFFFF;
+            final int size = data.getShort(position + 2) & 0xFFFF;
+
+            if (id == ZIP64_EXTRA_ID) {
+                int valuePosition = position + 4;
+                final int valueEnd = Math.min(end, valuePosition + size);
+
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == 0xFFFFFFFFL && valuePosition + 8 <= valueEnd) {
+                        values[i] = data.getLong(valuePosition);
+                        valuePosition += 8;
+                    }
+                }
+
+                return;
+            }
+
+            position += 4 + size;
+        }
+    }
+
+    private String readName(final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        final ByteBuffer view = _data.duplicate();
+
+        view.position(offset);
+        view.get(bytes);
+
+        //
+        // Like JarFile, assume entry names are UTF-8 regardless of the language encoding flag.
+        //
+        return new String(bytes, UTF_8);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Entry and InflaterContext Classes">
+
+    private final static class Entry {
+        final String name;
+        final int method;
+        final int compressedSize;
+        final int uncompressedSize;
+        final int localHeaderOffset;
+
+        Entry(
+            final String name,
+            final int method,
+            final int compressedSize,
+            final int uncompressedSize,
+            final int localHeaderOffset) {
+
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+
+    private final static class InflaterContext {
+        final Inflater inflater = new Inflater(true);
+        byte[] input = new byte[8192];
+    }
+
+    // </editor-fold>
+}
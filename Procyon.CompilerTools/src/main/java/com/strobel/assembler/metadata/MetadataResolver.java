@@ -20,23 +20,34 @@ import com.strobel.core.StringComparator;
 import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 /**
+ * A resolver which may be shared by multiple threads.  Resolver frames are tracked
+ * per thread, so frames pushed while one thread is reading a class file are never
+ * visible to lookups performed on another thread.
+ *
  * @author Mike Strobel
  */
 public abstract class MetadataResolver implements IMetadataResolver, IGenericContext {
-    private final Stack<IResolverFrame> _frames;
+    private final ThreadLocal<ArrayList<IResolverFrame>> _frames;
 
     protected MetadataResolver() {
-        _frames = new Stack<>();
+        _frames = new ThreadLocal<ArrayList<IResolverFrame>>() {
+            @Override
+            protected ArrayList<IResolverFrame> initialValue() {
+                return new ArrayList<>();
+            }
+        };
     }
 
     @Override
     public final TypeReference lookupType(final String descriptor) {
-        for (int i = _frames.size() - 1; i >= 0; i--) {
-            final TypeReference type = _frames.get(i).findType(descriptor);
+        final List<IResolverFrame> frames = _frames.get();
+
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            final TypeReference type = frames.get(i).findType(descriptor);
 
             if (type != null) {
                 return type;
@@ -48,8 +59,10 @@ public abstract class MetadataResolver implements IMetadataResolver, IGenericCon
 
     @Override
     public final GenericParameter findTypeVariable(final String name) {
-        for (int i = _frames.size() - 1; i >= 0; i--) {
-            final GenericParameter type = _frames.get(i).findTypeVariable(name);
+        final List<IResolverFrame> frames = _frames.get();
+
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            final GenericParameter type = frames.get(i).findTypeVariable(name);
 
             if (type != null) {
                 return type;
@@ -63,23 +76,26 @@ public abstract class MetadataResolver implements IMetadataResolver, IGenericCon
 
     @Override
     public void pushFrame(final IResolverFrame frame) {
-        _frames.push(VerifyArgument.notNull(frame, "frame"));
+        _frames.get().add(VerifyArgument.notNull(frame, "frame"));
     }
 
     @Override
     public void popFrame() {
-        _frames.pop();
+        final ArrayList<IResolverFrame> frames = _frames.get();
+        frames.remove(frames.size() - 1);
     }
 
     @Override
     public TypeDefinition resolve(final TypeReference type) {
         final TypeReference t = VerifyArgument.notNull(type, "type").getUnderlyingType();
 
-        if (!_frames.isEmpty()) {
+        final List<IResolverFrame> frames = _frames.get();
+
+        if (!frames.isEmpty()) {
             final String descriptor = type.getInternalName();
 
-            for (int i = _frames.size() - 1; i >= 0; i--) {
-                final TypeReference resolved = _frames.get(i).findType(descriptor);
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                final TypeReference resolved = frames.get(i).findType(descriptor);
 
                 if (resolved instanceof TypeDefinition) {
                     return (TypeDefinition) resolved;
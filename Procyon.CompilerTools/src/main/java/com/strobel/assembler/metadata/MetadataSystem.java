@@ -17,21 +17,41 @@
 package com.strobel.assembler.metadata;
 
 import com.strobel.compilerservices.RuntimeHelpers;
+import com.strobel.core.ExceptionUtilities;
 import com.strobel.core.Fences;
+import com.strobel.core.MutableInteger;
 import com.strobel.core.VerifyArgument;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
+ * A type cache and resolver which may be shared across threads.  Concurrent requests
+ * for the same type are coalesced so that each class file is only read once.
+ * <p>
+ * By default, every type loaded is cached for the lifetime of the metadata system.
+ * A bound may be set with {@link #setMaximumCachedTypes(int)}, in which case the least
+ * recently used types are evicted once the bound is exceeded (eviction happens in
+ * batches, so the cache may briefly grow somewhat past the bound).  The types backing
+ * {@link BuiltinTypes} and types added via {@link #addTypeDefinition(TypeDefinition)}
+ * are never evicted.
+ *
  * @author Mike Strobel
  */
 public class MetadataSystem extends MetadataResolver {
     private static MetadataSystem _instance;
 
-    private final ConcurrentHashMap<String, TypeDefinition> _types;
+    private final TypeDefinitionCache _types;
+    private final ConcurrentHashMap<String, FutureTask<TypeDefinition>> _pendingTypes;
+    private final ThreadLocal<MutableInteger> _loadDepth;
+    private final Set<String> _pinnedTypes;
     private final ITypeLoader _typeLoader;
 
-    private boolean _isEagerMethodLoadingEnabled;
+    private volatile boolean _isEagerMethodLoadingEnabled;
 
     public static MetadataSystem instance() {
         if (_instance == null) {
@@ -59,7 +79,19 @@ public class MetadataSystem extends MetadataResolver {
 
     public MetadataSystem(final ITypeLoader typeLoader) {
         _typeLoader = VerifyArgument.notNull(typeLoader, "typeLoader");
-        _types = new ConcurrentHashMap<>();
+        _types = new TypeDefinitionCache();
+        _pendingTypes = new ConcurrentHashMap<>();
+        _pinnedTypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        _pinnedTypes.add("java/lang/Object");
+        _pinnedTypes.add("java/lang/Class");
+
+        _loadDepth = new ThreadLocal<MutableInteger>() {
+            @Override
+            protected MutableInteger initialValue() {
+                return new MutableInteger();
+            }
+        };
     }
 
     public final boolean isEagerMethodLoadingEnabled() {
@@ -70,9 +102,49 @@ public class MetadataSystem extends MetadataResolver {
         _isEagerMethodLoadingEnabled = value;
     }
 
+    /**
+     * Gets the maximum number of types retained by this metadata system, or {@code 0} if
+     * the cache is unbounded.
+     */
+    public final int getMaximumCachedTypes() {
+        return _types.getMaximumSize();
+    }
+
+    /**
+     * Sets the maximum number of types retained by this metadata system.  A value of
+     * {@code 0} (the default) disables eviction.
+     */
+    public final void setMaximumCachedTypes(final int maximumCachedTypes) {
+        _types.setMaximumSize(VerifyArgument.isNonNegative(maximumCachedTypes, "maximumCachedTypes"));
+    }
+
+    public final int getCachedTypeCount() {
+        return _types.size();
+    }
+
+    public final long getTypeCacheHitCount() {
+        return _types.getHitCount();
+    }
+
+    public final long getTypeCacheMissCount() {
+        return _types.getMissCount();
+    }
+
+    public final long getTypeCacheEvictionCount() {
+        return _types.getEvictionCount();
+    }
+
+    /**
+     * Prevents the type with the specified internal name from being evicted once loaded.
+     */
+    public final void pinType(final String internalName) {
+        _pinnedTypes.add(VerifyArgument.notNull(internalName, "internalName"));
+        _types.pin(internalName);
+    }
+
     public void addTypeDefinition(final TypeDefinition type) {
         VerifyArgument.notNull(type, "type");
-        _types.putIfAbsent(type.getInternalName(), type);
+        _types.putIfAbsent(type.getInternalName(), type, true);
     }
 
     @Override
@@ -114,7 +186,50 @@ public class MetadataSystem extends MetadataResolver {
             }
         }
 
-        TypeDefinition cachedDefinition = _types.get(descriptor);
+        final TypeDefinition cachedDefinition = _types.get(descriptor);
+
+        if (cachedDefinition != null) {
+            return cachedDefinition;
+        }
+
+        final MutableInteger loadDepth = _loadDepth.get();
+
+        if (loadDepth.getValue() > 0) {
+            //
+            // We are already reading another class file on this thread.  Waiting for a load
+            // in progress on another thread could deadlock if that thread is waiting on us,
+            // so just read the class independently; the first definition cached wins.
+            //
+            return loadType(descriptor, loadDepth);
+        }
+
+        final FutureTask<TypeDefinition> task = new FutureTask<>(
+            new Callable<TypeDefinition>() {
+                @Override
+                public TypeDefinition call() {
+                    return loadType(descriptor, loadDepth);
+                }
+            }
+        );
+
+        final FutureTask<TypeDefinition> pendingTask = _pendingTypes.putIfAbsent(descriptor, task);
+
+        if (pendingTask != null) {
+            return awaitType(pendingTask);
+        }
+
+        try {
+            task.run();
+        }
+        finally {
+            _pendingTypes.remove(descriptor, task);
+        }
+
+        return awaitType(task);
+    }
+
+    private TypeDefinition loadType(final String descriptor, final MutableInteger loadDepth) {
+        final TypeDefinition cachedDefinition = _types.peek(descriptor);
 
         if (cachedDefinition != null) {
             return cachedDefinition;
@@ -126,23 +241,74 @@ public class MetadataSystem extends MetadataResolver {
             return null;
         }
 
-        final TypeDefinition typeDefinition = ClassFileReader.readClass(
-            _isEagerMethodLoadingEnabled ? ClassFileReader.OPTIONS_DEFAULT | ClassFileReader.OPTION_PROCESS_CODE
-                                         : ClassFileReader.OPTIONS_DEFAULT,
-            this,
-            buffer
-        );
+        final TypeDefinition typeDefinition;
+        final boolean eagerMethodLoading = _isEagerMethodLoadingEnabled;
+
+        loadDepth.increment();
+
+        try {
+            typeDefinition = ClassFileReader.readClass(
+                eagerMethodLoading ? ClassFileReader.OPTIONS_DEFAULT | ClassFileReader.OPTION_PROCESS_CODE
+                                   : ClassFileReader.OPTIONS_DEFAULT,
+                this,
+                buffer
+            );
+        }
+        finally {
+            loadDepth.decrement();
+        }
 
-        cachedDefinition = _types.putIfAbsent(descriptor, typeDefinition);
         typeDefinition.setTypeLoader(_typeLoader);
 
-        if (cachedDefinition != null) {
-            return cachedDefinition;
+        if (!eagerMethodLoading) {
+            //
+            // We own the buffer, so the type can hold onto its bytes for deferred body loading.
+            //
+            typeDefinition.setClassFileData(buffer.array());
+        }
+
+        final TypeDefinition existingDefinition = _types.putIfAbsent(
+            descriptor,
+            typeDefinition,
+            _pinnedTypes.contains(descriptor)
+        );
+
+        if (existingDefinition != null) {
+            return existingDefinition;
         }
 
         return typeDefinition;
     }
 
+    private static TypeDefinition awaitType(final FutureTask<TypeDefinition> task) {
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                }
+                catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+
+                    if (cause instanceof java.lang.Error) {
+                        throw (java.lang.Error) cause;
+                    }
+
+                    throw ExceptionUtilities.asRuntimeException(cause);
+                }
+            }
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     // <editor-fold defaultstate="collapsed" desc="Primitive Lookup">
 
     private final static TypeDefinition[] PRIMITIVE_TYPES_BY_NAME = new TypeDefinition['Z' - 'B' + 1];
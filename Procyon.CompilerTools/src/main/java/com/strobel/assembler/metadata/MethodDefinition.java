@@ -46,7 +46,7 @@ public class MethodDefinition extends MethodReference implements IMemberDefiniti
     private final List<CustomAnnotation> _customAnnotationsView;
     private final List<SourceAttribute> _sourceAttributesView;
 
-    private SoftReference<MethodBody> _body;
+    private volatile SoftReference<MethodBody> _body;
     private String _name;
     private String _fullName;
     private String _erasedSignature;
@@ -655,7 +655,17 @@ public class MethodDefinition extends MethodReference implements IMemberDefiniti
 
     // <editor-fold defaultstate="collapsed" desc="Deferred Method Body Loading">
 
-    private MethodBody tryLoadBody() {
+    private synchronized MethodBody tryLoadBody() {
+        final SoftReference<MethodBody> cachedBody = _body;
+        final MethodBody loadedBody;
+
+        if (cachedBody != null && (loadedBody = cachedBody.get()) != null) {
+            //
+            // Another thread loaded the body while we were waiting.
+            //
+            return loadedBody;
+        }
+
         if (Flags.testAny(_flags, Flags.LOAD_BODY_FAILED)) {
             return null;
         }
@@ -672,18 +682,30 @@ public class MethodDefinition extends MethodReference implements IMemberDefiniti
         ConstantPool constantPool = _declaringType.getConstantPool();
 
         if (code == null) {
-            final ITypeLoader typeLoader = _declaringType.getTypeLoader();
+            final byte[] classFileData = _declaringType.getClassFileData();
 
-            if (typeLoader == null) {
-                _flags |= Flags.LOAD_BODY_FAILED;
-                return null;
+            if (classFileData != null) {
+                code = new Buffer(classFileData);
             }
+            else {
+                final ITypeLoader typeLoader = _declaringType.getTypeLoader();
 
-            code = new Buffer();
+                if (typeLoader == null) {
+                    _flags |= Flags.LOAD_BODY_FAILED;
+                    return null;
+                }
+
+                code = new Buffer();
+
+                if (!typeLoader.tryLoadType(_declaringType.getInternalName(), code)) {
+                    _flags |= Flags.LOAD_BODY_FAILED;
+                    return null;
+                }
 
-            if (!typeLoader.tryLoadType(_declaringType.getInternalName(), code)) {
-                _flags |= Flags.LOAD_BODY_FAILED;
-                return null;
+                //
+                // Keep the bytes around so sibling methods don't have to reload the class file.
+                //
+                _declaringType.setClassFileData(code.array());
             }
 
             final List<ExceptionTableEntry> exceptionTableEntries = codeAttribute.getExceptionTableEntries();
@@ -717,7 +739,7 @@ public class MethodDefinition extends MethodReference implements IMemberDefiniti
                 code.readUnsignedShort(); // minor version
                 code.readUnsignedShort(); // major version
 
-                constantPool = ConstantPool.read(code);
+                constantPool = ConstantPool.readLazy(code);
             }
 
             _sourceAttributes.set(codeAttributeIndex, newCode);
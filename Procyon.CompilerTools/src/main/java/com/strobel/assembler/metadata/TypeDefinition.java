@@ -24,8 +24,10 @@ import com.strobel.core.ArrayUtilities;
 import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
 
+import java.lang.ref.SoftReference;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class TypeDefinition extends TypeReference implements IMemberDefinition {
     private final GenericParameterCollection _genericParameters;
@@ -58,6 +60,8 @@ public class TypeDefinition extends TypeReference implements IMemberDefinition {
     private MethodReference _declaringMethod;
     private ConstantPool _constantPool;
     private ITypeLoader _typeLoader;
+    private volatile SoftReference<byte[]> _classFileData;
+    private volatile SoftReference<AtomicReferenceArray<Object>> _resolvedReferences;
 
     public TypeDefinition() {
         _genericParameters = new GenericParameterCollection(this);
@@ -89,6 +93,47 @@ public class TypeDefinition extends TypeReference implements IMemberDefinition {
         _typeLoader = typeLoader;
     }
 
+    /**
+     * Gets the raw bytes of the class file from which this type was read, if they are still
+     * available.  Method bodies which were not loaded eagerly are decoded directly from these
+     * bytes.  The array must not be modified.
+     */
+    final byte[] getClassFileData() {
+        final SoftReference<byte[]> classFileData = _classFileData;
+        return classFileData != null ? classFileData.get() : null;
+    }
+
+    /**
+     * Retains the raw bytes of the class file from which this type was read.  The array must
+     * be exclusively owned by this type; it is held softly and may be reclaimed under memory
+     * pressure, in which case the class file will be reloaded from the type loader.
+     */
+    final void setClassFileData(final byte[] classFileData) {
+        _classFileData = classFileData != null ? new SoftReference<>(classFileData) : null;
+    }
+
+    /**
+     * Gets the table of references resolved from this type's constant pool, indexed by
+     * constant pool token.  The table is shared by every scope reading from this type's
+     * class file, so method bodies decoded at different times reuse the same references.
+     * Like the class file data, the table is held softly and rebuilt on demand.
+     */
+    final AtomicReferenceArray<Object> getResolvedReferences(final int constantPoolSize) {
+        final SoftReference<AtomicReferenceArray<Object>> reference = _resolvedReferences;
+
+        AtomicReferenceArray<Object> resolvedReferences = reference != null ? reference.get() : null;
+
+        if (resolvedReferences == null || resolvedReferences.length() != constantPoolSize + 1) {
+            //
+            // Racing threads may each create a table; the loser's entries are simply resolved again.
+            //
+            resolvedReferences = new AtomicReferenceArray<>(constantPoolSize + 1);
+            _resolvedReferences = new SoftReference<>(resolvedReferences);
+        }
+
+        return resolvedReferences;
+    }
+
     public final CompilerTarget getCompilerTarget() {
         return CompilerTarget.lookup(getCompilerMajorVersion(), getCompilerMinorVersion());
     }
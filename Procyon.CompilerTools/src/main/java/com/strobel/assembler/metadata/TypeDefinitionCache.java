@@ -0,0 +1,225 @@
+/*
+ * TypeDefinitionCache.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is based on Mono.Cecil from Jb Evain, Copyright (c) Jb Evain;
+ * and ILSpy/ICSharpCode from SharpDevelop, Copyright (c) AlphaSierraPapa.
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrent cache of {@link TypeDefinition}s keyed by internal name, with an optional
+ * size bound.  When the bound is exceeded, the least recently used entries are evicted,
+ * preferring to keep pinned entries and entries which have been hit frequently.  Hit
+ * counts are halved on every trim so that types which were only hot for a while can
+ * eventually age out.
+ */
+final class TypeDefinitionCache {
+    private final static int FREQUENT_HIT_THRESHOLD = 32;
+    private final static int MINIMUM_TRIM_SLACK = 16;
+
+    private final ConcurrentHashMap<String, Entry> _entries = new ConcurrentHashMap<>();
+    private final AtomicLong _clock = new AtomicLong();
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private final AtomicLong _evictions = new AtomicLong();
+    private final Object _trimLock = new Object();
+
+    private volatile int _maximumSize;
+
+    int getMaximumSize() {
+        return _maximumSize;
+    }
+
+    void setMaximumSize(final int maximumSize) {
+        _maximumSize = Math.max(0, maximumSize);
+        trimIfNecessary();
+    }
+
+    int size() {
+        return _entries.size();
+    }
+
+    long getHitCount() {
+        return _hits.get();
+    }
+
+    long getMissCount() {
+        return _misses.get();
+    }
+
+    long getEvictionCount() {
+        return _evictions.get();
+    }
+
+    TypeDefinition get(final String descriptor) {
+        final Entry entry = _entries.get(descriptor);
+
+        if (entry == null) {
+            _misses.incrementAndGet();
+            return null;
+        }
+
+        _hits.incrementAndGet();
+        entry.touch(_clock.incrementAndGet());
+
+        return entry.type;
+    }
+
+    TypeDefinition peek(final String descriptor) {
+        final Entry entry = _entries.get(descriptor);
+        return entry != null ? entry.type : null;
+    }
+
+    TypeDefinition putIfAbsent(final String descriptor, final TypeDefinition type, final boolean pinned) {
+        final Entry entry = new Entry(type, pinned, _clock.incrementAndGet());
+        final Entry existing = _entries.putIfAbsent(descriptor, entry);
+
+        if (existing != null) {
+            if (pinned) {
+                existing.pinned = true;
+            }
+            return existing.type;
+        }
+
+        trimIfNecessary();
+        return null;
+    }
+
+    void pin(final String descriptor) {
+        final Entry entry = _entries.get(descriptor);
+
+        if (entry != null) {
+            entry.pinned = true;
+        }
+    }
+
+    private void trimIfNecessary() {
+        final int maximumSize = _maximumSize;
+
+        if (maximumSize <= 0 ||
+            _entries.size() <= maximumSize + Math.max(MINIMUM_TRIM_SLACK, maximumSize / 10)) {
+
+            return;
+        }
+
+        synchronized (_trimLock) {
+            if (_entries.size() > maximumSize) {
+                trim(maximumSize);
+            }
+        }
+    }
+
+    private void trim(final int maximumSize) {
+        final List<Candidate> cold = new ArrayList<>();
+        final List<Candidate> hot = new ArrayList<>();
+
+        for (final Map.Entry<String, Entry> e : _entries.entrySet()) {
+            final Entry entry = e.getValue();
+
+            if (entry.pinned) {
+                continue;
+            }
+
+            final Candidate candidate = new Candidate(e.getKey(), entry);
+
+            if (entry.hits >= FREQUENT_HIT_THRESHOLD) {
+                hot.add(candidate);
+            }
+            else {
+                cold.add(candidate);
+            }
+
+            entry.hits >>>= 1;
+        }
+
+        int excess = _entries.size() - maximumSize;
+
+        excess = evict(cold, excess);
+        evict(hot, excess);
+    }
+
+    private int evict(final List<Candidate> candidates, final int count) {
+        if (count <= 0 || candidates.isEmpty()) {
+            return count;
+        }
+
+        Collections.sort(candidates, LEAST_RECENTLY_USED);
+
+        int remaining = count;
+
+        for (int i = 0, n = candidates.size(); i < n && remaining > 0; i++) {
+            final Candidate candidate = candidates.get(i);
+
+            if (_entries.remove(candidate.descriptor, candidate.entry)) {
+                _evictions.incrementAndGet();
+                --remaining;
+            }
+        }
+
+        return remaining;
+    }
+
+    private final static Comparator<Candidate> LEAST_RECENTLY_USED = new Comparator<Candidate>() {
+        @Override
+        public int compare(final Candidate o1, final Candidate o2) {
+            return Long.compare(o1.lastAccess, o2.lastAccess);
+        }
+    };
+
+    private final static class Candidate {
+        final String descriptor;
+        final Entry entry;
+
+        //
+        // Snapshot the access time so it cannot change while we sort.
+        //
+        final long lastAccess;
+
+        Candidate(final String descriptor, final Entry entry) {
+            this.descriptor = descriptor;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+
+    private final static class Entry {
+        final TypeDefinition type;
+
+        volatile boolean pinned;
+        volatile long lastAccess;
+        volatile int hits;
+
+        Entry(final TypeDefinition type, final boolean pinned, final long lastAccess) {
+            this.type = type;
+            this.pinned = pinned;
+            this.lastAccess = lastAccess;
+        }
+
+        void touch(final long time) {
+            lastAccess = time;
+
+            //
+            // Racy increment; the hit count only needs to be approximate.
+            //
+            hits++;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * DecompilationPhase.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+/**
+ * The phases reported to an {@link IDecompilationListener}.
+ *
+ * @author Mike Strobel
+ */
+public enum DecompilationPhase {
+    /**
+     * Looking up and reading a type to be decompiled.  Types loaded on demand by later phases are
+     * charged to those phases.
+     */
+    LoadType,
+
+    /**
+     * Building the bytecode AST of a method.
+     */
+    BuildBytecodeAst,
+
+    /**
+     * Optimizing the bytecode AST of a method.  Each {@link com.strobel.decompiler.ast.AstOptimizationStep}
+     * is a step.
+     */
+    OptimizeBytecodeAst,
+
+    /**
+     * Building the Java AST of a type, which includes converting each method body.  The phases for
+     * each method body run nested within this one.
+     */
+    BuildJavaAst,
+
+    /**
+     * Transforming the Java AST of a type.  Each transform is a step, named after its class, and
+     * transforms which share a traversal form a single step.  Transforms which track the current
+     * method also report each method body they visit as a nested phase of this kind, so that time
+     * can be charged to the method.
+     */
+    TransformJavaAst,
+
+    /**
+     * Writing out the source of a type.
+     */
+    WriteOutput
+}
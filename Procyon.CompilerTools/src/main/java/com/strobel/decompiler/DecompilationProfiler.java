@@ -0,0 +1,666 @@
+/*
+ * DecompilationProfiler.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.core.VerifyArgument;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link IDecompilationListener} which measures the time spent and the memory allocated in each
+ * phase and step, and totals them by step, by type, and by method.  Time is exclusive: while a
+ * nested phase runs, the enclosing one is not charged.  Allocation is measured per thread, and
+ * only where the JVM supports it.
+ * <p/>
+ * Steps are totalled over the whole run, while types and methods are only broken down by phase,
+ * which keeps the cost per method small enough to profile large jars.  Types and methods are
+ * recorded by name, so the profiler never keeps their metadata alive.
+ *
+ * @author Mike Strobel
+ */
+public final class DecompilationProfiler implements IDecompilationListener {
+    private final static DecompilationPhase[] PHASES = DecompilationPhase.values();
+
+    private final com.sun.management.ThreadMXBean _threads;
+
+    private final ThreadLocal<ArrayDeque<Frame>> _frames = new ThreadLocal<ArrayDeque<Frame>>() {
+        @Override
+        protected ArrayDeque<Frame> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    private final Map<DecompilationPhase, Map<String, StepTotals>> _steps = new EnumMap<>(DecompilationPhase.class);
+    private final Map<String, PhaseTotals> _types = new HashMap<>();
+    private final Map<String, MethodTotals> _methods = new HashMap<>();
+
+    public DecompilationProfiler() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationTracker = null;
+
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            try {
+                final com.sun.management.ThreadMXBean candidate = (com.sun.management.ThreadMXBean) threads;
+
+                if (candidate.isThreadAllocatedMemorySupported()) {
+                    candidate.setThreadAllocatedMemoryEnabled(true);
+                    allocationTracker = candidate;
+                }
+            }
+            catch (final UnsupportedOperationException | SecurityException ignored) {
+            }
+        }
+
+        _threads = allocationTracker;
+
+        for (final DecompilationPhase phase : PHASES) {
+            _steps.put(phase, new LinkedHashMap<String, StepTotals>());
+        }
+    }
+
+    /**
+     * Returns whether allocated memory is being measured.  If not, it is always reported as zero.
+     */
+    public boolean isAllocationTracked() {
+        return _threads != null;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="IDecompilationListener Implementation">
+
+    @Override
+    public void phaseStarted(final DecompilerContext context, final DecompilationPhase phase) {
+        final long time = System.nanoTime();
+        final long allocation = allocatedBytes();
+        final ArrayDeque<Frame> frames = _frames.get();
+        final Frame parent = frames.peek();
+        final Frame frame = new Frame(phase, time, allocation);
+
+        if (parent != null) {
+            charge(context, parent, time, allocation);
+
+            //
+            // A phase nested within one of the same kind covers part of the enclosing step, e.g.,
+            // one method body visited by a transform.
+            //
+            if (parent.phase == phase) {
+                frame.step = parent.step;
+                frame.isCounted = true;
+            }
+        }
+
+        frames.push(frame);
+    }
+
+    @Override
+    public void stepStarted(final DecompilerContext context, final DecompilationPhase phase, final String step) {
+        final long time = System.nanoTime();
+        final long allocation = allocatedBytes();
+        final Frame frame = _frames.get().peek();
+
+        if (frame == null || frame.phase != phase) {
+            return;
+        }
+
+        charge(context, frame, time, allocation);
+
+        frame.step = step;
+        frame.isCounted = false;
+    }
+
+    @Override
+    public void phaseEnded(final DecompilerContext context, final DecompilationPhase phase) {
+        final long time = System.nanoTime();
+        final long allocation = allocatedBytes();
+        final ArrayDeque<Frame> frames = _frames.get();
+
+        Frame frame;
+
+        do {
+            frame = frames.poll();
+
+            if (frame == null) {
+                return;
+            }
+
+            charge(context, frame, time, allocation);
+        }
+        while (frame.phase != phase);
+
+        final Frame parent = frames.peek();
+
+        if (parent != null) {
+            parent.startTime = time;
+            parent.startAllocation = allocation;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Recording">
+
+    private long allocatedBytes() {
+        final com.sun.management.ThreadMXBean threads = _threads;
+        return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+    }
+
+    private void charge(final DecompilerContext context, final Frame frame, final long time, final long allocation) {
+        final long elapsed = time - frame.startTime;
+        final long allocated = Math.max(0L, allocation - frame.startAllocation);
+        final boolean isNewRun = !frame.isCounted;
+
+        frame.startTime = time;
+        frame.startAllocation = allocation;
+        frame.isCounted = true;
+
+        frame.attribute(context.getCurrentType(), context.getCurrentMethod());
+
+        final String step = frame.step != null ? frame.step : "";
+        final int phase = frame.phase.ordinal();
+
+        synchronized (this) {
+            final Map<String, StepTotals> steps = _steps.get(frame.phase);
+
+            StepTotals stepTotals = steps.get(step);
+
+            if (stepTotals == null) {
+                steps.put(step, stepTotals = new StepTotals(frame.phase, step));
+            }
+
+            if (isNewRun) {
+                ++stepTotals.count;
+            }
+
+            stepTotals.time += elapsed;
+            stepTotals.allocation += allocated;
+
+            if (frame.typeName != null) {
+                PhaseTotals typeTotals = _types.get(frame.typeName);
+
+                if (typeTotals == null) {
+                    _types.put(frame.typeName, typeTotals = new PhaseTotals(frame.typeName));
+                }
+
+                typeTotals.add(phase, elapsed, allocated);
+
+                if (frame.methodKey != null) {
+                    MethodTotals methodTotals = _methods.get(frame.methodKey);
+
+                    if (methodTotals == null) {
+                        _methods.put(frame.methodKey, methodTotals = new MethodTotals(frame.typeName, frame.methodName));
+                    }
+
+                    methodTotals.add(phase, elapsed, allocated);
+                }
+            }
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Reports">
+
+    /**
+     * Writes a JSON report of the totals for every step and type, and for the {@code maxMethods}
+     * slowest methods.  Times are in nanoseconds.
+     */
+    public void writeJson(final Writer writer, final int maxMethods) throws IOException {
+        VerifyArgument.notNull(writer, "writer");
+
+        final List<StepTotals> steps;
+        final List<PhaseTotals> types;
+        final List<MethodTotals> methods;
+
+        synchronized (this) {
+            steps = snapshotSteps();
+            types = snapshotTypes();
+            methods = snapshotSlowestMethods(maxMethods);
+        }
+
+        long totalTime = 0L;
+        long totalAllocation = 0L;
+
+        for (final StepTotals step : steps) {
+            totalTime += step.time;
+            totalAllocation += step.allocation;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append("{\n");
+        sb.append("  \"allocationTracked\": ").append(isAllocationTracked()).append(",\n");
+        sb.append("  \"timeNanos\": ").append(totalTime).append(",\n");
+        sb.append("  \"allocatedBytes\": ").append(totalAllocation).append(",\n");
+        sb.append("  \"steps\": [");
+
+        for (int i = 0; i < steps.size(); i++) {
+            final StepTotals step = steps.get(i);
+
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    { \"phase\": ");
+            appendJsonString(sb, step.phase.name());
+            sb.append(", \"step\": ");
+            appendJsonString(sb, step.step);
+            sb.append(", \"count\": ").append(step.count);
+            sb.append(", \"timeNanos\": ").append(step.time);
+            sb.append(", \"allocatedBytes\": ").append(step.allocation);
+            sb.append(" }");
+        }
+
+        sb.append("\n  ],\n");
+        sb.append("  \"types\": [");
+
+        for (int i = 0; i < types.size(); i++) {
+            final PhaseTotals type = types.get(i);
+
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    { \"type\": ");
+            appendJsonString(sb, type.typeName);
+            appendJsonTotals(sb, type);
+            sb.append(" }");
+        }
+
+        sb.append("\n  ],\n");
+        sb.append("  \"slowestMethods\": [");
+
+        for (int i = 0; i < methods.size(); i++) {
+            final MethodTotals method = methods.get(i);
+
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    { \"type\": ");
+            appendJsonString(sb, method.typeName);
+            sb.append(", \"method\": ");
+            appendJsonString(sb, method.methodName);
+            appendJsonTotals(sb, method);
+            sb.append(" }");
+        }
+
+        sb.append("\n  ]\n");
+        sb.append("}\n");
+
+        writer.write(sb.toString());
+    }
+
+    /**
+     * Writes a CSV report of the totals for every step and type, and for the {@code maxMethods}
+     * slowest methods.  Types and methods get a row for each phase they spent time in.  Times are in
+     * nanoseconds.
+     */
+    public void writeCsv(final Writer writer, final int maxMethods) throws IOException {
+        VerifyArgument.notNull(writer, "writer");
+
+        final List<StepTotals> steps;
+        final List<PhaseTotals> types;
+        final List<MethodTotals> methods;
+
+        synchronized (this) {
+            steps = snapshotSteps();
+            types = snapshotTypes();
+            methods = snapshotSlowestMethods(maxMethods);
+        }
+
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append("kind,type,method,phase,step,count,time_ns,allocated_bytes\n");
+
+        for (final StepTotals step : steps) {
+            sb.append("step,,,").append(step.phase.name()).append(',');
+            appendCsvField(sb, step.step);
+            sb.append(',').append(step.count);
+            sb.append(',').append(step.time);
+            sb.append(',').append(step.allocation);
+            sb.append('\n');
+        }
+
+        for (final PhaseTotals type : types) {
+            appendCsvTotals(sb, "type", type, null);
+        }
+
+        for (final MethodTotals method : methods) {
+            appendCsvTotals(sb, "method", method, method.methodName);
+        }
+
+        writer.write(sb.toString());
+    }
+
+    /**
+     * Writes a plain text list of the {@code count} slowest methods, with their time and allocation.
+     */
+    public void writeSlowestMethods(final Writer writer, final int count) throws IOException {
+        VerifyArgument.notNull(writer, "writer");
+
+        final List<MethodTotals> methods;
+
+        synchronized (this) {
+            methods = snapshotSlowestMethods(count);
+        }
+
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("%5s %12s %12s  %s%n", "#", "Time (ms)", "Alloc (KB)", "Method"));
+
+        for (int i = 0; i < methods.size(); i++) {
+            final MethodTotals method = methods.get(i);
+
+            sb.append(
+                String.format(
+                    "%5d %12.1f %12d  %s.%s%n",
+                    i + 1,
+                    method.totalTime() / 1e6,
+                    method.totalAllocation() / 1024L,
+                    method.typeName,
+                    method.methodName
+                )
+            );
+        }
+
+        writer.write(sb.toString());
+    }
+
+    private List<StepTotals> snapshotSteps() {
+        final List<StepTotals> steps = new ArrayList<>();
+
+        for (final Map<String, StepTotals> phaseSteps : _steps.values()) {
+            for (final StepTotals step : phaseSteps.values()) {
+                steps.add(step.copy());
+            }
+        }
+
+        return steps;
+    }
+
+    private List<PhaseTotals> snapshotTypes() {
+        final List<PhaseTotals> types = new ArrayList<>(_types.size());
+
+        for (final PhaseTotals type : _types.values()) {
+            types.add(type.copy());
+        }
+
+        Collections.sort(types, SLOWEST_FIRST);
+
+        return types;
+    }
+
+    private List<MethodTotals> snapshotSlowestMethods(final int maxMethods) {
+        final List<MethodTotals> methods = new ArrayList<>(_methods.values());
+
+        Collections.sort(methods, SLOWEST_FIRST);
+
+        final List<MethodTotals> slowest = new ArrayList<>(Math.min(Math.max(maxMethods, 0), methods.size()));
+
+        for (int i = 0; i < methods.size() && i < maxMethods; i++) {
+            slowest.add(methods.get(i).copy());
+        }
+
+        return slowest;
+    }
+
+    private static void appendJsonTotals(final StringBuilder sb, final PhaseTotals totals) {
+        sb.append(", \"timeNanos\": ").append(totals.totalTime());
+        sb.append(", \"allocatedBytes\": ").append(totals.totalAllocation());
+        sb.append(", \"phases\": {");
+
+        boolean first = true;
+
+        for (final DecompilationPhase phase : PHASES) {
+            final int index = phase.ordinal();
+
+            if (totals.times[index] == 0L && totals.allocations[index] == 0L) {
+                continue;
+            }
+
+            sb.append(first ? " " : ", ");
+            appendJsonString(sb, phase.name());
+            sb.append(": { \"timeNanos\": ").append(totals.times[index]);
+            sb.append(", \"allocatedBytes\": ").append(totals.allocations[index]);
+            sb.append(" }");
+
+            first = false;
+        }
+
+        sb.append(first ? "}" : " }");
+    }
+
+    private static void appendCsvTotals(final StringBuilder sb, final String kind, final PhaseTotals totals, final String methodName) {
+        for (final DecompilationPhase phase : PHASES) {
+            final int index = phase.ordinal();
+
+            if (totals.times[index] == 0L && totals.allocations[index] == 0L) {
+                continue;
+            }
+
+            sb.append(kind).append(',');
+            appendCsvField(sb, totals.typeName);
+            sb.append(',');
+
+            if (methodName != null) {
+                appendCsvField(sb, methodName);
+            }
+
+            sb.append(',').append(phase.name());
+            sb.append(",,");
+            sb.append(',').append(totals.times[index]);
+            sb.append(',').append(totals.allocations[index]);
+            sb.append('\n');
+        }
+    }
+
+    private static void appendJsonString(final StringBuilder sb, final String s) {
+        sb.append('"');
+
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+
+        sb.append('"');
+    }
+
+    private static void appendCsvField(final StringBuilder sb, final String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            sb.append(s);
+            return;
+        }
+
+        sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+    }
+
+    private final static Comparator<PhaseTotals> SLOWEST_FIRST = new Comparator<PhaseTotals>() {
+        @Override
+        public int compare(final PhaseTotals o1, final PhaseTotals o2) {
+            return Long.compare(o2.totalTime(), o1.totalTime());
+        }
+    };
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Frame Class">
+
+    /**
+     * A running phase on one thread.  The start of the current step is reset whenever its time is
+     * charged, including when a nested phase starts or ends.
+     */
+    private final static class Frame {
+        final DecompilationPhase phase;
+
+        String step;
+        boolean isCounted;
+        long startTime;
+        long startAllocation;
+
+        TypeDefinition type;
+        MethodDefinition method;
+        String typeName;
+        String methodName;
+        String methodKey;
+
+        Frame(final DecompilationPhase phase, final long startTime, final long startAllocation) {
+            this.phase = phase;
+            this.startTime = startTime;
+            this.startAllocation = startAllocation;
+        }
+
+        void attribute(final TypeDefinition type, final MethodDefinition method) {
+            if (type == this.type && method == this.method && (type != null || typeName == null)) {
+                return;
+            }
+
+            this.type = type;
+            this.method = method;
+
+            final TypeDefinition declaringType = method != null ? method.getDeclaringType() : type;
+
+            typeName = declaringType != null ? declaringType.getInternalName() : null;
+
+            if (method != null && typeName != null) {
+                methodName = method.getName() + method.getErasedSignature();
+                methodKey = typeName + '.' + methodName;
+            }
+            else {
+                methodName = null;
+                methodKey = null;
+            }
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Totals Classes">
+
+    private final static class StepTotals {
+        final DecompilationPhase phase;
+        final String step;
+
+        int count;
+        long time;
+        long allocation;
+
+        StepTotals(final DecompilationPhase phase, final String step) {
+            this.phase = phase;
+            this.step = step;
+        }
+
+        StepTotals copy() {
+            final StepTotals copy = new StepTotals(phase, step);
+
+            copy.count = count;
+            copy.time = time;
+            copy.allocation = allocation;
+
+            return copy;
+        }
+    }
+
+    private static class PhaseTotals {
+        final String typeName;
+        final long[] times = new long[PHASES.length];
+        final long[] allocations = new long[PHASES.length];
+
+        PhaseTotals(final String typeName) {
+            this.typeName = typeName;
+        }
+
+        final void add(final int phase, final long time, final long allocation) {
+            times[phase] += time;
+            allocations[phase] += allocation;
+        }
+
+        final long totalTime() {
+            long total = 0L;
+
+            for (final long time : times) {
+                total += time;
+            }
+
+            return total;
+        }
+
+        final long totalAllocation() {
+            long total = 0L;
+
+            for (final long allocation : allocations) {
+                total += allocation;
+            }
+
+            return total;
+        }
+
+        PhaseTotals copy() {
+            final PhaseTotals copy = new PhaseTotals(typeName);
+            copyTo(copy);
+            return copy;
+        }
+
+        final void copyTo(final PhaseTotals copy) {
+            System.arraycopy(times, 0, copy.times, 0, times.length);
+            System.arraycopy(allocations, 0, copy.allocations, 0, allocations.length);
+        }
+    }
+
+    private final static class MethodTotals extends PhaseTotals {
+        final String methodName;
+
+        MethodTotals(final String typeName, final String methodName) {
+            super(typeName);
+            this.methodName = methodName;
+        }
+
+        @Override
+        MethodTotals copy() {
+            final MethodTotals copy = new MethodTotals(typeName, methodName);
+            copyTo(copy);
+            return copy;
+        }
+    }
+
+    // </editor-fold>
+}
@@ -34,6 +34,8 @@ public final class DecompilerContext extends UserDataStoreBase {
     private BooleanBox _isCanceled;
     private TypeDefinition _currentType;
     private MethodDefinition _currentMethod;
+    private MethodBudget _methodBudget = MethodBudget.UNLIMITED;
+    private boolean _isMethodTimeLimitExceeded;
 
     public DecompilerContext() {
     }
@@ -74,6 +76,53 @@ public final class DecompilerContext extends UserDataStoreBase {
         _currentMethod = currentMethod;
     }
 
+    /**
+     * Returns whether any method was replaced with a stub because it ran out of time.  Whether that
+     * happens depends on how busy the machine was, so the output should not be reused later.
+     */
+    public boolean isMethodTimeLimitExceeded() {
+        return _isMethodTimeLimitExceeded;
+    }
+
+    public void setMethodTimeLimitExceeded(final boolean methodTimeLimitExceeded) {
+        _isMethodTimeLimitExceeded = methodTimeLimitExceeded;
+    }
+
+    /**
+     * Gets the listener from this context's settings, or {@code null} if there is none.
+     */
+    public IDecompilationListener getDecompilationListener() {
+        return _settings != null ? _settings.getDecompilationListener() : null;
+    }
+
+    /**
+     * Creates a context with the same settings, cancellation flag, current type, and current
+     * method as this one, but with its own user data and collections, for use on another thread.
+     */
+    public DecompilerContext fork() {
+        final DecompilerContext fork = new DecompilerContext(_settings);
+
+        fork._isCanceled = _isCanceled;
+        fork._currentType = _currentType;
+        fork._currentMethod = _currentMethod;
+        fork._methodBudget = _methodBudget;
+        fork._reservedVariableNames.addAll(_reservedVariableNames);
+        fork._forcedVisibleMembers.addAll(_forcedVisibleMembers);
+
+        return fork;
+    }
+
+    /**
+     * Gets the budget for decompiling the current method, which is never {@code null}.
+     */
+    public MethodBudget getMethodBudget() {
+        return _methodBudget;
+    }
+
+    public void setMethodBudget(final MethodBudget methodBudget) {
+        _methodBudget = methodBudget != null ? methodBudget : MethodBudget.UNLIMITED;
+    }
+
     public List<String> getReservedVariableNames() {
         return _reservedVariableNames;
     }
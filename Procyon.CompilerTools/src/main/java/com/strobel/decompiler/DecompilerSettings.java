@@ -45,6 +45,11 @@ public class DecompilerSettings {
     private String _outputDirectory;
     private boolean _showDebugLineNumbers;
     private boolean _simplifyMemberReferences;
+    private int _methodBodyThreadCount = 1;
+    private int _methodTimeLimit;
+    private int _methodOptimizationRoundLimit;
+    private int _methodNodeLimit;
+    private IDecompilationListener _decompilationListener;
 
     public DecompilerSettings() {
     }
@@ -213,6 +218,75 @@ public class DecompilerSettings {
         _disableForEachTransforms = disableForEachTransforms;
     }
 
+    /**
+     * Gets the number of threads used to decompile the method bodies of a single type.  Each
+     * method's bytecode is analyzed and optimized on its own thread, but the results are
+     * assembled in declaration order, so the output does not depend on this setting.
+     */
+    public final int getMethodBodyThreadCount() {
+        return _methodBodyThreadCount;
+    }
+
+    public final void setMethodBodyThreadCount(final int methodBodyThreadCount) {
+        _methodBodyThreadCount = methodBodyThreadCount;
+    }
+
+    /**
+     * Gets the time, in milliseconds, which may be spent decompiling any one method before it is
+     * replaced with a stub.  Zero or less means no limit.
+     *
+     * @see MethodBudget
+     */
+    public final int getMethodTimeLimit() {
+        return _methodTimeLimit;
+    }
+
+    public final void setMethodTimeLimit(final int methodTimeLimit) {
+        _methodTimeLimit = methodTimeLimit;
+    }
+
+    /**
+     * Gets the number of rounds any one optimization loop may run over a method before the method
+     * is replaced with a stub.  Zero or less means no limit.
+     *
+     * @see MethodBudget
+     */
+    public final int getMethodOptimizationRoundLimit() {
+        return _methodOptimizationRoundLimit;
+    }
+
+    public final void setMethodOptimizationRoundLimit(final int methodOptimizationRoundLimit) {
+        _methodOptimizationRoundLimit = methodOptimizationRoundLimit;
+    }
+
+    /**
+     * Gets the number of bytecode AST nodes a method may have before it is replaced with a stub
+     * rather than decompiled.  Zero or less means no limit.
+     *
+     * @see MethodBudget
+     */
+    public final int getMethodNodeLimit() {
+        return _methodNodeLimit;
+    }
+
+    public final void setMethodNodeLimit(final int methodNodeLimit) {
+        _methodNodeLimit = methodNodeLimit;
+    }
+
+    /**
+     * Gets the listener notified as each type and method moves through the decompiler, or
+     * {@code null} if there is none.
+     *
+     * @see DecompilationProfiler
+     */
+    public final IDecompilationListener getDecompilationListener() {
+        return _decompilationListener;
+    }
+
+    public final void setDecompilationListener(final IDecompilationListener decompilationListener) {
+        _decompilationListener = decompilationListener;
+    }
+
     public boolean getForceFullyQualifiedReferences() {
         return _forceFullyQualifiedReferences;
     }
@@ -0,0 +1,35 @@
+/*
+ * IDecompilationListener.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+/**
+ * Receives notifications as a decompilation moves through its {@linkplain DecompilationPhase phases},
+ * e.g., to measure where the time goes.  Set one with {@link DecompilerSettings#setDecompilationListener}.
+ * <p/>
+ * Phases on one thread are strictly nested, and each {@link #phaseStarted} is matched by a
+ * {@link #phaseEnded}, even if the phase fails.  Some phases are divided into named steps; a step
+ * lasts until the next step of the same phase starts, or until the phase ends.  The context's
+ * current type and method identify what is being worked on.
+ * <p/>
+ * Methods may be decompiled on several threads at once, so listeners must be thread-safe.
+ *
+ * @author Mike Strobel
+ */
+public interface IDecompilationListener {
+    void phaseStarted(final DecompilerContext context, final DecompilationPhase phase);
+
+    void stepStarted(final DecompilerContext context, final DecompilationPhase phase, final String step);
+
+    void phaseEnded(final DecompilerContext context, final DecompilationPhase phase);
+}
@@ -0,0 +1,190 @@
+/*
+ * MethodBudget.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+import com.strobel.core.VerifyArgument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the work spent decompiling a single method: the wall-clock time spent on it, the number of
+ * rounds any one of its fixed-point optimization loops may run, and the number of nodes in its
+ * bytecode AST.  The stages which
+ * can run away on pathological methods check the budget as they go and throw a
+ * {@link MethodBudgetExceededException} once it is spent, so that the method can be replaced with a
+ * stub and the rest of the type decompiled as usual.
+ * <p/>
+ * Time only counts while the budget is {@linkplain #resume() resumed}, so a method is not charged
+ * for time spent on other methods between stages.  A budget belongs to one thread at a time.
+ *
+ * @author Mike Strobel
+ */
+public final class MethodBudget {
+    /**
+     * A budget which is never exceeded.  It holds no state, so it may be shared freely.
+     */
+    public final static MethodBudget UNLIMITED = new MethodBudget(0L, 0, 0);
+
+    private final long _timeLimit;
+    private final int _roundLimit;
+    private final int _nodeLimit;
+    private final boolean _isUnlimited;
+
+    private long _elapsedTime;
+    private long _resumeTime;
+    private int _suspendCount = 1;
+    private int _rounds;
+    private MethodBudgetExceededException _exceeded;
+
+    private MethodBudget(final long timeLimit, final int roundLimit, final int nodeLimit) {
+        _timeLimit = timeLimit;
+        _roundLimit = roundLimit;
+        _nodeLimit = nodeLimit;
+        _isUnlimited = timeLimit <= 0L && roundLimit <= 0 && nodeLimit <= 0;
+    }
+
+    /**
+     * Creates a new, suspended budget with the limits specified by {@code settings}, or returns
+     * {@link #UNLIMITED} if no limits are set.
+     */
+    public static MethodBudget create(final DecompilerSettings settings) {
+        VerifyArgument.notNull(settings, "settings");
+
+        final int timeLimit = settings.getMethodTimeLimit();
+        final int roundLimit = settings.getMethodOptimizationRoundLimit();
+        final int nodeLimit = settings.getMethodNodeLimit();
+
+        if (timeLimit <= 0 && roundLimit <= 0 && nodeLimit <= 0) {
+            return UNLIMITED;
+        }
+
+        return new MethodBudget(
+            timeLimit > 0 ? TimeUnit.MILLISECONDS.toNanos(timeLimit) : 0L,
+            roundLimit,
+            nodeLimit
+        );
+    }
+
+    public final boolean isUnlimited() {
+        return _isUnlimited;
+    }
+
+    /**
+     * Returns whether this budget has been found to be exceeded by any earlier check.
+     */
+    public final boolean isExceeded() {
+        return _exceeded != null;
+    }
+
+    /**
+     * Starts charging time to this budget.  Calls may be nested, provided each is matched by a
+     * call to {@link #suspend()}.
+     */
+    public final void resume() {
+        if (_isUnlimited) {
+            return;
+        }
+
+        if (--_suspendCount == 0) {
+            _resumeTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stops charging time to this budget.
+     */
+    public final void suspend() {
+        if (_isUnlimited) {
+            return;
+        }
+
+        if (_suspendCount++ == 0) {
+            _elapsedTime += System.nanoTime() - _resumeTime;
+        }
+    }
+
+    private long elapsedTime() {
+        return _suspendCount == 0 ? _elapsedTime + (System.nanoTime() - _resumeTime)
+                                  : _elapsedTime;
+    }
+
+    /**
+     * Throws a {@link MethodBudgetExceededException} if this budget has run out of time, or was
+     * exceeded by an earlier check.
+     */
+    public final void checkTime() {
+        if (_isUnlimited) {
+            return;
+        }
+
+        if (_exceeded != null) {
+            throw _exceeded;
+        }
+
+        if (_timeLimit > 0L && elapsedTime() > _timeLimit) {
+            throw exceeded(
+                "Decompilation took longer than " + TimeUnit.NANOSECONDS.toMillis(_timeLimit) + " ms.",
+                true
+            );
+        }
+    }
+
+    /**
+     * Starts counting the rounds of a new fixed-point loop.  The round limit applies to each loop
+     * separately, so that it catches a loop which never settles rather than a method which simply
+     * has many blocks to optimize.
+     */
+    public final void beginRounds() {
+        _rounds = 0;
+    }
+
+    /**
+     * Counts one round of the current fixed-point loop, throwing a {@link MethodBudgetExceededException}
+     * if that exceeds the round limit or the time limit.
+     */
+    public final void countRound() {
+        if (_isUnlimited) {
+            return;
+        }
+
+        if (_roundLimit > 0 && ++_rounds > _roundLimit) {
+            throw exceeded("Optimization did not finish within " + _roundLimit + " rounds.", false);
+        }
+
+        checkTime();
+    }
+
+    /**
+     * Throws a {@link MethodBudgetExceededException} if a method's bytecode AST has more than the
+     * allowed number of nodes.
+     */
+    public final void checkNodeCount(final int nodeCount) {
+        if (_isUnlimited) {
+            return;
+        }
+
+        if (_nodeLimit > 0 && nodeCount > _nodeLimit) {
+            throw exceeded("The method has " + nodeCount + " nodes, more than the limit of " + _nodeLimit + ".", false);
+        }
+
+        checkTime();
+    }
+
+    private MethodBudgetExceededException exceeded(final String message, final boolean isTimeLimitExceeded) {
+        if (_exceeded == null) {
+            _exceeded = new MethodBudgetExceededException(message, isTimeLimitExceeded);
+        }
+        return _exceeded;
+    }
+}
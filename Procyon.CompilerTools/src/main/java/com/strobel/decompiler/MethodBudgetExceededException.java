@@ -0,0 +1,42 @@
+/*
+ * MethodBudgetExceededException.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Thrown when decompiling a method exceeds its {@link MethodBudget}.
+ *
+ * @author Mike Strobel
+ */
+public class MethodBudgetExceededException extends CancellationException {
+    private final boolean _isTimeLimitExceeded;
+
+    public MethodBudgetExceededException(final String message) {
+        this(message, false);
+    }
+
+    public MethodBudgetExceededException(final String message, final boolean isTimeLimitExceeded) {
+        super(message);
+        _isTimeLimitExceeded = isTimeLimitExceeded;
+    }
+
+    /**
+     * Returns whether the method ran out of time, rather than exceeding a limit which does not
+     * depend on how quickly it was decompiled.
+     */
+    public final boolean isTimeLimitExceeded() {
+        return _isTimeLimitExceeded;
+    }
+}
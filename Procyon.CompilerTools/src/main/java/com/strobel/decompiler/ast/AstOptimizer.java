@@ -18,8 +18,10 @@ package com.strobel.decompiler.ast;
 
 import com.strobel.assembler.metadata.*;
 import com.strobel.core.*;
+import com.strobel.decompiler.DecompilationPhase;
 import com.strobel.decompiler.DecompilerContext;
 import com.strobel.decompiler.DecompilerSettings;
+import com.strobel.decompiler.IDecompilationListener;
 import com.strobel.functions.Function;
 import com.strobel.functions.Supplier;
 import com.strobel.functions.Suppliers;
@@ -46,9 +48,27 @@ public final class AstOptimizer {
         VerifyArgument.notNull(context, "context");
         VerifyArgument.notNull(method, "method");
 
+        final IDecompilationListener listener = context.getDecompilationListener();
+
+        if (listener == null) {
+            optimizeCore(context, method, abortBeforeStep);
+            return;
+        }
+
+        listener.phaseStarted(context, DecompilationPhase.OptimizeBytecodeAst);
+
+        try {
+            optimizeCore(context, method, abortBeforeStep);
+        }
+        finally {
+            listener.phaseEnded(context, DecompilationPhase.OptimizeBytecodeAst);
+        }
+    }
+
+    private static void optimizeCore(final DecompilerContext context, final Block method, final AstOptimizationStep abortBeforeStep) {
         LOG.fine("Beginning bytecode AST optimization...");
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RemoveRedundantCode)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RemoveRedundantCode)) {
             return;
         }
 
@@ -56,7 +76,7 @@ public final class AstOptimizer {
 
         removeRedundantCode(method, context.getSettings());
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.ReduceBranchInstructionSet)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.ReduceBranchInstructionSet)) {
             return;
         }
 
@@ -66,29 +86,32 @@ public final class AstOptimizer {
             reduceBranchInstructionSet(block);
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.InlineVariables)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.InlineVariables)) {
             return;
         }
 
         final Inlining inliningPhase1 = new Inlining(context, method);
 
+        context.getMethodBudget().beginRounds();
+
         while (inliningPhase1.inlineAllVariables()) {
+            context.getMethodBudget().countRound();
             inliningPhase1.analyzeMethod();
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.CopyPropagation)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.CopyPropagation)) {
             return;
         }
 
         inliningPhase1.copyPropagation();
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RewriteFinallyBlocks)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RewriteFinallyBlocks)) {
             return;
         }
 
         rewriteFinallyBlocks(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.SplitToMovableBlocks)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.SplitToMovableBlocks)) {
             return;
         }
 
@@ -96,13 +119,13 @@ public final class AstOptimizer {
             optimizer.splitToMovableBlocks(block);
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RemoveUnreachableBlocks)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RemoveUnreachableBlocks)) {
             return;
         }
 
         removeUnreachableBlocks(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.TypeInference)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.TypeInference)) {
             return;
         }
 
@@ -112,6 +135,8 @@ public final class AstOptimizer {
 
         LOG.fine("Performing block-level bytecode AST optimizations (enable FINER for more detail)...");
 
+        final BlockChangeTracker tracker = new BlockChangeTracker(context, method);
+
         int blockNumber = 0;
 
         for (final Block block : method.getSelfAndChildrenRecursive(Block.class)) {
@@ -119,6 +144,8 @@ public final class AstOptimizer {
             int blockRound = 0;
 
             ++blockNumber;
+            tracker.beginBlock();
+            context.getMethodBudget().beginRounds();
 
             do {
                 if (LOG.isLoggable(Level.FINER)) {
@@ -126,113 +153,115 @@ public final class AstOptimizer {
                 }
 
                 modified = false;
+                context.getMethodBudget().countRound();
+                tracker.beginRound();
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RemoveInnerClassInitSecurityChecks)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RemoveInnerClassInitSecurityChecks)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new RemoveInnerClassInitSecurityChecksOptimization(context, method));
+                modified |= tracker.run(block, new RemoveInnerClassInitSecurityChecksOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.PreProcessShortCircuitAssignments)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.PreProcessShortCircuitAssignments)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new PreProcessShortCircuitAssignmentsOptimization(context, method));
+                modified |= tracker.run(block, new PreProcessShortCircuitAssignmentsOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.SimplifyShortCircuit)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.SimplifyShortCircuit)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new SimplifyShortCircuitOptimization(context, method));
+                modified |= tracker.run(block, new SimplifyShortCircuitOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.JoinBranchConditions)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.JoinBranchConditions)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new JoinBranchConditionsOptimization(context, method));
+                modified |= tracker.run(block, new JoinBranchConditionsOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.SimplifyTernaryOperator)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.SimplifyTernaryOperator)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new SimplifyTernaryOperatorOptimization(context, method));
-                modified |= runOptimization(block, new SimplifyTernaryOperatorRoundTwoOptimization(context, method));
+                modified |= tracker.run(block, new SimplifyTernaryOperatorOptimization(context, method));
+                modified |= tracker.run(block, new SimplifyTernaryOperatorRoundTwoOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.JoinBasicBlocks)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.JoinBasicBlocks)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new JoinBasicBlocksOptimization(context, method));
+                modified |= tracker.run(block, new JoinBasicBlocksOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.SimplifyLogicalNot)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.SimplifyLogicalNot)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new SimplifyLogicalNotOptimization(context, method));
+                modified |= tracker.run(block, new SimplifyLogicalNotOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.TransformObjectInitializers)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.TransformObjectInitializers)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new TransformObjectInitializersOptimization(context, method));
+                modified |= tracker.run(block, new TransformObjectInitializersOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.TransformArrayInitializers)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.TransformArrayInitializers)) {
                     done = true;
                     break;
                 }
 
-                modified |= new Inlining(context, method, true).inlineAllInBlock(block);
-                modified |= runOptimization(block, new TransformArrayInitializersOptimization(context, method));
+                modified |= tracker.inlineAllInBlock(block);
+                modified |= tracker.run(block, new TransformArrayInitializersOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.IntroducePostIncrement)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.IntroducePostIncrement)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new IntroducePostIncrementOptimization(context, method));
+                modified |= tracker.run(block, new IntroducePostIncrementOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.InlineConditionalAssignments)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.InlineConditionalAssignments)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new InlineConditionalAssignmentsOptimization(context, method));
+                modified |= tracker.run(block, new InlineConditionalAssignmentsOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.MakeAssignmentExpressions)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.MakeAssignmentExpressions)) {
                     done = true;
                     break;
                 }
 
-                modified |= runOptimization(block, new MakeAssignmentExpressionsOptimization(context, method));
+                modified |= tracker.run(block, new MakeAssignmentExpressionsOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.InlineLambdas)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.InlineLambdas)) {
                     return;
                 }
 
-                modified |= runOptimization(block, new InlineLambdasOptimization(context, method));
+                modified |= tracker.run(block, new InlineLambdasOptimization(context, method));
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.InlineVariables2)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.InlineVariables2)) {
                     done = true;
                     break;
                 }
 
-                modified |= new Inlining(context, method, true).inlineAllInBlock(block);
-                new Inlining(context, method).copyPropagation();
+                modified |= tracker.inlineAllInBlock(block);
+                tracker.copyPropagation();
 
-                if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.MergeDisparateObjectInitializations)) {
+                if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.MergeDisparateObjectInitializations)) {
                     done = true;
                     break;
                 }
 
-                modified |= mergeDisparateObjectInitializations(context, block);
+                modified |= tracker.mergeDisparateObjectInitializations(block);
             }
             while (modified);
         }
@@ -241,59 +270,61 @@ public final class AstOptimizer {
             return;
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.FindLoops)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.FindLoops)) {
             return;
         }
 
         for (final Block block : method.getSelfAndChildrenRecursive(Block.class)) {
+            context.getMethodBudget().checkTime();
             new LoopsAndConditions(context).findLoops(block);
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.FindConditions)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.FindConditions)) {
             return;
         }
 
         for (final Block block : method.getSelfAndChildrenRecursive(Block.class)) {
+            context.getMethodBudget().checkTime();
             new LoopsAndConditions(context).findConditions(block);
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.FlattenNestedMovableBlocks)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.FlattenNestedMovableBlocks)) {
             return;
         }
 
         flattenBasicBlocks(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RemoveRedundantCode2)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RemoveRedundantCode2)) {
             return;
         }
 
         removeRedundantCode(method, context.getSettings());
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.GotoRemoval)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.GotoRemoval)) {
             return;
         }
 
-        new GotoRemoval().removeGotos(method);
+        new GotoRemoval(context.getMethodBudget()).removeGotos(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.DuplicateReturns)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.DuplicateReturns)) {
             return;
         }
 
         duplicateReturnStatements(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.ReduceIfNesting)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.ReduceIfNesting)) {
             return;
         }
 
         reduceIfNesting(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.GotoRemoval2)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.GotoRemoval2)) {
             return;
         }
 
-        new GotoRemoval().removeGotos(method);
+        new GotoRemoval(context.getMethodBudget()).removeGotos(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.ReduceComparisonInstructionSet)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.ReduceComparisonInstructionSet)) {
             return;
         }
 
@@ -301,13 +332,13 @@ public final class AstOptimizer {
             reduceComparisonInstructionSet(e);
         }
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RecombineVariables)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RecombineVariables)) {
             return;
         }
 
         recombineVariables(method);
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.RemoveRedundantCode3)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.RemoveRedundantCode3)) {
             return;
         }
 
@@ -317,7 +348,7 @@ public final class AstOptimizer {
             GotoRemoval.OPTION_REMOVE_REDUNDANT_RETURNS
         );
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.CleanUpTryBlocks)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.CleanUpTryBlocks)) {
             return;
         }
 
@@ -328,7 +359,7 @@ public final class AstOptimizer {
         // introduction of ternary operators may open up additional inlining possibilities.
         //
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.InlineVariables3)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.InlineVariables3)) {
             return;
         }
 
@@ -336,7 +367,7 @@ public final class AstOptimizer {
 
         inliningPhase3.inlineAllVariables();
 
-        if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.TypeInference2)) {
+        if (!shouldPerformStep(context, abortBeforeStep, AstOptimizationStep.TypeInference2)) {
             return;
         }
 
@@ -346,11 +377,23 @@ public final class AstOptimizer {
         LOG.fine("Finished bytecode AST optimization.");
     }
 
-    private static boolean shouldPerformStep(final AstOptimizationStep abortBeforeStep, final AstOptimizationStep nextStep) {
+    private static boolean shouldPerformStep(
+        final DecompilerContext context,
+        final AstOptimizationStep abortBeforeStep,
+        final AstOptimizationStep nextStep) {
+
         if (abortBeforeStep == nextStep) {
             return false;
         }
 
+        context.getMethodBudget().checkTime();
+
+        final IDecompilationListener listener = context.getDecompilationListener();
+
+        if (listener != null) {
+            listener.stepStarted(context, DecompilationPhase.OptimizeBytecodeAst, nextStep.name());
+        }
+
         if (nextStep.isBlockLevelOptimization()) {
             if (LOG.isLoggable(Level.FINER)) {
                 LOG.finer("Performing block-level optimization: " + nextStep + ".");
@@ -386,13 +429,13 @@ public final class AstOptimizer {
             }
         );
 
-        for (final BasicBlock basicBlock : method.getChildrenAndSelfRecursive(BasicBlock.class)) {
-            for (final Label label : basicBlock.getChildrenAndSelfRecursive(Label.class)) {
+        for (final BasicBlock basicBlock : method.iterateChildrenAndSelfRecursive(BasicBlock.class)) {
+            for (final Label label : basicBlock.iterateChildrenAndSelfRecursive(Label.class)) {
                 embeddedLabels.get(basicBlock).add(label);
             }
         }
 
-        for (final Expression e : method.getChildrenAndSelfRecursive(Expression.class)) {
+        for (final Expression e : method.iterateChildrenAndSelfRecursive(Expression.class)) {
             if (e.getOperand() instanceof Label) {
                 liveLabels.add((Label) e.getOperand());
             }
@@ -735,7 +778,7 @@ public final class AstOptimizer {
         final List<Expression> lockAccesses = new ArrayList<>();
         final Set<Expression> lockAccessLoads = new HashSet<>();
 
-        for (final Expression e : owner.getSelfAndChildrenRecursive(Expression.class)) {
+        for (final Expression e : owner.iterateSelfAndChildrenRecursive(Expression.class)) {
             if (matchLoad(e, lockInfo.lock) && !lockAccessLoads.contains(e)) {
 
                 //
@@ -2374,7 +2417,7 @@ public final class AstOptimizer {
 
         private static Expression simplify(final Expression head, final BooleanBox modified) {
             if (match(head, AstCode.TernaryOp)) {
-                return simplifyTernaryDirect(head);
+                return simplifyTernaryDirect(head, modified);
             }
 
             final List<Expression> arguments = head.getArguments();
@@ -2424,7 +2467,7 @@ public final class AstOptimizer {
                           : condition;
         }
 
-        private static Expression simplifyTernaryDirect(final Expression head) {
+        private static Expression simplifyTernaryDirect(final Expression head, final BooleanBox modified) {
             final List<Expression> a = new ArrayList<>();
 
             final StrongBox<Variable> v;
@@ -2457,6 +2500,7 @@ public final class AstOptimizer {
                     head.getArguments().add(newTernary);
 
                     newTernary.getRanges().addAll(head.getRanges());
+                    modified.set(true);
 
                     return head;
                 }
@@ -2472,6 +2516,7 @@ public final class AstOptimizer {
                     final Expression condition = head.getArguments().get(0);
 
                     condition.getRanges().addAll(head.getRanges());
+                    modified.set(true);
 
                     return invert ? new Expression(AstCode.LogicalNot, null, condition.getOffset(), condition)
                                   : condition;
@@ -2584,14 +2629,16 @@ public final class AstOptimizer {
 
         parentLookup.put(method, Node.NULL);
 
-        for (final Node node : method.getSelfAndChildrenRecursive(Node.class)) {
+        for (final Node node : method.iterateSelfAndChildrenRecursive()) {
             if (matchStore(node, variable, args) &&
                 match(single(args), AstCode.__New)) {
 
                 newExpressions.put(variable.get(), (Expression) node);
             }
 
-            for (final Node child : node.getChildren()) {
+            for (int i = 0, n = node.getChildCount(); i < n; i++) {
+                final Node child = node.getChild(i);
+
                 if (parentLookup.containsKey(child)) {
                     throw Error.expressionLinkedFromMultipleLocations(child);
                 }
@@ -2783,6 +2830,8 @@ public final class AstOptimizer {
             final List<Expression> a = new ArrayList<>();
             final StrongBox<TypeReference> arrayType = new StrongBox<>();
 
+            boolean modified = false;
+
             if (matchGetArguments(head, AstCode.Store, v, a) &&
                 matchGetArguments(a.get(0), AstCode.InitArray, arrayType, a)) {
 
@@ -2804,6 +2853,7 @@ public final class AstOptimizer {
 
                         initializers.set(arrayPosition.get(), a.get(2));
                         body.remove(j--);
+                        modified = true;
                     }
                     else {
                         break;
@@ -2811,7 +2861,7 @@ public final class AstOptimizer {
                 }
             }
 
-            return false;
+            return modified;
         }
     }
 
@@ -3258,7 +3308,9 @@ public final class AstOptimizer {
             final Block block = (Block) node;
             final List<Node> flatBody = new ArrayList<>();
 
-            for (final Node child : block.getChildren()) {
+            for (int i = 0, n = block.getChildCount(); i < n; i++) {
+                final Node child = block.getChild(i);
+
                 flattenBasicBlocks(child);
 
                 if (child instanceof BasicBlock) {
@@ -3286,7 +3338,9 @@ public final class AstOptimizer {
             block.getBody().addAll(flatBody);
         }
         else if (node != null) {
-            for (final Node child : node.getChildren()) {
+            for (int i = 0, n = node.getChildCount(); i < n; i++) {
+                final Node child = node.getChild(i);
+
                 flattenBasicBlocks(child);
             }
         }
@@ -3416,7 +3470,7 @@ public final class AstOptimizer {
                 //
                 // Eliminate empty true block.
                 //
-                if (condition.getTrueBlock().getChildren().isEmpty() && !condition.getFalseBlock().getChildren().isEmpty()) {
+                if (condition.getTrueBlock().getChildCount() == 0 && condition.getFalseBlock().getChildCount() != 0) {
                     final Block temp = condition.getTrueBlock();
                     final Expression conditionExpression = condition.getCondition();
 
@@ -3427,7 +3481,9 @@ public final class AstOptimizer {
             }
         }
 
-        for (final Node child : node.getChildren()) {
+        for (int i = 0, n = node.getChildCount(); i < n; i++) {
+            final Node child = node.getChild(i);
+
             if (child != null && !(child instanceof Expression)) {
                 reduceIfNesting(child);
             }
@@ -3663,7 +3719,7 @@ public final class AstOptimizer {
 
                 final List<Range> ranges = site.getRanges();
 
-                for (final Expression e : lambda.getSelfAndChildrenRecursive(Expression.class)) {
+                for (final Expression e : lambda.iterateSelfAndChildrenRecursive(Expression.class)) {
                     ranges.addAll(e.getRanges());
                 }
 
@@ -3813,7 +3869,7 @@ public final class AstOptimizer {
             this.resolver = context.getCurrentType().getResolver();
             this.method = VerifyArgument.notNull(method, "method");
 
-            for (final Expression e : method.getSelfAndChildrenRecursive(Expression.class)) {
+            for (final Expression e : method.iterateSelfAndChildrenRecursive(Expression.class)) {
                 if (e.isBranch()) {
                     for (final Label target : e.getBranchTargets()) {
                         labelGlobalRefCount.get(target).increment();
@@ -3821,8 +3877,10 @@ public final class AstOptimizer {
                 }
             }
 
-            for (final BasicBlock basicBlock : method.getSelfAndChildrenRecursive(BasicBlock.class)) {
-                for (final Node child : basicBlock.getChildren()) {
+            for (final BasicBlock basicBlock : method.iterateSelfAndChildrenRecursive(BasicBlock.class)) {
+                for (int i = 0, n = basicBlock.getChildCount(); i < n; i++) {
+                    final Node child = basicBlock.getChild(i);
+
                     if (child instanceof Label) {
                         labelToBasicBlock.put((Label) child, basicBlock);
                     }
@@ -3883,6 +3941,97 @@ public final class AstOptimizer {
         return modified;
     }
 
+    //
+    // Tracks which block-level optimizations may still find work to do.  Every step reports whether
+    // it modified the method, and each modification advances a version number.  A step which ran
+    // without changes at the current version would find nothing new if run again, so it is skipped
+    // until some other step changes the method.  The load/store analysis used by Inlining is shared
+    // between steps on the same basis, rather than being recomputed for every Inlining instance.
+    //
+    private static final class BlockChangeTracker {
+        private final DecompilerContext _context;
+        private final Block _method;
+
+        private int _version;
+        private int _step;
+        private int[] _settledVersions = new int[16];
+
+        private Inlining _analysis;
+        private int _analysisVersion;
+
+        BlockChangeTracker(final DecompilerContext context, final Block method) {
+            _context = context;
+            _method = method;
+        }
+
+        final void beginBlock() {
+            Arrays.fill(_settledVersions, -1);
+        }
+
+        final void beginRound() {
+            _step = 0;
+        }
+
+        final boolean run(final Block block, final BasicBlockOptimization optimization) {
+            return !isSettled() && record(runOptimization(block, optimization));
+        }
+
+        final boolean run(final Block block, final ExpressionOptimization optimization) {
+            return !isSettled() && record(runOptimization(block, optimization));
+        }
+
+        final boolean inlineAllInBlock(final Block block) {
+            return !isSettled() && record(inlining(true).inlineAllInBlock(block));
+        }
+
+        final void copyPropagation() {
+            if (!isSettled()) {
+                record(inlining(false).copyPropagation());
+            }
+        }
+
+        final boolean mergeDisparateObjectInitializations(final Block block) {
+            return !isSettled() && record(AstOptimizer.mergeDisparateObjectInitializations(_context, block));
+        }
+
+        private Inlining inlining(final boolean aggressive) {
+            if (_analysis != null && _analysisVersion == _version) {
+                return new Inlining(_analysis, aggressive);
+            }
+
+            _analysis = new Inlining(_context, _method, aggressive);
+            _analysisVersion = _version;
+
+            return _analysis;
+        }
+
+        private boolean isSettled() {
+            if (_step == _settledVersions.length) {
+                _settledVersions = Arrays.copyOf(_settledVersions, _step * 2);
+                Arrays.fill(_settledVersions, _step, _settledVersions.length, -1);
+            }
+
+            if (_settledVersions[_step] == _version) {
+                ++_step;
+                return true;
+            }
+
+            return false;
+        }
+
+        private boolean record(final boolean modified) {
+            if (modified) {
+                ++_version;
+            }
+            else {
+                _settledVersions[_step] = _version;
+            }
+
+            ++_step;
+            return modified;
+        }
+    }
+
     private static abstract class AbstractBranchBlockOptimization extends AbstractBasicBlockOptimization {
         protected final StrongBox<Expression> expression = new StrongBox<>();
         protected final StrongBox<Label> label1 = new StrongBox<>();
@@ -3943,7 +4092,9 @@ public final class AstOptimizer {
                 }
             }
 
-            for (final Node child : node.getChildren()) {
+            for (int i = 0, n = node.getChildCount(); i < n; i++) {
+                final Node child = node.getChild(i);
+
                 replaceVariables(child, mapping);
             }
         }
@@ -4176,7 +4327,7 @@ public final class AstOptimizer {
     }
 
     static boolean references(final Node node, final Variable v) {
-        for (final Expression e : node.getSelfAndChildrenRecursive(Expression.class)) {
+        for (final Expression e : node.iterateSelfAndChildrenRecursive(Expression.class)) {
             if (matchLoad(e, v)) {
                 return true;
             }
@@ -4185,7 +4336,7 @@ public final class AstOptimizer {
     }
 
     private static boolean containsMatch(final Node node, final Expression pattern) {
-        for (final Expression e : node.getSelfAndChildrenRecursive(Expression.class)) {
+        for (final Expression e : node.iterateSelfAndChildrenRecursive(Expression.class)) {
             if (e.isEquivalentTo(pattern)) {
                 return true;
             }
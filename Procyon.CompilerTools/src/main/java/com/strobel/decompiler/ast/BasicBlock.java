@@ -40,6 +40,16 @@ public final class BasicBlock extends Node {
         return childrenCopy;
     }
 
+    @Override
+    public final int getChildCount() {
+        return _body.size();
+    }
+
+    @Override
+    public final Node getChild(final int index) {
+        return _body.get(index);
+    }
+
     @Override
     public final void writeTo(final ITextOutput output) {
         final List<Node> children = getChildren();
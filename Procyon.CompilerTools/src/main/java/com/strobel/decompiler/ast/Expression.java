@@ -170,6 +170,19 @@ public final class Expression extends Node implements Cloneable, UserDataStore {
         return childrenCopy;
     }
 
+    @Override
+    public final int getChildCount() {
+        return _arguments.size() + (_operand instanceof Lambda ? 1 : 0);
+    }
+
+    @Override
+    public final Node getChild(final int index) {
+        if (index == _arguments.size() && _operand instanceof Lambda) {
+            return (Node) _operand;
+        }
+        return _arguments.get(index);
+    }
+
     public final boolean containsReferenceTo(final Variable variable) {
         if (_operand == variable) {
             return true;
@@ -20,6 +20,7 @@ import com.strobel.annotations.NotNull;
 import com.strobel.core.CollectionUtilities;
 import com.strobel.core.StrongBox;
 import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.MethodBudget;
 import com.strobel.util.ContractUtils;
 
 import java.util.*;
@@ -39,13 +40,23 @@ final class GotoRemoval {
     final Map<Node, Node> nextSibling = new IdentityHashMap<>();
 
     final int options;
+    final MethodBudget budget;
 
     GotoRemoval() {
         this(0);
     }
 
     GotoRemoval(final int options) {
+        this(options, MethodBudget.UNLIMITED);
+    }
+
+    GotoRemoval(final MethodBudget budget) {
+        this(0, budget);
+    }
+
+    GotoRemoval(final int options, final MethodBudget budget) {
         this.options = options;
+        this.budget = VerifyArgument.notNull(budget, "budget");
     }
 
     public final void removeGotos(final Block method) {
@@ -58,8 +69,11 @@ final class GotoRemoval {
 
         boolean modified;
 
+        budget.beginRounds();
+
         do {
             modified = false;
+            budget.countRound();
 
             for (final Expression e : method.getSelfAndChildrenRecursive(Expression.class)) {
                 if (e.getCode() == AstCode.Goto) {
@@ -80,10 +94,12 @@ final class GotoRemoval {
 
         parentLookup.put(method, Node.NULL);
 
-        for (final Node node : method.getSelfAndChildrenRecursive(Node.class)) {
+        for (final Node node : method.iterateSelfAndChildrenRecursive()) {
             Node previousChild = null;
 
-            for (final Node child : node.getChildren()) {
+            for (int i = 0, n = node.getChildCount(); i < n; i++) {
+                final Node child = node.getChild(i);
+
                 if (parentLookup.containsKey(child)) {
                     throw Error.expressionLinkedFromMultipleLocations(child);
                 }
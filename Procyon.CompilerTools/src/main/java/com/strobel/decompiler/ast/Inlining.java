@@ -63,6 +63,20 @@ final class Inlining {
         analyzeMethod();
     }
 
+    //
+    // Creates an instance which shares the load/store analysis of `analysis`.  The analysis
+    // is only valid for as long as the method has not been modified since it was computed.
+    //
+    Inlining(final Inlining analysis, final boolean aggressive) {
+        _context = analysis._context;
+        _method = analysis._method;
+        _aggressive = aggressive;
+
+        loadCounts = analysis.loadCounts;
+        storeCounts = analysis.storeCounts;
+        loads = analysis.loads;
+    }
+
     // <editor-fold defaultstate="collapsed" desc="Load/Store Analysis">
 
     final void analyzeMethod() {
@@ -114,7 +128,9 @@ final class Inlining {
                 }
             }
 
-            for (final Node child : node.getChildren()) {
+            for (int i = 0, n = node.getChildCount(); i < n; i++) {
+                final Node child = node.getChild(i);
+
                 analyzeNode(child);
             }
         }
@@ -302,7 +318,7 @@ final class Inlining {
             final List<Expression> parentArguments = parent.get().getArguments();
             final Map<Expression, Expression> parentLookup = new IdentityHashMap<>();
 
-            for (final Expression node : next.getSelfAndChildrenRecursive(Expression.class)) {
+            for (final Expression node : next.iterateSelfAndChildrenRecursive(Expression.class)) {
                 for (final Expression child : node.getArguments()) {
                     parentLookup.put(child, node);
                 }
@@ -473,7 +489,7 @@ final class Inlining {
             case Load: {
                 final Variable loadedVariable = (Variable) expression.getOperand();
 
-                for (final Expression potentialStore : expressionBeingMoved.getSelfAndChildrenRecursive(Expression.class)) {
+                for (final Expression potentialStore : expressionBeingMoved.iterateSelfAndChildrenRecursive(Expression.class)) {
                     if (matchVariableMutation(potentialStore, loadedVariable)) {
                         return false;
                     }
@@ -633,7 +649,9 @@ final class Inlining {
     // <editor-fold defaultstate="collapsed" desc="Copy Propagation">
 
     @SuppressWarnings("ConstantConditions")
-    final void copyPropagation() {
+    final boolean copyPropagation() {
+        boolean modified = false;
+
         for (final Block block : _method.getSelfAndChildrenRecursive(Block.class)) {
             final List<Node> body = block.getBody();
 
@@ -646,6 +664,8 @@ final class Inlining {
                     count(storeCounts, variable.get()) == 1 &&
                     canPerformCopyPropagation(copiedExpression.get(), variable.get())) {
 
+                    modified = true;
+
                     //
                     // Un-inline the arguments of the Load instruction.
                     //
@@ -699,6 +719,8 @@ final class Inlining {
                 }
             }
         }
+
+        return modified;
     }
 
     final boolean canPerformCopyPropagation(final Expression expr, final Variable copyVariable) {
@@ -67,6 +67,24 @@ public final class Loop extends Node {
         return ArrayUtilities.asUnmodifiableList(_condition, _body);
     }
 
+    @Override
+    public final int getChildCount() {
+        return (_condition != null ? 1 : 0) + (_body != null ? 1 : 0);
+    }
+
+    @Override
+    public final Node getChild(final int index) {
+        if (_condition != null && index == 0) {
+            return _condition;
+        }
+
+        if (_body != null && index == (_condition != null ? 1 : 0)) {
+            return _body;
+        }
+
+        throw new IndexOutOfBoundsException();
+    }
+
     @Override
     public final void writeTo(final ITextOutput output) {
         if (_condition != null) {
@@ -127,7 +127,7 @@ final class LoopsAndConditions {
             //
             // Find all contained labels.
             //
-            for (final Label label : node.getSelfAndChildrenRecursive(Label.class)) {
+            for (final Label label : node.iterateSelfAndChildrenRecursive(Label.class)) {
                 labelsToNodes.put(label, cfNode);
             }
         }
@@ -149,7 +149,7 @@ final class LoopsAndConditions {
             // Find all branches.
             //
 
-            for (final Expression e : node.getSelfAndChildrenRecursive(Expression.class)) {
+            for (final Expression e : node.iterateSelfAndChildrenRecursive(Expression.class)) {
                 if (!e.isBranch()) {
                     continue;
                 }
@@ -217,7 +217,7 @@ final class LoopsAndConditions {
                     return false;
                 }
 
-                final boolean branchInTry = any(tryBlock.getSelfAndChildrenRecursive(Expression.class), labelMatch);
+                final boolean branchInTry = any(tryBlock.iterateSelfAndChildrenRecursive(Expression.class), labelMatch);
 
                 if (branchInTry) {
                     return false;
@@ -226,13 +226,13 @@ final class LoopsAndConditions {
 */
 
             for (final CatchBlock catchBlock : tryCatch.getCatchBlocks()) {
-                if (any(catchBlock.getSelfAndChildrenRecursive(Expression.class), labelMatch)) {
+                if (any(catchBlock.iterateSelfAndChildrenRecursive(Expression.class), labelMatch)) {
                     return true;
                 }
             }
 
             if (tryCatch.getFinallyBlock() != null &&
-                any(tryCatch.getFinallyBlock().getSelfAndChildrenRecursive(Expression.class), labelMatch)) {
+                any(tryCatch.getFinallyBlock().iterateSelfAndChildrenRecursive(Expression.class), labelMatch)) {
 
                 return true;
             }
@@ -592,7 +592,7 @@ final class LoopsAndConditions {
         for (final ControlFlowNode node : contents) {
             final BasicBlock basicBlock = (BasicBlock) node.getUserData();
 
-            for (final Expression e : basicBlock.getSelfAndChildrenRecursive(Expression.class)) {
+            for (final Expression e : basicBlock.iterateSelfAndChildrenRecursive(Expression.class)) {
                 for (final Label target : e.getBranchTargets()) {
                     final ControlFlowNode targetNode = labelsToNodes.get(target);
 
@@ -631,7 +631,7 @@ final class LoopsAndConditions {
         for (final ControlFlowNode node : nodes) {
             final BasicBlock basicBlock = (BasicBlock) node.getUserData();
 
-            for (final Expression e : basicBlock.getSelfAndChildrenRecursive(Expression.class)) {
+            for (final Expression e : basicBlock.iterateSelfAndChildrenRecursive(Expression.class)) {
                 if (e != ignore && e.getBranchTargets().contains(target)) {
                     ++jumpCount;
                 }
@@ -650,17 +650,19 @@ final class LoopsAndConditions {
             }
         }
 
-        final Set<ControlFlowNode> agenda = new LinkedHashSet<>(viaBackEdges);
+        //
+        // A node may be queued more than once, but only its first visit can add it to the result,
+        // so the order in which nodes are found is the same as with a duplicate-free agenda.
+        //
+        final ArrayDeque<ControlFlowNode> agenda = new ArrayDeque<>(viaBackEdges);
         final Set<ControlFlowNode> result = new LinkedHashSet<>();
 
         while (!agenda.isEmpty()) {
-            final ControlFlowNode addNode = agenda.iterator().next();
-
-            agenda.remove(addNode);
+            final ControlFlowNode addNode = agenda.removeFirst();
 
             if (scope.contains(addNode) && head.dominates(addNode) && result.add(addNode)) {
                 for (final ControlFlowNode predecessor : addNode.getPredecessors()) {
-                    agenda.add(predecessor);
+                    agenda.addLast(predecessor);
                 }
             }
         }
@@ -1033,19 +1035,24 @@ final class LoopsAndConditions {
     }
 
     private static Set<ControlFlowNode> findDominatedNodes(final Set<ControlFlowNode> scope, final ControlFlowNode head) {
-        final Set<ControlFlowNode> agenda = new LinkedHashSet<>();
+        final ArrayDeque<ControlFlowNode> agenda = new ArrayDeque<>();
         final Set<ControlFlowNode> result = new LinkedHashSet<>();
 
+        //
+        // Targets are looked up by label, so the head may be missing; nothing is dominated then.
+        //
+        if (head == null) {
+            return result;
+        }
+
         agenda.add(head);
 
         while (!agenda.isEmpty()) {
-            final ControlFlowNode addNode = agenda.iterator().next();
-
-            agenda.remove(addNode);
+            final ControlFlowNode addNode = agenda.removeFirst();
 
             if (scope.contains(addNode) && head.dominates(addNode) && result.add(addNode)) {
                 for (final ControlFlowNode successor : addNode.getSuccessors()) {
-                    agenda.add(successor);
+                    agenda.addLast(successor);
                 }
             }
         }
@@ -16,13 +16,18 @@
 
 package com.strobel.decompiler.ast;
 
+import com.strobel.annotations.NotNull;
 import com.strobel.core.Predicate;
 import com.strobel.decompiler.ITextOutput;
 import com.strobel.decompiler.PlainTextOutput;
+import com.strobel.util.ContractUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public abstract class Node {
     public final static Node NULL = new Node() {
@@ -57,6 +62,18 @@ public abstract class Node {
         return Collections.emptyList();
     }
 
+    //
+    // Indexed access to the same nodes returned by getChildren(), without copying them into a list.
+    //
+
+    public int getChildCount() {
+        return 0;
+    }
+
+    public Node getChild(final int index) {
+        throw new IndexOutOfBoundsException();
+    }
+
     public final List<Node> getSelfAndChildrenRecursive() {
         final ArrayList<Node> results = new ArrayList<>();
         accumulateSelfAndChildrenRecursive(results, Node.class, null, false);
@@ -118,8 +135,8 @@ public abstract class Node {
             }
         }
 
-        for (final Node child : getChildren()) {
-            child.accumulateSelfAndChildrenRecursive(list, type, predicate, childrenFirst);
+        for (int i = 0, n = getChildCount(); i < n; i++) {
+            getChild(i).accumulateSelfAndChildrenRecursive(list, type, predicate, childrenFirst);
         }
 
         if (childrenFirst) {
@@ -129,5 +146,140 @@ public abstract class Node {
         }
     }
 
+    //
+    // The iterate*Recursive() methods walk the tree lazily, in the same order as the corresponding
+    // get*Recursive() methods, but without building a list of the results.  Each traversal allocates
+    // a single cursor, however many nodes it visits, and stopping early skips the rest of the tree.
+    // Because the tree is walked as it is when each node is reached, callers which modify the tree
+    // while iterating should use the get*Recursive() methods instead.
+    //
+
+    public final Iterable<Node> iterateSelfAndChildrenRecursive() {
+        return new NodeTraversal<>(this, Node.class, null, false);
+    }
+
+    public final <T extends Node> Iterable<T> iterateSelfAndChildrenRecursive(final Class<T> type) {
+        return new NodeTraversal<>(this, type, null, false);
+    }
+
+    public final <T extends Node> Iterable<T> iterateSelfAndChildrenRecursive(final Class<T> type, final Predicate<T> predicate) {
+        return new NodeTraversal<>(this, type, predicate, false);
+    }
+
+    public final Iterable<Node> iterateChildrenAndSelfRecursive() {
+        return new NodeTraversal<>(this, Node.class, null, true);
+    }
+
+    public final <T extends Node> Iterable<T> iterateChildrenAndSelfRecursive(final Class<T> type) {
+        return new NodeTraversal<>(this, type, null, true);
+    }
+
+    public final <T extends Node> Iterable<T> iterateChildrenAndSelfRecursive(final Class<T> type, final Predicate<T> predicate) {
+        return new NodeTraversal<>(this, type, predicate, true);
+    }
+
+    private final static class NodeTraversal<T extends Node> implements Iterable<T>, Iterator<T> {
+        private final Node _root;
+        private final Class<T> _type;
+        private final Predicate<T> _predicate;
+        private final boolean _childrenFirst;
+
+        //
+        // The path from the root to the current node, and for each node on it, the index of the
+        // next child to visit (or -1 if the node itself has not been visited yet).
+        //
+        private Node[] _path = new Node[16];
+        private int[] _indices = new int[16];
+        private int _depth = -1;
+        private boolean _started;
+        private T _next;
+
+        NodeTraversal(final Node root, final Class<T> type, final Predicate<T> predicate, final boolean childrenFirst) {
+            _root = root;
+            _type = type;
+            _predicate = predicate;
+            _childrenFirst = childrenFirst;
+        }
+
+        @NotNull
+        @Override
+        public final Iterator<T> iterator() {
+            return _started ? new NodeTraversal<>(_root, _type, _predicate, _childrenFirst) : this;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            if (_next == null) {
+                _next = advance();
+            }
+            return _next != null;
+        }
+
+        @Override
+        public final T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final T next = _next;
+            _next = null;
+            return next;
+        }
+
+        @Override
+        public final void remove() {
+            throw ContractUtils.unsupported();
+        }
+
+        private void push(final Node node) {
+            if (++_depth == _path.length) {
+                _path = Arrays.copyOf(_path, _depth * 2);
+                _indices = Arrays.copyOf(_indices, _depth * 2);
+            }
+
+            _path[_depth] = node;
+            _indices[_depth] = -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean matches(final Node node) {
+            return _type.isInstance(node) && (_predicate == null || _predicate.test((T) node));
+        }
+
+        @SuppressWarnings("unchecked")
+        private T advance() {
+            if (!_started) {
+                _started = true;
+                push(_root);
+            }
+
+            while (_depth >= 0) {
+                final Node node = _path[_depth];
+                final int index = _indices[_depth];
+
+                if (index < 0) {
+                    _indices[_depth] = 0;
+
+                    if (!_childrenFirst && matches(node)) {
+                        return (T) node;
+                    }
+                }
+                else if (index < node.getChildCount()) {
+                    _indices[_depth] = index + 1;
+                    push(node.getChild(index));
+                }
+                else {
+                    _path[_depth--] = null;
+
+                    if (_childrenFirst && matches(node)) {
+                        return (T) node;
+                    }
+                }
+            }
+
+            return null;
+        }
+    }
+
     // </editor-fold>
 }
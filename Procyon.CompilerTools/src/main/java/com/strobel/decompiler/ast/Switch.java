@@ -56,6 +56,19 @@ public final class Switch extends Node {
         return ArrayUtilities.asUnmodifiableList(children);
     }
 
+    @Override
+    public final int getChildCount() {
+        return _caseBlocks.size() + (_condition != null ? 1 : 0);
+    }
+
+    @Override
+    public final Node getChild(final int index) {
+        if (_condition != null) {
+            return index == 0 ? _condition : _caseBlocks.get(index - 1);
+        }
+        return _caseBlocks.get(index);
+    }
+
     @Override
     public final void writeTo(final ITextOutput output) {
         output.writeKeyword("switch");
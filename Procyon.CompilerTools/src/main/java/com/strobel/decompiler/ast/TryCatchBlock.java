@@ -79,6 +79,30 @@ public final class TryCatchBlock extends Node {
         return ArrayUtilities.asUnmodifiableList(children);
     }
 
+    @Override
+    public final int getChildCount() {
+        return _catchBlocks.size() + (_tryBlock != null ? 1 : 0) + (_finallyBlock != null ? 1 : 0);
+    }
+
+    @Override
+    public final Node getChild(final int index) {
+        int i = index;
+
+        if (_tryBlock != null && i-- == 0) {
+            return _tryBlock;
+        }
+
+        if (i < _catchBlocks.size()) {
+            return _catchBlocks.get(i);
+        }
+
+        if (_finallyBlock != null && i == _catchBlocks.size()) {
+            return _finallyBlock;
+        }
+
+        throw new IndexOutOfBoundsException();
+    }
+
     @Override
     public final void writeTo(final ITextOutput output) {
         output.writeKeyword("try");
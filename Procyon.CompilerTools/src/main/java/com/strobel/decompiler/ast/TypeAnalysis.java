@@ -26,6 +26,7 @@ import com.strobel.core.StringUtilities;
 import com.strobel.core.StrongBox;
 import com.strobel.core.VerifyArgument;
 import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.MethodBudget;
 import com.strobel.functions.Supplier;
 import com.strobel.util.ContractUtils;
 
@@ -64,8 +65,19 @@ public final class TypeAnalysis {
 
     private final Map<Variable, Set<TypeReference>> _previouslyInferred = new DefaultMap<>(CollectionUtilities.<TypeReference>setFactory());
     private final IdentityHashMap<Variable, TypeReference> _inferredVariableTypes = new IdentityHashMap<>();
+    private final IdentityHashMap<Variable, List<ExpressionToInfer>> _dependentExpressions = new IdentityHashMap<>();
+    private final IdentityHashMap<Variable, List<ExpressionToInfer>> _affectedExpressions = new IdentityHashMap<>();
     private final Stack<Expression> _stack = new Stack<>();
 
+    //
+    // Worklist state, only present while inference is running.  Expressions whose dependencies
+    // are (or may be) satisfied are flagged in the ready set; the rest are parked on the first
+    // variable found to be blocking them, and are re-examined when that variable's type changes.
+    //
+    private BitSet _readyExpressions;
+    private IdentityHashMap<Variable, List<ExpressionToInfer>> _blockedExpressions;
+    private boolean _ignoreSingleLoadDependencies;
+
     private DecompilerContext _context;
     private CoreMetadataFactory _factory;
     private boolean _preserveMetadataTypes;
@@ -93,6 +105,7 @@ public final class TypeAnalysis {
         ta.createDependencyGraph(method);
         ta.identifySingleLoadVariables();
         ta._doneInitializing = true;
+        ta.createDependentExpressionIndex();
         ta.runInference();
     }
 
@@ -181,7 +194,9 @@ public final class TypeAnalysis {
             }
         }
 
-        for (final Node child : node.getChildren()) {
+        for (int i = 0, n = node.getChildCount(); i < n; i++) {
+            final Node child = node.getChild(i);
+
             createDependencyGraph(child);
         }
     }
@@ -333,6 +348,66 @@ public final class TypeAnalysis {
         }
     }
 
+    private void createDependentExpressionIndex() {
+        for (int i = 0, n = _allExpressions.size(); i < n; i++) {
+            final ExpressionToInfer e = _allExpressions.get(i);
+
+            e.index = i;
+
+            for (final Variable variable : e.dependencies) {
+                final List<ExpressionToInfer> dependents = getOrCreateList(_dependentExpressions, variable);
+
+                if (dependents.isEmpty() || dependents.get(dependents.size() - 1) != e) {
+                    dependents.add(e);
+                }
+            }
+        }
+
+        //
+        // The expressions affected by a change in a variable's type are those which read it and
+        // those which assign it, visited in the order they appear in the method.
+        //
+        final Set<Variable> variables = Collections.newSetFromMap(new IdentityHashMap<Variable, Boolean>());
+
+        variables.addAll(_dependentExpressions.keySet());
+        variables.addAll(_assignmentExpressions.keySet());
+
+        for (final Variable variable : variables) {
+            final TreeMap<Integer, ExpressionToInfer> affected = new TreeMap<>();
+            final List<ExpressionToInfer> dependents = _dependentExpressions.get(variable);
+
+            if (dependents != null) {
+                for (final ExpressionToInfer e : dependents) {
+                    affected.put(e.index, e);
+                }
+            }
+
+            for (final ExpressionToInfer e : _assignmentExpressions.get(variable)) {
+                affected.put(e.index, e);
+            }
+
+            _affectedExpressions.put(variable, new ArrayList<>(affected.values()));
+        }
+    }
+
+    private List<ExpressionToInfer> getAffectedExpressions(final Variable variable) {
+        final List<ExpressionToInfer> affected = _affectedExpressions.get(variable);
+        return affected != null ? affected : Collections.<ExpressionToInfer>emptyList();
+    }
+
+    private static List<ExpressionToInfer> getOrCreateList(
+        final Map<Variable, List<ExpressionToInfer>> map,
+        final Variable variable) {
+
+        List<ExpressionToInfer> list = map.get(variable);
+
+        if (list == null) {
+            map.put(variable, list = new ArrayList<>());
+        }
+
+        return list;
+    }
+
     @SuppressWarnings("ConstantConditions")
     private void runInference() {
         _previouslyInferred.clear();
@@ -344,60 +419,155 @@ public final class TypeAnalysis {
         // Two flags that allow resolving cycles:
         //
 
-        boolean ignoreSingleLoadDependencies = false;
+        _ignoreSingleLoadDependencies = false;
         boolean assignVariableTypesBasedOnPartialInformation = false;
 
-        final Predicate<Variable> dependentVariableTypesKnown = new Predicate<Variable>() {
-            @Override
-            public boolean test(final Variable v) {
-                return inferTypeForVariable(v, null) != null || _singleLoadVariables.contains(v);
+        //
+        // Each pass visits the ready expressions in method order, exactly as a full scan would:
+        // an expression unblocked by an earlier one in the same pass is inferred in that pass,
+        // while one unblocked by a later expression waits for the next pass.  Expressions are
+        // re-checked when dequeued, so the worklist only decides which ones are worth checking.
+        //
+        _readyExpressions = new BitSet(_allExpressions.size());
+        _blockedExpressions = new IdentityHashMap<>();
+
+        try {
+            for (final ExpressionToInfer e : _allExpressions) {
+                enqueueOrBlock(e);
             }
-        };
 
-        while (numberOfExpressionsAlreadyInferred < _allExpressions.size()) {
-            final int oldCount = numberOfExpressionsAlreadyInferred;
+            final MethodBudget budget = _context.getMethodBudget();
 
-            for (final ExpressionToInfer e : _allExpressions) {
-                if (!e.done &&
-                    trueForAll(e.dependencies, dependentVariableTypesKnown) &&
-                    (e.dependsOnSingleLoad == null || e.dependsOnSingleLoad.getType() != null || ignoreSingleLoadDependencies)) {
+            while (numberOfExpressionsAlreadyInferred < _allExpressions.size()) {
+                final int oldCount = numberOfExpressionsAlreadyInferred;
+
+                budget.checkTime();
+
+                for (int i = _readyExpressions.nextSetBit(0); i >= 0; i = _readyExpressions.nextSetBit(i + 1)) {
+                    final ExpressionToInfer e = _allExpressions.get(i);
+
+                    if ((numberOfExpressionsAlreadyInferred & 0xFF) == 0xFF) {
+                        budget.checkTime();
+                    }
+
+                    _readyExpressions.clear(i);
+
+                    final Variable blockingVariable = findBlockingVariable(e);
+
+                    if (blockingVariable != null) {
+                        getOrCreateList(_blockedExpressions, blockingVariable).add(e);
+                        continue;
+                    }
 
                     runInference(e.expression);
                     e.done = true;
                     numberOfExpressionsAlreadyInferred++;
                 }
-            }
 
-            if (numberOfExpressionsAlreadyInferred == oldCount) {
-                if (ignoreSingleLoadDependencies) {
-                    if (assignVariableTypesBasedOnPartialInformation) {
-                        throw new IllegalStateException("Could not infer any expression.");
-                    }
+                if (numberOfExpressionsAlreadyInferred == oldCount) {
+                    if (_ignoreSingleLoadDependencies) {
+                        if (assignVariableTypesBasedOnPartialInformation) {
+                            throw new IllegalStateException("Could not infer any expression.");
+                        }
 
-                    assignVariableTypesBasedOnPartialInformation = true;
+                        assignVariableTypesBasedOnPartialInformation = true;
+                    }
+                    else {
+                        //
+                        // We have a cyclic dependency; we'll try to see if we can resolve it by ignoring single-load
+                        // dependencies  This can happen if the variable was not actually assigned an expected type by
+                        // the single-load instruction.
+                        //
+                        _ignoreSingleLoadDependencies = true;
+                        requeueBlockedExpressions();
+                        continue;
+                    }
                 }
                 else {
-                    //
-                    // We have a cyclic dependency; we'll try to see if we can resolve it by ignoring single-load
-                    // dependencies  This can happen if the variable was not actually assigned an expected type by
-                    // the single-load instruction.
-                    //
-                    ignoreSingleLoadDependencies = true;
-                    continue;
+                    assignVariableTypesBasedOnPartialInformation = false;
+                    _ignoreSingleLoadDependencies = false;
                 }
+
+                //
+                // Infer types for variables.
+                //
+                inferTypesForVariables(assignVariableTypesBasedOnPartialInformation);
             }
-            else {
-                assignVariableTypesBasedOnPartialInformation = false;
-                ignoreSingleLoadDependencies = false;
+        }
+        finally {
+            _readyExpressions = null;
+            _blockedExpressions = null;
+        }
+
+        verifyResults();
+    }
+
+    private Variable findBlockingVariable(final ExpressionToInfer e) {
+        for (final Variable v : e.dependencies) {
+            if (inferTypeForVariable(v, null) == null && !_singleLoadVariables.contains(v)) {
+                return v;
             }
+        }
 
-            //
-            // Infer types for variables.
-            //
-            inferTypesForVariables(assignVariableTypesBasedOnPartialInformation);
+        if (e.dependsOnSingleLoad != null &&
+            e.dependsOnSingleLoad.getType() == null &&
+            !_ignoreSingleLoadDependencies) {
+
+            return e.dependsOnSingleLoad;
         }
 
-        verifyResults();
+        return null;
+    }
+
+    private void enqueueOrBlock(final ExpressionToInfer e) {
+        if (e.done) {
+            return;
+        }
+
+        final Variable blockingVariable = findBlockingVariable(e);
+
+        if (blockingVariable != null) {
+            getOrCreateList(_blockedExpressions, blockingVariable).add(e);
+        }
+        else {
+            _readyExpressions.set(e.index);
+        }
+    }
+
+    private void requeueBlockedExpressions() {
+        final List<List<ExpressionToInfer>> blocked = new ArrayList<>(_blockedExpressions.values());
+
+        _blockedExpressions.clear();
+
+        for (final List<ExpressionToInfer> expressions : blocked) {
+            for (final ExpressionToInfer e : expressions) {
+                enqueueOrBlock(e);
+            }
+        }
+    }
+
+    private void onVariableTypeChanged(final Variable variable) {
+        if (_blockedExpressions == null) {
+            return;
+        }
+
+        final List<ExpressionToInfer> blocked = _blockedExpressions.remove(variable);
+
+        if (blocked != null) {
+            for (final ExpressionToInfer e : blocked) {
+                enqueueOrBlock(e);
+            }
+        }
+    }
+
+    private void setVariableType(final Variable variable, final TypeReference type) {
+        variable.setType(type);
+        onVariableTypeChanged(variable);
+    }
+
+    private void setInferredVariableType(final Variable variable, final TypeReference type) {
+        _inferredVariableTypes.put(variable, type);
+        onVariableTypeChanged(variable);
     }
 
     private void verifyResults() {
@@ -541,7 +711,7 @@ public final class TypeAnalysis {
 
             if (shouldInferVariableType(variable) && inferredType != null) {
                 variable.setType(inferredType);
-                _inferredVariableTypes.put(variable, inferredType);
+                setInferredVariableType(variable, inferredType);
 
 //                //
 //                // Assign inferred type to all the assignments (in case they used different inferred types).
@@ -554,37 +724,33 @@ public final class TypeAnalysis {
                 //
                 // Assign inferred types to all dependent expressions (in case they used different inferred types).
                 //
-                for (final ExpressionToInfer e : _allExpressions) {
-                    if (e.dependencies.contains(variable) ||
-                        expressionsToInfer.contains(e)) {
+                for (final ExpressionToInfer e : getAffectedExpressions(variable)) {
+                    if (_stack.contains(e.expression)) {
+                        continue;
+                    }
 
-                        if (_stack.contains(e.expression)) {
+                    boolean invalidate = false;
+
+                    for (final Expression c : e.expression.getSelfAndChildrenRecursive(Expression.class)) {
+                        if (_stack.contains(c)) {
                             continue;
                         }
 
-                        boolean invalidate = false;
-
-                        for (final Expression c : e.expression.getSelfAndChildrenRecursive(Expression.class)) {
-                            if (_stack.contains(c)) {
-                                continue;
-                            }
+                        c.setExpectedType(null);
 
-                            c.setExpectedType(null);
+                        if ((matchLoad(c, variable) || matchStore(c, variable)) &&
+                            !MetadataHelper.isSameType(c.getInferredType(), inferredType)) {
 
-                            if ((matchLoad(c, variable) || matchStore(c, variable)) &&
-                                !MetadataHelper.isSameType(c.getInferredType(), inferredType)) {
-
-                                c.setExpectedType(inferredType);
-                            }
+                            c.setExpectedType(inferredType);
+                        }
 
-                            c.setInferredType(null);
+                        c.setInferredType(null);
 
-                            invalidate = true;
-                        }
+                        invalidate = true;
+                    }
 
-                        if (invalidate) {
-                            runInference(e.expression, e.flags);
-                        }
+                    if (invalidate) {
+                        runInference(e.expression, e.flags);
                     }
                 }
             }
@@ -682,7 +848,7 @@ public final class TypeAnalysis {
                 if (variable.getType() == BuiltinTypes.Integer &&
                     shouldInferVariableType(variable)) {
 
-                    variable.setType(BuiltinTypes.Boolean);
+                    setVariableType(variable, BuiltinTypes.Boolean);
                     changedVariable = variable;
                 }
             }
@@ -699,7 +865,7 @@ public final class TypeAnalysis {
                     shouldInferVariableType(variable) &&
                     _singleLoadVariables.contains(variable)) {
 
-                    variable.setType(BuiltinTypes.Character);
+                    setVariableType(variable, BuiltinTypes.Character);
                     changedVariable = variable;
                 }
             }
@@ -719,13 +885,10 @@ public final class TypeAnalysis {
     }
 
     private void invalidateDependentExpressions(final Expression expression, final Variable variable) {
-        final List<ExpressionToInfer> assignments = _assignmentExpressions.get(variable);
         final TypeReference inferredType = _inferredVariableTypes.get(variable);
 
-        for (final ExpressionToInfer e : _allExpressions) {
-            if (e.expression != expression &&
-                (e.dependencies.contains(variable) ||
-                 assignments.contains(e))) {
+        for (final ExpressionToInfer e : getAffectedExpressions(variable)) {
+            if (e.expression != expression) {
 
                 if (_stack.contains(e.expression)) {
                     continue;
@@ -905,7 +1068,7 @@ public final class TypeAnalysis {
                         v.getOriginalParameter() == _context.getCurrentMethod().getBody().getThisParameter()) {
 
                         if (_singleLoadVariables.contains(v) && v.getType() == null) {
-                            v.setType(thisType);
+                            setVariableType(v, thisType);
                         }
 
                         return thisType;
@@ -1001,7 +1164,7 @@ public final class TypeAnalysis {
                         }
                     }
 
-                    _inferredVariableTypes.put(v, result);
+                    setInferredVariableType(v, result);
 
                     if (result != null &&
                         !MetadataHelper.isSameType(result, inferredType) &&
@@ -1012,7 +1175,7 @@ public final class TypeAnalysis {
                     }
 
                     if (_singleLoadVariables.contains(v) && v.getType() == null) {
-                        v.setType(result);
+                        setVariableType(v, result);
                     }
 
                     return result;
@@ -3112,6 +3275,7 @@ public final class TypeAnalysis {
         boolean done;
         Variable dependsOnSingleLoad;
         int flags;
+        int index;
 
         @Override
         public String toString() {
@@ -16,6 +16,11 @@ public class TypeDecompilationResults {
      */
     private final List<LineNumberPosition> _lineNumberPositions;
 
+    /**
+     * whether any method was replaced with a stub because it ran out of time
+     */
+    private final boolean _methodTimeLimitExceeded;
+
     /**
      * Constructs decompilation results.
      *
@@ -24,7 +29,24 @@ public class TypeDecompilationResults {
      *     decompilation target language does not support line numbers.
      */
     public TypeDecompilationResults(@Nullable final List<LineNumberPosition> lineNumberPositions) {
+        this(lineNumberPositions, false);
+    }
+
+    /**
+     * Constructs decompilation results.
+     *
+     * @param lineNumberPositions
+     *     the mapping of original to decompiled line numbers, or <code>null</code> if the
+     *     decompilation target language does not support line numbers.
+     * @param methodTimeLimitExceeded
+     *     whether any method was replaced with a stub because it ran out of time.
+     */
+    public TypeDecompilationResults(
+        @Nullable final List<LineNumberPosition> lineNumberPositions,
+        final boolean methodTimeLimitExceeded) {
+
         _lineNumberPositions = lineNumberPositions;
+        _methodTimeLimitExceeded = methodTimeLimitExceeded;
     }
 
     /**
@@ -41,4 +63,13 @@ public class TypeDecompilationResults {
         }
         return Collections.unmodifiableList(_lineNumberPositions);
     }
+
+    /**
+     * Returns whether any method was replaced with a stub because it exceeded the
+     * {@linkplain com.strobel.decompiler.DecompilerSettings#getMethodTimeLimit() method time limit}.
+     * Such results depend on how busy the machine was, so they should not be cached.
+     */
+    public boolean isMethodTimeLimitExceeded() {
+        return _methodTimeLimitExceeded;
+    }
 }
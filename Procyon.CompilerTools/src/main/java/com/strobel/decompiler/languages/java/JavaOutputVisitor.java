@@ -77,6 +77,17 @@ public final class JavaOutputVisitor implements IAstVisitor<Void, Void> {
         return this.formatter.getLineNumberPositions();
     }
 
+    private void writeNestedType(final TypeDeclaration type) {
+        final JavaOutputVisitor visitor = new JavaOutputVisitor(output, settings);
+
+        type.acceptVisitor(visitor, null);
+
+        //
+        // The nested type is written to the same output, so its line numbers belong in ours.
+        //
+        formatter.addLineNumberPositions(visitor.getLineNumberPositions());
+    }
+
     // <editor-fold defaultstate="collapsed" desc="Start/End Node">
 
     void startNode(final AstNode node) {
@@ -555,7 +566,7 @@ public final class JavaOutputVisitor implements IAstVisitor<Void, Void> {
                     newLine();
                 }
 
-                declaredType.acceptVisitor(new JavaOutputVisitor(output, settings), null);
+                writeNestedType(declaredType);
                 needNewLine = true;
             }
         }
@@ -2230,7 +2241,7 @@ public final class JavaOutputVisitor implements IAstVisitor<Void, Void> {
         node.getType().acceptVisitor(this, ignored);
         space(policy.SpaceBeforeMethodCallParentheses);
         writeCommaSeparatedListInParenthesis(node.getArguments(), policy.SpaceWithinMethodCallParentheses);
-        node.getTypeDeclaration().acceptVisitor(new JavaOutputVisitor(output, settings), ignored);
+        writeNestedType(node.getTypeDeclaration());
         endNode(node);
         return null;
     }
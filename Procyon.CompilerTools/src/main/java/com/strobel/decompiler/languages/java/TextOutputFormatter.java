@@ -593,5 +593,13 @@ public class TextOutputFormatter implements IOutputFormatter {
     public List<LineNumberPosition> getLineNumberPositions() {
         return lineNumberPositions;
     }
+
+    /**
+     * Appends the positions recorded by another formatter which wrote to the same output, e.g.,
+     * while writing out a nested or anonymous class.
+     */
+    public void addLineNumberPositions(final List<LineNumberPosition> positions) {
+        lineNumberPositions.addAll(positions);
+    }
 }
 
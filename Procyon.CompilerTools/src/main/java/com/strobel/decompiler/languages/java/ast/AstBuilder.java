@@ -29,8 +29,10 @@ import com.strobel.core.Predicate;
 import com.strobel.core.SafeCloseable;
 import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.DecompilationPhase;
 import com.strobel.decompiler.DecompilerContext;
 import com.strobel.decompiler.DecompilerSettings;
+import com.strobel.decompiler.IDecompilationListener;
 import com.strobel.decompiler.ITextOutput;
 import com.strobel.decompiler.ast.TypeAnalysis;
 import com.strobel.decompiler.languages.LineNumberPosition;
@@ -54,6 +56,7 @@ public final class AstBuilder {
     private boolean _decompileMethodBodies = true;
     private boolean _haveTransformationsRun;
     private int _suppressImportsDepth;
+    private MethodBodyPrefetcher _methodBodyPrefetcher;
 
     public AstBuilder(final DecompilerContext context) {
         _context = VerifyArgument.notNull(context, "context");
@@ -78,7 +81,7 @@ public final class AstBuilder {
         }
     }
 
-    final DecompilerContext getContext() {
+    public final DecompilerContext getContext() {
         return _context;
     }
 
@@ -122,7 +125,22 @@ public final class AstBuilder {
     }
 
     public final void addType(final TypeDefinition type) {
-        final TypeDeclaration astType = createType(type);
+        final IDecompilationListener listener = _context.getDecompilationListener();
+        final TypeDeclaration astType;
+
+        if (listener != null) {
+            listener.phaseStarted(_context, DecompilationPhase.BuildJavaAst);
+        }
+
+        try {
+            astType = createType(type);
+        }
+        finally {
+            if (listener != null) {
+                listener.phaseEnded(_context, DecompilationPhase.BuildJavaAst);
+            }
+        }
+
         final String packageName = type.getPackageName();
 
         if (_compileUnit.getPackage().isNull() && !StringUtilities.isNullOrWhitespace(packageName)) {
@@ -544,13 +562,25 @@ public final class AstBuilder {
             astType.addChild(createField(field), Roles.TYPE_MEMBER);
         }
 
-        for (final MethodDefinition method : type.getDeclaredMethods()) {
-            if (method.isConstructor()) {
-                astType.addChild(createConstructor(method), Roles.TYPE_MEMBER);
+        final MethodBodyPrefetcher oldPrefetcher = _methodBodyPrefetcher;
+
+        _methodBodyPrefetcher = startMethodBodyPrefetcher(type);
+
+        try {
+            for (final MethodDefinition method : type.getDeclaredMethods()) {
+                if (method.isConstructor()) {
+                    astType.addChild(createConstructor(method), Roles.TYPE_MEMBER);
+                }
+                else {
+                    astType.addChild(createMethod(method), Roles.TYPE_MEMBER);
+                }
             }
-            else {
-                astType.addChild(createMethod(method), Roles.TYPE_MEMBER);
+        }
+        finally {
+            if (_methodBodyPrefetcher != null) {
+                _methodBodyPrefetcher.cancel();
             }
+            _methodBodyPrefetcher = oldPrefetcher;
         }
 
         final List<TypeDefinition> nestedTypes = new ArrayList<>();
@@ -577,6 +607,35 @@ public final class AstBuilder {
         }
     }
 
+    private MethodBodyPrefetcher startMethodBodyPrefetcher(final TypeDefinition type) {
+        final int threadCount = _context.getSettings().getMethodBodyThreadCount();
+
+        if (threadCount <= 1 || !_decompileMethodBodies) {
+            return null;
+        }
+
+        final List<MethodDefinition> methods = new ArrayList<>();
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            if (hasMethodBody(method)) {
+                methods.add(method);
+            }
+        }
+
+        if (methods.size() < 2) {
+            return null;
+        }
+
+        return MethodBodyPrefetcher.start(_context, methods, threadCount);
+    }
+
+    private static boolean hasMethodBody(final MethodDefinition method) {
+        return method.isConstructor() ||
+               !method.getDeclaringType().isInterface() ||
+               method.isTypeInitializer() ||
+               method.isDefault();
+    }
+
     private static void sortNestedTypes(final List<TypeDefinition> types) {
         final IdentityHashMap<TypeDefinition, Integer> minOffsets = new IdentityHashMap<>();
 
@@ -671,7 +730,7 @@ public final class AstBuilder {
             }
         }
 
-        if (!method.getDeclaringType().isInterface() || method.isTypeInitializer() || method.isDefault()) {
+        if (hasMethodBody(method)) {
             astMethod.setBody(createMethodBody(method, astMethod.getParameters()));
         }
 
@@ -779,7 +838,7 @@ public final class AstBuilder {
         final Iterable<ParameterDeclaration> parameters) {
 
         if (_decompileMethodBodies) {
-            return AstMethodBodyBuilder.createMethodBody(this, method, _context, parameters);
+            return AstMethodBodyBuilder.createMethodBody(this, method, _context, parameters, _methodBodyPrefetcher);
         }
 
         return null;
@@ -840,8 +899,22 @@ public final class AstBuilder {
             runTransformations();
         }
 
+        final IDecompilationListener listener = _context.getDecompilationListener();
         final JavaOutputVisitor visitor = new JavaOutputVisitor(output, _context.getSettings());
-        _compileUnit.acceptVisitor(visitor, null);
+
+        if (listener != null) {
+            listener.phaseStarted(_context, DecompilationPhase.WriteOutput);
+        }
+
+        try {
+            _compileUnit.acceptVisitor(visitor, null);
+        }
+        finally {
+            if (listener != null) {
+                listener.phaseEnded(_context, DecompilationPhase.WriteOutput);
+            }
+        }
+
         return visitor.getLineNumberPositions();
     }
 
@@ -25,8 +25,12 @@ import com.strobel.core.StringComparison;
 import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
 import com.strobel.decompiler.DecompilationOptions;
+import com.strobel.decompiler.DecompilationPhase;
 import com.strobel.decompiler.DecompilerContext;
 import com.strobel.decompiler.DecompilerHelpers;
+import com.strobel.decompiler.IDecompilationListener;
+import com.strobel.decompiler.MethodBudget;
+import com.strobel.decompiler.MethodBudgetExceededException;
 import com.strobel.decompiler.PlainTextOutput;
 import com.strobel.decompiler.ast.*;
 import com.strobel.decompiler.ast.Label;
@@ -80,11 +84,25 @@ public class AstMethodBodyBuilder {
         final DecompilerContext context,
         final Iterable<ParameterDeclaration> parameters) {
 
+        return createMethodBody(astBuilder, method, context, parameters, null);
+    }
+
+    static BlockStatement createMethodBody(
+        final AstBuilder astBuilder,
+        final MethodDefinition method,
+        final DecompilerContext context,
+        final Iterable<ParameterDeclaration> parameters,
+        final MethodBodyPrefetcher prefetcher) {
+
         VerifyArgument.notNull(astBuilder, "astBuilder");
         VerifyArgument.notNull(method, "method");
         VerifyArgument.notNull(context, "context");
 
         final MethodDefinition oldCurrentMethod = context.getCurrentMethod();
+        final MethodBudget oldBudget = context.getMethodBudget();
+        final MethodBudget budget = prefetcher != null ? prefetcher.getBudget(method)
+                                                       : MethodBudget.create(context.getSettings());
+        final IDecompilationListener listener = context.getDecompilationListener();
 
 /*
         assert oldCurrentMethod == null ||
@@ -92,20 +110,73 @@ public class AstMethodBodyBuilder {
                method.getDeclaringType().getDeclaringMethod() == oldCurrentMethod;
 */
 
+        //
+        // The method body is a phase of its own, nested within the type's, so that it can be
+        // charged to the method.
+        //
+        if (listener != null) {
+            listener.phaseStarted(context, DecompilationPhase.BuildJavaAst);
+        }
+
         context.setCurrentMethod(method);
+        context.setMethodBudget(budget);
 
         try {
+            final Block bytecodeAst = prefetcher != null ? prefetcher.take(method)
+                                                         : buildBytecodeAst(method, context);
+
+            if (bytecodeAst == null) {
+                return null;
+            }
+
             final AstMethodBodyBuilder builder = new AstMethodBodyBuilder(astBuilder, method, context);
-            return builder.createMethodBody(parameters);
+            final BlockStatement body;
+
+            budget.resume();
+
+            try {
+                body = builder.createMethodBody(bytecodeAst, parameters);
+                budget.checkTime();
+            }
+            finally {
+                budget.suspend();
+            }
+
+            if (!budget.isUnlimited()) {
+                //
+                // The Java transforms keep charging time to the budget; see ContextTrackingVisitor.
+                //
+                body.putUserData(Keys.METHOD_BUDGET, budget);
+            }
+
+            return body;
         }
         catch (Throwable t) {
             return createErrorBlock(astBuilder, context, method, t);
         }
         finally {
+            if (listener != null) {
+                listener.phaseEnded(context, DecompilationPhase.BuildJavaAst);
+            }
+
             context.setCurrentMethod(oldCurrentMethod);
+            context.setMethodBudget(oldBudget);
         }
     }
 
+    /**
+     * Creates the stub which replaces a method whose body has exceeded its budget after being
+     * decompiled, i.e., while running the Java transforms.
+     */
+    static BlockStatement createBudgetExceededBlock(
+        final AstBuilder astBuilder,
+        final DecompilerContext context,
+        final MethodDefinition method,
+        final MethodBudgetExceededException e) {
+
+        return createErrorBlock(astBuilder, context, method, e);
+    }
+
     @SuppressWarnings("ConstantConditions")
     private static BlockStatement createErrorBlock(
         final AstBuilder astBuilder,
@@ -114,6 +185,11 @@ public class AstMethodBodyBuilder {
         final Throwable t) {
 
         final BlockStatement block = new BlockStatement();
+        final boolean budgetExceeded = t instanceof MethodBudgetExceededException;
+
+        if (budgetExceeded && ((MethodBudgetExceededException) t).isTimeLimitExceeded()) {
+            context.setMethodTimeLimitExceeded(true);
+        }
 
         final List<String> lines = StringUtilities.split(
             ExceptionUtilities.getStackTraceString(t),
@@ -123,7 +199,18 @@ public class AstMethodBodyBuilder {
         );
 
         block.addChild(new Comment(" ", CommentType.SingleLine), Roles.COMMENT);
-        block.addChild(new Comment(" This method could not be decompiled.", CommentType.SingleLine), Roles.COMMENT);
+
+        if (budgetExceeded) {
+            //
+            // Running out of budget is not an error, so there is no stack trace worth showing.
+            //
+            block.addChild(new Comment(" This method was not decompiled because it exceeded its budget:", CommentType.SingleLine), Roles.COMMENT);
+            block.addChild(new Comment(" " + t.getMessage(), CommentType.SingleLine), Roles.COMMENT);
+        }
+        else {
+            block.addChild(new Comment(" This method could not be decompiled.", CommentType.SingleLine), Roles.COMMENT);
+        }
+
         block.addChild(new Comment(" ", CommentType.SingleLine), Roles.COMMENT);
 
         try {
@@ -157,7 +244,7 @@ public class AstMethodBodyBuilder {
             block.addChild(new Comment(" ", CommentType.SingleLine), Roles.COMMENT);
         }
 
-        if (context.getSettings().getIncludeErrorDiagnostics()) {
+        if (context.getSettings().getIncludeErrorDiagnostics() && !budgetExceeded) {
             block.addChild(new Comment(" The error that occurred was:", CommentType.SingleLine), Roles.COMMENT);
             block.addChild(new Comment(" ", CommentType.SingleLine), Roles.COMMENT);
 
@@ -178,7 +265,11 @@ public class AstMethodBodyBuilder {
                     new ObjectCreationExpression(
                            Expression.MYSTERY_OFFSET,
                         astBuilder.convertType(parser.parseTypeDescriptor("java/lang/IllegalStateException")),
-                        new PrimitiveExpression( Expression.MYSTERY_OFFSET, "An error occurred while decompiling this method.")
+                        new PrimitiveExpression(
+                            Expression.MYSTERY_OFFSET,
+                            budgetExceeded ? "This method was not decompiled."
+                                           : "An error occurred while decompiling this method."
+                        )
                     )
                 )
             );
@@ -197,22 +288,62 @@ public class AstMethodBodyBuilder {
         _parser = new MetadataParser(method.getDeclaringType());
     }
 
-    @SuppressWarnings("ConstantConditions")
-    private BlockStatement createMethodBody(final Iterable<ParameterDeclaration> parameters) {
-        final MethodBody body = _method.getBody();
+    /**
+     * Builds and optimizes the bytecode AST for {@code method}, which must be the context's current
+     * method.  This touches nothing shared with other methods, so it may run on any thread, provided
+     * each thread has its own context.
+     */
+    static Block buildBytecodeAst(final MethodDefinition method, final DecompilerContext context) {
+        final MethodBody body = method.getBody();
 
         if (body == null) {
             return null;
         }
 
-        final Block method = new Block();
+        final MethodBudget budget = context.getMethodBudget();
+        final IDecompilationListener listener = context.getDecompilationListener();
 
-        method.getBody().addAll(
-            com.strobel.decompiler.ast.AstBuilder.build(body, true, _context)
-        );
+        budget.resume();
+
+        try {
+            final Block block = new Block();
+
+            if (listener != null) {
+                listener.phaseStarted(context, DecompilationPhase.BuildBytecodeAst);
+            }
+
+            try {
+                block.getBody().addAll(
+                    com.strobel.decompiler.ast.AstBuilder.build(body, true, context)
+                );
+            }
+            finally {
+                if (listener != null) {
+                    listener.phaseEnded(context, DecompilationPhase.BuildBytecodeAst);
+                }
+            }
+
+            if (!budget.isUnlimited()) {
+                int nodeCount = 0;
+
+                for (final Node ignored : block.iterateSelfAndChildrenRecursive()) {
+                    ++nodeCount;
+                }
+
+                budget.checkNodeCount(nodeCount);
+            }
 
-        AstOptimizer.optimize(_context, method);
+            AstOptimizer.optimize(context, block);
 
+            return block;
+        }
+        finally {
+            budget.suspend();
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private BlockStatement createMethodBody(final Block method, final Iterable<ParameterDeclaration> parameters) {
         final Set<ParameterDefinition> unmatchedParameters = new LinkedHashSet<>(_method.getParameters());
         final Set<Variable> methodParameters = new LinkedHashSet<>();
         final Set<Variable> localVariables = new LinkedHashSet<>();
@@ -1294,7 +1425,7 @@ public class AstMethodBodyBuilder {
 
         assert parameterCount == arguments.size();
 
-        final JavaResolver resolver = new JavaResolver(_context);
+        final JavaResolver resolver = JavaResolver.forContext(_context);
         final ConvertTypeOptions options = new ConvertTypeOptions();
 
         options.setAllowWildcards(false);
@@ -19,7 +19,11 @@ package com.strobel.decompiler.languages.java.ast;
 import com.strobel.assembler.metadata.MethodDefinition;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.DecompilationPhase;
 import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.IDecompilationListener;
+import com.strobel.decompiler.MethodBudget;
+import com.strobel.decompiler.MethodBudgetExceededException;
 import com.strobel.decompiler.languages.java.ast.transforms.IAstTransform;
 
 /// <summary>
@@ -59,26 +63,85 @@ public abstract class ContextTrackingVisitor<TResult> extends DepthFirstAstVisit
 
     public TResult visitMethodDeclaration(final MethodDeclaration node, final Void p) {
         assert context.getCurrentMethod() == null;
+
+        final MethodDefinition method = node.getUserData(Keys.METHOD_DEFINITION);
+        final MethodBudget budget = enterMethodBody(method, node.getBody());
+        final IDecompilationListener listener = context.getDecompilationListener();
+
+        if (listener != null) {
+            listener.phaseStarted(context, DecompilationPhase.TransformJavaAst);
+        }
+
         try {
-            context.setCurrentMethod(node.getUserData(Keys.METHOD_DEFINITION));
+            context.setCurrentMethod(method);
+            budget.resume();
             return super.visitMethodDeclaration(node, p);
         }
         finally {
+            budget.suspend();
+
+            if (listener != null) {
+                listener.phaseEnded(context, DecompilationPhase.TransformJavaAst);
+            }
+
             context.setCurrentMethod(null);
         }
     }
 
     public TResult visitConstructorDeclaration(final ConstructorDeclaration node, final Void p) {
         assert (context.getCurrentMethod() == null);
+
+        final MethodDefinition method = node.getUserData(Keys.METHOD_DEFINITION);
+        final MethodBudget budget = enterMethodBody(method, node.getBody());
+        final IDecompilationListener listener = context.getDecompilationListener();
+
+        if (listener != null) {
+            listener.phaseStarted(context, DecompilationPhase.TransformJavaAst);
+        }
+
         try {
-            context.setCurrentMethod(node.getUserData(Keys.METHOD_DEFINITION));
+            context.setCurrentMethod(method);
+            budget.resume();
             return super.visitConstructorDeclaration(node, p);
         }
         finally {
+            budget.suspend();
+
+            if (listener != null) {
+                listener.phaseEnded(context, DecompilationPhase.TransformJavaAst);
+            }
+
             context.setCurrentMethod(null);
         }
     }
 
+    /**
+     * Gets the budget for a method body about to be visited, which the visit is charged to.  A body
+     * whose budget has already run out is first replaced with a stub; transforms cannot be stopped
+     * partway through a method, so this is the point where they check the budget.
+     */
+    private MethodBudget enterMethodBody(final MethodDefinition method, final BlockStatement body) {
+        final MethodBudget budget = body.isNull() ? null : body.getUserData(Keys.METHOD_BUDGET);
+
+        if (budget == null) {
+            return MethodBudget.UNLIMITED;
+        }
+
+        try {
+            budget.checkTime();
+            return budget;
+        }
+        catch (final MethodBudgetExceededException e) {
+            final AstBuilder astBuilder = context.getUserData(Keys.AST_BUILDER);
+
+            if (method != null && astBuilder != null) {
+                body.replaceWith(AstMethodBodyBuilder.createBudgetExceededBlock(astBuilder, context, method, e));
+            }
+
+            return MethodBudget.UNLIMITED;
+        }
+    }
+
     @Override
     public void run(final AstNode compilationUnit) {
         compilationUnit.acceptVisitor(this, null);
@@ -57,7 +57,7 @@ public class DefiniteAssignmentAnalysis {
     private int analyzedRangeEnd;
 
     public DefiniteAssignmentAnalysis(final DecompilerContext context, final Statement rootStatement) {
-        this(rootStatement, new JavaResolver(context));
+        this(rootStatement, JavaResolver.forContext(context));
     }
 
     public DefiniteAssignmentAnalysis(final Statement rootStatement, final Function<AstNode, ResolveResult> resolver) {
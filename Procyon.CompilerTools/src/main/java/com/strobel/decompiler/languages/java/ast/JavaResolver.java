@@ -17,6 +17,7 @@
 package com.strobel.decompiler.languages.java.ast;
 
 import com.strobel.assembler.metadata.*;
+import com.strobel.componentmodel.Key;
 import com.strobel.core.Comparer;
 import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
@@ -26,15 +27,35 @@ import com.strobel.decompiler.semantics.ResolveResult;
 import com.strobel.functions.Function;
 
 public class JavaResolver implements Function<AstNode, ResolveResult> {
+    private final static Key<JavaResolver> RESOLVER_KEY = Key.create("JavaResolver");
+
     private final DecompilerContext _context;
+    private final ResolveVisitor _visitor;
 
     public JavaResolver(final DecompilerContext context) {
         _context = VerifyArgument.notNull(context, "context");
+        _visitor = new ResolveVisitor(_context);
+    }
+
+    /**
+     * Returns the resolver shared by everything running against {@code context}.  A resolver keeps
+     * no state of its own beyond its context, so there is no need to build one per transform.
+     */
+    public static JavaResolver forContext(final DecompilerContext context) {
+        VerifyArgument.notNull(context, "context");
+
+        final JavaResolver resolver = context.getUserData(RESOLVER_KEY);
+
+        if (resolver != null) {
+            return resolver;
+        }
+
+        return context.putUserDataIfAbsent(RESOLVER_KEY, new JavaResolver(context));
     }
 
     @Override
     public ResolveResult apply(final AstNode input) {
-        return input.acceptVisitor(new ResolveVisitor(_context), null);
+        return input.acceptVisitor(_visitor, null);
     }
 
     private final static class ResolveVisitor extends ContextTrackingVisitor<ResolveResult> {
@@ -0,0 +1,186 @@
+/*
+ * MethodBodyPrefetcher.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages.java.ast;
+
+import com.strobel.annotations.NotNull;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.MethodBudget;
+import com.strobel.decompiler.ast.Block;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds and optimizes the bytecode ASTs of a type's methods on worker threads, ahead of the
+ * {@link AstBuilder} converting them into Java method bodies.  The conversion itself stays on the
+ * calling thread and runs in declaration order, since it adds imports and local type declarations
+ * to the shared compilation unit; only the analysis which precedes it runs concurrently.
+ * <p/>
+ * Each method is analyzed with its own fork of the {@link DecompilerContext}.  The calling thread
+ * takes part, too: if it asks for a method no worker has started on, it builds it itself.
+ *
+ * @author Mike Strobel
+ */
+final class MethodBodyPrefetcher {
+    private final static ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+        new ThreadFactory() {
+            private final AtomicInteger _threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(@NotNull final Runnable r) {
+                final Thread thread = new Thread(r, "procyon-method-body-" + _threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }
+    );
+
+    private final DecompilerContext _context;
+    private final FutureTask<Block>[] _tasks;
+    private final Map<MethodDefinition, FutureTask<Block>> _tasksByMethod;
+    private final Map<MethodDefinition, MethodBudget> _budgets;
+    private final AtomicInteger _nextTask = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    private MethodBodyPrefetcher(final DecompilerContext context, final List<MethodDefinition> methods) {
+        _context = context;
+        _tasks = new FutureTask[methods.size()];
+        _tasksByMethod = new IdentityHashMap<>(methods.size());
+        _budgets = new IdentityHashMap<>(methods.size());
+
+        for (int i = 0; i < _tasks.length; i++) {
+            final MethodDefinition method = methods.get(i);
+            final DecompilerContext fork = context.fork();
+
+            fork.setCurrentMethod(method);
+            fork.setMethodBudget(MethodBudget.create(context.getSettings()));
+
+            _tasks[i] = new FutureTask<>(
+                new Callable<Block>() {
+                    @Override
+                    public Block call() {
+                        return AstMethodBodyBuilder.buildBytecodeAst(method, fork);
+                    }
+                }
+            );
+
+            _tasksByMethod.put(method, _tasks[i]);
+            _budgets.put(method, fork.getMethodBudget());
+        }
+    }
+
+    /**
+     * Starts analyzing {@code methods} on up to {@code threadCount - 1} worker threads, the calling
+     * thread being the last.  The context's current type must be the methods' declaring type.
+     */
+    static MethodBodyPrefetcher start(
+        final DecompilerContext context,
+        final List<MethodDefinition> methods,
+        final int threadCount) {
+
+        VerifyArgument.notNull(context, "context");
+        VerifyArgument.noNullElements(methods, "methods");
+        VerifyArgument.isPositive(threadCount, "threadCount");
+
+        final MethodBodyPrefetcher prefetcher = new MethodBodyPrefetcher(context, methods);
+        final int workerCount = Math.min(threadCount - 1, methods.size());
+
+        for (int i = 0; i < workerCount; i++) {
+            EXECUTOR.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        prefetcher.runTasks();
+                    }
+                }
+            );
+        }
+
+        return prefetcher;
+    }
+
+    private void runTasks() {
+        int index;
+
+        while ((index = _nextTask.getAndIncrement()) < _tasks.length) {
+            //
+            // Tasks the calling thread has already claimed are skipped, as run() does nothing
+            // once a task has started.
+            //
+            _tasks[index].run();
+        }
+    }
+
+    /**
+     * Gets the budget {@code method} is being analyzed with, which should also cover the rest of
+     * its decompilation.
+     */
+    final MethodBudget getBudget(final MethodDefinition method) {
+        final MethodBudget budget = _budgets.get(method);
+        return budget != null ? budget : MethodBudget.create(_context.getSettings());
+    }
+
+    /**
+     * Gets the optimized bytecode AST for {@code method}, waiting for a worker to finish it if
+     * necessary.  Any exception thrown while building it is rethrown here.
+     */
+    final Block take(final MethodDefinition method) {
+        final FutureTask<Block> task = _tasksByMethod.remove(method);
+
+        if (task == null) {
+            return AstMethodBodyBuilder.buildBytecodeAst(method, _context);
+        }
+
+        task.run();
+
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                }
+                catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (final ExecutionException e) {
+                    throw ExceptionUtilities.<RuntimeException>rethrow(e.getCause());
+                }
+            }
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops the workers from starting on any methods which have not been started yet.
+     */
+    final void cancel() {
+        _nextTask.set(_tasks.length);
+    }
+}
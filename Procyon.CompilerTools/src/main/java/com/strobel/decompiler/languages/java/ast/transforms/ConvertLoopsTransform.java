@@ -122,7 +122,7 @@ public final class ConvertLoopsTransform extends ContextTrackingVisitor<AstNode>
 
         final BlockStatement body = (BlockStatement) node.getEmbeddedStatement();
         final ControlFlowGraphBuilder graphBuilder = new ControlFlowGraphBuilder();
-        final List<ControlFlowNode> nodes = graphBuilder.buildControlFlowGraph(node, new JavaResolver(context));
+        final List<ControlFlowNode> nodes = graphBuilder.buildControlFlowGraph(node, JavaResolver.forContext(context));
 
         if (nodes.size() < 2) {
             return null;
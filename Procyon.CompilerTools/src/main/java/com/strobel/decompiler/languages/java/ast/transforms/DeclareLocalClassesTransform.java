@@ -74,7 +74,7 @@ public class DeclareLocalClassesTransform implements IAstTransform {
                 }
 
                 if (analysis == null) {
-                    analysis = new DefiniteAssignmentAnalysis(method.getBody(), new JavaResolver(context));
+                    analysis = new DefiniteAssignmentAnalysis(method.getBody(), JavaResolver.forContext(context));
                 }
 
                 boolean madeProgress;
@@ -196,7 +196,7 @@ public class DeclareVariablesTransform implements IAstTransform {
             }
 
             if (analysis == null) {
-                analysis = new DefiniteAssignmentAnalysis(block, new JavaResolver(context));
+                analysis = new DefiniteAssignmentAnalysis(block, JavaResolver.forContext(context));
             }
 
             for (final VariableDeclarationStatement declaration : variables) {
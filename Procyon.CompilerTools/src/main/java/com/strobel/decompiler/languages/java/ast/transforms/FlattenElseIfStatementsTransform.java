@@ -19,15 +19,36 @@ package com.strobel.decompiler.languages.java.ast.transforms;
 import com.strobel.decompiler.DecompilerContext;
 import com.strobel.decompiler.languages.java.ast.*;
 
-public class FlattenElseIfStatementsTransform extends ContextTrackingVisitor<Void> {
+import java.util.Collections;
+import java.util.List;
+
+public class FlattenElseIfStatementsTransform extends ContextTrackingVisitor<Void> implements IFusibleAstTransform {
     public FlattenElseIfStatementsTransform(final DecompilerContext context) {
         super(context);
     }
 
+    @Override
+    public List<Class<? extends AstNode>> getNodeTypes() {
+        return Collections.<Class<? extends AstNode>>singletonList(IfElseStatement.class);
+    }
+
+    @Override
+    public void enterNode(final AstNode node) {
+    }
+
+    @Override
+    public void leaveNode(final AstNode node) {
+        flatten((IfElseStatement) node);
+    }
+
     @Override
     public Void visitIfElseStatement(final IfElseStatement node, final Void data) {
         super.visitIfElseStatement(node, data);
+        flatten(node);
+        return null;
+    }
 
+    private static void flatten(final IfElseStatement node) {
         final Statement trueStatement = node.getTrueStatement();
         final Statement falseStatement = node.getFalseStatement();
 
@@ -44,7 +65,7 @@ public class FlattenElseIfStatementsTransform extends ContextTrackingVisitor<Voi
             node.setTrueStatement(falseStatement);
             node.setFalseStatement(null);
 
-            return null;
+            return;
         }
 
         if (falseStatement instanceof BlockStatement) {
@@ -58,11 +79,7 @@ public class FlattenElseIfStatementsTransform extends ContextTrackingVisitor<Voi
 
                 elseIf.remove();
                 falseStatement.replaceWith(elseIf);
-
-                return null;
             }
         }
-
-        return null;
     }
 }
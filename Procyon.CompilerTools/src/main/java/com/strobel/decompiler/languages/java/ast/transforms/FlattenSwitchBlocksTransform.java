@@ -24,10 +24,13 @@ import com.strobel.decompiler.languages.java.ast.Statement;
 import com.strobel.decompiler.languages.java.ast.SwitchSection;
 import com.strobel.decompiler.languages.java.ast.VariableDeclarationStatement;
 
+import java.util.Collections;
+import java.util.List;
+
 import static com.strobel.core.CollectionUtilities.any;
 import static com.strobel.core.CollectionUtilities.ofType;
 
-public class FlattenSwitchBlocksTransform extends ContextTrackingVisitor<AstNode> implements IAstTransform {
+public class FlattenSwitchBlocksTransform extends ContextTrackingVisitor<AstNode> implements IFusibleAstTransform {
     public FlattenSwitchBlocksTransform(final DecompilerContext context) {
         super(context);
     }
@@ -39,10 +42,36 @@ public class FlattenSwitchBlocksTransform extends ContextTrackingVisitor<AstNode
         }
     }
 
+    @Override
+    public List<Class<? extends AstNode>> getNodeTypes() {
+        return Collections.<Class<? extends AstNode>>singletonList(SwitchSection.class);
+    }
+
+    @Override
+    public void enterNode(final AstNode node) {
+    }
+
+    @Override
+    public void leaveNode(final AstNode node) {
+        //
+        // Flattening only moves the section's own statements, so it gives the same result whether
+        // it happens before or after the children are visited.  Fused phases do it afterwards, to
+        // see the section as it would be once the transforms preceding this one have finished.
+        //
+        if (context.getSettings().getFlattenSwitchBlocks()) {
+            flatten((SwitchSection) node);
+        }
+    }
+
     @Override
     public AstNode visitSwitchSection(final SwitchSection node, final Void p) {
+        flatten(node);
+        return super.visitSwitchSection(node, p);
+    }
+
+    private static void flatten(final SwitchSection node) {
         if (node.getStatements().size() != 1) {
-            return super.visitSwitchSection(node, p);
+            return;
         }
 
         final Statement firstStatement = node.getStatements().firstOrNullObject();
@@ -51,13 +80,11 @@ public class FlattenSwitchBlocksTransform extends ContextTrackingVisitor<AstNode
             final BlockStatement block = (BlockStatement) firstStatement;
 
             if (any(ofType(block.getStatements(), VariableDeclarationStatement.class))) {
-                return super.visitSwitchSection(node, p);
+                return;
             }
 
             block.remove();
             block.getStatements().moveTo(node.getStatements());
         }
-
-        return super.visitSwitchSection(node, p);
     }
 }
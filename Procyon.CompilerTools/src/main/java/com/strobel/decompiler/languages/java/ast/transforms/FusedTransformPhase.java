@@ -0,0 +1,97 @@
+/*
+ * FusedTransformPhase.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is based on Mono.Cecil from Jb Evain, Copyright (c) Jb Evain;
+ * and ILSpy/ICSharpCode from SharpDevelop, Copyright (c) AlphaSierraPapa.
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages.java.ast.transforms;
+
+import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.languages.java.ast.AstNode;
+import com.strobel.decompiler.languages.java.ast.ContextTrackingVisitor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a group of {@link IFusibleAstTransform}s over the tree in a single depth-first traversal,
+ * dispatching each node only to the transforms which declared an interest in its type.
+ */
+final class FusedTransformPhase extends ContextTrackingVisitor<Void> {
+    private final static IFusibleAstTransform[] NO_TRANSFORMS = new IFusibleAstTransform[0];
+
+    private final IFusibleAstTransform[] _transforms;
+    private final Map<Class<?>, IFusibleAstTransform[]> _dispatchTable = new IdentityHashMap<>();
+
+    FusedTransformPhase(final DecompilerContext context, final List<IFusibleAstTransform> transforms) {
+        super(context);
+        _transforms = VerifyArgument.noNullElementsAndNotEmpty(transforms, "transforms")
+                                    .toArray(new IFusibleAstTransform[transforms.size()]);
+    }
+
+    @Override
+    protected Void visitChildren(final AstNode node, final Void data) {
+        final IFusibleAstTransform[] transforms = getTransforms(node.getClass());
+
+        if (transforms.length == 0) {
+            return super.visitChildren(node, data);
+        }
+
+        for (final IFusibleAstTransform transform : transforms) {
+            transform.enterNode(node);
+        }
+
+        super.visitChildren(node, data);
+
+        final AstNode parent = node.getParent();
+
+        for (final IFusibleAstTransform transform : transforms) {
+            if (node.getParent() != parent) {
+                //
+                // An earlier transform replaced or removed the node; the rest have nothing left to visit.
+                //
+                break;
+            }
+            transform.leaveNode(node);
+        }
+
+        return null;
+    }
+
+    private IFusibleAstTransform[] getTransforms(final Class<?> nodeType) {
+        IFusibleAstTransform[] transforms = _dispatchTable.get(nodeType);
+
+        if (transforms == null) {
+            final List<IFusibleAstTransform> matches = new ArrayList<>();
+
+            for (final IFusibleAstTransform transform : _transforms) {
+                for (final Class<? extends AstNode> type : transform.getNodeTypes()) {
+                    if (type.isAssignableFrom(nodeType)) {
+                        matches.add(transform);
+                        break;
+                    }
+                }
+            }
+
+            transforms = matches.isEmpty() ? NO_TRANSFORMS
+                                           : matches.toArray(new IFusibleAstTransform[matches.size()]);
+
+            _dispatchTable.put(nodeType, transforms);
+        }
+
+        return transforms;
+    }
+}
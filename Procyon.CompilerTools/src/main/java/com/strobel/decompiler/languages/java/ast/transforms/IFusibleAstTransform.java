@@ -0,0 +1,40 @@
+/*
+ * IFusibleAstTransform.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is based on Mono.Cecil from Jb Evain, Copyright (c) Jb Evain;
+ * and ILSpy/ICSharpCode from SharpDevelop, Copyright (c) AlphaSierraPapa.
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages.java.ast.transforms;
+
+import com.strobel.decompiler.languages.java.ast.AstNode;
+
+import java.util.List;
+
+/**
+ * A transform which rewrites each node independently of the rest of the tree, and can therefore
+ * share a single traversal with other such transforms.  Adjacent fusible transforms in the
+ * {@link TransformationPipeline} are run together as one phase:  for every node whose type is one
+ * of {@link #getNodeTypes()}, the shared traversal calls {@link #enterNode} before visiting the
+ * node's children and {@link #leaveNode} after.
+ * <p>
+ * Hooks may rewrite the node's descendants, and {@link #leaveNode} may also replace or remove the
+ * node itself.  A transform must produce the same result whether it is run alone or fused with
+ * its neighbors; anything order-dependent should remain a plain {@link IAstTransform}.
+ */
+public interface IFusibleAstTransform extends IAstTransform {
+    List<Class<? extends AstNode>> getNodeTypes();
+
+    void enterNode(final AstNode node);
+
+    void leaveNode(final AstNode node);
+}
@@ -27,20 +27,40 @@ import com.strobel.core.StringUtilities;
 import com.strobel.decompiler.DecompilerContext;
 import com.strobel.decompiler.languages.java.ast.*;
 
-public class InsertConstantReferencesTransform extends ContextTrackingVisitor<Void> {
+import java.util.Collections;
+import java.util.List;
+
+public class InsertConstantReferencesTransform extends ContextTrackingVisitor<Void> implements IFusibleAstTransform {
     public InsertConstantReferencesTransform(final DecompilerContext context) {
         super(context);
     }
 
+    @Override
+    public List<Class<? extends AstNode>> getNodeTypes() {
+        return Collections.<Class<? extends AstNode>>singletonList(PrimitiveExpression.class);
+    }
+
+    @Override
+    public void enterNode(final AstNode node) {
+    }
+
+    @Override
+    public void leaveNode(final AstNode node) {
+        rewrite((PrimitiveExpression) node);
+    }
+
     @Override
     public Void visitPrimitiveExpression(final PrimitiveExpression node, final Void data) {
+        rewrite(node);
+        return null;
+    }
+
+    private void rewrite(final PrimitiveExpression node) {
         final Object value = node.getValue();
 
         if (value instanceof Number) {
             tryRewriteConstant(node, value);
         }
-
-        return null;
     }
 
     private void tryRewriteConstant(final PrimitiveExpression node, final Object value) {
@@ -51,7 +51,7 @@ public class InsertNecessaryConversionsTransform extends ContextTrackingVisitor<
 
     public InsertNecessaryConversionsTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     @Override
@@ -42,7 +42,7 @@ public class IntroduceStringConcatenationTransform extends ContextTrackingVisito
             new TypedExpression(
                 "firstArgument",
                 CommonTypeReferences.String,
-                new JavaResolver(context)
+                JavaResolver.forContext(context)
             )
         );
     }
@@ -143,7 +143,7 @@ public class IntroduceStringConcatenationTransform extends ContextTrackingVisito
     }
 
     private boolean anyIsString(final List<Expression> expressions) {
-        final JavaResolver resolver = new JavaResolver(context);
+        final JavaResolver resolver = JavaResolver.forContext(context);
 
         for (int i = 0; i < expressions.size(); i++) {
             final ResolveResult result = resolver.apply(expressions.get(i));
@@ -88,7 +88,7 @@ public class RemoveImplicitBoxingTransform extends ContextTrackingVisitor<Void>
 
     public RemoveImplicitBoxingTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     @Override
@@ -32,7 +32,7 @@ public class RemoveRedundantCastsTransform extends ContextTrackingVisitor<Void>
 
     public RemoveRedundantCastsTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     @Override
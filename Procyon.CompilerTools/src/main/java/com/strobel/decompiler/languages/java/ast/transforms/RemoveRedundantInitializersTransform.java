@@ -30,32 +30,59 @@ import com.strobel.decompiler.languages.java.ast.Keys;
 import com.strobel.decompiler.languages.java.ast.MemberReferenceExpression;
 import com.strobel.decompiler.languages.java.ast.ThisReferenceExpression;
 
-public class RemoveRedundantInitializersTransform extends ContextTrackingVisitor<Void> {
-    private boolean _inConstructor;
+import java.util.Arrays;
+import java.util.List;
+
+public class RemoveRedundantInitializersTransform extends ContextTrackingVisitor<Void> implements IFusibleAstTransform {
+    private int _constructorDepth;
 
     public RemoveRedundantInitializersTransform(final DecompilerContext context) {
         super(context);
     }
 
     @Override
-    public Void visitConstructorDeclaration(final ConstructorDeclaration node, final Void p) {
-        final boolean wasInConstructor = _inConstructor;
+    public List<Class<? extends AstNode>> getNodeTypes() {
+        return Arrays.<Class<? extends AstNode>>asList(ConstructorDeclaration.class, AssignmentExpression.class);
+    }
+
+    @Override
+    public void enterNode(final AstNode node) {
+        if (node instanceof ConstructorDeclaration) {
+            ++_constructorDepth;
+        }
+    }
+
+    @Override
+    public void leaveNode(final AstNode node) {
+        if (node instanceof ConstructorDeclaration) {
+            --_constructorDepth;
+        }
+        else {
+            removeIfRedundant((AssignmentExpression) node);
+        }
+    }
 
-        _inConstructor = true;
+    @Override
+    public Void visitConstructorDeclaration(final ConstructorDeclaration node, final Void p) {
+        ++_constructorDepth;
 
         try {
             return super.visitConstructorDeclaration(node, p);
         }
         finally {
-            _inConstructor = wasInConstructor;
+            --_constructorDepth;
         }
     }
 
     @Override
     public Void visitAssignmentExpression(final AssignmentExpression node, final Void data) {
         super.visitAssignmentExpression(node, data);
+        removeIfRedundant(node);
+        return null;
+    }
 
-        if (_inConstructor) {
+    private void removeIfRedundant(final AssignmentExpression node) {
+        if (_constructorDepth > 0) {
             final Expression left = node.getLeft();
 
             if (left instanceof MemberReferenceExpression &&
@@ -81,7 +108,5 @@ public class RemoveRedundantInitializersTransform extends ContextTrackingVisitor
                 }
             }
         }
-
-        return null;
     }
 }
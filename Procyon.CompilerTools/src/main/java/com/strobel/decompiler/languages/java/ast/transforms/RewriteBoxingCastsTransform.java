@@ -54,7 +54,7 @@ public class RewriteBoxingCastsTransform extends ContextTrackingVisitor<Void> {
 
     protected RewriteBoxingCastsTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     @Override
@@ -32,7 +32,7 @@ public class RewriteInnerClassConstructorCalls extends ContextTrackingVisitor<Vo
 
     public RewriteInnerClassConstructorCalls(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     @Override
@@ -23,18 +23,51 @@ import com.strobel.decompiler.DecompilerContext;
 import com.strobel.decompiler.languages.java.ast.*;
 import com.strobel.decompiler.semantics.ResolveResult;
 
-public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisitor<Void> {
+import java.util.Arrays;
+import java.util.List;
+
+public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisitor<Void> implements IFusibleAstTransform {
     private final JavaResolver _resolver;
 
     public SimplifyArithmeticExpressionsTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
+    }
+
+    @Override
+    public List<Class<? extends AstNode>> getNodeTypes() {
+        return Arrays.<Class<? extends AstNode>>asList(
+            UnaryOperatorExpression.class,
+            BinaryOperatorExpression.class,
+            AssignmentExpression.class
+        );
+    }
+
+    @Override
+    public void enterNode(final AstNode node) {
+    }
+
+    @Override
+    public void leaveNode(final AstNode node) {
+        if (node instanceof UnaryOperatorExpression) {
+            simplifyUnary((UnaryOperatorExpression) node);
+        }
+        else if (node instanceof BinaryOperatorExpression) {
+            simplifyBinary((BinaryOperatorExpression) node);
+        }
+        else {
+            simplifyAssignment((AssignmentExpression) node);
+        }
     }
 
     @Override
     public Void visitUnaryOperatorExpression(final UnaryOperatorExpression node, final Void data) {
         super.visitUnaryOperatorExpression(node, data);
+        simplifyUnary(node);
+        return null;
+    }
 
+    private void simplifyUnary(final UnaryOperatorExpression node) {
         final UnaryOperatorType operator = node.getOperator();
 
         switch (operator) {
@@ -79,14 +112,16 @@ public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisit
                 }
             }
         }
-
-        return null;
     }
 
     @Override
     public Void visitBinaryOperatorExpression(final BinaryOperatorExpression node, final Void data) {
         super.visitBinaryOperatorExpression(node, data);
+        simplifyBinary(node);
+        return null;
+    }
 
+    private void simplifyBinary(final BinaryOperatorExpression node) {
         final BinaryOperatorType operator = node.getOperator();
 
         switch (operator) {
@@ -98,7 +133,7 @@ public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisit
                     leftResult.getType() == null ||
                     leftResult.getType().isEquivalentTo(CommonTypeReferences.String)) {
 
-                    return null;
+                    return;
                 }
 
                 if (node.getRight() instanceof PrimitiveExpression) {
@@ -165,14 +200,16 @@ public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisit
                 break;
             }
         }
-
-        return null;
     }
 
     @Override
     public Void visitAssignmentExpression(final AssignmentExpression node, final Void data) {
         super.visitAssignmentExpression(node, data);
+        simplifyAssignment(node);
+        return null;
+    }
 
+    private void simplifyAssignment(final AssignmentExpression node) {
         final AssignmentOperatorType operator = node.getOperator();
 
         switch (operator) {
@@ -184,7 +221,7 @@ public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisit
                     leftResult.getType() == null ||
                     leftResult.getType().isEquivalentTo(CommonTypeReferences.String)) {
 
-                    return null;
+                    return;
                 }
 
                 Expression rValue = node.getRight();
@@ -257,7 +294,5 @@ public class SimplifyArithmeticExpressionsTransform extends ContextTrackingVisit
                 }
             }
         }
-
-        return null;
     }
 }
@@ -46,7 +46,7 @@ public class SimplifyAssignmentsTransform extends ContextTrackingVisitor<AstNode
 
     public SimplifyAssignmentsTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     private final static PrimitiveExpression TRUE_CONSTANT = new PrimitiveExpression(Expression.MYSTERY_OFFSET, true);
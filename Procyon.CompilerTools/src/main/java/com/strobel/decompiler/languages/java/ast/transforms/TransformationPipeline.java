@@ -17,9 +17,13 @@
 package com.strobel.decompiler.languages.java.ast.transforms;
 
 import com.strobel.core.Predicate;
+import com.strobel.decompiler.DecompilationPhase;
 import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.IDecompilationListener;
 import com.strobel.decompiler.languages.java.ast.AstNode;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,6 +32,33 @@ public final class TransformationPipeline {
 
     @SuppressWarnings("UnusedParameters")
     public static IAstTransform[] createPipeline(final DecompilerContext context) {
+        //
+        // Adjacent transforms implementing IFusibleAstTransform share one traversal (see runPipeline).
+        // Everything else is a barrier, for one of the following reasons:
+        //
+        //   - It runs whole-tree or per-declaration passes, or collects state from one part of the
+        //     tree to apply in another:  RewriteLegacyClassConstants, EnumRewriter, EnumSwitchRewriter,
+        //     EclipseEnumSwitchRewriter, TryWithResources, DeclareVariables, EliminateSyntheticAccessors,
+        //     Lambda, RewriteLocalClasses, IntroduceOuterClassReferences, IntroduceInitializers,
+        //     RemoveRedundantCasts, DeclareLocalClasses, AddReferenceQualifiers, RemoveHiddenMembers,
+        //     and CollapseImports.
+        //
+        //   - It reads or rewrites nodes outside the subtree it visits (parents, siblings, following
+        //     statements), which a fused neighbor may or may not have reached yet:  AssertStatement,
+        //     RemoveImplicitBoxing, ConvertLoops, BreakTargetRelocation, LabelCleanup,
+        //     StringSwitchRewriter, RewriteInnerClassConstructorCalls, MarkReferencedSynthetics,
+        //     InsertNecessaryConversions, IntroduceStringConcatenation, and InlineEscapingAssignments.
+        //
+        //   - SimplifyAssignments rewrites top-down and revisits its own output.
+        //
+        //   - VarArgs picks overloads from the resolved types of the arguments, and fused with
+        //     SimplifyArithmeticExpressions it would see `~x` where it used to see `x ^ -1`; the two
+        //     do not resolve to the same type when `x` is boxed.
+        //
+        //   - EclipseStringSwitchRewriter, RewriteNewArrayLambdas, RewriteBoxingCasts, and
+        //     AddStandardAnnotations are node-local, but every neighbor is a barrier, so there
+        //     is nothing to fuse them with.
+        //
         return new IAstTransform[] {
             new RewriteLegacyClassConstantsTransform(context),
             new EnumRewriterTransform(context),
@@ -77,20 +108,136 @@ public final class TransformationPipeline {
         final Predicate<IAstTransform> abortCondition,
         final DecompilerContext context) {
 
+        runTransformationsUntil(node, abortCondition, context, true);
+    }
+
+    /**
+     * Runs the pipeline with fusion switched on or off; the output must be the same either way.
+     */
+    static void runTransformationsUntil(
+        final AstNode node,
+        final Predicate<IAstTransform> abortCondition,
+        final DecompilerContext context,
+        final boolean fuseTransforms) {
+
         if (node == null) {
             return;
         }
 
-        for (final IAstTransform transform : createPipeline(context)) {
+        final IDecompilationListener listener = context.getDecompilationListener();
+
+        if (listener == null) {
+            runPipeline(node, abortCondition, context, null, fuseTransforms);
+            return;
+        }
+
+        listener.phaseStarted(context, DecompilationPhase.TransformJavaAst);
+
+        try {
+            runPipeline(node, abortCondition, context, listener, fuseTransforms);
+        }
+        finally {
+            listener.phaseEnded(context, DecompilationPhase.TransformJavaAst);
+        }
+    }
+
+    private static void runPipeline(
+        final AstNode node,
+        final Predicate<IAstTransform> abortCondition,
+        final DecompilerContext context,
+        final IDecompilationListener listener,
+        final boolean fuseTransforms) {
+
+        final IAstTransform[] pipeline = createPipeline(context);
+        final List<IFusibleAstTransform> phase = new ArrayList<>();
+
+        //
+        // Runs of adjacent fusible transforms share a single traversal; every other transform
+        // acts as a barrier and gets a traversal of its own.
+        //
+        for (final IAstTransform transform : pipeline) {
             if (abortCondition != null && abortCondition.test(transform)) {
+                runPhase(node, phase, context, listener);
                 return;
             }
 
+            if (fuseTransforms && transform instanceof IFusibleAstTransform) {
+                phase.add((IFusibleAstTransform) transform);
+                continue;
+            }
+
+            runPhase(node, phase, context, listener);
+
             if (LOG.isLoggable(Level.FINE)) {
                 LOG.fine("Running Java AST transform: " + transform.getClass().getSimpleName() + "...");
             }
 
+            if (listener != null) {
+                listener.stepStarted(context, DecompilationPhase.TransformJavaAst, transform.getClass().getSimpleName());
+            }
+
             transform.run(node);
         }
+
+        runPhase(node, phase, context, listener);
+    }
+
+    private static void runPhase(
+        final AstNode node,
+        final List<IFusibleAstTransform> phase,
+        final DecompilerContext context,
+        final IDecompilationListener listener) {
+
+        if (phase.isEmpty()) {
+            return;
+        }
+
+        if (phase.size() == 1) {
+            final IFusibleAstTransform transform = phase.get(0);
+
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine("Running Java AST transform: " + transform.getClass().getSimpleName() + "...");
+            }
+
+            if (listener != null) {
+                listener.stepStarted(context, DecompilationPhase.TransformJavaAst, transform.getClass().getSimpleName());
+            }
+
+            transform.run(node);
+        }
+        else {
+            if (LOG.isLoggable(Level.FINE)) {
+                final StringBuilder names = new StringBuilder();
+
+                for (final IFusibleAstTransform transform : phase) {
+                    if (names.length() > 0) {
+                        names.append(", ");
+                    }
+                    names.append(transform.getClass().getSimpleName());
+                }
+
+                LOG.fine("Running fused Java AST transforms: " + names + "...");
+            }
+
+            if (listener != null) {
+                //
+                // Fused transforms share each node visit, so they can only be measured together.
+                //
+                final StringBuilder names = new StringBuilder();
+
+                for (final IFusibleAstTransform transform : phase) {
+                    if (names.length() > 0) {
+                        names.append('+');
+                    }
+                    names.append(transform.getClass().getSimpleName());
+                }
+
+                listener.stepStarted(context, DecompilationPhase.TransformJavaAst, names.toString());
+            }
+
+            new FusedTransformPhase(context, phase).run(node);
+        }
+
+        phase.clear();
     }
 }
@@ -81,7 +81,7 @@ public class TryWithResourcesTransform extends ContextTrackingVisitor<Void> {
             return;
         }
 
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
 
         final TryCatchStatement tryPattern = new TryCatchStatement(Expression.MYSTERY_OFFSET);
 
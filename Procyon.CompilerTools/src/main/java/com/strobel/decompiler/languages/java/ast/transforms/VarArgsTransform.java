@@ -35,7 +35,7 @@ public class VarArgsTransform extends ContextTrackingVisitor<Void> {
 
     public VarArgsTransform(final DecompilerContext context) {
         super(context);
-        _resolver = new JavaResolver(context);
+        _resolver = JavaResolver.forContext(context);
     }
 
     @Override
@@ -0,0 +1,243 @@
+package com.strobel.assembler.flowanalysis;
+
+import com.strobel.assembler.ir.ExceptionHandler;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks dominance queries answered from the numbered dominator tree, and the bit set dominance
+ * frontiers, against the walks up the immediate dominator chain which they replaced.
+ */
+public class ControlFlowGraphTests {
+    //
+    // Large methods with plenty of loops, switches, and exception handlers, including 'finally'.
+    //
+    private final static String[] TYPE_NAMES = {
+        "java/util/regex/Pattern",
+        "java/util/concurrent/ConcurrentHashMap",
+        "java/io/ObjectInputStream",
+        "java/lang/Character"
+    };
+
+    private static List<ControlFlowGraph> buildGraphs() {
+        final List<ControlFlowGraph> graphs = new ArrayList<>();
+
+        for (final String typeName : TYPE_NAMES) {
+            final TypeDefinition type = MetadataSystem.instance().lookupType(typeName).resolve();
+
+            for (final MethodDefinition method : type.getDeclaredMethods()) {
+                final MethodBody body = method.getBody();
+
+                if (body != null && !hasSelfProtectingHandler(body)) {
+                    graphs.add(ControlFlowGraphBuilder.build(body));
+                }
+            }
+        }
+
+        assertTrue(graphs.size() > 100);
+        return graphs;
+    }
+
+    private static boolean hasSelfProtectingHandler(final MethodBody body) {
+        //
+        // The 'monitorexit' handlers emitted for 'synchronized' blocks cover themselves.  AstBuilder
+        // rewrites them before it builds a graph, and the builder never finishes without that.
+        //
+        for (final ExceptionHandler handler : body.getExceptionHandlers()) {
+            if (handler.getTryBlock().contains(handler.getHandlerBlock().getFirstInstruction())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean chainDominates(final ControlFlowNode dominator, final ControlFlowNode node) {
+        for (ControlFlowNode current = node; current != null; current = current.getImmediateDominator()) {
+            if (current == dominator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ControlFlowNode chainCommonDominator(final ControlFlowNode a, final ControlFlowNode b) {
+        final Set<ControlFlowNode> path = new LinkedHashSet<>();
+
+        ControlFlowNode node1 = a;
+        ControlFlowNode node2 = b;
+
+        while (node1 != null && path.add(node1)) {
+            node1 = node1.getImmediateDominator();
+        }
+
+        while (node2 != null) {
+            if (path.contains(node2)) {
+                return node2;
+            }
+            node2 = node2.getImmediateDominator();
+        }
+
+        return null;
+    }
+
+    private static Map<ControlFlowNode, Set<ControlFlowNode>> chainDominanceFrontiers(final ControlFlowGraph graph) {
+        final Map<ControlFlowNode, Set<ControlFlowNode>> frontiers = new IdentityHashMap<>();
+        computeFrontier(graph.getEntryPoint(), frontiers);
+        return frontiers;
+    }
+
+    private static void computeFrontier(final ControlFlowNode n, final Map<ControlFlowNode, Set<ControlFlowNode>> frontiers) {
+        if (frontiers.containsKey(n)) {
+            return;
+        }
+
+        final Set<ControlFlowNode> frontier = new LinkedHashSet<>();
+
+        frontiers.put(n, frontier);
+
+        for (final ControlFlowNode child : n.getDominatorTreeChildren()) {
+            computeFrontier(child, frontiers);
+        }
+
+        for (final ControlFlowNode s : n.getSuccessors()) {
+            if (s.getImmediateDominator() != n) {
+                frontier.add(s);
+            }
+        }
+
+        for (final ControlFlowNode child : n.getDominatorTreeChildren()) {
+            for (final ControlFlowNode p : frontiers.get(child)) {
+                if (p.getImmediateDominator() != n) {
+                    frontier.add(p);
+                }
+            }
+        }
+    }
+
+    private static void assertDominanceMatchesChainWalk(final ControlFlowGraph graph) {
+        final List<ControlFlowNode> nodes = graph.getNodes();
+
+        for (final ControlFlowNode a : nodes) {
+            for (final ControlFlowNode b : nodes) {
+                assertEquals(chainDominates(a, b), a.dominates(b));
+            }
+        }
+    }
+
+    @Test
+    public void testDominatesMatchesChainWalk() throws Throwable {
+        for (final ControlFlowGraph graph : buildGraphs()) {
+            graph.computeDominance();
+            assertDominanceMatchesChainWalk(graph);
+        }
+    }
+
+    @Test
+    public void testCommonDominatorMatchesChainWalk() throws Throwable {
+        for (final ControlFlowGraph graph : buildGraphs()) {
+            graph.computeDominance();
+
+            final List<ControlFlowNode> nodes = new ArrayList<>();
+
+            for (final ControlFlowNode node : graph.getNodes()) {
+                if (node == graph.getEntryPoint() || node.getImmediateDominator() != null) {
+                    nodes.add(node);
+                }
+            }
+
+            for (final ControlFlowNode a : nodes) {
+                for (final ControlFlowNode b : nodes) {
+                    assertSame(chainCommonDominator(a, b), ControlFlowGraph.findCommonDominator(a, b));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDominanceFrontiersMatchChainWalk() throws Throwable {
+        for (final ControlFlowGraph graph : buildGraphs()) {
+            graph.computeDominance();
+            graph.computeDominanceFrontier();
+
+            final Map<ControlFlowNode, Set<ControlFlowNode>> expected = chainDominanceFrontiers(graph);
+
+            for (final ControlFlowNode node : graph.getNodes()) {
+                final Set<ControlFlowNode> expectedFrontier = expected.get(node);
+                final Set<ControlFlowNode> frontier = node.getDominanceFrontier();
+
+                if (expectedFrontier == null) {
+                    //
+                    // Unreachable nodes are not in the dominator tree, so their frontiers are never computed.
+                    //
+                    assertTrue(frontier.isEmpty());
+                    continue;
+                }
+
+                assertEquals(expectedFrontier, new HashSet<>(frontier));
+                assertEquals(expectedFrontier.size(), frontier.size());
+
+                for (final ControlFlowNode other : graph.getNodes()) {
+                    assertEquals(expectedFrontier.contains(other), frontier.contains(other));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDominanceRecomputed() throws Throwable {
+        for (final ControlFlowGraph graph : buildGraphs()) {
+            graph.computeDominance();
+            graph.computeDominance();
+            graph.computeDominanceFrontier();
+
+            assertDominanceMatchesChainWalk(graph);
+
+            final Map<ControlFlowNode, Set<ControlFlowNode>> expected = chainDominanceFrontiers(graph);
+
+            for (final ControlFlowNode node : expected.keySet()) {
+                assertEquals(expected.get(node), new HashSet<>(node.getDominanceFrontier()));
+            }
+        }
+    }
+
+    @Test
+    public void testDominatesAfterImmediateDominatorChanges() throws Throwable {
+        for (final ControlFlowGraph graph : buildGraphs()) {
+            graph.computeDominance();
+
+            //
+            // Hoist every node two levels deep up to the entry point; the numbering no longer
+            // describes the tree, so dominates() must fall back to walking up the chain.
+            //
+            boolean changed = false;
+
+            for (final ControlFlowNode node : graph.getNodes()) {
+                final ControlFlowNode immediateDominator = node.getImmediateDominator();
+
+                if (immediateDominator != null && immediateDominator.getImmediateDominator() == graph.getEntryPoint()) {
+                    node.setImmediateDominator(graph.getEntryPoint());
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                assertDominanceMatchesChainWalk(graph);
+            }
+        }
+    }
+}
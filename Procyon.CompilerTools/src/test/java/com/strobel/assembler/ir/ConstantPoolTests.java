@@ -0,0 +1,101 @@
+package com.strobel.assembler.ir;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConstantPoolTests {
+    @Test
+    public void testLazyPoolMatchesEagerPool() throws Throwable {
+        final ConstantPool eager = ConstantPool.read(loadConstantPoolData("java/util/HashMap"));
+        final ConstantPool lazy = ConstantPool.readLazy(loadConstantPoolData("java/util/HashMap"));
+
+        assertFalse(eager.isLazy());
+        assertTrue(lazy.isLazy());
+        assertTrue(lazy.isFrozen());
+        assertEquals(eager.getSize(), lazy.getSize());
+
+        //
+        // Probe entries out of order before walking the whole pool.
+        //
+        for (int i = eager.getSize(); i >= 1; i -= 7) {
+            assertEquals(describe(eager, i), describe(lazy, i));
+        }
+
+        final List<String> eagerEntries = new ArrayList<>();
+        final List<String> lazyEntries = new ArrayList<>();
+
+        for (final ConstantPool.Entry entry : eager) {
+            eagerEntries.add(String.valueOf(entry));
+        }
+
+        for (final ConstantPool.Entry entry : lazy) {
+            lazyEntries.add(String.valueOf(entry));
+        }
+
+        assertEquals(eagerEntries, lazyEntries);
+    }
+
+    @Test
+    public void testLazyPoolDecodesEntriesOnce() throws Throwable {
+        final ConstantPool lazy = ConstantPool.readLazy(loadConstantPoolData("java/util/ArrayList"));
+        final Iterator<ConstantPool.Entry> iterator = lazy.iterator();
+
+        ConstantPool.TypeInfoEntry typeInfo = null;
+
+        while (typeInfo == null && iterator.hasNext()) {
+            final ConstantPool.Entry entry = iterator.next();
+
+            if (entry instanceof ConstantPool.TypeInfoEntry) {
+                typeInfo = (ConstantPool.TypeInfoEntry) entry;
+            }
+        }
+
+        assertNotNull(typeInfo);
+        assertSame(typeInfo, lazy.get(typeInfo.index));
+        assertSame(lazy.get(typeInfo.nameIndex), lazy.get(typeInfo.nameIndex));
+    }
+
+    @Test
+    public void testLazyPoolSupportsInterningLookups() throws Throwable {
+        final ConstantPool lazy = ConstantPool.readLazy(loadConstantPoolData("java/util/ArrayList"));
+        final ConstantPool.Utf8StringConstantEntry name = lazy.getUtf8StringConstant("java/util/ArrayList");
+
+        assertNotNull(name);
+        assertSame(name, lazy.get(name.index));
+        assertNull(lazy.getUtf8StringConstant("not/a/Constant"));
+    }
+
+    private static Buffer loadConstantPoolData(final String internalName) {
+        final Buffer b = new Buffer();
+
+        assertTrue(new ClasspathTypeLoader().tryLoadType(internalName, b));
+
+        b.position(0);
+        b.readInt();            // magic
+        b.readUnsignedShort();  // minor version
+        b.readUnsignedShort();  // major version
+
+        return b;
+    }
+
+    private static String describe(final ConstantPool pool, final int index) {
+        try {
+            return String.valueOf(pool.get(index));
+        }
+        catch (final IndexOutOfBoundsException ignored) {
+            return "<unusable>";
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.strobel.assembler.metadata;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedJarTypeLoaderTests {
+    @Test
+    public void testLoadsStoredAndDeflatedEntries() throws Throwable {
+        final byte[] stringClass = loadClassBytes("java/lang/String");
+        final byte[] integerClass = loadClassBytes("java/lang/Integer");
+        final byte[] numberClass = loadClassBytes("java/lang/Number");
+        final File jarFile = File.createTempFile("procyon-test", ".jar");
+
+        try {
+            try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+                writeEntry(out, "java/lang/String.class", stringClass, ZipEntry.STORED);
+                writeEntry(out, "java/lang/Integer.class", integerClass, ZipEntry.DEFLATED);
+                writeEntry(out, "renamed/Number.class", numberClass, ZipEntry.DEFLATED);
+                writeEntry(out, "META-INF/notes.txt", new byte[] { 1, 2, 3 }, ZipEntry.DEFLATED);
+            }
+
+            final Buffer buffer = new Buffer();
+
+            try (final MappedJarTypeLoader loader = new MappedJarTypeLoader(jarFile)) {
+                final List<String> typeNames = loader.getTypeNames();
+
+                assertEquals(Arrays.asList("java/lang/String", "java/lang/Integer", "renamed/Number"), typeNames);
+
+                assertTrue(loader.tryLoadType("java/lang/String", buffer));
+                assertArrayEquals(stringClass, Arrays.copyOf(buffer.array(), buffer.size()));
+                assertEquals(0, buffer.position());
+
+                assertTrue(loader.tryLoadType("java/lang/Integer", buffer));
+                assertArrayEquals(integerClass, Arrays.copyOf(buffer.array(), buffer.size()));
+
+                assertFalse(loader.tryLoadType("java/lang/Object", buffer));
+            }
+
+            //
+            // Once a class is loaded from a path that does not match its name, it should
+            // be loadable by its real name too.  Number is only stored under the renamed path.
+            //
+
+            try (final MappedJarTypeLoader renamedLoader = new MappedJarTypeLoader(jarFile)) {
+                assertFalse(renamedLoader.tryLoadType("java/lang/Number", buffer));
+
+                assertTrue(renamedLoader.tryLoadType("renamed/Number", buffer));
+                assertArrayEquals(numberClass, Arrays.copyOf(buffer.array(), buffer.size()));
+
+                assertTrue(renamedLoader.tryLoadType("java/lang/Number", buffer));
+                assertArrayEquals(numberClass, Arrays.copyOf(buffer.array(), buffer.size()));
+            }
+        }
+        finally {
+            //noinspection ResultOfMethodCallIgnored
+            jarFile.delete();
+        }
+    }
+
+    @Test
+    public void testCloseUnmapsArchive() throws Throwable {
+        final byte[] integerClass = loadClassBytes("java/lang/Integer");
+        final File jarFile = File.createTempFile("procyon-test", ".jar");
+
+        try {
+            try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+                writeEntry(out, "java/lang/Integer.class", integerClass, ZipEntry.DEFLATED);
+            }
+
+            final MappedJarTypeLoader loader = new MappedJarTypeLoader(jarFile);
+            final Buffer buffer = new Buffer();
+
+            assertTrue(loader.tryLoadType("java/lang/Integer", buffer));
+
+            final Boolean mappedBeforeClose = isMapped(jarFile);
+
+            loader.close();
+            loader.close();
+
+            assertFalse(loader.tryLoadType("java/lang/Integer", buffer));
+            assertEquals(Arrays.asList("java/lang/Integer"), loader.getTypeNames());
+
+            //
+            // We can only tell whether the mapping is really gone where the process maps are visible.
+            //
+            if (mappedBeforeClose != null) {
+                assertTrue(mappedBeforeClose);
+                assertFalse(isMapped(jarFile));
+            }
+        }
+        finally {
+            //noinspection ResultOfMethodCallIgnored
+            jarFile.delete();
+        }
+    }
+
+    private static Boolean isMapped(final File file) throws Exception {
+        final File maps = new File("/proc/self/maps");
+
+        if (!maps.isFile()) {
+            return null;
+        }
+
+        final String path = file.getCanonicalPath();
+
+        for (final String line : Files.readAllLines(maps.toPath(), StandardCharsets.UTF_8)) {
+            if (line.endsWith(path)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static byte[] loadClassBytes(final String internalName) {
+        final Buffer buffer = new Buffer();
+        assertTrue(new ClasspathTypeLoader().tryLoadType(internalName, buffer));
+        return Arrays.copyOf(buffer.array(), buffer.size());
+    }
+
+    private static void writeEntry(final JarOutputStream out, final String name, final byte[] data, final int method) throws Exception {
+        final ZipEntry entry = new ZipEntry(name);
+
+        entry.setMethod(method);
+
+        if (method == ZipEntry.STORED) {
+            final CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+}
@@ -5,9 +5,15 @@ import com.strobel.assembler.ir.OpCode;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MetadataResolverTests {
     @Test
@@ -37,6 +43,150 @@ public class MetadataResolverTests {
         }
     }
 
+    @Test
+    public void testConcurrentResolutionReadsClassOnce() throws Throwable {
+        final ConcurrentHashMap<String, AtomicInteger> loadCounts = new ConcurrentHashMap<>();
+        final ClasspathTypeLoader classpathTypeLoader = new ClasspathTypeLoader();
+
+        final MetadataSystem metadataSystem = new MetadataSystem(
+            new ITypeLoader() {
+                @Override
+                public boolean tryLoadType(final String internalName, final Buffer buffer) {
+                    loadCounts.putIfAbsent(internalName, new AtomicInteger());
+                    loadCounts.get(internalName).incrementAndGet();
+                    return classpathTypeLoader.tryLoadType(internalName, buffer);
+                }
+            }
+        );
+
+        final int threadCount = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final AtomicReferenceArray<TypeReference> results = new AtomicReferenceArray<>(threadCount);
+        final Thread[] threads = new Thread[threadCount];
+
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                        results.set(index, metadataSystem.lookupType("java/util/concurrent/ConcurrentSkipListMap"));
+                    }
+                    catch (final Exception ignored) {
+                    }
+                }
+            };
+
+            threads[i].start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNotNull(results.get(0));
+
+        for (int i = 1; i < threadCount; i++) {
+            assertSame(results.get(0), results.get(i));
+        }
+
+        assertEquals(1, loadCounts.get("java/util/concurrent/ConcurrentSkipListMap").get());
+    }
+
+    @Test
+    public void testBoundedTypeCacheEvictsLeastRecentlyUsedTypes() throws Throwable {
+        final MetadataSystem metadataSystem = new MetadataSystem();
+
+        metadataSystem.setMaximumCachedTypes(8);
+
+        final TypeReference objectType = metadataSystem.lookupType("java/lang/Object");
+
+        final String[] typeNames = {
+            "java/util/ArrayList", "java/util/LinkedList", "java/util/HashMap", "java/util/TreeMap",
+            "java/util/HashSet", "java/util/TreeSet", "java/util/ArrayDeque", "java/util/Vector",
+            "java/util/Stack", "java/util/Hashtable", "java/util/IdentityHashMap", "java/util/WeakHashMap",
+            "java/util/LinkedHashMap", "java/util/LinkedHashSet", "java/util/PriorityQueue", "java/util/BitSet",
+            "java/util/Random", "java/util/Scanner", "java/util/Timer", "java/util/UUID",
+            "java/util/Locale", "java/util/Calendar", "java/util/Date", "java/util/Objects",
+            "java/util/Optional", "java/util/StringJoiner", "java/util/Properties", "java/util/EnumMap"
+        };
+
+        for (final String typeName : typeNames) {
+            assertNotNull(metadataSystem.lookupType(typeName));
+        }
+
+        assertTrue(metadataSystem.getTypeCacheEvictionCount() > 0);
+        assertTrue(metadataSystem.getCachedTypeCount() < typeNames.length);
+        assertSame(objectType, metadataSystem.lookupType("java/lang/Object"));
+    }
+
+    @Test
+    public void testDeferredMethodBodiesDoNotReloadClassFile() throws Throwable {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final ClasspathTypeLoader classpathTypeLoader = new ClasspathTypeLoader();
+        final String typeName = "java/util/ArrayList";
+
+        final MetadataSystem metadataSystem = new MetadataSystem(
+            new ITypeLoader() {
+                @Override
+                public boolean tryLoadType(final String internalName, final Buffer buffer) {
+                    if (typeName.equals(internalName)) {
+                        loadCount.incrementAndGet();
+                    }
+                    return classpathTypeLoader.tryLoadType(internalName, buffer);
+                }
+            }
+        );
+
+        final TypeDefinition td = metadataSystem.lookupType(typeName).resolve();
+
+        int bodyCount = 0;
+
+        for (final MethodDefinition md : td.getDeclaredMethods()) {
+            if (!md.isAbstract() && md.getBody() != null) {
+                ++bodyCount;
+            }
+        }
+
+        assertTrue(bodyCount > 1);
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testMethodBodiesShareResolvedReferences() throws Throwable {
+        final MetadataSystem metadataSystem = new MetadataSystem(new ClasspathTypeLoader());
+        final TypeDefinition td = metadataSystem.lookupType("java/util/ArrayList").resolve();
+
+        FieldReference sizeField = null;
+        int readCount = 0;
+
+        for (final MethodDefinition md : td.getDeclaredMethods()) {
+            if (md.isAbstract() || md.getBody() == null) {
+                continue;
+            }
+
+            for (final Instruction p : md.getBody().getInstructions()) {
+                if (p.getOpCode() == OpCode.GETFIELD) {
+                    final FieldReference fr = p.getOperand(0);
+
+                    if ("size".equals(fr.getName()) && "java/util/ArrayList".equals(fr.getDeclaringType().getInternalName())) {
+                        if (sizeField == null) {
+                            sizeField = fr;
+                        }
+                        else {
+                            assertSame(sizeField, fr);
+                        }
+                        ++readCount;
+                    }
+                }
+            }
+        }
+
+        assertTrue(readCount > 1);
+    }
+
     // <editor-fold defaultstate="collapsed" desc="Helper Classes">
 
     @SuppressWarnings("unused")
@@ -0,0 +1,83 @@
+package com.strobel.decompiler;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecompilationProfilerTests {
+    private static class A {
+        public int f(final int[] values) {
+            int sum = 0;
+
+            for (final int value : values) {
+                if (value > 0) {
+                    sum += value;
+                }
+            }
+
+            return sum;
+        }
+    }
+
+    private static DecompilationProfiler profile(final String internalName) {
+        final DecompilationProfiler profiler = new DecompilationProfiler();
+        final DecompilerSettings settings = DecompilerSettings.javaDefaults();
+
+        settings.setDecompilationListener(profiler);
+
+        Decompiler.decompile(internalName, new PlainTextOutput(new StringWriter()), settings);
+
+        return profiler;
+    }
+
+    @Test
+    public void testCsvReportCoversStepsTypesAndMethods() throws Throwable {
+        final String typeName = "com/strobel/decompiler/DecompilationProfilerTests$A";
+        final DecompilationProfiler profiler = profile(typeName);
+        final StringWriter writer = new StringWriter();
+
+        profiler.writeCsv(writer, Integer.MAX_VALUE);
+
+        final String[] lines = writer.toString().split("\n");
+
+        assertEquals("kind,type,method,phase,step,count,time_ns,allocated_bytes", lines[0]);
+
+        final List<String> rows = new ArrayList<>();
+
+        for (int i = 1; i < lines.length; i++) {
+            final String[] fields = lines[i].split(",");
+
+            assertEquals(lines[i], 8, fields.length);
+            assertTrue(lines[i], Long.parseLong(fields[6]) >= 0L);
+
+            rows.add(fields[0] + ',' + fields[1] + ',' + fields[2] + ',' + fields[3] + ',' + fields[4]);
+        }
+
+        assertTrue(rows.contains("step,,,OptimizeBytecodeAst,TypeInference"));
+        assertTrue(rows.contains("step,,,TransformJavaAst,DeclareVariablesTransform"));
+        assertTrue(rows.contains("type," + typeName + ",,BuildJavaAst,"));
+        assertTrue(rows.contains("method," + typeName + ",f([I)I,OptimizeBytecodeAst,"));
+        assertTrue(rows.contains("method," + typeName + ",f([I)I,TransformJavaAst,"));
+    }
+
+    @Test
+    public void testJsonReportListsSlowestMethods() throws Throwable {
+        final DecompilationProfiler profiler = profile("com/strobel/decompiler/DecompilationProfilerTests$A");
+        final StringWriter writer = new StringWriter();
+
+        profiler.writeJson(writer, 1);
+
+        final String json = writer.toString();
+
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.contains("\"allocationTracked\": " + profiler.isAllocationTracked()));
+        assertTrue(json.contains("\"phase\": \"BuildBytecodeAst\""));
+        assertTrue(json.contains("\"slowestMethods\": [\n    { \"type\": \"com/strobel/decompiler/DecompilationProfilerTests$A\""));
+        assertTrue(json.trim().endsWith("}"));
+    }
+}
@@ -9,6 +9,21 @@ public class ImportTests extends DecompilerTest {
         private Collection<String> innerCollection;
     }
 
+    @SuppressWarnings("UnusedDeclaration")
+    private static class B {
+        public int f(final Object o) {
+            return ((java.util.Collection<?>) o).size();
+        }
+
+        public int g(final Object o) {
+            return ((Collection<?>) o).size();
+        }
+
+        public boolean h(final Object o) {
+            return ((java.util.List<?>) o).isEmpty();
+        }
+    }
+
     @Test
     public void testImportCollision() throws Throwable {
         verifyOutput(
@@ -19,4 +34,27 @@ public class ImportTests extends DecompilerTest {
             "}\n"
         );
     }
+
+    @Test
+    public void testImportCollisionWithParallelMethodBodies() throws Throwable {
+        final DecompilerSettings settings = defaultSettings();
+
+        settings.setMethodBodyThreadCount(4);
+
+        verifyOutput(
+            B.class,
+            settings,
+            "private static class B {\n" +
+            "    public int f(final Object o) {\n" +
+            "        return ((Collection)o).size();\n" +
+            "    }\n" +
+            "    public int g(final Object o) {\n" +
+            "        return ((com.strobel.assembler.Collection)o).size();\n" +
+            "    }\n" +
+            "    public boolean h(final Object o) {\n" +
+            "        return ((List)o).isEmpty();\n" +
+            "    }\n" +
+            "}\n"
+        );
+    }
 }
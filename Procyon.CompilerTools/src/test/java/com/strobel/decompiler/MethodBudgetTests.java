@@ -0,0 +1,160 @@
+package com.strobel.decompiler;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodBudgetTests {
+    private static class A {
+        //
+        // Every 'try' and 'catch' body is a block of its own, and each settles within a round or two.
+        //
+        public int f(final String[] s) {
+            int n = 0;
+            try { n += Integer.parseInt(s[0]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[1]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[2]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[3]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[4]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[5]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[6]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[7]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[8]); } catch (final NumberFormatException e) { n--; }
+            try { n += Integer.parseInt(s[9]); } catch (final NumberFormatException e) { n--; }
+            return n;
+        }
+    }
+
+    @Test
+    public void testNoLimitsMeansUnlimited() throws Throwable {
+        final MethodBudget budget = MethodBudget.create(new DecompilerSettings());
+
+        assertSame(MethodBudget.UNLIMITED, budget);
+
+        for (int i = 0; i < 1000; i++) {
+            budget.countRound();
+        }
+
+        budget.checkNodeCount(Integer.MAX_VALUE);
+        assertFalse(budget.isExceeded());
+    }
+
+    @Test
+    public void testRoundLimit() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setMethodOptimizationRoundLimit(3);
+
+        final MethodBudget budget = MethodBudget.create(settings);
+
+        budget.countRound();
+        budget.countRound();
+        budget.countRound();
+
+        assertFalse(budget.isExceeded());
+
+        try {
+            budget.countRound();
+            fail("Expected the round limit to be exceeded.");
+        }
+        catch (final MethodBudgetExceededException ignored) {
+        }
+
+        assertTrue(budget.isExceeded());
+
+        //
+        // Once exceeded, every later check fails, too.
+        //
+        try {
+            budget.checkTime();
+            fail("Expected the budget to stay exceeded.");
+        }
+        catch (final MethodBudgetExceededException ignored) {
+        }
+    }
+
+    @Test
+    public void testRoundLimitAppliesToEachLoop() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setMethodOptimizationRoundLimit(3);
+
+        final MethodBudget budget = MethodBudget.create(settings);
+
+        for (int loop = 0; loop < 10; loop++) {
+            budget.beginRounds();
+            budget.countRound();
+            budget.countRound();
+            budget.countRound();
+        }
+
+        assertFalse(budget.isExceeded());
+    }
+
+    @Test
+    public void testMethodWithManyQuickBlocksIsNotStubbed() throws Throwable {
+        final DecompilerSettings settings = DecompilerSettings.javaDefaults();
+
+        settings.setMethodOptimizationRoundLimit(4);
+
+        final StringWriter writer = new StringWriter();
+
+        Decompiler.decompile("com/strobel/decompiler/MethodBudgetTests$A", new PlainTextOutput(writer), settings);
+
+        final String source = writer.toString();
+
+        assertFalse(source, source.contains("exceeded its budget"));
+        assertTrue(source, source.contains("catch (NumberFormatException"));
+    }
+
+    @Test
+    public void testNodeLimit() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setMethodNodeLimit(100);
+
+        final MethodBudget budget = MethodBudget.create(settings);
+
+        budget.checkNodeCount(100);
+
+        try {
+            budget.checkNodeCount(101);
+            fail("Expected the node limit to be exceeded.");
+        }
+        catch (final MethodBudgetExceededException ignored) {
+        }
+    }
+
+    @Test
+    public void testTimeIsOnlyChargedWhileResumed() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setMethodTimeLimit(20);
+
+        final MethodBudget budget = MethodBudget.create(settings);
+
+        Thread.sleep(50);
+        budget.checkTime();
+
+        budget.resume();
+        budget.resume();
+        budget.suspend();
+
+        Thread.sleep(50);
+
+        try {
+            budget.checkTime();
+            fail("Expected the time limit to be exceeded.");
+        }
+        catch (final MethodBudgetExceededException ignored) {
+        }
+        finally {
+            budget.suspend();
+        }
+    }
+}
@@ -165,6 +165,35 @@ public class SwitchTests extends DecompilerTest {
         }
     }
 
+    private static class H {
+        private int flags;
+
+        private int next() {
+            return Integer.getInteger("next", -1);
+        }
+
+        public void test(int c) {
+            //
+            // The default target is outside the loop body, so the loop body's graph has no node for it.
+            //
+            while (true) {
+                switch (c) {
+                    case 'i':
+                        flags |= 1;
+                        break;
+                    case 'm':
+                        flags |= 2;
+                        break;
+                    case '-':
+                        System.out.println("-");
+                    default:
+                        return;
+                }
+                c = next();
+            }
+        }
+    }
+
     @Test
     public void testSimpleSwitch() {
         verifyOutput(
@@ -382,6 +411,38 @@ public class SwitchTests extends DecompilerTest {
             "}\n"
         );
     }
+
+    @Test
+    public void testDefaultOutsideLoopBody() {
+        verifyOutput(
+            H.class,
+            createSettings(OPTION_FLATTEN_SWITCH_BLOCKS),
+            "private static class H {\n" +
+            "    private int flags;\n" +
+            "    private int next() {\n" +
+            "        return Integer.getInteger(\"next\", -1);\n" +
+            "    }\n" +
+            "    public void test(int c) {\n" +
+            "    Label_0070:\n" +
+            "        while (true) {\n" +
+            "            switch (c) {\n" +
+            "                case 105:\n" +
+            "                    this.flags |= 0x1;\n" +
+            "                    break;\n" +
+            "                case 109:\n" +
+            "                    this.flags |= 0x2;\n" +
+            "                    break;\n" +
+            "                case 45:\n" +
+            "                    System.out.println(\"-\");\n" +
+            "                default:\n" +
+            "                    break Label_0070;\n" +
+            "            }\n" +
+            "            c = this.next();\n" +
+            "        }\n" +
+            "    }\n" +
+            "}\n"
+        );
+    }
 }
 
 //
@@ -0,0 +1,136 @@
+package com.strobel.decompiler.languages.java.ast.transforms;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.*;
+import com.strobel.decompiler.languages.java.JavaOutputVisitor;
+import com.strobel.decompiler.languages.java.ast.AstBuilder;
+import com.strobel.decompiler.languages.java.ast.CompilationUnit;
+import com.strobel.decompiler.languages.java.ast.InsertParenthesesVisitor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that fusing adjacent {@link IFusibleAstTransform}s into shared traversals leaves the
+ * output of the {@link TransformationPipeline} exactly as it was with one traversal per transform.
+ */
+public class TransformationPipelineTests {
+    //
+    // The decompiler tests, whose nested classes are the fixtures.
+    //
+    private final static Class<?>[] FIXTURE_HOSTS = {
+        AnnotationTests.class,
+        ArrayCreationTests.class,
+        AssertTests.class,
+        BoxingTests.class,
+        CallTests.class,
+        CastTests.class,
+        ConditionalTests.class,
+        ConstructorTests.class,
+        EnhancedTryTests.class,
+        EnumTests.class,
+        GenericsTests.class,
+        HandlerTests.class,
+        ImportTests.class,
+        InitializerTests.class,
+        InliningTests.class,
+        InnerClassTests.class,
+        LoopTests.class,
+        ModifierTests.class,
+        NameTests.class,
+        OperatorTests.class,
+        PrimitiveTests.class,
+        StringTests.class,
+        SwitchTests.class,
+        SyncTests.class,
+        TypeInferenceTests.class,
+        TypeTests.class,
+        VariableTests.class
+    };
+
+    //
+    // The compiled fixtures used by ThirdPartyTests.
+    //
+    private final static String[] THIRD_PARTY_FIXTURES = {
+        "ArgumentTypes",
+        "Hello",
+        "LiteralAssignments",
+        "OddsAndEnds",
+        "SootOptimizationTest",
+        "Switch",
+        "UnboxToNumber",
+        "WhileLoops"
+    };
+
+    private static List<String> fixtureNames() {
+        final List<String> names = new ArrayList<>();
+
+        for (final Class<?> host : FIXTURE_HOSTS) {
+            for (final Class<?> fixture : host.getDeclaredClasses()) {
+                names.add(fixture.getName().replace('.', '/'));
+            }
+        }
+
+        for (final String name : THIRD_PARTY_FIXTURES) {
+            names.add(name);
+        }
+
+        return names;
+    }
+
+    private static String decompile(final String internalName, final DecompilerSettings settings, final boolean fuseTransforms) {
+        final TypeDefinition type = MetadataSystem.instance().lookupType(internalName).resolve();
+        final DecompilerContext context = new DecompilerContext();
+
+        context.setCurrentType(type);
+        context.setSettings(settings);
+
+        final AstBuilder builder = new AstBuilder(context);
+
+        builder.addType(type);
+
+        final CompilationUnit compilationUnit = builder.getCompilationUnit();
+
+        TransformationPipeline.runTransformationsUntil(compilationUnit, null, context, fuseTransforms);
+        compilationUnit.acceptVisitor(new InsertParenthesesVisitor(), null);
+
+        final PlainTextOutput output = new PlainTextOutput();
+
+        compilationUnit.acceptVisitor(new JavaOutputVisitor(output, settings), null);
+
+        return output.toString();
+    }
+
+    private static void assertFusionPreservesOutput(final DecompilerSettings settings) {
+        final List<String> names = fixtureNames();
+
+        assertTrue(names.size() > 150);
+
+        for (final String name : names) {
+            assertEquals(
+                name,
+                decompile(name, settings, false),
+                decompile(name, settings, true)
+            );
+        }
+    }
+
+    @Test
+    public void testFusedPipelineMatchesUnfused() throws Throwable {
+        assertFusionPreservesOutput(DecompilerSettings.javaDefaults());
+    }
+
+    @Test
+    public void testFusedPipelineMatchesUnfusedWithFlattenedSwitchBlocks() throws Throwable {
+        final DecompilerSettings settings = DecompilerSettings.javaDefaults();
+
+        settings.setFlattenSwitchBlocks(true);
+
+        assertFusionPreservesOutput(settings);
+    }
+}
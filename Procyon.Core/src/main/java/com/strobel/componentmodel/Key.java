@@ -21,8 +21,19 @@ import com.strobel.core.VerifyArgument;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Identifies a piece of user data attached to a {@link UserDataStore}.
+ * <p/>
+ * Keys created with {@link #createIndexed(String)} are assigned a dedicated slot in every
+ * {@link UserDataStoreBase}, making reads a plain array load and writes allocation-free.  Such keys
+ * should be reserved for data which is read and written very frequently, as every store which holds
+ * an indexed value reserves room for all of them.  Indexed values are not published with the same
+ * guarantees as other values, so they should only be used on stores which are confined to a single
+ * thread, like the nodes of a tree being decompiled.
+ */
 public class Key<T> {
     private final static AtomicInteger _keyCounter = new AtomicInteger();
+    private final static AtomicInteger _slotCounter = new AtomicInteger();
     private final static ConcurrentWeakIntObjectHashMap<Key<?>> _allKeys = new ConcurrentWeakIntObjectHashMap<>();
 
     @SuppressWarnings("unchecked")
@@ -34,13 +45,35 @@ public class Key<T> {
         return new Key<>(name);
     }
 
+    public static <T> Key<T> createIndexed(@NotNull final String name) {
+        return new Key<>(name, true);
+    }
+
+    static int getIndexedKeyCount() {
+        return _slotCounter.get();
+    }
+
     private final int _index = _keyCounter.getAndIncrement();
+    private final int _slot;
 
     @NotNull
     private final String _name;
 
     public Key(@NotNull final String name) {
+        this(name, false);
+    }
+
+    protected Key(@NotNull final String name, final boolean indexed) {
         _name = VerifyArgument.notNull(name, "name");
+        _slot = indexed ? _slotCounter.getAndIncrement() : -1;
+    }
+
+    public final boolean isIndexed() {
+        return _slot >= 0;
+    }
+
+    final int slot() {
+        return _slot;
     }
 
     @Override
@@ -17,6 +17,7 @@ import com.strobel.annotations.NotNull;
 import com.strobel.annotations.Nullable;
 import com.strobel.core.ExceptionUtilities;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class UserDataStoreBase implements UserDataStore, Cloneable {
@@ -33,13 +34,50 @@ public class UserDataStoreBase implements UserDataStore, Cloneable {
     @SuppressWarnings("FieldMayBeFinal")
     private volatile FrugalKeyMap _map = FrugalKeyMap.EMPTY;
 
+    //
+    // Values of indexed keys (see Key.createIndexed()) live in plain slots rather than in the map,
+    // so reading them costs no probe and writing them costs no allocation once the slots exist.
+    //
+    private Object[] _slots;
+
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T getUserData(@NotNull final Key<T> key) {
+        final int slot = key.slot();
+
+        if (slot >= 0) {
+            final Object[] slots = _slots;
+            return slots != null && slot < slots.length ? (T) slots[slot] : null;
+        }
+
         return _map.get(key);
     }
 
+    private void setSlot(final int slot, final Object value) {
+        Object[] slots = _slots;
+
+        if (slots == null || slot >= slots.length) {
+            if (value == null) {
+                return;
+            }
+
+            final int length = Math.max(Key.getIndexedKeyCount(), slot + 1);
+
+            _slots = slots = slots == null ? new Object[length] : Arrays.copyOf(slots, length);
+        }
+
+        slots[slot] = value;
+    }
+
     @Override
     public <T> void putUserData(@NotNull final Key<T> key, @Nullable final T value) {
+        final int slot = key.slot();
+
+        if (slot >= 0) {
+            setSlot(slot, value);
+            return;
+        }
+
         while (true) {
             final FrugalKeyMap oldMap = _map;
             final FrugalKeyMap newMap;
@@ -59,6 +97,19 @@ public class UserDataStoreBase implements UserDataStore, Cloneable {
 
     @Override
     public <T> T putUserDataIfAbsent(@NotNull final Key<T> key, @Nullable final T value) {
+        final int slot = key.slot();
+
+        if (slot >= 0) {
+            final T oldValue = getUserData(key);
+
+            if (oldValue != null) {
+                return oldValue;
+            }
+
+            setSlot(slot, value);
+            return value;
+        }
+
         while (true) {
             final FrugalKeyMap oldMap = _map;
             final FrugalKeyMap newMap;
@@ -84,6 +135,17 @@ public class UserDataStoreBase implements UserDataStore, Cloneable {
 
     @Override
     public <T> boolean replace(@NotNull final Key<T> key, @Nullable final T oldValue, @Nullable final T newValue) {
+        final int slot = key.slot();
+
+        if (slot >= 0) {
+            if (getUserData(key) != oldValue) {
+                return false;
+            }
+
+            setSlot(slot, newValue);
+            return true;
+        }
+
         while (true) {
             final FrugalKeyMap oldMap = _map;
             final T currentValue = _map.get(key);
@@ -110,7 +172,13 @@ public class UserDataStoreBase implements UserDataStore, Cloneable {
     @Override
     public final UserDataStoreBase clone() {
         try {
-            return (UserDataStoreBase) super.clone();
+            final UserDataStoreBase clone = (UserDataStoreBase) super.clone();
+
+            if (clone._slots != null) {
+                clone._slots = clone._slots.clone();
+            }
+
+            return clone;
         }
         catch (CloneNotSupportedException e) {
             throw ExceptionUtilities.asRuntimeException(e);
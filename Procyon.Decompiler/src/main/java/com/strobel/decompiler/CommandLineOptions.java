@@ -176,6 +176,66 @@ public class CommandLineOptions {
         description = "Disable 'for each' loop transforms.")
     private boolean _disableForEachTransforms;
 
+    @Parameter(
+        names = { "-th", "--threads" },
+        description = "Decompile the classes of a jar file in parallel using the specified number of worker threads.",
+        arity = 1)
+    private int _threadCount = 1;
+
+    @Parameter(
+        names = { "--method-threads" },
+        description = "Decompile the method bodies of each class in parallel using the specified number of threads.",
+        arity = 1)
+    private int _methodThreadCount = 1;
+
+    @Parameter(
+        names = { "--method-time-limit" },
+        description = "Replace any method which takes longer than the specified number of milliseconds to decompile " +
+                      "with a stub showing its bytecode.",
+        arity = 1)
+    private int _methodTimeLimit;
+
+    @Parameter(
+        names = { "--method-round-limit" },
+        description = "Replace any method with an optimization loop which needs more than the specified number of " +
+                      "rounds with a stub showing its bytecode.",
+        arity = 1)
+    private int _methodRoundLimit;
+
+    @Parameter(
+        names = { "--method-node-limit" },
+        description = "Replace any method whose bytecode AST has more than the specified number of nodes with a " +
+                      "stub showing its bytecode.",
+        arity = 1)
+    private int _methodNodeLimit;
+
+    @Parameter(
+        names = { "--cache-dir" },
+        description = "When decompiling a jar file to an output directory, reuse the output of classes which have " +
+                      "not changed since a previous run, caching results in the specified directory.")
+    private String _cacheDirectory;
+
+    @Parameter(
+        names = { "--cache-size" },
+        description = "The maximum size of the decompilation cache, in megabytes.  Least recently used results " +
+                      "are pruned beyond this point.",
+        arity = 1)
+    private int _cacheSize = 512;
+
+    @Parameter(
+        names = { "--profile" },
+        description = "Measure the time and memory spent in each phase of decompilation, and write a report " +
+                      "broken down by step, type, and method to the specified file.  The report is written as " +
+                      "CSV if the file name ends in '.csv', or JSON otherwise.  The decompilation cache is not " +
+                      "used while profiling.")
+    private String _profileFile;
+
+    @Parameter(
+        names = { "--profile-top" },
+        description = "The number of slowest methods to list on the console when profiling.",
+        arity = 1)
+    private int _profileTop = 20;
+
     @Parameter(
         names = { "--version" },
         description = "Display the decompiler version and exit.")
@@ -399,6 +459,78 @@ public class CommandLineOptions {
         _disableForEachTransforms = disableForEachTransforms;
     }
 
+    public final int getThreadCount() {
+        return _threadCount;
+    }
+
+    public final void setThreadCount(final int threadCount) {
+        _threadCount = threadCount;
+    }
+
+    public final int getMethodThreadCount() {
+        return _methodThreadCount;
+    }
+
+    public final void setMethodThreadCount(final int methodThreadCount) {
+        _methodThreadCount = methodThreadCount;
+    }
+
+    public final int getMethodTimeLimit() {
+        return _methodTimeLimit;
+    }
+
+    public final void setMethodTimeLimit(final int methodTimeLimit) {
+        _methodTimeLimit = methodTimeLimit;
+    }
+
+    public final int getMethodRoundLimit() {
+        return _methodRoundLimit;
+    }
+
+    public final void setMethodRoundLimit(final int methodRoundLimit) {
+        _methodRoundLimit = methodRoundLimit;
+    }
+
+    public final int getMethodNodeLimit() {
+        return _methodNodeLimit;
+    }
+
+    public final void setMethodNodeLimit(final int methodNodeLimit) {
+        _methodNodeLimit = methodNodeLimit;
+    }
+
+    public final String getCacheDirectory() {
+        return _cacheDirectory;
+    }
+
+    public final void setCacheDirectory(final String cacheDirectory) {
+        _cacheDirectory = cacheDirectory;
+    }
+
+    public final int getCacheSize() {
+        return _cacheSize;
+    }
+
+    public final void setCacheSize(final int cacheSize) {
+        _cacheSize = cacheSize;
+    }
+
+    public final String getProfileFile() {
+        return _profileFile;
+    }
+
+    public final void setProfileFile(final String profileFile) {
+        _profileFile = profileFile;
+    }
+
+    public final int getProfileTop() {
+        return _profileTop;
+    }
+
+    public final void setProfileTop(final int profileTop) {
+        _profileTop = profileTop;
+    }
+
     public final boolean getPrintVersion() {
         return _printVersion;
     }
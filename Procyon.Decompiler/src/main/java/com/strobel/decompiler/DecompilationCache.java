@@ -0,0 +1,426 @@
+package com.strobel.decompiler;
+
+import com.strobel.Procyon;
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.languages.Language;
+import com.strobel.decompiler.languages.LineNumberPosition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An on-disk cache of decompiled source for the classes of a jar file.  Each entry holds the source
+ * emitted for a top-level class, before any line number formatting, along with its line number
+ * positions.  Entries are keyed by a hash of the Procyon version, the decompiler settings, and the
+ * bytes of the class and every class nested within it, so a class is only decompiled again when
+ * one of those has changed.
+ * <p/>
+ * The cache is pruned in least recently used order once it grows beyond its maximum size.  Hits
+ * refresh an entry's modification time, which serves as its last use.
+ */
+final class DecompilationCache {
+    private final static Logger LOG = Logger.getLogger(DecompilationCache.class.getSimpleName());
+
+    private final static int FORMAT_VERSION = 2;
+    private final static String ENTRY_EXTENSION = ".entry";
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File _directory;
+    private final long _maximumSize;
+    private final String _fingerprint;
+    private final ITypeLoader _typeLoader;
+    private final Map<String, List<String>> _nestedClassNames;
+
+    private DecompilationCache(
+        final File directory,
+        final long maximumSize,
+        final String fingerprint,
+        final ITypeLoader typeLoader,
+        final Map<String, List<String>> nestedClassNames) {
+
+        _directory = directory;
+        _maximumSize = maximumSize;
+        _fingerprint = fingerprint;
+        _typeLoader = typeLoader;
+        _nestedClassNames = nestedClassNames;
+    }
+
+    /**
+     * Opens a cache for decompiling the classes of {@code jar}, creating {@code directory} if needed.
+     *
+     * @param directory the cache directory
+     * @param maximumSize the size, in bytes, beyond which least recently used entries are pruned
+     * @param settings the settings the classes will be decompiled with
+     * @param jar the jar file being decompiled
+     */
+    static DecompilationCache open(
+        final File directory,
+        final long maximumSize,
+        final DecompilerSettings settings,
+        final JarFile jar) throws IOException {
+
+        VerifyArgument.notNull(directory, "directory");
+        VerifyArgument.notNull(settings, "settings");
+        VerifyArgument.notNull(jar, "jar");
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create cache directory \"" + directory + "\".");
+        }
+
+        //
+        // The output for a class includes every class nested within it, so the bytes of those must
+        // be part of its key.  Anything whose name starts with the class name and a '$' counts; the
+        // odd false positive only means a class is decompiled again more often than necessary.
+        //
+        final Map<String, List<String>> nestedClassNames = new HashMap<>();
+        final Enumeration<JarEntry> entries = jar.entries();
+
+        while (entries.hasMoreElements()) {
+            final String name = entries.nextElement().getName();
+
+            if (!name.endsWith(".class")) {
+                continue;
+            }
+
+            final int separator = name.indexOf('$', name.lastIndexOf('/') + 1);
+
+            if (separator > 0) {
+                final String outerName = name.substring(0, separator);
+
+                List<String> names = nestedClassNames.get(outerName);
+
+                if (names == null) {
+                    nestedClassNames.put(outerName, names = new ArrayList<>());
+                }
+
+                names.add(name.substring(0, name.length() - ".class".length()));
+            }
+        }
+
+        for (final List<String> names : nestedClassNames.values()) {
+            Collections.sort(names);
+        }
+
+        return new DecompilationCache(
+            directory,
+            maximumSize,
+            computeFingerprint(settings),
+            settings.getTypeLoader(),
+            nestedClassNames
+        );
+    }
+
+    /**
+     * Computes the key for the top-level class {@code internalName}, or returns {@code null} if the
+     * bytes of the class or one of its nested classes cannot be loaded.
+     */
+    final String computeKey(final String internalName) {
+        final MessageDigest digest = createDigest();
+        final Buffer buffer = new Buffer();
+        final List<String> nestedNames = _nestedClassNames.get(internalName);
+
+        digest.update(_fingerprint.getBytes(UTF_8));
+
+        if (!hashClass(digest, buffer, internalName)) {
+            return null;
+        }
+
+        if (nestedNames != null) {
+            for (final String nestedName : nestedNames) {
+                if (!hashClass(digest, buffer, nestedName)) {
+                    return null;
+                }
+            }
+        }
+
+        return toHexString(digest.digest());
+    }
+
+    private boolean hashClass(final MessageDigest digest, final Buffer buffer, final String internalName) {
+        buffer.reset();
+
+        if (!_typeLoader.tryLoadType(internalName, buffer)) {
+            return false;
+        }
+
+        final byte[] name = internalName.getBytes(UTF_8);
+
+        digest.update(intToBytes(name.length));
+        digest.update(name);
+        digest.update(intToBytes(buffer.size()));
+        digest.update(buffer.array(), 0, buffer.size());
+
+        return true;
+    }
+
+    /**
+     * Returns the cached entry for {@code key}, or {@code null} if there is none.
+     */
+    final Entry load(final String key) {
+        final File file = entryFile(key);
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            final int positionCount = in.readInt();
+            final List<LineNumberPosition> positions = new ArrayList<>(positionCount);
+
+            for (int i = 0; i < positionCount; i++) {
+                positions.add(new LineNumberPosition(in.readInt(), in.readInt(), in.readInt()));
+            }
+
+            final byte[] source = new byte[in.readInt()];
+
+            in.readFully(source);
+
+            //
+            // The last modification time doubles as the time of last use for pruning.
+            //
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+
+            return new Entry(new String(source, UTF_8), positions);
+        }
+        catch (final IOException e) {
+            LOG.log(Level.FINE, "Ignoring unreadable cache entry \"" + file + "\".", e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores {@code entry} under {@code key}.  Entries are written to a temporary file first, so a
+     * concurrent or interrupted run never sees a partial entry.
+     */
+    final void store(final String key, final Entry entry) {
+        final File file = entryFile(key);
+        File tempFile = null;
+
+        try {
+            tempFile = File.createTempFile(key, ".tmp", _directory);
+
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                final byte[] source = entry.source.getBytes(UTF_8);
+
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entry.positions.size());
+
+                for (final LineNumberPosition position : entry.positions) {
+                    out.writeInt(position.getOriginalLine());
+                    out.writeInt(position.getEmittedLine());
+                    out.writeInt(position.getEmittedColumn());
+                }
+
+                out.writeInt(source.length);
+                out.write(source);
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e) {
+            LOG.log(Level.FINE, "Could not write cache entry \"" + file + "\".", e);
+
+            if (tempFile != null) {
+                //noinspection ResultOfMethodCallIgnored
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is no larger than its maximum size.
+     */
+    final void prune() {
+        final File[] files = _directory.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        final List<File> entries = new ArrayList<>();
+        final Map<File, Long> lastUsed = new HashMap<>();
+
+        long totalSize = 0L;
+
+        for (final File file : files) {
+            if (file.isFile() && file.getName().endsWith(ENTRY_EXTENSION)) {
+                entries.add(file);
+                lastUsed.put(file, file.lastModified());
+                totalSize += file.length();
+            }
+        }
+
+        if (totalSize <= _maximumSize) {
+            return;
+        }
+
+        Collections.sort(
+            entries,
+            new Comparator<File>() {
+                @Override
+                public int compare(final File o1, final File o2) {
+                    return Long.compare(lastUsed.get(o1), lastUsed.get(o2));
+                }
+            }
+        );
+
+        for (final File file : entries) {
+            if (totalSize <= _maximumSize) {
+                break;
+            }
+
+            final long length = file.length();
+
+            if (file.delete()) {
+                totalSize -= length;
+            }
+        }
+    }
+
+    private File entryFile(final String key) {
+        return new File(_directory, key + ENTRY_EXTENSION);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Fingerprinting">
+
+    /**
+     * Describes every setting which can affect the emitted source.  The type loader, output directory,
+     * method body thread count, and decompilation listener only affect where classes come from, where
+     * the source goes, and how quickly it gets there, so they are left out.
+     */
+    static String computeFingerprint(final DecompilerSettings settings) {
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append("Procyon ").append(Procyon.version()).append('\n');
+
+        appendFields(sb, "settings", settings);
+
+        return sb.toString();
+    }
+
+    private static void appendFields(final StringBuilder sb, final String prefix, final Object o) {
+        final Field[] fields = o.getClass().getDeclaredFields();
+
+        Arrays.sort(
+            fields,
+            new Comparator<Field>() {
+                @Override
+                public int compare(final Field o1, final Field o2) {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            }
+        );
+
+        for (final Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) ||
+                ITypeLoader.class.isAssignableFrom(field.getType()) ||
+                IDecompilationListener.class.isAssignableFrom(field.getType()) ||
+                field.getName().equals("_outputDirectory") ||
+                field.getName().equals("_methodBodyThreadCount")) {
+
+                continue;
+            }
+
+            final Object value;
+
+            try {
+                field.setAccessible(true);
+                value = field.get(o);
+            }
+            catch (final IllegalAccessException e) {
+                throw ExceptionUtilities.asRuntimeException(e);
+            }
+
+            final String name = prefix + '.' + field.getName();
+
+            if (value == null ||
+                value instanceof Boolean ||
+                value instanceof Number ||
+                value instanceof Character ||
+                value instanceof String ||
+                value instanceof Enum<?>) {
+
+                sb.append(name).append('=').append(value).append('\n');
+            }
+            else if (value instanceof Language) {
+                sb.append(name).append('=').append(((Language) value).getName()).append('\n');
+            }
+            else {
+                appendFields(sb, name, value);
+            }
+        }
+    }
+
+    // </editor-fold>
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e) {
+            throw ExceptionUtilities.asRuntimeException(e);
+        }
+    }
+
+    private static byte[] intToBytes(final int value) {
+        return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+    }
+
+    private static String toHexString(final byte[] bytes) {
+        final char[] digits = "0123456789abcdef".toCharArray();
+        final char[] chars = new char[bytes.length * 2];
+
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = digits[bytes[i] & 0xF];
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * The source emitted for a class, before line number formatting, and its line number positions.
+     */
+    final static class Entry {
+        final String source;
+        final List<LineNumberPosition> positions;
+
+        Entry(final String source, final List<LineNumberPosition> positions) {
+            this.source = VerifyArgument.notNull(source, "source");
+            this.positions = VerifyArgument.notNull(positions, "positions");
+        }
+    }
+}
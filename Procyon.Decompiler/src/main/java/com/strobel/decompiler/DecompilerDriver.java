@@ -16,21 +16,33 @@ import com.strobel.decompiler.languages.TypeDecompilationResults;
 import com.strobel.decompiler.languages.java.JavaFormattingOptions;
 import com.strobel.io.PathHelper;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.ConsoleHandler;
@@ -41,6 +53,12 @@ import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 public class DecompilerDriver {
+    /**
+     * The number of types retained by the metadata system when decompiling a jar.  Less
+     * recently used types are evicted beyond this point to keep memory usage flat.
+     */
+    private final static int MAX_CACHED_TYPES = 4096;
+
     public static void main(final String[] args) {
         final CommandLineOptions options = new CommandLineOptions();
         final JCommander jCommander;
@@ -95,8 +113,16 @@ public class DecompilerDriver {
         settings.setSimplifyMemberReferences(options.getSimplifyMemberReferences());
         settings.setForceFullyQualifiedReferences(options.getForceFullyQualifiedReferences());
         settings.setDisableForEachTransforms(options.getDisableForEachTransforms());
+        settings.setMethodBodyThreadCount(options.getMethodThreadCount());
+        settings.setMethodTimeLimit(options.getMethodTimeLimit());
+        settings.setMethodOptimizationRoundLimit(options.getMethodRoundLimit());
+        settings.setMethodNodeLimit(options.getMethodNodeLimit());
         settings.setTypeLoader(new InputTypeLoader());
 
+        final DecompilationProfiler profiler = options.getProfileFile() != null ? new DecompilationProfiler() : null;
+
+        settings.setDecompilationListener(profiler);
+
         if (!options.getSuppressBanner()) {
             settings.setOutputFileHeaderText("\nDecompiled by Procyon v" + Procyon.version() + "\n");
         }
@@ -141,7 +167,7 @@ public class DecompilerDriver {
                         decompileJar(typeName, options, decompilationOptions);
                     }
                     else {
-                        decompileType(metadataSystem, typeName, options, decompilationOptions, true);
+                        decompileType(metadataSystem, typeName, options, decompilationOptions, true, null);
                     }
                 }
                 catch (final Throwable t) {
@@ -149,6 +175,39 @@ public class DecompilerDriver {
                 }
             }
         }
+
+        if (profiler != null) {
+            try {
+                writeProfile(profiler, options);
+            }
+            catch (final Throwable t) {
+                System.err.println(ExceptionUtilities.getMessage(t));
+                System.exit(-1);
+            }
+        }
+    }
+
+    private static void writeProfile(final DecompilationProfiler profiler, final CommandLineOptions options) throws IOException {
+        final String profileFile = options.getProfileFile();
+
+        try (final Writer writer = new OutputStreamWriter(new FileOutputStream(profileFile), Charset.forName("UTF-8"))) {
+            if (profileFile.toLowerCase().endsWith(".csv")) {
+                profiler.writeCsv(writer, Integer.MAX_VALUE);
+            }
+            else {
+                profiler.writeJson(writer, Integer.MAX_VALUE);
+            }
+        }
+
+        final int top = options.getProfileTop();
+
+        if (top > 0) {
+            final Writer console = new OutputStreamWriter(System.err);
+
+            console.write(String.format("Slowest methods (profile written to %s):%n", profileFile));
+            profiler.writeSlowestMethods(console, top);
+            console.flush();
+        }
     }
 
     private static BytecodeOutputOptions createBytecodeFormattingOptions(final CommandLineOptions options) {
@@ -226,16 +285,44 @@ public class DecompilerDriver {
 
         final boolean oldShowSyntheticMembers = settings.getShowSyntheticMembers();
         final ITypeLoader oldTypeLoader = settings.getTypeLoader();
+        final ITypeLoader jarTypeLoader = createJarTypeLoader(jarFile, jar);
 
         settings.setShowSyntheticMembers(false);
-        settings.setTypeLoader(new CompositeTypeLoader(new JarTypeLoader(jar), oldTypeLoader));
+        settings.setTypeLoader(new CompositeTypeLoader(jarTypeLoader, oldTypeLoader));
+
+        //
+        // Only whole files can be cached, so the cache is ignored when printing to the console.
+        // It is also ignored when profiling, since cached classes would not be measured.
+        //
+        final DecompilationCache cache;
+
+        if (options.getCacheDirectory() != null &&
+            !StringUtilities.isNullOrWhitespace(settings.getOutputDirectory()) &&
+            settings.getDecompilationListener() == null) {
+
+            cache = DecompilationCache.open(
+                new File(options.getCacheDirectory()),
+                options.getCacheSize() * 1024L * 1024L,
+                settings,
+                jar
+            );
+        }
+        else {
+            cache = null;
+        }
 
         try {
-            MetadataSystem metadataSystem = new NoRetryMetadataSystem(settings.getTypeLoader());
+            final MetadataSystem metadataSystem = new NoRetryMetadataSystem(settings.getTypeLoader());
 
             metadataSystem.setEagerMethodLoadingEnabled(options.isEagerMethodLoadingEnabled());
+            metadataSystem.setMaximumCachedTypes(MAX_CACHED_TYPES);
+
+            final int threadCount = options.getThreadCount();
 
-            int classesDecompiled = 0;
+            if (threadCount > 1) {
+                decompileJarInParallel(metadataSystem, jar, options, decompilationOptions, cache, threadCount);
+                return;
+            }
 
             while (entries.hasMoreElements()) {
                 final JarEntry entry = entries.nextElement();
@@ -248,11 +335,7 @@ public class DecompilerDriver {
                 final String internalName = StringUtilities.removeRight(name, ".class");
 
                 try {
-                    decompileType(metadataSystem, internalName, options, decompilationOptions, false);
-
-                    if (++classesDecompiled % 100 == 0) {
-                        metadataSystem = new NoRetryMetadataSystem(settings.getTypeLoader());
-                    }
+                    decompileType(metadataSystem, internalName, options, decompilationOptions, false, cache);
                 }
                 catch (final Throwable t) {
                     t.printStackTrace();
@@ -262,7 +345,142 @@ public class DecompilerDriver {
         finally {
             settings.setShowSyntheticMembers(oldShowSyntheticMembers);
             settings.setTypeLoader(oldTypeLoader);
+
+            if (jarTypeLoader instanceof MappedJarTypeLoader) {
+                ((MappedJarTypeLoader) jarTypeLoader).close();
+            }
+
+            if (cache != null) {
+                cache.prune();
+            }
+        }
+    }
+
+    private static ITypeLoader createJarTypeLoader(final File jarFile, final JarFile jar) {
+        try {
+            return new MappedJarTypeLoader(jarFile);
+        }
+        catch (final IOException e) {
+            //
+            // Fall back to reading entries through the JarFile (e.g., for archives too large to map).
+            //
+            return new JarTypeLoader(jar);
+        }
+    }
+
+    private static void decompileJarInParallel(
+        final MetadataSystem metadataSystem,
+        final JarFile jar,
+        final CommandLineOptions options,
+        final DecompilationOptions decompilationOptions,
+        final DecompilationCache cache,
+        final int threadCount) throws IOException {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount, new DecompilerThreadFactory());
+        final ArrayDeque<Future<CapturedOutput>> pending = new ArrayDeque<>();
+        final int maxPending = threadCount * 4;
+        final Enumeration<JarEntry> entries = jar.entries();
+        final DecompilerSettings settings = decompilationOptions.getSettings();
+
+        try {
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                final String name = entry.getName();
+
+                if (!name.endsWith(".class")) {
+                    continue;
+                }
+
+                final String internalName = StringUtilities.removeRight(name, ".class");
+
+                //
+                // Types are loaded here rather than by the workers, so that deobfuscation, which
+                // rewires enums and their constant bodies, happens in jar order on this thread
+                // and never on a type some worker is already decompiling.
+                //
+                TypeDefinition loadedType;
+                Throwable loadError;
+
+                try {
+                    loadedType = loadType(metadataSystem, internalName, settings);
+                    loadError = null;
+                }
+                catch (final Throwable t) {
+                    loadedType = null;
+                    loadError = t;
+                }
+
+                final TypeDefinition resolvedType = loadedType;
+                final Throwable error = loadError;
+
+                pending.add(
+                    executor.submit(
+                        new Callable<CapturedOutput>() {
+                            @Override
+                            public CapturedOutput call() {
+                                final CapturedOutput output = new CapturedOutput();
+
+                                if (error != null) {
+                                    error.printStackTrace(output.err);
+                                    return output;
+                                }
+
+                                try {
+                                    decompileType(
+                                        resolvedType,
+                                        internalName,
+                                        options,
+                                        decompilationOptions,
+                                        false,
+                                        cache,
+                                        output.out,
+                                        output.err
+                                    );
+                                }
+                                catch (final Throwable t) {
+                                    t.printStackTrace(output.err);
+                                }
+
+                                return output;
+                            }
+                        }
+                    )
+                );
+
+                //
+                // Console output is replayed in jar order, so only keep a bounded window of
+                // results in flight.
+                //
+
+                if (pending.size() >= maxPending) {
+                    replayOutput(pending.removeFirst());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                replayOutput(pending.removeFirst());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void replayOutput(final Future<CapturedOutput> future) throws IOException {
+        final CapturedOutput output;
+
+        try {
+            output = future.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompilation results.");
         }
+        catch (final ExecutionException e) {
+            throw ExceptionUtilities.asRuntimeException(e.getCause());
+        }
+
+        output.replay();
     }
 
     private static void decompileType(
@@ -270,46 +488,73 @@ public class DecompilerDriver {
         final String typeName,
         final CommandLineOptions commandLineOptions,
         final DecompilationOptions options,
-        final boolean includeNested) throws IOException {
+        final boolean includeNested,
+        final DecompilationCache cache) throws IOException {
 
-        final TypeReference type;
-        final DecompilerSettings settings = options.getSettings();
+        decompileType(metadataSystem, typeName, commandLineOptions, options, includeNested, cache, System.out, System.err);
+    }
 
-        if (typeName.length() == 1) {
-            //
-            // Hack to get around classes whose descriptors clash with primitive types.
-            //
+    private static void decompileType(
+        final MetadataSystem metadataSystem,
+        final String typeName,
+        final CommandLineOptions commandLineOptions,
+        final DecompilationOptions options,
+        final boolean includeNested,
+        final DecompilationCache cache,
+        final PrintStream out,
+        final PrintStream err) throws IOException {
 
-            final MetadataParser parser = new MetadataParser(IMetadataResolver.EMPTY);
-            final TypeReference reference = parser.parseTypeDescriptor(typeName);
+        final TypeDefinition resolvedType = loadType(metadataSystem, typeName, options.getSettings());
 
-            type = metadataSystem.resolve(reference);
-        }
-        else {
-            type = metadataSystem.lookupType(typeName);
-        }
+        decompileType(resolvedType, typeName, commandLineOptions, options, includeNested, cache, out, err);
+    }
 
-        final TypeDefinition resolvedType;
+    private static void decompileType(
+        final TypeDefinition resolvedType,
+        final String typeName,
+        final CommandLineOptions commandLineOptions,
+        final DecompilationOptions options,
+        final boolean includeNested,
+        final DecompilationCache cache,
+        final PrintStream out,
+        final PrintStream err) throws IOException {
+
+        final DecompilerSettings settings = options.getSettings();
 
-        if (type == null || (resolvedType = type.resolve()) == null) {
-            System.err.printf("!!! ERROR: Failed to load class %s.\n", typeName);
+        if (resolvedType == null) {
+            err.printf("!!! ERROR: Failed to load class %s.\n", typeName);
             return;
         }
 
-        DeobfuscationUtilities.processType(resolvedType);
-
         if (!includeNested && (resolvedType.isNested() || resolvedType.isAnonymous() || resolvedType.isSynthetic())) {
             return;
         }
 
-        final Writer writer = createWriter(resolvedType, settings);
+        final Writer writer = createWriter(resolvedType, settings, out);
         final boolean writeToFile = writer instanceof FileOutputWriter;
+        final Writer outputWriter;
         final PlainTextOutput output;
 
         if (writeToFile) {
+            final EnumSet<LineNumberOption> lineNumberOptions = getLineNumberOptions(commandLineOptions);
+
+            if (cache != null) {
+                out.printf("Decompiling %s...\n", typeName);
+                decompileTypeWithCache(resolvedType, options, cache, writer, lineNumberOptions);
+                return;
+            }
+
+            if (!lineNumberOptions.isEmpty()) {
+                out.printf("Decompiling %s...\n", typeName);
+                decompileTypeWithLineNumbers(resolvedType, options, writer, lineNumberOptions);
+                return;
+            }
+
+            outputWriter = writer;
             output = new PlainTextOutput(writer);
         }
         else {
+            outputWriter = writer;
             output = new AnsiTextOutput(
                 writer,
                 commandLineOptions.getUseLightColorScheme() ? AnsiTextOutput.ColorScheme.LIGHT
@@ -317,55 +562,181 @@ public class DecompilerDriver {
             );
         }
 
-        output.setUnicodeOutputEnabled(settings.isUnicodeOutputEnabled());
+        configureOutput(output, settings);
 
-        if (settings.getLanguage() instanceof BytecodeLanguage) {
-            output.setIndentToken("  ");
+        if (writeToFile) {
+            out.printf("Decompiling %s...\n", typeName);
         }
 
+        settings.getLanguage().decompileType(resolvedType, output, options);
+
+        outputWriter.flush();
+
         if (writeToFile) {
-            System.out.printf("Decompiling %s...\n", typeName);
+            outputWriter.close();
         }
+    }
 
-        final TypeDecompilationResults results = settings.getLanguage().decompileType(resolvedType, output, options);
+    private static TypeDefinition loadType(
+        final MetadataSystem metadataSystem,
+        final String typeName,
+        final DecompilerSettings settings) {
 
-        writer.flush();
+        final IDecompilationListener listener = settings.getDecompilationListener();
+        final DecompilerContext context = listener != null ? new DecompilerContext(settings) : null;
 
-        if (writeToFile) {
-            writer.close();
+        if (listener != null) {
+            listener.phaseStarted(context, DecompilationPhase.LoadType);
         }
 
-        // If we're writing to a file and we were asked to include line numbers in any way,
-        // then reformat the file to include that line number information.
-        final List<LineNumberPosition> lineNumberPositions = results.getLineNumberPositions();
+        try {
+            final TypeReference type;
+
+            if (typeName.length() == 1) {
+                //
+                // Hack to get around classes whose descriptors clash with primitive types.
+                //
 
-        if ((commandLineOptions.getIncludeLineNumbers() || commandLineOptions.getStretchLines()) && (writer instanceof FileOutputWriter)) {
-            final EnumSet<LineNumberOption> lineNumberOptions = EnumSet.noneOf(LineNumberOption.class);
+                final MetadataParser parser = new MetadataParser(IMetadataResolver.EMPTY);
+                final TypeReference reference = parser.parseTypeDescriptor(typeName);
 
-            if (commandLineOptions.getIncludeLineNumbers()) {
-                lineNumberOptions.add(LineNumberOption.LEADING_COMMENTS);
+                type = metadataSystem.resolve(reference);
             }
+            else {
+                type = metadataSystem.lookupType(typeName);
+            }
+
+            final TypeDefinition resolvedType;
 
-            if (commandLineOptions.getStretchLines()) {
-                lineNumberOptions.add(LineNumberOption.STRETCHED);
+            if (type == null || (resolvedType = type.resolve()) == null) {
+                return null;
             }
 
-            final LineNumberFormatter lineFormatter = new LineNumberFormatter(
-                ((FileOutputWriter) writer).getFile(),
-                lineNumberPositions,
-                lineNumberOptions
-            );
+            if (context != null) {
+                context.setCurrentType(resolvedType);
+            }
+
+            //
+            // Deobfuscation may update other types (e.g., an enum and its constant bodies), and
+            // those may be shared with other threads through the metadata system.
+            //
+            synchronized (metadataSystem) {
+                DeobfuscationUtilities.processType(resolvedType);
+            }
+
+            return resolvedType;
+        }
+        finally {
+            if (listener != null) {
+                listener.phaseEnded(context, DecompilationPhase.LoadType);
+            }
+        }
+    }
+
+    /**
+     * Decompiles {@code type} with line numbers formatted in as {@code lineNumberOptions} specify.
+     * This is done as the source is written rather than by rewriting the file afterwards, but it
+     * needs every position up front, so the source is held in memory until the type is done.
+     */
+    static void decompileTypeWithLineNumbers(
+        final TypeDefinition type,
+        final DecompilationOptions options,
+        final Writer writer,
+        final EnumSet<LineNumberOption> lineNumberOptions) throws IOException {
+
+        final DecompilerSettings settings = options.getSettings();
+        final PlainTextOutput output = new PlainTextOutput();
+
+        configureOutput(output, settings);
+
+        final TypeDecompilationResults results = settings.getLanguage().decompileType(type, output, options);
+
+        writeFormatted(writer, output.toString(), results.getLineNumberPositions(), lineNumberOptions);
+    }
 
-            lineFormatter.reformatFile();
+    static void decompileTypeWithCache(
+        final TypeDefinition type,
+        final DecompilationOptions options,
+        final DecompilationCache cache,
+        final Writer writer,
+        final EnumSet<LineNumberOption> lineNumberOptions) throws IOException {
+
+        final DecompilerSettings settings = options.getSettings();
+        final String key = cache.computeKey(type.getInternalName());
+
+        DecompilationCache.Entry entry = key != null ? cache.load(key) : null;
+
+        if (entry == null) {
+            //
+            // Cache the source as it was before line number formatting, so that formatting can be
+            // reapplied regardless of the options used on a later run.
+            //
+            final PlainTextOutput output = new PlainTextOutput();
+
+            configureOutput(output, settings);
+
+            final TypeDecompilationResults results = settings.getLanguage().decompileType(type, output, options);
+
+            entry = new DecompilationCache.Entry(output.toString(), results.getLineNumberPositions());
+
+            //
+            // A method which ran out of time might finish on another run, so keep the stub out of
+            // the cache.
+            //
+            if (key != null && !results.isMethodTimeLimitExceeded()) {
+                cache.store(key, entry);
+            }
+        }
+
+        writeFormatted(writer, entry.source, entry.positions, lineNumberOptions);
+    }
+
+    private static void writeFormatted(
+        final Writer writer,
+        final String source,
+        final List<LineNumberPosition> positions,
+        final EnumSet<LineNumberOption> lineNumberOptions) throws IOException {
+
+        final Writer outputWriter = lineNumberOptions.isEmpty() ? writer
+                                                                : new LineNumberFormattingWriter(writer, positions, lineNumberOptions);
+
+        outputWriter.write(source);
+        outputWriter.flush();
+        outputWriter.close();
+    }
+
+    private static void configureOutput(final PlainTextOutput output, final DecompilerSettings settings) {
+        output.setUnicodeOutputEnabled(settings.isUnicodeOutputEnabled());
+
+        if (settings.getLanguage() instanceof BytecodeLanguage) {
+            output.setIndentToken("  ");
+        }
+    }
+
+    private static EnumSet<LineNumberOption> getLineNumberOptions(final CommandLineOptions options) {
+        final EnumSet<LineNumberOption> lineNumberOptions = EnumSet.noneOf(LineNumberOption.class);
+
+        if (options.getIncludeLineNumbers()) {
+            lineNumberOptions.add(LineNumberOption.LEADING_COMMENTS);
         }
+
+        if (options.getStretchLines()) {
+            lineNumberOptions.add(LineNumberOption.STRETCHED);
+        }
+
+        return lineNumberOptions;
     }
 
-    private static Writer createWriter(final TypeDefinition type, final DecompilerSettings settings) throws IOException {
+    private static Writer createWriter(
+        final TypeDefinition type,
+        final DecompilerSettings settings,
+        final PrintStream out) throws IOException {
+
         final String outputDirectory = settings.getOutputDirectory();
 
         if (StringUtilities.isNullOrWhitespace(outputDirectory)) {
             return new OutputStreamWriter(
-                System.out,
+                out,
                 settings.isUnicodeOutputEnabled() ? Charset.forName("UTF-8")
                                                   : Charset.defaultCharset()
             );
@@ -453,8 +824,46 @@ final class BriefLogFormatter extends Formatter {
     }
 }
 
+final class DecompilerThreadFactory implements ThreadFactory {
+    private final AtomicInteger _threadNumber = new AtomicInteger(1);
+
+    @Override
+    public Thread newThread(@NotNull final Runnable r) {
+        final Thread thread = new Thread(r, "procyon-decompiler-" + _threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
+
+/**
+ * Buffers the console output of a single type so that output from parallel workers
+ * can be written back in the same order as a serial run would produce it.
+ */
+final class CapturedOutput {
+    private final ByteArrayOutputStream _outBuffer = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream _errBuffer = new ByteArrayOutputStream();
+
+    final PrintStream out = new PrintStream(_outBuffer);
+    final PrintStream err = new PrintStream(_errBuffer);
+
+    void replay() {
+        out.flush();
+        err.flush();
+
+        if (_outBuffer.size() > 0) {
+            System.out.write(_outBuffer.toByteArray(), 0, _outBuffer.size());
+            System.out.flush();
+        }
+
+        if (_errBuffer.size() > 0) {
+            System.err.write(_errBuffer.toByteArray(), 0, _errBuffer.size());
+            System.err.flush();
+        }
+    }
+}
+
 final class NoRetryMetadataSystem extends MetadataSystem {
-    private final Set<String> _failedTypes = new HashSet<>();
+    private final Set<String> _failedTypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     NoRetryMetadataSystem() {
     }
@@ -0,0 +1,303 @@
+package com.strobel.decompiler;
+
+import com.strobel.decompiler.LineNumberFormatter.LineNumberOption;
+import com.strobel.decompiler.languages.LineNumberPosition;
+
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * A {@link Writer} which applies a {@link LineNumberPosition} recipe to the text written through it.
+ * It does the same job as {@link LineNumberFormatter}, but without writing the text out first and
+ * reading it back in.
+ * <p/>
+ * A line is formatted as soon as the next line with a position on it has been written, so only the
+ * lines in between are ever held back.
+ */
+final class LineNumberFormattingWriter extends Writer {
+    private final LineNumberPrintWriter _out;
+    private final boolean _stretch;
+
+    private final List<LineNumberPosition> _positions;
+    private final ArrayDeque<String> _lines = new ArrayDeque<>();
+    private final ArrayDeque<String> _brokenLines = new ArrayDeque<>();
+    private final List<LineNumberPosition> _brokenPositions = new ArrayList<>();
+    private final StringBuilder _currentLine = new StringBuilder();
+
+    private boolean _afterCarriageReturn;
+    private boolean _closed;
+
+    // Lines written so far, and the state of breaking apart lines with several positions on them.
+    private int _linesWritten;
+    private int _positionIndex;
+    private int _linesRead;
+    private int _lineOffset;
+
+    // The state of stretching (or squeezing) the broken lines to match their original line numbers.
+    private int _brokenLinesRead;
+    private int _globalOffset;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param target the writer to which the formatted text is written
+     * @param positions a recipe for how to fix the line numbers in the text, ordered by emitted line
+     * @param options controls how line numbers are represented in the formatted text
+     */
+    LineNumberFormattingWriter(
+        final Writer target,
+        final List<LineNumberPosition> positions,
+        final EnumSet<LineNumberOption> options) {
+
+        _positions = positions;
+        _out = new LineNumberPrintWriter(LineNumberPosition.computeMaxLineNumber(positions), target);
+
+        if (options == null || !options.contains(LineNumberOption.LEADING_COMMENTS)) {
+            _out.suppressLineNumbers();
+        }
+
+        _stretch = options != null && options.contains(LineNumberOption.STRETCHED);
+    }
+
+    @Override
+    public void write(final char[] buffer, final int offset, final int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            final char c = buffer[i];
+
+            //
+            // Split lines exactly as BufferedReader.readLine() does, which is how the original
+            // file-based formatter saw them.
+            //
+
+            if (c == '\n') {
+                if (!_afterCarriageReturn) {
+                    endLine();
+                }
+                _afterCarriageReturn = false;
+            }
+            else if (c == '\r') {
+                endLine();
+                _afterCarriageReturn = true;
+            }
+            else {
+                _currentLine.append(c);
+                _afterCarriageReturn = false;
+            }
+        }
+
+        formatLines(false);
+    }
+
+    @Override
+    public void flush() {
+        _out.flush();
+    }
+
+    @Override
+    public void close() {
+        if (_closed) {
+            return;
+        }
+
+        _closed = true;
+
+        if (_currentLine.length() > 0) {
+            endLine();
+        }
+
+        formatLines(true);
+
+        // Finish out the file.
+        while (!_brokenLines.isEmpty()) {
+            _out.println(_brokenLines.removeFirst());
+        }
+
+        while (!_lines.isEmpty()) {
+            _out.println(_lines.removeFirst());
+        }
+
+        _out.close();
+    }
+
+    private void endLine() {
+        _lines.addLast(_currentLine.toString());
+        _currentLine.setLength(0);
+        ++_linesWritten;
+    }
+
+    private String readLine() {
+        return _lines.pollFirst();
+    }
+
+    private void formatLines(final boolean atEnd) {
+        //
+        // Once the line a position refers to is complete, we know whether it needs to be broken
+        // apart.
+        //
+        while (_positionIndex < _positions.size() &&
+               (atEnd || _positions.get(_positionIndex).getEmittedLine() <= _linesWritten)) {
+
+            breakLine();
+
+            for (final LineNumberPosition position : _brokenPositions) {
+                emitFormatted(position);
+            }
+
+            _brokenPositions.clear();
+        }
+    }
+
+    /**
+     * Copies the lines up to and including the one containing the next position, breaking apart
+     * that line if multiple line number markers appear on it in different columns.
+     */
+    private void breakLine() {
+        final LineNumberPosition pos = _positions.get(_positionIndex);
+
+        _brokenPositions.add(
+            new LineNumberPosition(pos.getOriginalLine(), pos.getEmittedLine() + _lineOffset, pos.getEmittedColumn())
+        );
+
+        // Copy the input up to but not including the emitted line # in "pos".
+        while (_linesRead < pos.getEmittedLine() - 1) {
+            _brokenLines.addLast(readLine());
+            _linesRead++;
+        }
+
+        // Read the line that contains the next line number annotations, but don't write it yet.
+        String line = readLine();
+        _linesRead++;
+
+        // See if there are two original line annotations on the same emitted line.
+        LineNumberPosition nextPos;
+        int prevPartLen = 0;
+        char[] indent = {};
+
+        do {
+            nextPos = (_positionIndex < _positions.size() - 1) ? _positions.get(_positionIndex + 1) : null;
+
+            if (nextPos != null &&
+                nextPos.getEmittedLine() == pos.getEmittedLine() &&
+                nextPos.getOriginalLine() > pos.getOriginalLine()) {
+
+                // Two different source line numbers on the same emitted line!
+                _positionIndex++;
+                _lineOffset++;
+
+                final String firstPart = line.substring(0, nextPos.getEmittedColumn() - prevPartLen - 1);
+
+                _brokenLines.addLast(new String(indent) + firstPart);
+                prevPartLen += firstPart.length();
+                indent = new char[prevPartLen];
+                Arrays.fill(indent, ' ');
+                line = line.substring(firstPart.length(), line.length());
+
+                // Alter the position while adding it.
+                _brokenPositions.add(
+                    new LineNumberPosition(
+                        nextPos.getOriginalLine(),
+                        nextPos.getEmittedLine() + _lineOffset,
+                        nextPos.getEmittedColumn()
+                    )
+                );
+            }
+            else {
+                nextPos = null;
+            }
+        }
+        while (nextPos != null);
+
+        // Nothing special here-- just emit the line.
+        _brokenLines.addLast(new String(indent) + line);
+        _positionIndex++;
+    }
+
+    /**
+     * Writes the broken lines up to and including the one containing {@code pos}, inserting or
+     * removing line breaks as needed to move it to its original line.
+     */
+    private void emitFormatted(final LineNumberPosition pos) {
+        final LineNumberPrintWriter w = _out;
+        final int nextTarget = pos.getOriginalLine();
+        final int nextActual = pos.getEmittedLine();
+
+        int requiredAdjustment = (nextTarget - nextActual - _globalOffset);
+
+        if (_stretch && requiredAdjustment < 0) {
+            // We currently need to remove newlines to squeeze things together.
+            // prefer to remove empty lines,
+            // 1. read all lines before nextActual and remove empty lines as needed
+            final List<String> stripped = new ArrayList<>();
+
+            while (_brokenLinesRead < nextActual - 1) {
+                final String line = _brokenLines.pollFirst();
+                _brokenLinesRead++;
+                if ((requiredAdjustment < 0) && line.trim().isEmpty()) {
+                    requiredAdjustment++;
+                    _globalOffset--;
+                }
+                else {
+                    stripped.add(line);
+                }
+            }
+
+            // 2. print non empty lines while stripping further as needed
+            final int lineNoToPrint = (stripped.size() + requiredAdjustment <= 0)
+                                      ? nextTarget : LineNumberPrintWriter.NO_LINE_NUMBER;
+
+            for (final String line : stripped) {
+                if (requiredAdjustment < 0) {
+                    w.print(lineNoToPrint, line);
+                    w.print("  ");
+                    requiredAdjustment++;
+                    _globalOffset--;
+                }
+                else {
+                    w.println(lineNoToPrint, line);
+                }
+            }
+
+            // 3. read and print next actual
+            final String line = _brokenLines.pollFirst();
+            _brokenLinesRead++;
+
+            if (requiredAdjustment < 0) {
+                w.print(nextTarget, line);
+                w.print("  ");
+                _globalOffset--;
+            }
+            else {
+                w.println(nextTarget, line);
+            }
+        }
+        else {
+            while (_brokenLinesRead < nextActual) {
+                final String line = _brokenLines.pollFirst();
+                _brokenLinesRead++;
+
+                final boolean isLast = (_brokenLinesRead >= nextActual);
+                final int lineNoToPrint = isLast ? nextTarget : LineNumberPrintWriter.NO_LINE_NUMBER;
+
+                if (requiredAdjustment > 0 && _stretch) {
+                    // We currently need to inject newlines to space things out.
+                    do {
+                        w.println("");
+                        requiredAdjustment--;
+                        _globalOffset++;
+                    }
+                    while (isLast && requiredAdjustment > 0);
+
+                    w.println(lineNoToPrint, line);
+                }
+                else {
+                    // No tweaks needed-- we are on the ball.
+                    w.println(lineNoToPrint, line);
+                }
+            }
+        }
+    }
+}
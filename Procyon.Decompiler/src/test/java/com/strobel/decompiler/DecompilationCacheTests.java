@@ -0,0 +1,126 @@
+package com.strobel.decompiler;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.LineNumberFormatter.LineNumberOption;
+import com.strobel.decompiler.languages.java.JavaFormattingOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DecompilationCacheTests {
+    //
+    // Large enough that some of its methods cannot possibly be decompiled within a millisecond.
+    //
+    private final static String TYPE_NAME = "java/util/regex/Pattern";
+
+    private File _directory;
+    private JarFile _jar;
+
+    @Before
+    public void setUp() throws IOException {
+        _directory = Files.createTempDirectory("procyon-cache-tests").toFile();
+
+        final File jarFile = new File(_directory, "test.jar");
+        final Buffer buffer = new Buffer();
+
+        assertTrue(new ClasspathTypeLoader().tryLoadType(TYPE_NAME, buffer));
+
+        try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+            out.putNextEntry(new JarEntry(TYPE_NAME + ".class"));
+            out.write(buffer.array(), 0, buffer.size());
+            out.closeEntry();
+        }
+
+        _jar = new JarFile(jarFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        _jar.close();
+        delete(_directory);
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private String decompileWithCache(final DecompilerSettings settings) throws IOException {
+        final DecompilationOptions options = new DecompilationOptions();
+
+        settings.setTypeLoader(new ClasspathTypeLoader());
+        settings.setJavaFormattingOptions(JavaFormattingOptions.createDefault());
+        options.setSettings(settings);
+
+        final DecompilationCache cache = DecompilationCache.open(new File(_directory, "cache"), Long.MAX_VALUE, settings, _jar);
+        final TypeDefinition type = new MetadataSystem(settings.getTypeLoader()).lookupType(TYPE_NAME).resolve();
+        final StringWriter writer = new StringWriter();
+
+        DecompilerDriver.decompileTypeWithCache(type, options, cache, writer, EnumSet.noneOf(LineNumberOption.class));
+
+        return writer.toString();
+    }
+
+    private DecompilationCache.Entry loadEntry(final DecompilerSettings settings) throws IOException {
+        final DecompilationCache cache = DecompilationCache.open(new File(_directory, "cache"), Long.MAX_VALUE, settings, _jar);
+        return cache.load(cache.computeKey(TYPE_NAME));
+    }
+
+    @Test
+    public void testCompleteOutputIsStored() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        decompileWithCache(settings);
+
+        assertNotNull(loadEntry(settings));
+    }
+
+    @Test
+    public void testTimedOutOutputIsNotStored() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setMethodTimeLimit(1);
+
+        final String source = decompileWithCache(settings);
+
+        assertTrue(source.contains("This method was not decompiled because it exceeded its budget"));
+        assertNull(loadEntry(settings));
+    }
+
+    @Test
+    public void testOutputStubbedByNodeLimitIsStored() throws Throwable {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setMethodNodeLimit(10);
+
+        final String source = decompileWithCache(settings);
+
+        assertTrue(source.contains("This method was not decompiled because it exceeded its budget"));
+        assertNotNull(loadEntry(settings));
+    }
+}
@@ -0,0 +1,146 @@
+package com.strobel.decompiler;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DecompilerDriverTests {
+    //
+    // TimeUnit's constants all have bodies, and Pattern has plenty of anonymous and nested classes.
+    //
+    private final static String[] TYPE_PREFIXES = {
+        "java/util/concurrent/TimeUnit",
+        "java/util/regex/Pattern"
+    };
+
+    private File _directory;
+    private File _jarFile;
+
+    @Before
+    public void setUp() throws IOException {
+        _directory = Files.createTempDirectory("procyon-driver-tests").toFile();
+        _jarFile = new File(_directory, "test.jar");
+
+        final List<String> typeNames = new ArrayList<>();
+
+        try (final JarFile runtime = new JarFile(new File(System.getProperty("java.home"), "lib/rt.jar"))) {
+            final Enumeration<JarEntry> entries = runtime.entries();
+
+            while (entries.hasMoreElements()) {
+                final String name = entries.nextElement().getName();
+
+                for (final String prefix : TYPE_PREFIXES) {
+                    if (name.startsWith(prefix) && name.endsWith(".class")) {
+                        typeNames.add(name.substring(0, name.length() - ".class".length()));
+                    }
+                }
+            }
+        }
+
+        //
+        // Put nested types first, so that enums are deobfuscated through their constant bodies.
+        //
+        Collections.sort(typeNames, Collections.reverseOrder());
+
+        final ClasspathTypeLoader typeLoader = new ClasspathTypeLoader();
+
+        try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(_jarFile))) {
+            for (final String typeName : typeNames) {
+                final Buffer buffer = new Buffer();
+
+                assertTrue(typeLoader.tryLoadType(typeName, buffer));
+
+                out.putNextEntry(new JarEntry(typeName + ".class"));
+                out.write(buffer.array(), 0, buffer.size());
+                out.closeEntry();
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        delete(_directory);
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private TreeMap<String, String> decompileJar(final String outputName, final int threadCount) throws IOException {
+        final File outputDirectory = new File(_directory, outputName);
+
+        DecompilerDriver.main(
+            new String[] {
+                "--jar-file", _jarFile.getPath(),
+                "--output-directory", outputDirectory.getPath(),
+                "--threads", String.valueOf(threadCount)
+            }
+        );
+
+        final TreeMap<String, String> sources = new TreeMap<>();
+
+        readSources(outputDirectory, "", sources);
+
+        return sources;
+    }
+
+    private static void readSources(final File directory, final String path, final TreeMap<String, String> sources) throws IOException {
+        final File[] children = directory.listFiles();
+
+        if (children == null) {
+            return;
+        }
+
+        for (final File child : children) {
+            if (child.isDirectory()) {
+                readSources(child, path + child.getName() + "/", sources);
+            }
+            else {
+                sources.put(path + child.getName(), new String(Files.readAllBytes(child.toPath()), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelOutputMatchesSequentialOutput() throws Throwable {
+        final TreeMap<String, String> expected = decompileJar("sequential", 1);
+        final String timeUnit = expected.get("java/util/concurrent/TimeUnit.java");
+
+        assertEquals(expected.keySet().toString(), 3, expected.size());
+        assertTrue(timeUnit.contains("NANOSECONDS {"));
+        assertFalse(timeUnit.contains("TimeUnit$1"));
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(expected, decompileJar("parallel" + i, 4));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.strobel.decompiler;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Decompiled by {@link LineNumberFormattingTests}, whose expected output depends on the line
+ * numbers below.  Some lines hold several statements on purpose, so that they must be broken
+ * apart, and some statements are spread out, so that the output must be stretched to match.
+ */
+@SuppressWarnings("ALL")
+public class LineNumberFixture {
+    private int _count;
+
+    public int sum(final int[] values) {
+        int sum = 0;
+
+        for (final int value : values) {
+            if (value > 0) {
+
+
+                sum += value;
+            }
+        }
+
+        return sum;
+    }
+
+    public String describe(final Object o) {
+        if (o == null) { return "null"; }
+        final String s = o.toString(); return s.isEmpty() ? "empty" : s;
+    }
+
+    public Callable<Integer> counter(final int start) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                _count += start;
+                return _count;
+            }
+        };
+    }
+
+    public Runnable fill(final int[] values) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                values[0] = 1;
+
+
+                values[1] = 2;
+            }
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package com.strobel.decompiler;
+
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.LineNumberFormatter.LineNumberOption;
+import com.strobel.decompiler.languages.java.JavaFormattingOptions;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the exact output of {@code -ln} and {@code -sl} for {@link LineNumberFixture}.
+ */
+public class LineNumberFormattingTests {
+    private static String decompile(final EnumSet<LineNumberOption> lineNumberOptions) throws Exception {
+        final DecompilerSettings settings = new DecompilerSettings();
+        final DecompilationOptions options = new DecompilationOptions();
+
+        //
+        // Match the command line defaults.
+        //
+        settings.setForceExplicitImports(true);
+        settings.setTypeLoader(new ClasspathTypeLoader());
+        settings.setJavaFormattingOptions(JavaFormattingOptions.createDefault());
+        options.setSettings(settings);
+
+        final TypeDefinition type = new MetadataSystem(settings.getTypeLoader()).lookupType(
+            "com/strobel/decompiler/LineNumberFixture"
+        ).resolve();
+
+        final StringWriter writer = new StringWriter();
+
+        DecompilerDriver.decompileTypeWithLineNumbers(type, options, writer, lineNumberOptions);
+
+        return writer.toString().replace("\r\n", "\n");
+    }
+
+    @Test
+    public void testLeadingComments() throws Throwable {
+        assertEquals(
+            "      package com.strobel.decompiler;\n" +
+            "      \n" +
+            "      import java.util.concurrent.Callable;\n" +
+            "      \n" +
+            "      public class LineNumberFixture\n" +
+            "      {\n" +
+            "          private int _count;\n" +
+            "          \n" +
+            "          public int sum(final int[] array) {\n" +
+            "/*15*/        int n = 0;\n" +
+            "/*17*/        for (final int n2 : array) {\n" +
+            "/*18*/            if (n2 > 0) {\n" +
+            "/*21*/                n += n2;\n" +
+            "                  }\n" +
+            "              }\n" +
+            "/*25*/        return n;\n" +
+            "          }\n" +
+            "          \n" +
+            "          public String describe(final Object o) {\n" +
+            "/*29*/        if (o == null) {\n" +
+            "                  return \"null\";\n" +
+            "              }\n" +
+            "/*30*/        final String string = o.toString();\n" +
+            "              return string.isEmpty() ? \"empty\" : string;\n" +
+            "          }\n" +
+            "          \n" +
+            "          public Callable<Integer> counter(final int n) {\n" +
+            "/*34*/        return new Callable<Integer>() {\n" +
+            "                  @Override\n" +
+            "                  public Integer call() {\n" +
+            "/*37*/                LineNumberFixture.this._count += n;\n" +
+            "/*38*/                return LineNumberFixture.this._count;\n" +
+            "                  }\n" +
+            "              };\n" +
+            "          }\n" +
+            "          \n" +
+            "          public Runnable fill(final int[] array) {\n" +
+            "/*44*/        return new Runnable() {\n" +
+            "                  @Override\n" +
+            "                  public void run() {\n" +
+            "/*47*/                array[0] = 1;\n" +
+            "/*50*/                array[1] = 2;\n" +
+            "                  }\n" +
+            "              };\n" +
+            "          }\n" +
+            "      }\n",
+            decompile(EnumSet.of(LineNumberOption.LEADING_COMMENTS))
+        );
+    }
+
+    @Test
+    public void testStretched() throws Throwable {
+        assertEquals(
+            "\n" +
+            "package com.strobel.decompiler;\n" +
+            "\n" +
+            "\n" +
+            "\n" +
+            "import java.util.concurrent.Callable;\n" +
+            "\n" +
+            "\n" +
+            "\n" +
+            "public class LineNumberFixture\n" +
+            "{\n" +
+            "    private int _count;\n" +
+            "    \n" +
+            "    public int sum(final int[] array) {\n" +
+            "        int n = 0;\n" +
+            "\n" +
+            "        for (final int n2 : array) {\n" +
+            "            if (n2 > 0) {\n" +
+            "\n" +
+            "\n" +
+            "                n += n2;\n" +
+            "\n" +
+            "            }\n" +
+            "        }\n" +
+            "        return n;\n" +
+            "    }\n" +
+            "    \n" +
+            "    public String describe(final Object o) {\n" +
+            "        if (o == null) {\n" +
+            "            return \"null\";          }          final String string = o.toString();\n" +
+            "        return string.isEmpty() ? \"empty\" : string;\n" +
+            "    }\n" +
+            "    public Callable<Integer> counter(final int n) {\n" +
+            "        return new Callable<Integer>() {\n" +
+            "            @Override\n" +
+            "            public Integer call() {\n" +
+            "                LineNumberFixture.this._count += n;\n" +
+            "                return LineNumberFixture.this._count;\n" +
+            "            }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    \n" +
+            "    public Runnable fill(final int[] array) {\n" +
+            "        return new Runnable() {\n" +
+            "            @Override\n" +
+            "            public void run() {\n" +
+            "                array[0] = 1;\n" +
+            "\n" +
+            "\n" +
+            "                array[1] = 2;\n" +
+            "            }\n" +
+            "        };\n" +
+            "    }\n" +
+            "}\n",
+            decompile(EnumSet.of(LineNumberOption.STRETCHED))
+        );
+    }
+
+    @Test
+    public void testLeadingCommentsAndStretched() throws Throwable {
+        assertEquals(
+            "      \n" +
+            "      package com.strobel.decompiler;\n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "      import java.util.concurrent.Callable;\n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "      public class LineNumberFixture\n" +
+            "      {\n" +
+            "          private int _count;\n" +
+            "          \n" +
+            "          public int sum(final int[] array) {\n" +
+            "/*15*/        int n = 0;\n" +
+            "      \n" +
+            "/*17*/        for (final int n2 : array) {\n" +
+            "/*18*/            if (n2 > 0) {\n" +
+            "      \n" +
+            "      \n" +
+            "/*21*/                n += n2;\n" +
+            "      \n" +
+            "                  }\n" +
+            "              }\n" +
+            "/*25*/        return n;\n" +
+            "          }\n" +
+            "          \n" +
+            "          public String describe(final Object o) {\n" +
+            "/*29*/        if (o == null) {\n" +
+            "/*30*/            return \"null\";          }          final String string = o.toString();\n" +
+            "              return string.isEmpty() ? \"empty\" : string;\n" +
+            "          }\n" +
+            "          public Callable<Integer> counter(final int n) {\n" +
+            "/*34*/        return new Callable<Integer>() {\n" +
+            "                  @Override\n" +
+            "                  public Integer call() {\n" +
+            "/*37*/                LineNumberFixture.this._count += n;\n" +
+            "/*38*/                return LineNumberFixture.this._count;\n" +
+            "                  }\n" +
+            "              };\n" +
+            "          }\n" +
+            "          \n" +
+            "          public Runnable fill(final int[] array) {\n" +
+            "/*44*/        return new Runnable() {\n" +
+            "                  @Override\n" +
+            "                  public void run() {\n" +
+            "/*47*/                array[0] = 1;\n" +
+            "      \n" +
+            "      \n" +
+            "/*50*/                array[1] = 2;\n" +
+            "                  }\n" +
+            "              };\n" +
+            "          }\n" +
+            "      }\n",
+            decompile(EnumSet.of(LineNumberOption.LEADING_COMMENTS, LineNumberOption.STRETCHED))
+        );
+    }
+}
@@ -23,6 +23,9 @@ import java.util.Map;
 
 final class AnalyzedTree {
     private DebugInfoGenerator _debugInfoGenerator;
+    private LambdaShape _shape;
+    private boolean _shareable = true;
+    private boolean _requiresPackageAccess;
 
     final Map<Object, CompilerScope> scopes = new HashMap<>();
     final Map<LambdaExpression, BoundConstants> constants = new HashMap<>();
@@ -37,5 +40,33 @@ final class AnalyzedTree {
     void setDebugInfoGenerator(final DebugInfoGenerator debugInfoGenerator) {
         _debugInfoGenerator = debugInfoGenerator;
     }
+
+    LambdaShape getShape() {
+        return _shape;
+    }
+
+    void setShape(final LambdaShape shape) {
+        _shape = shape;
+    }
+
+    boolean isSharedConstant(final ConstantExpression node) {
+        return _shape != null && _shape.isShared(node);
+    }
+
+    boolean isShareable() {
+        return _shape != null && _shareable;
+    }
+
+    void markUnshareable() {
+        _shareable = false;
+    }
+
+    boolean requiresPackageAccess() {
+        return _requiresPackageAccess;
+    }
+
+    void setRequiresPackageAccess(final boolean requiresPackageAccess) {
+        _requiresPackageAccess = requiresPackageAccess;
+    }
 }
 
@@ -46,6 +46,12 @@ final class BoundConstants {
     /** Bytecode locals for storing frequently used constants */
     private final HashMap<TypedConstant, LocalBuilder> _cache = new HashMap<>();
 
+    /** The origin of each constant in the constant array: a shared constant, nested constants, or null */
+    private final ArrayList<Object> _sources = new ArrayList<>();
+
+    /** The index of each shared constant node in the constant array */
+    private final IdentityHashMap<ConstantExpression, MutableInteger> _sharedIndexes = new IdentityHashMap<>();
+
     int count() {
         return _values.size();
     }
@@ -58,6 +64,7 @@ final class BoundConstants {
         if (!_indexes.containsKey(value)) {
             _indexes.put(value, new MutableInteger(_values.size()));
             _values.add(value);
+            _sources.add(null);
         }
         incrementCount(new TypedConstant(value, type), _references);
     }
@@ -95,6 +102,7 @@ final class BoundConstants {
         if (index == null) {
             _indexes.put(value, (index = new MutableInteger(_values.size())));
             _values.add(value);
+            _sources.add(null);
         }
 
         lc.generator.emitInteger(index.getValue());
@@ -102,6 +110,81 @@ final class BoundConstants {
         lc.generator.emitConversion(Types.Object, type);
     }
 
+    void addSharedReference(final ConstantExpression node) {
+        if (!_sharedIndexes.containsKey(node)) {
+            _sharedIndexes.put(node, new MutableInteger(_values.size()));
+            _values.add(node.getValue());
+            _sources.add(node);
+        }
+    }
+
+    void emitSharedConstant(final LambdaCompiler lc, final ConstantExpression node) {
+        assert lc.canEmitBoundConstants()   // Should have been checked already.
+            : "lc.canEmitBoundConstants()";
+
+        addSharedReference(node);
+
+        emitConstantsArray(lc);
+
+        lc.generator.emitInteger(_sharedIndexes.get(node).getValue());
+        lc.generator.emitLoadElement(Types.Object);
+        lc.generator.emitConversion(Types.Object, node.getType());
+    }
+
+    void emitNestedConstants(final LambdaCompiler lc, final BoundConstants inner) {
+        final Object[] values = inner.toArray();
+
+        //
+        // Remember which lambda the array belongs to, so a shared layout can rebuild it.
+        //
+        _indexes.put(values, new MutableInteger(_values.size()));
+        _values.add(values);
+        _sources.add(new NestedConstants(inner, values.length));
+
+        emitConstant(lc, values, Type.of(Object[].class));
+    }
+
+    /**
+     * Describes how to rebuild the constant array for another tree of the same shape, or returns
+     * {@code null} if the array holds values which cannot be traced back to the shape.
+     */
+    Layout createLayout(final LambdaShape shape) {
+        return createLayout(shape, _values.size());
+    }
+
+    private Layout createLayout(final LambdaShape shape, final int length) {
+        final Object[] slots = new Object[length];
+
+        for (int i = 0; i < length; i++) {
+            final Object source = _sources.get(i);
+
+            if (source instanceof ConstantExpression) {
+                final Integer ordinal = shape.getOrdinal((ConstantExpression) source);
+
+                if (ordinal == null) {
+                    return null;
+                }
+
+                slots[i] = ordinal;
+            }
+            else if (source instanceof NestedConstants) {
+                final NestedConstants nested = (NestedConstants) source;
+                final Layout nestedLayout = nested.constants.createLayout(shape, nested.length);
+
+                if (nestedLayout == null) {
+                    return null;
+                }
+
+                slots[i] = nestedLayout;
+            }
+            else {
+                slots[i] = new FixedValue(_values.get(i));
+            }
+        }
+
+        return new Layout(slots);
+    }
+
     void emitCacheConstants(final LambdaCompiler lc) {
         int count = 0;
 
@@ -162,6 +245,58 @@ final class BoundConstants {
         }
     }
 
+    /**
+     * A recipe for the constant array of a shared lambda class.  Each slot holds either the ordinal
+     * of a shared constant, the layout of a nested lambda's constants, or a fixed value.
+     */
+    final static class Layout {
+        private final Object[] _slots;
+
+        Layout(final Object[] slots) {
+            _slots = slots;
+        }
+
+        Object[] build(final Object[] constants) {
+            final Object[] values = new Object[_slots.length];
+
+            for (int i = 0; i < values.length; i++) {
+                final Object slot = _slots[i];
+
+                if (slot instanceof Integer) {
+                    values[i] = constants[(Integer) slot];
+                }
+                else if (slot instanceof Layout) {
+                    values[i] = ((Layout) slot).build(constants);
+                }
+                else {
+                    values[i] = ((FixedValue) slot).value;
+                }
+            }
+
+            return values;
+        }
+    }
+
+    @SuppressWarnings("PackageVisibleField")
+    private final static class FixedValue {
+        final Object value;
+
+        FixedValue(final Object value) {
+            this.value = value;
+        }
+    }
+
+    @SuppressWarnings("PackageVisibleField")
+    private final static class NestedConstants {
+        final BoundConstants constants;
+        final int length;
+
+        NestedConstants(final BoundConstants constants, final int length) {
+            this.constants = constants;
+            this.length = length;
+        }
+    }
+
     @SuppressWarnings("PackageVisibleField")
     private final static class TypedConstant {
         final Object value;
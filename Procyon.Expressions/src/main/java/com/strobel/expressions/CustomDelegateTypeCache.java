@@ -21,6 +21,7 @@ import com.strobel.core.ArrayUtilities;
 import com.strobel.core.VerifyArgument;
 import com.strobel.reflection.Type;
 import com.strobel.reflection.TypeList;
+import com.strobel.reflection.emit.DefinitionStrategy;
 import com.strobel.reflection.emit.GenericParameterBuilder;
 import com.strobel.reflection.emit.TypeBuilder;
 
@@ -110,6 +111,11 @@ final class CustomDelegateTypeCache {
             TypeList.empty()
         );
 
+        //
+        // Delegate types are cached for good, and lambda classes in any loader must be able to see them.
+        //
+        typeBuilder.setDefinitionStrategy(DefinitionStrategy.ContextLoader);
+
         String[] genericParameterNames;
 
         int t = 0;
@@ -18,10 +18,12 @@ package com.strobel.expressions;
 
 import com.strobel.core.VerifyArgument;
 import com.strobel.reflection.MethodInfo;
+import com.strobel.reflection.ParameterList;
 import com.strobel.reflection.TargetInvocationException;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 
 /**
  * @author Mike Strobel
@@ -51,7 +53,8 @@ public final class Delegate<T> {
                 _methodHandle = MethodHandles
                     .lookup()
                     .unreflect(_method.getRawMethod())
-                    .bindTo(_instance);
+                    .bindTo(_instance)
+                    .asType(methodType(_method));
             }
             catch (IllegalAccessException e) {
                 throw new IllegalStateException("Could not resolve method handle.");
@@ -60,6 +63,21 @@ public final class Delegate<T> {
         return _methodHandle;
     }
 
+    private static MethodType methodType(final MethodInfo method) {
+        //
+        // Interpreted delegates are bound to an erased interface method; adapt the handle to the
+        // generic signature so both kinds of delegate expose the same type.
+        //
+        final ParameterList parameters = method.getParameters();
+        final Class<?>[] parameterTypes = new Class<?>[parameters.size()];
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = parameters.get(i).getParameterType().getErasedClass();
+        }
+
+        return MethodType.methodType(method.getReturnType().getErasedClass(), parameterTypes);
+    }
+
     public final Object invokeDynamic(final Object... args) throws TargetInvocationException {
         try {
             if (_spreadInvoker == null) {
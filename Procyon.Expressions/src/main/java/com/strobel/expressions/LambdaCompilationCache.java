@@ -0,0 +1,145 @@
+/*
+ * LambdaCompilationCache.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.compilerservices.DebugInfoGenerator;
+import com.strobel.util.ContractUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the classes generated by {@link LambdaExpression#compile()} by the structure of the
+ * compiled tree.  Trees which differ only in the values of their constants share one generated
+ * class; each compilation of such a tree only creates a new instance bound to its own constants.
+ * <p/>
+ * The cache holds the most recently used shapes, up to {@link #getCapacity()}.  A capacity of zero
+ * disables caching.  Classes defined in a collectible loader (see
+ * {@link com.strobel.reflection.emit.DefinitionStrategy}) are never cached, since the cache would
+ * keep them from being unloaded.
+ *
+ * @author Mike Strobel
+ */
+public final class LambdaCompilationCache {
+    private final static int DEFAULT_CAPACITY = 1024;
+
+    private final static AtomicLong hits = new AtomicLong();
+    private final static AtomicLong misses = new AtomicLong();
+
+    private final static Object lock = new Object();
+
+    private static int capacity = DEFAULT_CAPACITY;
+
+    private final static Map<List<Object>, LambdaTemplate> templates = new LinkedHashMap<List<Object>, LambdaTemplate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<List<Object>, LambdaTemplate> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    private LambdaCompilationCache() {
+        throw ContractUtils.unreachable();
+    }
+
+    /**
+     * Returns the number of compilations which reused a cached class.
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of compilations which had to generate a new class.
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    public static int size() {
+        synchronized (lock) {
+            return templates.size();
+        }
+    }
+
+    public static int getCapacity() {
+        synchronized (lock) {
+            return capacity;
+        }
+    }
+
+    public static void setCapacity(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative.");
+        }
+
+        synchronized (lock) {
+            LambdaCompilationCache.capacity = capacity;
+
+            if (capacity == 0) {
+                templates.clear();
+            }
+        }
+    }
+
+    /**
+     * Discards all cached classes and resets the hit and miss counts.
+     */
+    public static void clear() {
+        synchronized (lock) {
+            templates.clear();
+            hits.set(0);
+            misses.set(0);
+        }
+    }
+
+    static <T> Delegate<T> compile(final LambdaExpression<T> lambda) {
+        if (getCapacity() == 0) {
+            return LambdaCompiler.compile(lambda, DebugInfoGenerator.empty());
+        }
+
+        final LambdaShape shape = LambdaShape.of(lambda);
+        final List<Object> key = shape.getKey();
+
+        LambdaTemplate template;
+
+        synchronized (lock) {
+            template = templates.get(key);
+        }
+
+        if (template != null) {
+            hits.incrementAndGet();
+            return template.createDelegate(shape);
+        }
+
+        misses.incrementAndGet();
+
+        //
+        // Compile outside the lock; if another thread compiles the same shape concurrently, the
+        // first template to be published wins and the other is simply not cached.
+        //
+        template = LambdaCompiler.compileTemplate(lambda, shape);
+
+        if (template.isShareable()) {
+            synchronized (lock) {
+                if (capacity > 0 && !templates.containsKey(key)) {
+                    templates.put(key, template);
+                }
+            }
+        }
+
+        return template.createDelegate();
+    }
+}
@@ -69,6 +69,10 @@ final class LambdaCompiler {
             Type.list(lambda.getType())
         );
 
+        if (tree.requiresPackageAccess()) {
+            typeBuilder.setDefinitionStrategy(DefinitionStrategy.ContextLoader);
+        }
+
         final MethodInfo interfaceMethod = Expression.getInvokeMethod(lambda.getType(), true);
 
         methodBuilder = typeBuilder.defineMethod(
@@ -298,6 +302,63 @@ final class LambdaCompiler {
         return c.createDelegate(generatedClass);
     }
 
+    /**
+     * Compiles {@code lambda} such that every constant abstracted out of {@code shape} is loaded
+     * from the closure.  The resulting class may be reused for other trees of the same shape if
+     * the template reports itself as shareable.
+     */
+    static LambdaTemplate compileTemplate(final LambdaExpression<?> lambda, final LambdaShape shape) {
+        final Pair<AnalyzedTree, ? extends LambdaExpression<?>> result = analyzeLambda(lambda, shape);
+        final AnalyzedTree tree = result.getFirst();
+
+        tree.setDebugInfoGenerator(DebugInfoGenerator.empty());
+
+        final LambdaCompiler c = new LambdaCompiler(tree, result.getSecond());
+
+        c.emitLambdaBody();
+
+        final Class<?> generatedClass = c.typeBuilder.createType().getErasedClass();
+
+        //
+        // A cached template would keep a collectible class loaded for as long as it stays in the
+        // cache, so only classes which could never be unloaded anyway are shared.
+        //
+        if (c.typeBuilder.isCollectible()) {
+            tree.markUnshareable();
+        }
+
+        final MemberList<? extends MemberInfo> method = Type.of(generatedClass).findMembers(
+            MemberType.methodsOnly(),
+            BindingFlags.PublicInstanceDeclared,
+            Type.FilterMethodOverride,
+            Expression.getInvokeMethod(lambda.getType(), true)
+        );
+
+        final BoundConstants.Layout layout;
+
+        if (!c._hasClosureArgument) {
+            layout = null;
+        }
+        else if (tree.isShareable()) {
+            layout = c._boundConstants.createLayout(shape);
+
+            if (layout == null) {
+                tree.markUnshareable();
+            }
+        }
+        else {
+            layout = null;
+        }
+
+        return new LambdaTemplate(
+            generatedClass,
+            (MethodInfo) method.get(0),
+            c._hasClosureArgument ? c._boundConstants.toArray() : null,
+            layout,
+            tree.isShareable()
+        );
+    }
+
     @SuppressWarnings("unchecked")
     private <T> Delegate<T> createDelegate(final Class<T> generatedClass) {
         try {
@@ -349,15 +410,23 @@ final class LambdaCompiler {
     }
 
     private static <T> Pair<AnalyzedTree, LambdaExpression<T>> analyzeLambda(final LambdaExpression<T> lambda) {
+        return analyzeLambda(lambda, null);
+    }
+
+    private static <T> Pair<AnalyzedTree, LambdaExpression<T>> analyzeLambda(
+        final LambdaExpression<T> lambda,
+        final LambdaShape shape) {
+
         // Spill the stack for any exception handling blocks or other
         // constructs which require entering with an empty stack.
         final LambdaExpression<T> analyzedLambda = StackSpiller.analyzeLambda(lambda);
 
         // Bind any variable references in this lambda.
-        return Pair.create(
-            VariableBinder.bind(analyzedLambda),
-            analyzedLambda
-        );
+        final AnalyzedTree tree = VariableBinder.bind(analyzedLambda, shape);
+
+        tree.setRequiresPackageAccess(PackageAccessAnalyzer.requiresPackageAccess(analyzedLambda));
+
+        return Pair.create(tree, analyzedLambda);
     }
 
     LocalBuilder getNamedLocal(final Type type, final ParameterExpression variable) {
@@ -1991,6 +2060,20 @@ final class LambdaCompiler {
 
     private void emitConstantExpression(final Expression expr) {
         final ConstantExpression node = (ConstantExpression) expr;
+
+        if (_tree.isSharedConstant(node)) {
+            if (canEmitBoundConstants()) {
+                _boundConstants.emitSharedConstant(this, node);
+                return;
+            }
+
+            //
+            // The value is about to be baked into the bytecode, so the class cannot be reused
+            // for other trees of the same shape.
+            //
+            _tree.markUnshareable();
+        }
+
         emitConstant(node.getValue(), node.getType());
     }
 
@@ -2901,7 +2984,7 @@ final class LambdaCompiler {
         generator.dup();
 
         if (boundConstants) {
-            _boundConstants.emitConstant(this, inner._boundConstants.toArray(), objectArrayType);
+            _boundConstants.emitNestedConstants(this, inner._boundConstants);
         }
         else {
             generator.emitNull();
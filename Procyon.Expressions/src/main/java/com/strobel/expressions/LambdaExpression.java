@@ -138,11 +138,41 @@ public final class LambdaExpression<T> extends Expression {
     }
 
     public final Delegate<T> compileDelegate() {
-        return LambdaCompiler.compile(this, DebugInfoGenerator.empty());
+        return LambdaCompilationCache.compile(this);
+    }
+
+    /**
+     * Produces a delegate for this lambda, interpreting the tree instead of generating bytecode if
+     * {@code preferInterpretation} is {@code true}.  Interpretation starts faster but runs slower,
+     * so it suits lambdas which are invoked only a few times.
+     */
+    public final T compile(final boolean preferInterpretation) {
+        return compileDelegate(preferInterpretation).getInstance();
+    }
+
+    /**
+     * Produces a delegate for this lambda, interpreting the tree instead of generating bytecode if
+     * {@code preferInterpretation} is {@code true}.  An interpreted delegate compiles the lambda
+     * after {@code compilationThreshold} invocations and runs the compiled code from then on; a
+     * threshold of zero or less keeps it interpreted.
+     */
+    public final T compile(final boolean preferInterpretation, final int compilationThreshold) {
+        return compileDelegate(preferInterpretation, compilationThreshold).getInstance();
+    }
+
+    public final Delegate<T> compileDelegate(final boolean preferInterpretation) {
+        return compileDelegate(preferInterpretation, 0);
+    }
+
+    public final Delegate<T> compileDelegate(final boolean preferInterpretation, final int compilationThreshold) {
+        if (preferInterpretation) {
+            return LambdaInterpreter.interpret(this, compilationThreshold);
+        }
+        return LambdaCompilationCache.compile(this);
     }
 
     public final MethodHandle compileHandle() {
-        return LambdaCompiler.compile(this, DebugInfoGenerator.empty()).getMethodHandle();
+        return LambdaCompilationCache.compile(this).getMethodHandle();
     }
 
     public final void compileToMethod(final MethodBuilder methodBuilder) {
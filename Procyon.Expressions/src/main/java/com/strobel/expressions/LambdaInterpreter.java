@@ -0,0 +1,1609 @@
+/*
+ * LambdaInterpreter.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.VerifyArgument;
+import com.strobel.reflection.ConstructorInfo;
+import com.strobel.reflection.FieldInfo;
+import com.strobel.reflection.MethodInfo;
+import com.strobel.reflection.PrimitiveTypes;
+import com.strobel.reflection.Type;
+import com.strobel.reflection.Types;
+import com.strobel.util.ContractUtils;
+import com.strobel.util.TypeUtils;
+
+import javax.lang.model.type.TypeKind;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Executes lambda expressions by walking the tree instead of generating bytecode.  Nothing is
+ * generated or loaded up front, which makes interpretation the cheaper choice for trees that only
+ * run a handful of times.  An interpreted delegate may optionally compile itself once it has been
+ * invoked often enough for code generation to pay off.
+ * <p/>
+ * Interpreted delegates are proxies implementing the lambda's interface type, and they behave like
+ * compiled ones: nested lambdas capture variables by reference, finally blocks run when a jump
+ * leaves a try body, and exceptions thrown by called methods propagate unwrapped.  The one visible
+ * difference is that a checked exception not declared by the interface method reaches the caller
+ * wrapped in an {@link java.lang.reflect.UndeclaredThrowableException}, as with any proxy.
+ *
+ * @author Mike Strobel
+ */
+final class LambdaInterpreter {
+    private LambdaInterpreter() {
+        throw ContractUtils.unreachable();
+    }
+
+    /**
+     * Creates an interpreted delegate for {@code lambda}.  If {@code compilationThreshold} is
+     * positive, the delegate compiles the lambda after that many interpreted invocations and
+     * dispatches to the compiled code from then on.
+     */
+    static <T> Delegate<T> interpret(final LambdaExpression<T> lambda, final int compilationThreshold) {
+        VerifyArgument.notNull(lambda, "lambda");
+
+        //
+        // Lower the reducible nodes once, up front, so the evaluator never reduces the same node
+        // on every pass through a loop.
+        //
+        final LambdaExpression<?> reduced = (LambdaExpression<?>) new Reducer().visit(lambda);
+
+        return createDelegate(
+            lambda.getType(),
+            new InterpretedLambda(
+                reduced,
+                null,
+                compilationThreshold > 0 ? lambda : null,
+                compilationThreshold
+            )
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Delegate<T> createDelegate(final Type<T> interfaceType, final InterpretedLambda handler) {
+        final Class<?> interfaceClass = interfaceType.getErasedClass();
+        final ClassLoader interfaceLoader = interfaceClass.getClassLoader();
+
+        final T instance = (T) Proxy.newProxyInstance(
+            interfaceLoader != null ? interfaceLoader : LambdaInterpreter.class.getClassLoader(),
+            new Class<?>[] { interfaceClass },
+            handler
+        );
+
+        return new Delegate<>(instance, Expression.getInvokeMethod(interfaceType, true));
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="InterpretedLambda Class">
+
+    private final static class InterpretedLambda implements InvocationHandler {
+        private final LambdaExpression<?> _lambda;
+        private final Scope _closure;
+        private final int _compilationThreshold;
+
+        private LambdaExpression<?> _source;
+        private int _invocationCount;
+        private volatile Object _compiled;
+
+        InterpretedLambda(
+            final LambdaExpression<?> lambda,
+            final Scope closure,
+            final LambdaExpression<?> source,
+            final int compilationThreshold) {
+
+            _lambda = lambda;
+            _closure = closure;
+            _source = source;
+            _compilationThreshold = compilationThreshold;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, method, args);
+            }
+
+            final Object compiled = _compiled;
+
+            if (compiled != null) {
+                return invokeCompiled(compiled, method, args);
+            }
+
+            //
+            // The invocation count is not synchronized; losing the occasional increment to a race
+            // only delays compilation slightly.
+            //
+            if (_source != null && ++_invocationCount > _compilationThreshold) {
+                final Object target = compile();
+
+                if (target != null) {
+                    return invokeCompiled(target, method, args);
+                }
+            }
+
+            return run(args);
+        }
+
+        private Object run(final Object[] args) {
+            final ParameterExpressionList parameters = _lambda.getParameters();
+            final Evaluator evaluator = new Evaluator(Scope.of(_closure, parameters, args), _lambda.getName());
+            final Object result;
+
+            try {
+                result = evaluator.evaluate(_lambda.getBody());
+            }
+            catch (final Jump jump) {
+                throw Error.labelTargetUndefined(jump.target.getName());
+            }
+
+            return _lambda.getReturnType() == PrimitiveTypes.Void ? null : result;
+        }
+
+        private synchronized Object compile() {
+            final LambdaExpression<?> source = _source;
+
+            if (_compiled == null && source != null) {
+                try {
+                    _compiled = LambdaCompilationCache.compile(source).getInstance();
+                }
+                catch (final RuntimeException ignored) {
+                    //
+                    // Some trees can be interpreted but not compiled (e.g., catch blocks with filters).
+                    // Keep interpreting those rather than failing an invocation that would succeed.
+                    //
+                    _source = null;
+                }
+            }
+
+            return _compiled;
+        }
+
+        private static Object invokeCompiled(final Object target, final Method method, final Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            }
+            catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static Object invokeObjectMethod(final Object proxy, final Method method, final Object[] args) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return proxy.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            }
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Scope Class">
+
+    /**
+     * The variables declared by a lambda, block, or catch block.  Nested lambdas hold on to the
+     * scope itself, so writes made after a closure is created are visible to it.
+     */
+    private final static class Scope {
+        final Scope parent;
+        final ParameterExpression[] variables;
+        final Object[] values;
+
+        private Scope(final Scope parent, final ParameterExpression[] variables, final Object[] values) {
+            this.parent = parent;
+            this.variables = variables;
+            this.values = values;
+        }
+
+        static Scope of(final Scope parent, final ParameterExpressionList variables, final Object[] values) {
+            final int count = variables.size();
+            final ParameterExpression[] v = new ParameterExpression[count];
+            final Object[] initialValues = new Object[count];
+
+            for (int i = 0; i < count; i++) {
+                v[i] = variables.get(i);
+                initialValues[i] = values != null ? values[i] : defaultValue(v[i].getType());
+            }
+
+            return new Scope(parent, v, initialValues);
+        }
+
+        static Scope of(final Scope parent, final ParameterExpression variable, final Object value) {
+            return new Scope(parent, new ParameterExpression[] { variable }, new Object[] { value });
+        }
+
+        int indexOf(final ParameterExpression variable) {
+            for (int i = 0; i < variables.length; i++) {
+                if (variables[i] == variable) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final static class RuntimeVariableList implements IRuntimeVariables {
+        private final Scope[] _scopes;
+        private final int[] _indexes;
+
+        RuntimeVariableList(final Scope[] scopes, final int[] indexes) {
+            _scopes = scopes;
+            _indexes = indexes;
+        }
+
+        @Override
+        public int size() {
+            return _indexes.length;
+        }
+
+        @Override
+        public Object get(final int index) {
+            return _scopes[index].values[_indexes[index]];
+        }
+
+        @Override
+        public void set(final int index, final Object value) {
+            _scopes[index].values[_indexes[index]] = value;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Jump Class">
+
+    /**
+     * Carries a goto out of the node that issued it, up to the block, label, or loop that defines
+     * its target.  Jumps between siblings of the same block never throw.
+     */
+    private final static class Jump extends RuntimeException {
+        final LabelTarget target;
+        final Object value;
+
+        Jump(final LabelTarget target, final Object value) {
+            super(null, null, false, false);
+            this.target = target;
+            this.value = value;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Reducer Class">
+
+    private final static class Reducer extends ExpressionVisitor {
+        @Override
+        public Expression visit(final Expression node) {
+            Expression current = node;
+
+            //
+            // Switches are evaluated directly; reducing them to hash lookups gains nothing here.
+            //
+            while (current != null &&
+                   current.canReduce() &&
+                   current.getNodeType() != ExpressionType.Switch) {
+
+                current = current.reduce();
+            }
+
+            return super.visit(current);
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Evaluator Class">
+
+    private final static class Evaluator extends ExpressionVisitor {
+        private final String _lambdaName;
+
+        private Scope _scope;
+        private Object _value;
+
+        //
+        // When a goto enters a nested block, loop, or branch, the target is recorded here and each
+        // construct on the way down skips ahead to the child containing it.
+        //
+        private LabelTarget _seekTarget;
+        private Object _seekValue;
+
+        Evaluator(final Scope scope, final String lambdaName) {
+            _scope = scope;
+            _lambdaName = lambdaName;
+        }
+
+        Object evaluate(final Expression node) {
+            _value = null;
+            visit(node);
+            return _value;
+        }
+
+        private Object[] evaluateArguments(final IArgumentProvider provider) {
+            final int count = provider.getArgumentCount();
+            final Object[] arguments = new Object[count];
+
+            for (int i = 0; i < count; i++) {
+                arguments[i] = evaluate(provider.getArgument(i));
+            }
+
+            return arguments;
+        }
+
+        private Object evaluateIn(final Scope scope, final Expression body) {
+            final Scope outer = _scope;
+
+            _scope = scope;
+
+            try {
+                return evaluate(body);
+            }
+            finally {
+                _scope = outer;
+            }
+        }
+
+        // <editor-fold defaultstate="collapsed" desc="Variables">
+
+        @Override
+        protected Expression visitParameter(final ParameterExpression node) {
+            for (Scope scope = _scope; scope != null; scope = scope.parent) {
+                final int index = scope.indexOf(node);
+
+                if (index >= 0) {
+                    _value = scope.values[index];
+                    return node;
+                }
+            }
+
+            throw Error.undefinedVariable(node.getName(), node.getType(), _lambdaName);
+        }
+
+        private void assignVariable(final ParameterExpression variable, final Object value) {
+            for (Scope scope = _scope; scope != null; scope = scope.parent) {
+                final int index = scope.indexOf(variable);
+
+                if (index >= 0) {
+                    scope.values[index] = value;
+                    return;
+                }
+            }
+
+            throw Error.undefinedVariable(variable.getName(), variable.getType(), _lambdaName);
+        }
+
+        @Override
+        protected Expression visitRuntimeVariables(final RuntimeVariablesExpression node) {
+            final ParameterExpressionList variables = node.getVariables();
+            final int count = variables.size();
+            final Scope[] scopes = new Scope[count];
+            final int[] indexes = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                final ParameterExpression variable = variables.get(i);
+
+                for (Scope scope = _scope; scope != null; scope = scope.parent) {
+                    final int index = scope.indexOf(variable);
+
+                    if (index >= 0) {
+                        scopes[i] = scope;
+                        indexes[i] = index;
+                        break;
+                    }
+                }
+
+                if (scopes[i] == null) {
+                    throw Error.undefinedVariable(variable.getName(), variable.getType(), _lambdaName);
+                }
+            }
+
+            _value = new RuntimeVariableList(scopes, indexes);
+            return node;
+        }
+
+        // </editor-fold>
+
+        // <editor-fold defaultstate="collapsed" desc="Constants and Defaults">
+
+        @Override
+        protected Expression visitConstant(final ConstantExpression node) {
+            final Object value = node.getValue();
+            final Type<?> type = node.getType();
+
+            _value = value != null && type.isPrimitive() ? coerce(value, type.getKind()) : value;
+            return node;
+        }
+
+        @Override
+        protected Expression visitDefaultValue(final DefaultValueExpression node) {
+            _value = defaultValue(node.getType());
+            return node;
+        }
+
+        // </editor-fold>
+
+        // <editor-fold defaultstate="collapsed" desc="Blocks and Control Flow">
+
+        @Override
+        protected Expression visitBlock(final BlockExpression node) {
+            final ParameterExpressionList variables = node.getVariables();
+            final Scope outer = _scope;
+
+            if (!variables.isEmpty()) {
+                _scope = Scope.of(outer, variables, null);
+            }
+
+            try {
+                final int count = node.getExpressionCount();
+
+                Object result = null;
+                int i = 0;
+
+                if (_seekTarget != null) {
+                    final int target = indexOfLabel(node, _seekTarget);
+
+                    if (target >= 0) {
+                        result = _seekValue;
+                        i = target + 1;
+                        _seekTarget = null;
+                        _seekValue = null;
+                    }
+                    else {
+                        i = indexOfContainingExpression(node, _seekTarget);
+                    }
+                }
+
+                while (i < count) {
+                    final Expression e = node.getExpression(i);
+
+                    try {
+                        if (e instanceof GotoExpression) {
+                            //
+                            // Jumps to a label in the same block are just a change of position.
+                            //
+                            final GotoExpression g = (GotoExpression) e;
+                            final int target = indexOfLabel(node, g.getTarget());
+
+                            if (target >= 0) {
+                                result = g.getValue() != null ? evaluate(g.getValue()) : null;
+                                i = target + 1;
+                                continue;
+                            }
+
+                            final int nested = indexOfContainingExpression(node, g.getTarget());
+
+                            if (nested >= 0) {
+                                _seekValue = g.getValue() != null ? evaluate(g.getValue()) : null;
+                                _seekTarget = g.getTarget();
+                                i = nested;
+                                continue;
+                            }
+                        }
+
+                        result = evaluate(e);
+                        ++i;
+                    }
+                    catch (final Jump jump) {
+                        final int target = indexOfLabel(node, jump.target);
+
+                        if (target >= 0) {
+                            result = jump.value;
+                            i = target + 1;
+                            continue;
+                        }
+
+                        final int nested = indexOfContainingExpression(node, jump.target);
+
+                        if (nested < 0) {
+                            throw jump;
+                        }
+
+                        _seekTarget = jump.target;
+                        _seekValue = jump.value;
+                        i = nested;
+                    }
+                }
+
+                _value = node.getType() == PrimitiveTypes.Void ? null : result;
+            }
+            finally {
+                _scope = outer;
+            }
+
+            return node;
+        }
+
+        private static int indexOfLabel(final BlockExpression block, final LabelTarget target) {
+            for (int i = 0, n = block.getExpressionCount(); i < n; i++) {
+                final Expression e = block.getExpression(i);
+
+                if (e instanceof LabelExpression && ((LabelExpression) e).getTarget() == target) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int indexOfContainingExpression(final BlockExpression block, final LabelTarget target) {
+            for (int i = 0, n = block.getExpressionCount(); i < n; i++) {
+                if (containsLabel(block.getExpression(i), target)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Determines whether {@code target} is defined within {@code node} at a position a goto may
+         * enter from outside:  within blocks, loop bodies, conditional branches, or switch cases.
+         */
+        private static boolean containsLabel(final Expression node, final LabelTarget target) {
+            if (node == null) {
+                return false;
+            }
+
+            switch (node.getNodeType()) {
+                case Label:
+                    return ((LabelExpression) node).getTarget() == target;
+
+                case Block: {
+                    final BlockExpression block = (BlockExpression) node;
+
+                    for (int i = 0, n = block.getExpressionCount(); i < n; i++) {
+                        if (containsLabel(block.getExpression(i), target)) {
+                            return true;
+                        }
+                    }
+
+                    return false;
+                }
+
+                case Loop:
+                    return containsLabel(((LoopExpression) node).getBody(), target);
+
+                case Conditional: {
+                    final ConditionalExpression conditional = (ConditionalExpression) node;
+
+                    return containsLabel(conditional.getIfTrue(), target) ||
+                           containsLabel(conditional.getIfFalse(), target);
+                }
+
+                case Switch: {
+                    final SwitchExpression switchExpression = (SwitchExpression) node;
+
+                    for (final SwitchCase switchCase : switchExpression.getCases()) {
+                        if (containsLabel(switchCase.getBody(), target)) {
+                            return true;
+                        }
+                    }
+
+                    return containsLabel(switchExpression.getDefaultBody(), target);
+                }
+
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        protected Expression visitGoto(final GotoExpression node) {
+            final Object value = node.getValue() != null ? evaluate(node.getValue()) : null;
+            throw new Jump(node.getTarget(), value);
+        }
+
+        @Override
+        protected Expression visitLabel(final LabelExpression node) {
+            final Expression defaultValue = node.getDefaultValue();
+
+            if (_seekTarget == node.getTarget()) {
+                _value = _seekValue;
+                _seekTarget = null;
+                _seekValue = null;
+                return node;
+            }
+
+            try {
+                _value = defaultValue != null ? evaluate(defaultValue) : null;
+            }
+            catch (final Jump jump) {
+                if (jump.target != node.getTarget()) {
+                    throw jump;
+                }
+                _value = jump.value;
+            }
+
+            return node;
+        }
+
+        @Override
+        protected Expression visitLoop(final LoopExpression node) {
+            final LabelTarget breakTarget = node.getBreakTarget();
+            final LabelTarget continueTarget = node.getContinueTarget();
+            final Expression body = node.getBody();
+
+            while (true) {
+                try {
+                    evaluate(body);
+                }
+                catch (final Jump jump) {
+                    if (breakTarget != null && jump.target == breakTarget) {
+                        _value = jump.value;
+                        return node;
+                    }
+
+                    if (continueTarget == null || jump.target != continueTarget) {
+                        throw jump;
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected Expression visitConditional(final ConditionalExpression node) {
+            final boolean test = _seekTarget != null ? containsLabel(node.getIfTrue(), _seekTarget)
+                                                     : (Boolean) evaluate(node.getTest());
+            final Object result = evaluate(test ? node.getIfTrue() : node.getIfFalse());
+
+            _value = node.getType() == PrimitiveTypes.Void ? null : result;
+            return node;
+        }
+
+        @Override
+        protected Expression visitSwitch(final SwitchExpression node) {
+            final Expression body = _seekTarget != null ? findSwitchBody(node, _seekTarget)
+                                                        : findSwitchBody(node, evaluate(node.getSwitchValue()));
+            final Object result = body != null ? evaluate(body) : null;
+
+            _value = node.getType() == PrimitiveTypes.Void ? null : result;
+            return node;
+        }
+
+        private static Expression findSwitchBody(final SwitchExpression node, final LabelTarget target) {
+            for (final SwitchCase switchCase : node.getCases()) {
+                if (containsLabel(switchCase.getBody(), target)) {
+                    return switchCase.getBody();
+                }
+            }
+            return node.getDefaultBody();
+        }
+
+        private Expression findSwitchBody(final SwitchExpression node, final Object switchValue) {
+            final MethodInfo comparison = node.getComparison();
+
+            for (final SwitchCase switchCase : node.getCases()) {
+                for (final Expression testValue : switchCase.getTestValues()) {
+                    final Object test = evaluate(testValue);
+                    final boolean matches;
+
+                    if (comparison == null) {
+                        matches = switchValue.equals(test);
+                    }
+                    else if (comparison.isStatic()) {
+                        matches = (Boolean) invoke(comparison, null, switchValue, test);
+                    }
+                    else {
+                        matches = (Boolean) invoke(comparison, switchValue, test);
+                    }
+
+                    if (matches) {
+                        return switchCase.getBody();
+                    }
+                }
+            }
+
+            return node.getDefaultBody();
+        }
+
+        @Override
+        protected Expression visitTry(final TryExpression node) {
+            final Expression finallyBlock = node.getFinallyBlock();
+
+            Object result;
+
+            try {
+                result = evaluate(node.getBody());
+            }
+            catch (final Jump jump) {
+                throw jump;
+            }
+            catch (final Throwable t) {
+                result = handleException(node, t);
+            }
+            finally {
+                if (finallyBlock != null) {
+                    evaluate(finallyBlock);
+                }
+            }
+
+            _value = node.getType() == PrimitiveTypes.Void ? null : result;
+            return node;
+        }
+
+        private Object handleException(final TryExpression node, final Throwable t) {
+            for (final CatchBlock handler : node.getHandlers()) {
+                if (!handler.getTest().getErasedClass().isInstance(t)) {
+                    continue;
+                }
+
+                final ParameterExpression variable = handler.getVariable();
+                final Scope outer = _scope;
+
+                if (variable != null) {
+                    _scope = Scope.of(outer, variable, t);
+                }
+
+                try {
+                    final Expression filter = handler.getFilter();
+
+                    if (filter != null && !(Boolean) evaluate(filter)) {
+                        continue;
+                    }
+
+                    return evaluate(handler.getBody());
+                }
+                finally {
+                    _scope = outer;
+                }
+            }
+
+            throw ExceptionUtilities.<RuntimeException>rethrow(t);
+        }
+
+        // </editor-fold>
+
+        // <editor-fold defaultstate="collapsed" desc="Lambdas and Invocation">
+
+        @Override
+        protected <T> LambdaExpression<T> visitLambda(final LambdaExpression<T> node) {
+            _value = createDelegate(node.getType(), new InterpretedLambda(node, _scope, null, 0)).getInstance();
+            return node;
+        }
+
+        @Override
+        protected Expression visitInvocation(final InvocationExpression node) {
+            final LambdaExpression<?> lambda = node.getLambdaOperand();
+
+            if (lambda != null) {
+                //
+                // Invoke literal lambdas in place rather than creating a delegate for them.
+                //
+                final Object[] arguments = evaluateArguments(node);
+                final Object result = evaluateIn(Scope.of(_scope, lambda.getParameters(), arguments), lambda.getBody());
+
+                _value = lambda.getReturnType() == PrimitiveTypes.Void ? null : result;
+                return node;
+            }
+
+            final Object target = evaluate(node.getExpression());
+            final Object[] arguments = evaluateArguments(node);
+
+            _value = invoke(Expression.getInvokeMethod(node.getExpression()), target, arguments);
+            return node;
+        }
+
+        @Override
+        protected Expression visitMethodCall(final MethodCallExpression node) {
+            final Expression targetExpression = node.getTarget();
+            final Object target = targetExpression != null ? evaluate(targetExpression) : null;
+            final Object[] arguments = evaluateArguments(node);
+
+            _value = invoke(node.getMethod(), target, arguments);
+            return node;
+        }
+
+        @Override
+        protected Expression visitNew(final NewExpression node) {
+            final Object[] arguments = evaluateArguments(node);
+
+            _value = construct(node.getConstructor(), arguments);
+            return node;
+        }
+
+        @Override
+        protected Expression visitNewArray(final NewArrayExpression node) {
+            final ExpressionList<? extends Expression> expressions = node.getExpressions();
+            final int count = expressions.size();
+            final Object array;
+
+            if (node.getNodeType() == ExpressionType.NewArrayInit) {
+                array = Array.newInstance(node.getType().getElementType().getErasedClass(), count);
+
+                for (int i = 0; i < count; i++) {
+                    Array.set(array, i, evaluate(expressions.get(i)));
+                }
+            }
+            else {
+                final int[] dimensions = new int[count];
+
+                Type<?> elementType = node.getType();
+
+                for (int i = 0; i < count; i++) {
+                    dimensions[i] = number(evaluate(expressions.get(i))).intValue();
+                    elementType = elementType.getElementType();
+                }
+
+                array = Array.newInstance(elementType.getErasedClass(), dimensions);
+            }
+
+            _value = array;
+            return node;
+        }
+
+        // </editor-fold>
+
+        // <editor-fold defaultstate="collapsed" desc="Members and Types">
+
+        @Override
+        protected Expression visitMember(final MemberExpression node) {
+            final Expression targetExpression = node.getTarget();
+            final Object target = targetExpression != null ? evaluate(targetExpression) : null;
+
+            try {
+                _value = rawField(node).get(target);
+            }
+            catch (final IllegalAccessException e) {
+                throw ExceptionUtilities.asRuntimeException(e);
+            }
+
+            return node;
+        }
+
+        @Override
+        protected Expression visitTypeBinary(final TypeBinaryExpression node) {
+            if (node.getNodeType() == ExpressionType.TypeEqual) {
+                _value = evaluate(node.reduceTypeEqual());
+                return node;
+            }
+
+            final Object operand = evaluate(node.getOperand());
+
+            switch (ConstantCheck.analyzeInstanceOf(node)) {
+                case KnownTrue:
+                    _value = true;
+                    break;
+                case KnownFalse:
+                    _value = false;
+                    break;
+                case KnownAssignable:
+                    _value = operand != null;
+                    break;
+                default:
+                    _value = node.getTypeOperand().getErasedClass().isInstance(operand);
+                    break;
+            }
+
+            return node;
+        }
+
+        @Override
+        protected Expression visitExtension(final Expression node) {
+            if (!node.canReduce()) {
+                throw Error.extensionNotReduced();
+            }
+            _value = evaluate(node.reduce());
+            return node;
+        }
+
+        @Override
+        protected Expression visitConcat(final ConcatExpression node) {
+            return visitExtension(node);
+        }
+
+        @Override
+        protected Expression visitFor(final ForExpression node) {
+            return visitExtension(node);
+        }
+
+        @Override
+        protected Expression visitForEach(final ForEachExpression node) {
+            return visitExtension(node);
+        }
+
+        // </editor-fold>
+
+        // <editor-fold defaultstate="collapsed" desc="Unary Expressions">
+
+        @Override
+        protected Expression visitUnary(final UnaryExpression node) {
+            final ExpressionType nodeType = node.getNodeType();
+            final Expression operandExpression = node.getOperand();
+            final Type<?> type = node.getType();
+
+            if (nodeType == ExpressionType.Throw) {
+                final Object exception = evaluate(operandExpression);
+
+                if (exception == null) {
+                    throw new NullPointerException();
+                }
+
+                throw ExceptionUtilities.<RuntimeException>rethrow((Throwable) exception);
+            }
+
+            final MethodInfo method = node.getMethod();
+
+            if (method != null && nodeType != ExpressionType.Unbox) {
+                final Object operand = evaluate(operandExpression);
+
+                _value = method.isStatic() ? invoke(method, null, operand)
+                                           : invoke(method, operand);
+                return node;
+            }
+
+            if (node.canReduce()) {
+                _value = evaluate(node.reduce());
+                return node;
+            }
+
+            final Object operand = evaluate(operandExpression);
+            final Type<?> operandType = operandExpression.getType();
+
+            switch (nodeType) {
+                case Convert:
+                case ConvertChecked:
+                    _value = convert(operand, operandType, type);
+                    break;
+
+                case Unbox:
+                    if (operand == null) {
+                        throw new NullPointerException();
+                    }
+                    _value = coerce(operand, type.getKind());
+                    break;
+
+                case ArrayLength:
+                    _value = Array.getLength(operand);
+                    break;
+
+                case IsNull:
+                    _value = operand == null;
+                    break;
+
+                case IsNotNull:
+                    _value = operand != null;
+                    break;
+
+                case IsTrue:
+                    _value = (Boolean) operand;
+                    break;
+
+                case IsFalse:
+                    _value = !(Boolean) operand;
+                    break;
+
+                default:
+                    _value = coerce(
+                        unaryOperator(nodeType, TypeUtils.getUnderlyingPrimitiveOrSelf(operandType), operand),
+                        TypeUtils.getUnderlyingPrimitiveOrSelf(type).getKind()
+                    );
+                    break;
+            }
+
+            return node;
+        }
+
+        // </editor-fold>
+
+        // <editor-fold defaultstate="collapsed" desc="Binary Expressions">
+
+        @Override
+        protected Expression visitBinary(final BinaryExpression node) {
+            final ExpressionType nodeType = node.getNodeType();
+
+            switch (nodeType) {
+                case Assign:
+                    _value = assign(node);
+                    return node;
+
+                case AndAlso:
+                    _value = (Boolean) evaluate(node.getLeft()) && (Boolean) evaluate(node.getRight());
+                    return node;
+
+                case OrElse:
+                    _value = (Boolean) evaluate(node.getLeft()) || (Boolean) evaluate(node.getRight());
+                    return node;
+
+                case Coalesce:
+                    _value = coalesce(node);
+                    return node;
+            }
+
+            if (node.canReduce()) {
+                _value = evaluate(node.reduce());
+                return node;
+            }
+
+            final MethodInfo method = node.getMethod();
+
+            if (method != null) {
+                _value = invokeBinaryMethod(node, method);
+                return node;
+            }
+
+            final Expression leftExpression = node.getLeft();
+            final Expression rightExpression = node.getRight();
+            final Object left = evaluate(leftExpression);
+            final Object right = evaluate(rightExpression);
+            final Type<?> leftType = leftExpression.getType();
+            final Type<?> rightType = rightExpression.getType();
+
+            switch (nodeType) {
+                case ArrayIndex:
+                    _value = Array.get(left, number(right).intValue());
+                    return node;
+
+                case ReferenceEqual:
+                    _value = left == right;
+                    return node;
+
+                case ReferenceNotEqual:
+                    _value = left != right;
+                    return node;
+
+                case Equal:
+                case NotEqual: {
+                    if (!isValueComparison(leftType, rightType)) {
+                        _value = (left == right) == (nodeType == ExpressionType.Equal);
+                    }
+                    else {
+                        final TypeKind kind = operandKind(leftType, rightType);
+
+                        if (kind == TypeKind.BOOLEAN) {
+                            _value = left.equals(right) == (nodeType == ExpressionType.Equal);
+                        }
+                        else {
+                            _value = compare(nodeType, kind, left, right);
+                        }
+                    }
+                    return node;
+                }
+
+                case GreaterThan:
+                case GreaterThanOrEqual:
+                case LessThan:
+                case LessThanOrEqual:
+                    _value = compare(nodeType, operandKind(leftType, rightType), left, right);
+                    return node;
+            }
+
+            _value = coerce(
+                binaryOperator(nodeType, operandKind(leftType, rightType), left, right),
+                TypeUtils.getUnderlyingPrimitiveOrSelf(node.getType()).getKind()
+            );
+
+            return node;
+        }
+
+        private Object invokeBinaryMethod(final BinaryExpression node, final MethodInfo method) {
+            final Expression left = node.getLeft();
+            final Expression right = node.getRight();
+
+            if (method.isStatic()) {
+                final Object l = evaluate(left);
+                return invoke(method, null, l, evaluate(right));
+            }
+
+            if (TypeUtils.isSameOrSubType(method.getDeclaringType(), left.getType())) {
+                final Object l = evaluate(left);
+                return invoke(method, l, evaluate(right));
+            }
+
+            final Object r = evaluate(right);
+            return invoke(method, r, evaluate(left));
+        }
+
+        private Object assign(final BinaryExpression node) {
+            final Expression left = node.getLeft();
+
+            switch (left.getNodeType()) {
+                case Parameter: {
+                    final Object value = evaluate(node.getRight());
+                    assignVariable((ParameterExpression) left, value);
+                    return value;
+                }
+
+                case MemberAccess: {
+                    final MemberExpression member = (MemberExpression) left;
+                    final Object target = member.getTarget() != null ? evaluate(member.getTarget()) : null;
+                    final Object value = evaluate(node.getRight());
+
+                    try {
+                        rawField(member).set(target, value);
+                    }
+                    catch (final IllegalAccessException e) {
+                        throw ExceptionUtilities.asRuntimeException(e);
+                    }
+
+                    return value;
+                }
+
+                case ArrayIndex: {
+                    final BinaryExpression index = (BinaryExpression) left;
+                    final Object array = evaluate(index.getLeft());
+                    final int position = number(evaluate(index.getRight())).intValue();
+                    final Object value = evaluate(node.getRight());
+
+                    Array.set(array, position, value);
+                    return value;
+                }
+
+                default:
+                    throw Error.invalidLValue(left.getNodeType());
+            }
+        }
+
+        private Object coalesce(final BinaryExpression node) {
+            final Expression leftExpression = node.getLeft();
+            final Object left = evaluate(leftExpression);
+
+            if (left == null) {
+                final Expression right = node.getRight();
+                return convert(evaluate(right), right.getType(), node.getType());
+            }
+
+            final LambdaExpression<?> conversion = node.getConversion();
+
+            if (conversion != null) {
+                return evaluateIn(Scope.of(_scope, conversion.getParameters(), new Object[] { left }), conversion.getBody());
+            }
+
+            return convert(left, leftExpression.getType(), node.getType());
+        }
+
+        // </editor-fold>
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Reflection Helpers">
+
+    private static Object invoke(final MethodInfo method, final Object target, final Object... arguments) {
+        final Method rawMethod = method.getRawMethod();
+
+        if (rawMethod.getDeclaringClass() == MethodHandle.class &&
+            (rawMethod.getName().equals("invoke") || rawMethod.getName().equals("invokeExact"))) {
+
+            //
+            // Signature-polymorphic methods cannot be called reflectively.
+            //
+            try {
+                return ((MethodHandle) target).invokeWithArguments(arguments);
+            }
+            catch (final Throwable t) {
+                throw ExceptionUtilities.<RuntimeException>rethrow(t);
+            }
+        }
+
+        try {
+            return rawMethod.invoke(target, arguments);
+        }
+        catch (final InvocationTargetException e) {
+            throw ExceptionUtilities.<RuntimeException>rethrow(e.getCause());
+        }
+        catch (final IllegalAccessException e) {
+            throw ExceptionUtilities.asRuntimeException(e);
+        }
+    }
+
+    private static Object construct(final ConstructorInfo constructor, final Object... arguments) {
+        try {
+            return constructor.getRawConstructor().newInstance(arguments);
+        }
+        catch (final InvocationTargetException e) {
+            throw ExceptionUtilities.<RuntimeException>rethrow(e.getCause());
+        }
+        catch (final InstantiationException | IllegalAccessException e) {
+            throw ExceptionUtilities.asRuntimeException(e);
+        }
+    }
+
+    private static Field rawField(final MemberExpression node) {
+        return ((FieldInfo) node.getMember()).getRawField();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Arithmetic Helpers">
+
+    private static Object defaultValue(final Type<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return false;
+            case BYTE:
+                return (byte) 0;
+            case SHORT:
+                return (short) 0;
+            case CHAR:
+                return '\0';
+            case INT:
+                return 0;
+            case LONG:
+                return 0L;
+            case FLOAT:
+                return 0f;
+            case DOUBLE:
+                return 0d;
+            default:
+                return null;
+        }
+    }
+
+    private static Number number(final Object value) {
+        if (value instanceof Character) {
+            return (int) (Character) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return (Number) value;
+    }
+
+    /**
+     * Converts a primitive or boxed value to the box type of {@code kind}, following the JVM's
+     * widening and narrowing rules.  Values of other kinds are returned unchanged.
+     */
+    private static Object coerce(final Object value, final TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return value instanceof Boolean ? value : number(value).intValue() != 0;
+            case BYTE:
+                return value instanceof Byte ? value : number(value).byteValue();
+            case SHORT:
+                return value instanceof Short ? value : number(value).shortValue();
+            case CHAR:
+                return value instanceof Character ? value : (char) number(value).intValue();
+            case INT:
+                return value instanceof Integer ? value : number(value).intValue();
+            case LONG:
+                return value instanceof Long ? value : number(value).longValue();
+            case FLOAT:
+                return value instanceof Float ? value : number(value).floatValue();
+            case DOUBLE:
+                return value instanceof Double ? value : number(value).doubleValue();
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Mirrors {@code CodeGenerator.emitConversion()}.
+     */
+    private static Object convert(final Object value, final Type<?> sourceType, final Type<?> targetType) {
+        if (targetType == PrimitiveTypes.Void) {
+            return null;
+        }
+
+        if (sourceType == targetType || sourceType.isEquivalentTo(targetType)) {
+            return value;
+        }
+
+        final Type<?> targetPrimitive = TypeUtils.getUnderlyingPrimitiveOrSelf(targetType);
+
+        if (targetPrimitive.isPrimitive()) {
+            if (value == null) {
+                if (targetType.isPrimitive()) {
+                    throw new NullPointerException();
+                }
+                return null;
+            }
+
+            if (!TypeUtils.getUnderlyingPrimitiveOrSelf(sourceType).isPrimitive()) {
+                //
+                // Converting from an arbitrary reference type casts to the exact box type.
+                //
+                return TypeUtils.getBoxedType(targetPrimitive).getErasedClass().cast(value);
+            }
+
+            return coerce(value, targetPrimitive.getKind());
+        }
+
+        if (value != null && targetType != Types.Object) {
+            return targetType.getErasedClass().cast(value);
+        }
+
+        return value;
+    }
+
+    private static boolean isValueComparison(final Type<?> leftType, final Type<?> rightType) {
+        return leftType.isPrimitive() && rightType.isPrimitive() ||
+               TypeUtils.isAutoUnboxed(leftType) && TypeUtils.isArithmetic(rightType) ||
+               TypeUtils.isAutoUnboxed(rightType) && TypeUtils.isArithmetic(leftType);
+    }
+
+    private static TypeKind operandKind(final Type<?> leftType, final Type<?> rightType) {
+        final Type<?> left = TypeUtils.getUnderlyingPrimitiveOrSelf(leftType);
+        final Type<?> right = TypeUtils.getUnderlyingPrimitiveOrSelf(rightType);
+
+        if (TypeUtils.isArithmetic(left) && TypeUtils.isArithmetic(right)) {
+            return Expression.performBinaryNumericPromotion(left, right).getKind();
+        }
+
+        return left.getKind();
+    }
+
+    private static boolean compare(final ExpressionType op, final TypeKind kind, final Object left, final Object right) {
+        switch (kind) {
+            case FLOAT:
+            case DOUBLE: {
+                final double l = number(left).doubleValue();
+                final double r = number(right).doubleValue();
+
+                switch (op) {
+                    case Equal:
+                        return l == r;
+                    case NotEqual:
+                        return l != r;
+                    case GreaterThan:
+                        return l > r;
+                    case GreaterThanOrEqual:
+                        return l >= r;
+                    case LessThan:
+                        return l < r;
+                    case LessThanOrEqual:
+                        return l <= r;
+                }
+                break;
+            }
+
+            default: {
+                final long l = number(left).longValue();
+                final long r = number(right).longValue();
+
+                switch (op) {
+                    case Equal:
+                        return l == r;
+                    case NotEqual:
+                        return l != r;
+                    case GreaterThan:
+                        return l > r;
+                    case GreaterThanOrEqual:
+                        return l >= r;
+                    case LessThan:
+                        return l < r;
+                    case LessThanOrEqual:
+                        return l <= r;
+                }
+                break;
+            }
+        }
+
+        throw Error.unhandledBinary(op);
+    }
+
+    private static Object binaryOperator(final ExpressionType op, final TypeKind kind, final Object left, final Object right) {
+        switch (kind) {
+            case BOOLEAN: {
+                final boolean l = (Boolean) left;
+                final boolean r = (Boolean) right;
+
+                switch (op) {
+                    case And:
+                        return l & r;
+                    case Or:
+                        return l | r;
+                    case ExclusiveOr:
+                        return l ^ r;
+                }
+                break;
+            }
+
+            case LONG: {
+                final long l = number(left).longValue();
+
+                switch (op) {
+                    case LeftShift:
+                        return l << number(right).intValue();
+                    case RightShift:
+                        return l >> number(right).intValue();
+                    case UnsignedRightShift:
+                        return l >>> number(right).intValue();
+                }
+
+                final long r = number(right).longValue();
+
+                switch (op) {
+                    case Add:
+                        return l + r;
+                    case Subtract:
+                        return l - r;
+                    case Multiply:
+                        return l * r;
+                    case Divide:
+                        return l / r;
+                    case Modulo:
+                        return l % r;
+                    case And:
+                        return l & r;
+                    case Or:
+                        return l | r;
+                    case ExclusiveOr:
+                        return l ^ r;
+                }
+                break;
+            }
+
+            case FLOAT: {
+                final float l = number(left).floatValue();
+                final float r = number(right).floatValue();
+
+                switch (op) {
+                    case Add:
+                        return l + r;
+                    case Subtract:
+                        return l - r;
+                    case Multiply:
+                        return l * r;
+                    case Divide:
+                        return l / r;
+                    case Modulo:
+                        return l % r;
+                }
+                break;
+            }
+
+            case DOUBLE: {
+                final double l = number(left).doubleValue();
+                final double r = number(right).doubleValue();
+
+                switch (op) {
+                    case Add:
+                        return l + r;
+                    case Subtract:
+                        return l - r;
+                    case Multiply:
+                        return l * r;
+                    case Divide:
+                        return l / r;
+                    case Modulo:
+                        return l % r;
+                }
+                break;
+            }
+
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT: {
+                final int l = number(left).intValue();
+                final int r = number(right).intValue();
+
+                switch (op) {
+                    case Add:
+                        return l + r;
+                    case Subtract:
+                        return l - r;
+                    case Multiply:
+                        return l * r;
+                    case Divide:
+                        return l / r;
+                    case Modulo:
+                        return l % r;
+                    case And:
+                        return l & r;
+                    case Or:
+                        return l | r;
+                    case ExclusiveOr:
+                        return l ^ r;
+                    case LeftShift:
+                        return l << r;
+                    case RightShift:
+                        return l >> r;
+                    case UnsignedRightShift:
+                        return l >>> r;
+                }
+                break;
+            }
+        }
+
+        throw Error.unhandledBinary(op);
+    }
+
+    private static Object unaryOperator(final ExpressionType op, final Type<?> operandType, final Object operand) {
+        switch (operandType.getKind()) {
+            case BOOLEAN: {
+                if (op == ExpressionType.Not || op == ExpressionType.OnesComplement) {
+                    return !(Boolean) operand;
+                }
+                break;
+            }
+
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT: {
+                final int value = number(operand).intValue();
+
+                switch (op) {
+                    case Not:
+                    case OnesComplement:
+                        return ~value;
+                    case Negate:
+                        return -value;
+                    case UnaryPlus:
+                        return value;
+                    case Increment:
+                        return value + 1;
+                    case Decrement:
+                        return value - 1;
+                }
+                break;
+            }
+
+            case LONG: {
+                final long value = number(operand).longValue();
+
+                switch (op) {
+                    case Not:
+                    case OnesComplement:
+                        return ~value;
+                    case Negate:
+                        return -value;
+                    case UnaryPlus:
+                        return value;
+                    case Increment:
+                        return value + 1;
+                    case Decrement:
+                        return value - 1;
+                }
+                break;
+            }
+
+            case FLOAT: {
+                final float value = number(operand).floatValue();
+
+                switch (op) {
+                    case Negate:
+                        return -value;
+                    case UnaryPlus:
+                        return value;
+                    case Increment:
+                        return value + 1;
+                    case Decrement:
+                        return value - 1;
+                }
+                break;
+            }
+
+            case DOUBLE: {
+                final double value = number(operand).doubleValue();
+
+                switch (op) {
+                    case Negate:
+                        return -value;
+                    case UnaryPlus:
+                        return value;
+                    case Increment:
+                        return value + 1;
+                    case Decrement:
+                        return value - 1;
+                }
+                break;
+            }
+        }
+
+        throw Error.unaryOperatorNotDefined(op, operandType);
+    }
+
+    // </editor-fold>
+}
@@ -0,0 +1,413 @@
+/*
+ * LambdaShape.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.core.VerifyArgument;
+import com.strobel.reflection.Type;
+import com.strobel.reflection.emit.CodeGenerator;
+import com.strobel.util.TypeUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A structural description of a lambda expression tree, used to share compiled code between trees
+ * which differ only in the values of their constants.  Two trees with equal shapes compile to the
+ * same bytecode, provided each constant abstracted out of the shape is loaded from the closure
+ * rather than being emitted inline.
+ * <p/>
+ * Constants are abstracted out only where the compiler never inspects their values.  Null and
+ * boolean constants drive branch simplification, switch case values become jump tables, adjacent
+ * string literals are folded by concatenation, and a type test on a constant is decided at compile
+ * time; constants in any of those positions remain part of the shape.
+ *
+ * @author Mike Strobel
+ */
+final class LambdaShape {
+    private final List<Object> _key;
+    private final List<ConstantExpression> _constants;
+    private final Map<ConstantExpression, Integer> _ordinals;
+
+    private LambdaShape(
+        final List<Object> key,
+        final List<ConstantExpression> constants,
+        final Map<ConstantExpression, Integer> ordinals) {
+
+        _key = key;
+        _constants = constants;
+        _ordinals = ordinals;
+    }
+
+    static LambdaShape of(final LambdaExpression<?> lambda) {
+        VerifyArgument.notNull(lambda, "lambda");
+
+        final ShapeWriter writer = new ShapeWriter();
+
+        writer.visit(lambda);
+
+        return new LambdaShape(
+            Collections.unmodifiableList(writer.key),
+            Collections.unmodifiableList(writer.constants),
+            writer.ordinals
+        );
+    }
+
+    /**
+     * The structural key; equal keys imply identical bytecode.
+     */
+    List<Object> getKey() {
+        return _key;
+    }
+
+    /**
+     * The constants abstracted out of the shape, in the order in which they were encountered.
+     */
+    List<ConstantExpression> getConstants() {
+        return _constants;
+    }
+
+    /**
+     * Determines whether {@code node} was abstracted out of the shape.
+     */
+    boolean isShared(final ConstantExpression node) {
+        return _ordinals.containsKey(node);
+    }
+
+    /**
+     * Returns the position of {@code node} in {@link #getConstants()}, or {@code null} if the node
+     * is not part of the shape's abstracted constants.
+     */
+    Integer getOrdinal(final ConstantExpression node) {
+        return _ordinals.get(node);
+    }
+
+    Object[] getConstantValues() {
+        final Object[] values = new Object[_constants.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = _constants.get(i).getValue();
+        }
+
+        return values;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="ShapeWriter Class">
+
+    private enum Token {
+        NULL,
+        SHARED_CONSTANT,
+        PINNED_CONSTANT,
+        PARAMETER,
+        LABEL,
+        OPAQUE
+    }
+
+    private final static class Identity {
+        final Object value;
+
+        Identity(final Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Identity && ((Identity) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    private final static class ShapeWriter extends ExpressionVisitor {
+        final List<Object> key = new ArrayList<>();
+        final List<ConstantExpression> constants = new ArrayList<>();
+        final Map<ConstantExpression, Integer> ordinals = new IdentityHashMap<>();
+
+        private final Map<ParameterExpression, Integer> _parameters = new IdentityHashMap<>();
+        private final Map<LabelTarget, Integer> _labels = new IdentityHashMap<>();
+
+        private int _pinned;
+
+        @Override
+        public Expression visit(final Expression node) {
+            if (node == null) {
+                key.add(Token.NULL);
+                return null;
+            }
+
+            final ExpressionType nodeType = node.getNodeType();
+
+            key.add(node.getClass());
+            key.add(nodeType);
+            key.add(node.getType());
+
+            if (nodeType == ExpressionType.Quote ||
+                nodeType == ExpressionType.Extension && !isBuiltInExtension(node)) {
+                //
+                // We know nothing about how these nodes are compiled, so they only ever match themselves.
+                //
+                key.add(Token.OPAQUE);
+                key.add(new Identity(node));
+                return node;
+            }
+
+            return node.accept(this);
+        }
+
+        private static boolean isBuiltInExtension(final Expression node) {
+            return node instanceof ConcatExpression ||
+                   node instanceof ForExpression ||
+                   node instanceof ForEachExpression;
+        }
+
+        private void visitPinned(final Expression node) {
+            ++_pinned;
+
+            try {
+                visit(node);
+            }
+            finally {
+                --_pinned;
+            }
+        }
+
+        @Override
+        protected Expression visitConstant(final ConstantExpression node) {
+            final Object value = node.getValue();
+
+            if (_pinned > 0 ||
+                value == null ||
+                value instanceof Boolean ||
+                value instanceof Enum<?> ||
+                value instanceof Type<?> ||
+                value instanceof Class<?> ||
+                !isLoadableFromClosure(value, node.getType())) {
+
+                key.add(Token.PINNED_CONSTANT);
+
+                key.add(
+                    CodeGenerator.canEmitConstant(value, node.getType()) ? value
+                                                                         : new Identity(value)
+                );
+
+                return node;
+            }
+
+            final Integer existing = ordinals.get(node);
+
+            key.add(Token.SHARED_CONSTANT);
+
+            if (existing != null) {
+                key.add(existing);
+            }
+            else {
+                final int ordinal = constants.size();
+
+                constants.add(node);
+                ordinals.put(node, ordinal);
+                key.add(ordinal);
+            }
+
+            return node;
+        }
+
+        private static boolean isLoadableFromClosure(final Object value, final Type<?> type) {
+            //
+            // Loading from the closure casts to the boxed type before unboxing, so primitive
+            // constants must already hold exactly that boxed type.
+            //
+            return !type.isPrimitive() ||
+                   TypeUtils.getBoxedType(type).getErasedClass() == value.getClass();
+        }
+
+        @Override
+        protected Expression visitParameter(final ParameterExpression node) {
+            Integer ordinal = _parameters.get(node);
+
+            if (ordinal == null) {
+                _parameters.put(node, ordinal = _parameters.size());
+            }
+
+            key.add(Token.PARAMETER);
+            key.add(ordinal);
+            key.add(node.getName());
+
+            return node;
+        }
+
+        @Override
+        protected LabelTarget visitLabelTarget(final LabelTarget node) {
+            if (node == null) {
+                key.add(Token.NULL);
+                return null;
+            }
+
+            Integer ordinal = _labels.get(node);
+
+            if (ordinal == null) {
+                _labels.put(node, ordinal = _labels.size());
+            }
+
+            key.add(Token.LABEL);
+            key.add(ordinal);
+            key.add(node.getType());
+            key.add(node.getName());
+
+            return node;
+        }
+
+        @Override
+        protected Expression visitUnary(final UnaryExpression node) {
+            key.add(node.getMethod());
+            return super.visitUnary(node);
+        }
+
+        @Override
+        protected Expression visitBinary(final BinaryExpression node) {
+            key.add(node.getMethod());
+            return super.visitBinary(node);
+        }
+
+        @Override
+        protected Expression visitTypeBinary(final TypeBinaryExpression node) {
+            key.add(node.getTypeOperand());
+            visitPinned(node.getOperand());
+            return node;
+        }
+
+        @Override
+        protected Expression visitMember(final MemberExpression node) {
+            key.add(node.getMember());
+            return super.visitMember(node);
+        }
+
+        @Override
+        protected Expression visitMethodCall(final MethodCallExpression node) {
+            key.add(node.getMethod());
+            key.add(node.getArgumentCount());
+            return super.visitMethodCall(node);
+        }
+
+        @Override
+        protected Expression visitNew(final NewExpression node) {
+            key.add(node.getConstructor());
+            key.add(node.getArgumentCount());
+            return super.visitNew(node);
+        }
+
+        @Override
+        protected Expression visitNewArray(final NewArrayExpression node) {
+            key.add(node.getExpressions().size());
+            return super.visitNewArray(node);
+        }
+
+        @Override
+        protected Expression visitInvocation(final InvocationExpression node) {
+            key.add(node.getArgumentCount());
+            return super.visitInvocation(node);
+        }
+
+        @Override
+        protected Expression visitConcat(final ConcatExpression node) {
+            final ExpressionList<? extends Expression> operands = node.getOperands();
+            final int count = operands.size();
+
+            key.add(count);
+
+            for (int i = 0; i < count; i++) {
+                final Expression operand = operands.get(i);
+
+                if (ConstantCheck.isStringLiteral(operand) &&
+                    (i > 0 && ConstantCheck.isStringLiteral(operands.get(i - 1)) ||
+                     i < count - 1 && ConstantCheck.isStringLiteral(operands.get(i + 1)))) {
+
+                    visitPinned(operand);
+                }
+                else {
+                    visit(operand);
+                }
+            }
+
+            return node;
+        }
+
+        @Override
+        protected Expression visitBlock(final BlockExpression node) {
+            key.add(node.getExpressionCount());
+            key.add(node.getVariables().size());
+            return super.visitBlock(node);
+        }
+
+        @Override
+        protected Expression visitGoto(final GotoExpression node) {
+            key.add(node.getKind());
+            return super.visitGoto(node);
+        }
+
+        @Override
+        protected Expression visitRuntimeVariables(final RuntimeVariablesExpression node) {
+            key.add(node.getVariables().size());
+            return super.visitRuntimeVariables(node);
+        }
+
+        @Override
+        protected <T> LambdaExpression<T> visitLambda(final LambdaExpression<T> node) {
+            key.add(node.getName());
+            key.add(node.isTailCall());
+            key.add(node.getCreationContext());
+            key.add(node.getParameters().size());
+            return super.visitLambda(node);
+        }
+
+        @Override
+        protected Expression visitTry(final TryExpression node) {
+            key.add(node.getHandlers().size());
+            return super.visitTry(node);
+        }
+
+        @Override
+        protected CatchBlock visitCatchBlock(final CatchBlock node) {
+            key.add(node.getTest());
+            return super.visitCatchBlock(node);
+        }
+
+        @Override
+        protected Expression visitSwitch(final SwitchExpression node) {
+            key.add(node.getComparison());
+            key.add(node.getOptions());
+            key.add(node.getCases().size());
+            return super.visitSwitch(node);
+        }
+
+        @Override
+        protected SwitchCase visitSwitchCase(final SwitchCase node) {
+            key.add(node.getTestValues().size());
+
+            for (final Expression testValue : node.getTestValues()) {
+                visitPinned(testValue);
+            }
+
+            visit(node.getBody());
+
+            return node;
+        }
+    }
+
+    // </editor-fold>
+}
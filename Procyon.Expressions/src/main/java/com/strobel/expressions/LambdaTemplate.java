@@ -0,0 +1,87 @@
+/*
+ * LambdaTemplate.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.compilerservices.Closure;
+import com.strobel.reflection.MethodInfo;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * A compiled lambda class, together with what is needed to instantiate it for any tree of the
+ * shape it was compiled from.
+ *
+ * @author Mike Strobel
+ */
+final class LambdaTemplate {
+    private final Class<?> _generatedClass;
+    private final MethodInfo _method;
+    private final Object[] _constants;
+    private final BoundConstants.Layout _layout;
+    private final boolean _shareable;
+
+    LambdaTemplate(
+        final Class<?> generatedClass,
+        final MethodInfo method,
+        final Object[] constants,
+        final BoundConstants.Layout layout,
+        final boolean shareable) {
+
+        _generatedClass = generatedClass;
+        _method = method;
+        _constants = constants;
+        _layout = layout;
+        _shareable = shareable;
+    }
+
+    boolean isShareable() {
+        return _shareable;
+    }
+
+    /**
+     * Creates a delegate bound to the constants of the tree this template was compiled from.
+     */
+    <T> Delegate<T> createDelegate() {
+        return createDelegateCore(_constants);
+    }
+
+    /**
+     * Creates a delegate bound to the constants of another tree with the same shape.
+     */
+    <T> Delegate<T> createDelegate(final LambdaShape shape) {
+        assert _shareable : "_shareable";
+
+        return createDelegateCore(_layout != null ? _layout.build(shape.getConstantValues()) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Delegate<T> createDelegateCore(final Object[] constants) {
+        try {
+            final T instance;
+
+            if (constants != null) {
+                final Constructor<?> constructor = _generatedClass.getConstructor(Closure.class);
+                instance = (T) constructor.newInstance(new Closure(constants, null));
+            }
+            else {
+                instance = (T) _generatedClass.newInstance();
+            }
+
+            return new Delegate<>(instance, _method);
+        }
+        catch (final ReflectiveOperationException e) {
+            throw Error.couldNotCreateDelegate(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * PackageAccessAnalyzer.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.reflection.MemberInfo;
+import com.strobel.reflection.Type;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * Determines whether code compiled from a lambda tree refers to any type or member which is not
+ * public.  Such code must be defined in the same class loader as the types it refers to, so every
+ * class generated for the tree is defined in the context class loader.  Deciding this once for the
+ * whole tree keeps nested lambda classes, which refer to one another by name, in the same loader.
+ *
+ * @author Mike Strobel
+ */
+final class PackageAccessAnalyzer extends ExpressionVisitor {
+    private boolean _requiresPackageAccess;
+
+    private PackageAccessAnalyzer() {
+    }
+
+    static boolean requiresPackageAccess(final LambdaExpression<?> lambda) {
+        final PackageAccessAnalyzer analyzer = new PackageAccessAnalyzer();
+        analyzer.visit(lambda);
+        return analyzer._requiresPackageAccess;
+    }
+
+    @Override
+    public Expression visit(final Expression node) {
+        if (node == null || _requiresPackageAccess) {
+            return node;
+        }
+
+        if (!isPublic(node.getType())) {
+            _requiresPackageAccess = true;
+            return node;
+        }
+
+        return super.visit(node);
+    }
+
+    private void check(final MemberInfo member) {
+        if (member != null && !(Modifier.isPublic(member.getModifiers()) && isPublic(member.getDeclaringType()))) {
+            _requiresPackageAccess = true;
+        }
+    }
+
+    private void check(final Type<?> type) {
+        if (!isPublic(type)) {
+            _requiresPackageAccess = true;
+        }
+    }
+
+    private static boolean isPublic(final Type<?> type) {
+        if (type == null) {
+            return true;
+        }
+
+        Type<?> elementType = type;
+
+        while (elementType.isArray()) {
+            elementType = elementType.getElementType();
+        }
+
+        if (elementType.isPrimitive() || elementType.isGenericParameter()) {
+            return true;
+        }
+
+        for (Type<?> current = elementType; current != null; current = current.getDeclaringType()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    protected Expression visitUnary(final UnaryExpression node) {
+        check(node.getMethod());
+        return super.visitUnary(node);
+    }
+
+    @Override
+    protected Expression visitBinary(final BinaryExpression node) {
+        check(node.getMethod());
+        return super.visitBinary(node);
+    }
+
+    @Override
+    protected Expression visitTypeBinary(final TypeBinaryExpression node) {
+        check(node.getTypeOperand());
+        return super.visitTypeBinary(node);
+    }
+
+    @Override
+    protected Expression visitMember(final MemberExpression node) {
+        check(node.getMember());
+        return super.visitMember(node);
+    }
+
+    @Override
+    protected Expression visitMethodCall(final MethodCallExpression node) {
+        check(node.getMethod());
+        return super.visitMethodCall(node);
+    }
+
+    @Override
+    protected Expression visitNew(final NewExpression node) {
+        check(node.getConstructor());
+        return super.visitNew(node);
+    }
+
+    @Override
+    protected Expression visitSwitch(final SwitchExpression node) {
+        check(node.getComparison());
+        return super.visitSwitch(node);
+    }
+
+    @Override
+    protected CatchBlock visitCatchBlock(final CatchBlock node) {
+        check(node.getTest());
+        return super.visitCatchBlock(node);
+    }
+}
@@ -35,7 +35,12 @@ final class VariableBinder extends ExpressionVisitor {
     private boolean _inQuote;
     
     static AnalyzedTree bind(final LambdaExpression<?> lambda) {
+        return bind(lambda, null);
+    }
+
+    static AnalyzedTree bind(final LambdaExpression<?> lambda, final LambdaShape shape) {
         final VariableBinder binder = new VariableBinder();
+        binder._tree.setShape(shape);
         binder.visit(lambda);
         return binder._tree;
     }
@@ -49,6 +54,13 @@ final class VariableBinder extends ExpressionVisitor {
             return node;
         }
 
+        // Constants abstracted out of a shared lambda shape always live on the
+        // delegate, so that the bytecode does not depend on their values.
+        if (_tree.isSharedConstant(node)) {
+            _constants.peek().addSharedReference(node);
+            return node;
+        }
+
         // Constants that can be emitted into bytecode don't need to be stored on
         // the delegate.
         if (CodeGenerator.canEmitConstant(node.getValue(), node.getType())) {
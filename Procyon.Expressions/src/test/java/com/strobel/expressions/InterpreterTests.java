@@ -0,0 +1,274 @@
+/*
+ * InterpreterTests.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.core.delegates.Func1;
+import com.strobel.reflection.PrimitiveTypes;
+import com.strobel.reflection.Type;
+import com.strobel.reflection.Types;
+import com.strobel.reflection.emit.SwitchOptions;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Callable;
+
+import static com.strobel.expressions.Expression.*;
+import static org.junit.Assert.*;
+
+public class InterpreterTests extends AbstractExpressionTest {
+    private static final Type<?> INT_TO_INT = Type.of(Func1.class).makeGenericType(Types.Integer, Types.Integer);
+    private static final Type<?> INT_TO_STRING = Type.of(Func1.class).makeGenericType(Types.Integer, Types.String);
+
+    @SuppressWarnings("unchecked")
+    private static <T> LambdaExpression<T> typedLambda(final Type<?> type, final Expression body, final ParameterExpression... parameters) {
+        return (LambdaExpression<T>) lambda(type, body, parameters);
+    }
+
+    private static LambdaExpression<Func1<Integer, Integer>> makePower() {
+        final ParameterExpression x = parameter(Types.Integer, "x");
+        final ParameterExpression accumulator = variable(PrimitiveTypes.Integer, "accumulator");
+        final ParameterExpression i = variable(PrimitiveTypes.Integer, "i");
+
+        return typedLambda(
+            INT_TO_INT,
+            block(
+                Types.Integer,
+                new ParameterExpressionList(accumulator),
+                assign(accumulator, constant(1)),
+                makeFor(
+                    i,
+                    constant(0),
+                    lessThan(i, unbox(x)),
+                    preIncrementAssign(i),
+                    multiplyAssign(accumulator, constant(2))
+                ),
+                convert(accumulator, Types.Integer)
+            ),
+            x
+        );
+    }
+
+    @Test
+    public void testInterpretedLoopMatchesCompiled() throws Throwable {
+        final LambdaExpression<Func1<Integer, Integer>> lambda = makePower();
+
+        final Func1<Integer, Integer> interpreted = lambda.compile(true);
+        final Func1<Integer, Integer> compiled = lambda.compile(false);
+
+        assertTrue(Proxy.isProxyClass(interpreted.getClass()));
+
+        for (int n = 0; n < 12; n++) {
+            assertEquals(compiled.apply(n), interpreted.apply(n));
+        }
+
+        assertEquals(Integer.valueOf(1024), interpreted.apply(10));
+    }
+
+    @Test
+    public void testSwitchAndReturnLabel() throws Throwable {
+        final ParameterExpression x = parameter(Types.Integer, "x");
+        final LabelTarget returnLabel = label(Types.String);
+
+        final LambdaExpression<Func1<Integer, String>> lambda = typedLambda(
+            INT_TO_STRING,
+            block(
+                ifThen(
+                    lessThan(unbox(x), constant(0)),
+                    makeReturn(returnLabel, constant("negative"))
+                ),
+                makeReturn(
+                    returnLabel,
+                    makeSwitch(
+                        unbox(x),
+                        SwitchOptions.PreferTable,
+                        constant("many"),
+                        switchCase(constant("zero"), constant(0)),
+                        switchCase(constant("one or two"), constant(1), constant(2))
+                    )
+                ),
+                label(returnLabel, constant("unreachable"))
+            ),
+            x
+        );
+
+        final Func1<Integer, String> delegate = lambda.compile(true);
+
+        assertEquals("negative", delegate.apply(-5));
+        assertEquals("zero", delegate.apply(0));
+        assertEquals("one or two", delegate.apply(1));
+        assertEquals("one or two", delegate.apply(2));
+        assertEquals("many", delegate.apply(3));
+    }
+
+    @Test
+    public void testStringSwitch() throws Throwable {
+        final ParameterExpression s = parameter(Types.String, "s");
+
+        final LambdaExpression<Func1<String, Integer>> lambda = typedLambda(
+            Type.of(Func1.class).makeGenericType(Types.String, Types.Integer),
+            makeSwitch(
+                s,
+                constant(-1, Types.Integer),
+                switchCase(constant(1, Types.Integer), constant("one")),
+                switchCase(constant(2, Types.Integer), constant("two"))
+            ),
+            s
+        );
+
+        final Func1<String, Integer> delegate = lambda.compile(true);
+
+        assertEquals(Integer.valueOf(1), delegate.apply("one"));
+        assertEquals(Integer.valueOf(2), delegate.apply("two"));
+        assertEquals(Integer.valueOf(-1), delegate.apply("three"));
+    }
+
+    @Test
+    public void testFinallyRunsWhenJumpingOutOfTry() throws Throwable {
+        final ParameterExpression p1 = parameter(PrimitiveTypes.Integer);
+        final LabelTarget exitLabel = label();
+
+        final LambdaExpression<?> e = lambda(
+            block(
+                tryFinally(
+                    block(
+                        ifThen(
+                            lessThan(p1, constant(0)),
+                            block(
+                                makePush(constant("negative")),
+                                makeGoto(exitLabel)
+                            )
+                        ),
+                        makePush(condition(greaterThan(p1, constant(0)), constant("positive"), constant("zero")))
+                    ),
+                    makePush(constant("finally"))
+                ),
+                label(exitLabel),
+                makePush(constant("return"))
+            ),
+            p1
+        );
+
+        clearQueue();
+
+        final Delegate<?> delegate = e.compileDelegate(true);
+
+        delegate.invokeDynamic(-1);
+        delegate.invokeDynamic(1);
+
+        assertEquals("negative", dequeue());
+        assertEquals("finally", dequeue());
+        assertEquals("return", dequeue());
+        assertEquals("positive", dequeue());
+        assertEquals("finally", dequeue());
+        assertEquals("return", dequeue());
+    }
+
+    @Test
+    public void testCatchBindsExceptionAndRethrowsUnhandled() throws Throwable {
+        final ParameterExpression x = parameter(Types.Integer, "x");
+        final ParameterExpression exception = variable(Type.of(IllegalStateException.class), "e");
+
+        final LambdaExpression<Func1<Integer, String>> lambda = typedLambda(
+            INT_TO_STRING,
+            tryCatch(
+                block(
+                    ifThen(
+                        lessThan(unbox(x), constant(0)),
+                        makeThrow(
+                            makeNew(
+                                Type.of(IllegalStateException.class).getConstructor(Types.String),
+                                constant("boom")
+                            )
+                        )
+                    ),
+                    constant("ok")
+                ),
+                makeCatch(exception, call(exception, "getMessage"))
+            ),
+            x
+        );
+
+        final Func1<Integer, String> delegate = lambda.compile(true);
+
+        assertEquals("ok", delegate.apply(1));
+        assertEquals("boom", delegate.apply(-1));
+
+        final LambdaExpression<Runnable> thrower = lambda(
+            Type.of(Runnable.class),
+            makeThrow(
+                makeNew(Type.of(UnsupportedOperationException.class).getConstructor())
+            )
+        );
+
+        try {
+            thrower.compile(true).run();
+            fail("UnsupportedOperationException should have been thrown.");
+        }
+        catch (final UnsupportedOperationException ignored) {
+        }
+    }
+
+    @Test
+    public void testNestedLambdaCapturesVariablesByReference() throws Throwable {
+        final Type<?> callable = Type.of(Callable.class).makeGenericType(Types.Integer);
+        final ParameterExpression temp = variable(PrimitiveTypes.Integer);
+        final ParameterExpression innerTemp = variable(PrimitiveTypes.Integer);
+
+        final LambdaExpression<?> outer = lambda(
+            block(
+                new ParameterExpression[] { temp },
+                assign(temp, constant(42)),
+                call(
+                    Type.of(CompilerTests.class),
+                    "invoke",
+                    Type.list(Types.Integer),
+                    lambda(
+                        callable,
+                        block(
+                            new ParameterExpression[] { innerTemp },
+                            assign(innerTemp, temp),
+                            assign(temp, multiply(temp, constant(2))),
+                            innerTemp
+                        )
+                    )
+                ),
+                temp
+            )
+        );
+
+        final Delegate<?> delegate = outer.compileDelegate(true);
+
+        assertEquals(84, delegate.invokeDynamic());
+    }
+
+    @Test
+    public void testTierUpAfterThreshold() throws Throwable {
+        LambdaCompilationCache.clear();
+
+        final LambdaExpression<Func1<Integer, Integer>> lambda = makePower();
+        final Func1<Integer, Integer> delegate = lambda.compile(true, 3);
+
+        for (int n = 0; n < 3; n++) {
+            assertEquals(Integer.valueOf(1 << n), delegate.apply(n));
+        }
+
+        assertEquals(0, LambdaCompilationCache.getMissCount());
+
+        assertEquals(Integer.valueOf(8), delegate.apply(3));
+        assertEquals(1, LambdaCompilationCache.getMissCount());
+
+        assertEquals(Integer.valueOf(16), delegate.apply(4));
+        assertEquals(1, LambdaCompilationCache.getMissCount());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * LambdaCompilationCacheTests.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.core.delegates.Func;
+import com.strobel.core.delegates.Func1;
+import com.strobel.reflection.PrimitiveTypes;
+import com.strobel.reflection.Type;
+import com.strobel.reflection.Types;
+import com.strobel.reflection.emit.DefinitionStrategy;
+import com.strobel.reflection.emit.SwitchOptions;
+import com.strobel.reflection.emit.TypeBuilder;
+import org.junit.Test;
+
+import static com.strobel.expressions.Expression.*;
+import static org.junit.Assert.*;
+
+public class LambdaCompilationCacheTests extends AbstractExpressionTest {
+    private static Func1<Integer, Integer> compileScale(final int factor, final int offset) {
+        final ParameterExpression x = parameter(Types.Integer, "x");
+
+        final LambdaExpression<Func1<Integer, Integer>> lambda = lambda(
+            Type.of(Func1.class).makeGenericType(Types.Integer, Types.Integer),
+            convert(
+                add(multiply(unbox(x), constant(factor)), constant(offset)),
+                Types.Integer
+            ),
+            x
+        );
+
+        return lambda.compile();
+    }
+
+    private static Func1<Integer, String> compileSwitch(final int caseValue) {
+        final ParameterExpression x = parameter(Types.Integer, "x");
+
+        final LambdaExpression<Func1<Integer, String>> lambda = lambda(
+            Type.of(Func1.class).makeGenericType(Types.Integer, Types.String),
+            makeSwitch(
+                unbox(x),
+                SwitchOptions.PreferLookup,
+                constant("default"),
+                switchCase(constant("matched"), constant(caseValue))
+            ),
+            x
+        );
+
+        return lambda.compile();
+    }
+
+    private static boolean awaitLiveGeneratedClassCountBelow(final int count) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (TypeBuilder.getLiveGeneratedClassCount() < count) {
+                return true;
+            }
+
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        return TypeBuilder.getLiveGeneratedClassCount() < count;
+    }
+
+    @Test
+    public void testCollectibleClassesAreNotCachedAndUnload() throws Throwable {
+        final DefinitionStrategy oldStrategy = TypeBuilder.getDefaultDefinitionStrategy();
+
+        LambdaCompilationCache.clear();
+        TypeBuilder.setDefaultDefinitionStrategy(DefinitionStrategy.Isolated);
+
+        try {
+            final int liveBefore = TypeBuilder.getLiveGeneratedClassCount();
+
+            Func1<Integer, Integer> f = compileScale(3, 1);
+
+            assertEquals(Integer.valueOf(31), f.apply(10));
+            assertEquals(0, LambdaCompilationCache.size());
+            assertTrue(TypeBuilder.getLiveGeneratedClassCount() > liveBefore);
+
+            final int liveAfter = TypeBuilder.getLiveGeneratedClassCount();
+
+            //
+            // Drop the only delegate; its class must be unloaded along with its loader.
+            //
+            //noinspection UnusedAssignment
+            f = null;
+
+            assertTrue(awaitLiveGeneratedClassCountBelow(liveAfter));
+        }
+        finally {
+            TypeBuilder.setDefaultDefinitionStrategy(oldStrategy);
+        }
+    }
+
+    @Test
+    public void testSameShapeReusesGeneratedClass() throws Throwable {
+        LambdaCompilationCache.clear();
+
+        final Func1<Integer, Integer> f1 = compileScale(3, 1);
+        final Func1<Integer, Integer> f2 = compileScale(5, 2);
+
+        assertSame(f1.getClass(), f2.getClass());
+        assertEquals(1L, LambdaCompilationCache.getMissCount());
+        assertEquals(1L, LambdaCompilationCache.getHitCount());
+
+        assertEquals(Integer.valueOf(31), f1.apply(10));
+        assertEquals(Integer.valueOf(52), f2.apply(10));
+    }
+
+    @Test
+    public void testSharedConstantsAreNotConfusedByIdentity() throws Throwable {
+        LambdaCompilationCache.clear();
+
+        //
+        // Both constants are the same boxed instance in the first tree, but not in the second.
+        //
+        final Func1<Integer, Integer> f1 = compileScale(7, 7);
+        final Func1<Integer, Integer> f2 = compileScale(7, 8);
+
+        assertSame(f1.getClass(), f2.getClass());
+        assertEquals(Integer.valueOf(77), f1.apply(10));
+        assertEquals(Integer.valueOf(78), f2.apply(10));
+    }
+
+    @Test
+    public void testSwitchCaseValuesArePartOfShape() throws Throwable {
+        LambdaCompilationCache.clear();
+
+        final Func1<Integer, String> f1 = compileSwitch(1);
+        final Func1<Integer, String> f2 = compileSwitch(2);
+
+        assertNotSame(f1.getClass(), f2.getClass());
+        assertEquals(2L, LambdaCompilationCache.getMissCount());
+
+        assertEquals("matched", f1.apply(1));
+        assertEquals("default", f1.apply(2));
+        assertEquals("default", f2.apply(1));
+        assertEquals("matched", f2.apply(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNestedLambdaConstantsAreRebound() throws Throwable {
+        LambdaCompilationCache.clear();
+
+        final Type<?> innerType = Type.of(Func1.class).makeGenericType(Types.String, Types.String);
+        final Func<Func1<String, String>>[] outers = new Func[2];
+        final String[] suffixes = { "-a", "-b" };
+
+        for (int i = 0; i < outers.length; i++) {
+            final ParameterExpression s = parameter(Types.String, "s");
+
+            final LambdaExpression<?> inner = lambda(innerType, concat(s, constant(suffixes[i])), s);
+
+            final LambdaExpression<Func<Func1<String, String>>> outer = lambda(
+                Type.of(Func.class).makeGenericType(innerType),
+                inner
+            );
+
+            outers[i] = outer.compile();
+        }
+
+        assertSame(outers[0].getClass(), outers[1].getClass());
+        assertEquals("x-a", outers[0].invoke().apply("x"));
+        assertEquals("x-b", outers[1].invoke().apply("x"));
+    }
+
+    @Test
+    public void testDisabledCacheCompilesEveryTree() throws Throwable {
+        final int capacity = LambdaCompilationCache.getCapacity();
+
+        LambdaCompilationCache.clear();
+        LambdaCompilationCache.setCapacity(0);
+
+        try {
+            final Func1<Integer, Integer> f1 = compileScale(3, 1);
+            final Func1<Integer, Integer> f2 = compileScale(5, 2);
+
+            assertNotSame(f1.getClass(), f2.getClass());
+            assertEquals(0L, LambdaCompilationCache.getHitCount());
+            assertEquals(0, LambdaCompilationCache.size());
+        }
+        finally {
+            LambdaCompilationCache.setCapacity(capacity);
+        }
+    }
+}
@@ -27,13 +27,13 @@ final class ErasedType<T> extends Type<T> {
 
     private final Type _originalType;
 
-    private TypeList _interfaces;
-    private Type _baseType;
+    private volatile TypeList _interfaces;
+    private volatile Type _baseType;
 
-    private FieldList _fields;
-    private ConstructorList _constructors;
-    private MethodList _methods;
-    private TypeList _nestedTypes;
+    private volatile FieldList _fields;
+    private volatile ConstructorList _constructors;
+    private volatile MethodList _methods;
+    private volatile TypeList _nestedTypes;
 
     ErasedType(final Type baseType) {
         VerifyArgument.notNull(baseType, "baseType");
@@ -113,16 +113,18 @@ final class ErasedType<T> extends Type<T> {
     }
 
     private void ensureConstructors() {
-        synchronized (CACHE_LOCK) {
-            if (_constructors == null) {
-                _constructors = GenericEraser.visit(
-                    this,
-                    _originalType.getConstructors(BindingFlags.All),
-                    TypeBindings.create(
-                        _originalType.getGenericTypeParameters(),
-                        UpperBoundMapper.visit(_originalType.getGenericTypeParameters())
-                    )
-                );
+        if (_constructors == null) {
+            synchronized (CACHE_LOCK) {
+                if (_constructors == null) {
+                    _constructors = GenericEraser.visit(
+                        this,
+                        _originalType.getConstructors(BindingFlags.All),
+                        TypeBindings.create(
+                            _originalType.getGenericTypeParameters(),
+                            UpperBoundMapper.visit(_originalType.getGenericTypeParameters())
+                        )
+                    );
+                }
             }
         }
     }
@@ -28,13 +28,13 @@ final class GenericType<T> extends Type<T> {
     private final Type _genericTypeDefinition;
     private final TypeBindings _typeBindings;
 
-    private TypeList _interfaces;
-    private Type _baseType;
+    private volatile TypeList _interfaces;
+    private volatile Type _baseType;
 
-    private FieldList _fields;
-    private ConstructorList _constructors;
-    private MethodList _methods;
-    private TypeList _nestedTypes;
+    private volatile FieldList _fields;
+    private volatile ConstructorList _constructors;
+    private volatile MethodList _methods;
+    private volatile TypeList _nestedTypes;
 
     GenericType(final Type genericTypeDefinition, final TypeBindings typeBindings) {
         _genericTypeDefinition = VerifyArgument.notNull(genericTypeDefinition, "genericTypeDefinition");
@@ -1752,8 +1752,6 @@ final class Helper {
         }
     };
 
-    private final static Map<Type, ImmutableList<Type<?>>> closureCache = new HashMap<>();
-
     public static ImmutableList<Type<?>> insert(final ImmutableList<Type<?>> cl, final Type t) {
         if (cl.isEmpty() || precedes(t, cl.head)) {
             return cl.prepend(t);
@@ -1795,7 +1793,7 @@ final class Helper {
     }
 
     public static ImmutableList<Type<?>> closure(final Type<?> t) {
-        ImmutableList<Type<?>> cl = closureCache.get(t);
+        ImmutableList<Type<?>> cl = t.getCachedClosure();
         if (cl == null) {
             final Type st = superType(t);
             if (!t.isCompoundType()) {
@@ -1815,7 +1813,7 @@ final class Helper {
             for (ImmutableList<Type<?>> l = interfaces(t); l.nonEmpty(); l = l.tail) {
                 cl = union(cl, closure(l.head));
             }
-            closureCache.put(t, cl);
+            t.setCachedClosure(cl);
         }
         return cl;
     }
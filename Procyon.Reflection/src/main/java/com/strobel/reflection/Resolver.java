@@ -359,11 +359,9 @@ final class Resolver {
                     }
                 }
 
-                final Type fromCache = Type.CACHE.find(
-                    Type.CACHE.key(
-                        rawType,
-                        Type.list(resolvedTypeArguments)
-                    )
+                final Type fromCache = Type.CACHE.findGenericType(
+                    rawType,
+                    Type.list(resolvedTypeArguments)
                 );
 
                 if (fromCache != null) {
@@ -964,7 +962,7 @@ class ReflectedType<T> extends Type<T> {
     private          Type<? super T> _baseType;
     private          TypeList        _interfaces;
     private volatile int             _flags;
-    private          boolean         _completed;
+    private volatile boolean         _completed;
     private          Type<?>         _declaringType;
     private          MethodBase      _declaringMethod;
 
@@ -1232,14 +1230,18 @@ class ReflectedType<T> extends Type<T> {
             return;
         }
 
-        _completed = true;
-
         if (_genericParameters == null || _genericParameters.isEmpty()) {
             _typeBindings = TypeBindings.empty();
         }
         else {
             _typeBindings = TypeBindings.createUnbound(list(_genericParameters));
         }
+
+        _completed = true;
+    }
+
+    boolean isCompleted() {
+        return _completed;
     }
 
     @Override
@@ -1274,9 +1276,7 @@ class ReflectedType<T> extends Type<T> {
 
     @Override
     protected Type makeGenericTypeCore(final TypeList typeArguments) {
-        synchronized (CACHE_LOCK) {
-            return CACHE.getGenericType(getGenericTypeDefinition(), typeArguments);
-        }
+        return CACHE.getGenericType(getGenericTypeDefinition(), typeArguments);
     }
 
     @Override
@@ -1285,6 +1285,10 @@ class ReflectedType<T> extends Type<T> {
         return _rawClass;
     }
 
+    final Class<T> getRawClass() {
+        return _rawClass;
+    }
+
     @Override
     public MemberType getMemberType() {
         return MemberType.TypeInfo;
@@ -69,11 +69,11 @@ final class RuntimeTypeCache<T> {
     private String _internalName;
     private String _genericSignature;
     private Package _package;
-    private MemberInfoCache<RuntimeMethodInfo> _methodCache;
-    private MemberInfoCache<RuntimeConstructorInfo> _constructorCache;
-    private MemberInfoCache<RuntimeFieldInfo> _fieldCache;
-    private MemberInfoCache<Type<?>> _interfaceCache;
-    private MemberInfoCache<Type<?>> _nestedTypeCache;
+    private volatile MemberInfoCache<RuntimeMethodInfo> _methodCache;
+    private volatile MemberInfoCache<RuntimeConstructorInfo> _constructorCache;
+    private volatile MemberInfoCache<RuntimeFieldInfo> _fieldCache;
+    private volatile MemberInfoCache<Type<?>> _interfaceCache;
+    private volatile MemberInfoCache<Type<?>> _nestedTypeCache;
 
 //    private static HashMap<RuntimeMethodInfo, RuntimeMethodInfo> _methodInstantiations;
 
@@ -156,25 +156,6 @@ final class RuntimeTypeCache<T> {
         return _enclosingType;
     }
 
-    private final static class Filter {
-        private final String _name;
-        private final MemberListType _listType;
-
-        private Filter(final String name, final MemberListType listType) {
-            this._name = name;
-            this._listType = VerifyArgument.notNull(listType, "listType");
-        }
-
-        private boolean match(final String name) {
-            if (_listType == MemberListType.CaseSensitive) {
-                return _name == null || _name.equals(name);
-            }
-            return _listType != MemberListType.CaseInsensitive ||
-                   _name == null ||
-                   _name.equalsIgnoreCase(name);
-        }
-    }
-
 /*
     final MethodInfo getGenericMethodInfo(final RuntimeMethodInfo genericMethod) {
         if (_methodInstantiations == null) {
@@ -327,148 +308,106 @@ final class RuntimeTypeCache<T> {
         return _fieldCache.addField(field);
     }
 
+    //
+    // A member cache is populated once, with every member of its kind, the first time any list is
+    // requested.  The lists by name are derived from that population and published together, so
+    // readers never take a lock.  Members created individually (see addMethod and addField) are
+    // merged into the same instances through an index keyed by name and erased signature.
+    //
+
     @SuppressWarnings("unchecked")
     final static class MemberInfoCache<T extends MemberInfo> {
-        private HashMap<String, ArrayList<T>> _caseSensitiveMembers;
-        private HashMap<String, ArrayList<T>> _caseInsensitiveMembers;
-        private ArrayList<T> _root;
-        private boolean _cacheComplete;
+        private final HashMap<String, ArrayList<T>> _root = new HashMap<>();
+        private volatile MemberLists<T> _lists;
 
         // This is the strong reference back to the cache
         private final RuntimeTypeCache<?> _typeCache;
 
         private MemberInfoCache(final RuntimeTypeCache<?> typeCache) {
             _typeCache = VerifyArgument.notNull(typeCache, "typeCache");
-            _cacheComplete = false;
         }
 
         Type<?> getReflectedType() {
             return _typeCache.getRuntimeType();
         }
 
-        private void mergeWithGlobalList(final ArrayList<T> list) {
-            final int cachedCount = _root.size();
-
-            for (int i = 0, n = list.size(); i < n; i++) {
-                final T newMemberInfo = list.get(i);
+        private T mergeWithGlobalList(final T member) {
+            final String key = member.getName() + member.getErasedSignature();
 
-                T cachedMemberInfo = null;
+            ArrayList<T> members = _root.get(key);
 
-                for (int j = 0; j < cachedCount; j++) {
-                    cachedMemberInfo = _root.get(j);
+            if (members == null) {
+                members = new ArrayList<>(1);
+                _root.put(key, members);
+            }
+            else {
+                for (int i = 0, n = members.size(); i < n; i++) {
+                    final T cachedMember = members.get(i);
 
-                    if (newMemberInfo.equals(cachedMemberInfo)) {
-                        list.set(i, cachedMemberInfo);
-                        break;
+                    if (member.equals(cachedMember)) {
+                        return cachedMember;
                     }
                 }
-
-                if (list.get(i) != cachedMemberInfo) {
-                    _root.add(newMemberInfo);
-                }
             }
+
+            members.add(member);
+            return member;
         }
 
         final ArrayList<T> getMemberList(final MemberListType listType, final String name, final CacheType cacheType) {
-            final ArrayList<T> list;
+            MemberLists<T> lists = _lists;
 
-            switch (listType) {
-                case CaseSensitive:
-                    if (_caseSensitiveMembers == null) {
-                        return populate(name, listType, cacheType);
-                    }
+            if (lists == null) {
+                lists = publish(populate(cacheType), cacheType);
+            }
 
-                    list = _caseSensitiveMembers.get(name);
+            if (name == null ||
+                name.length() == 0 ||
+                (cacheType == CacheType.Constructor && name.charAt(0) != '.' && name.charAt(0) != '*')) {
 
-                    if (list == null) {
-                        return populate(name, listType, cacheType);
-                    }
+                return lists.all;
+            }
 
-                    return list;
+            final ArrayList<T> list;
 
-                case All:
-                    if (_cacheComplete) {
-                        return _root;
-                    }
+            switch (listType) {
+                case CaseSensitive:
+                    list = lists.caseSensitive.get(name);
+                    break;
 
-                    return populate(null, listType, cacheType);
+                case CaseInsensitive:
+                    list = lists.caseInsensitive.get(name.toLowerCase());
+                    break;
 
                 default:
-                    if (_caseInsensitiveMembers == null) {
-                        return populate(name, listType, cacheType);
-                    }
-
-                    list = _caseInsensitiveMembers.get(name);
-
-                    if (list == null) {
-                        return populate(name, listType, cacheType);
-                    }
-
-                    return list;
+                    return lists.all;
             }
-        }
-
-        final ArrayList<T> insert(final ArrayList<T> list, final String name, final MemberListType listType) {
-            boolean preallocationComplete = false;
 
-            ArrayList<T> result = list;
+            return list != null ? list : lists.empty;
+        }
 
-            synchronized (this) {
-                try {
+        private synchronized MemberLists<T> publish(final ArrayList<T> list, final CacheType cacheType) {
+            //
+            // Another thread may have populated the cache while we were doing the same; if so,
+            // discard our list so every caller sees the same member instances.
+            //
+            if (_lists != null) {
+                return _lists;
+            }
 
-                    if (listType == MemberListType.CaseSensitive) {
-                        if (_caseSensitiveMembers == null) {
-                            _caseSensitiveMembers = new HashMap<>(1);
-                        }
-                    }
-                    else if (listType == MemberListType.CaseInsensitive) {
-                        if (_caseInsensitiveMembers == null) {
-                            _caseInsensitiveMembers = new HashMap<>(1);
-                        }
-                    }
+            for (int i = 0, n = list.size(); i < n; i++) {
+                list.set(i, mergeWithGlobalList(list.get(i)));
+            }
 
-                    if (_root == null) {
-                        _root = new ArrayList<>(list.size());
-                    }
+            final MemberLists<T> lists = new MemberLists<>(list, cacheType);
 
-                    preallocationComplete = true;
-                }
-                finally {
-                    if (preallocationComplete) {
-                        if (listType == MemberListType.CaseSensitive) {
-                            // Ensure we always return a list that has been merged with the global list.
-                            final ArrayList<T> cachedList = _caseSensitiveMembers.get(name);
-                            if (cachedList == null) {
-                                mergeWithGlobalList(list);
-                                _caseSensitiveMembers.put(name, list);
-                            }
-                            else {
-                                result = cachedList;
-                            }
-                        }
-                        else if (listType == MemberListType.CaseInsensitive) {
-                            // Ensure we always return a list that has been merged with the global list.
-                            final ArrayList<T> cachedList = _caseInsensitiveMembers.get(name);
-                            if (cachedList == null) {
-                                mergeWithGlobalList(list);
-                                _caseInsensitiveMembers.put(name, list);
-                            }
-                            else {
-                                result = cachedList;
-                            }
-                        }
-                        else {
-                            mergeWithGlobalList(list);
-                        }
+            _lists = lists;
 
-                        if (listType == MemberListType.All) {
-                            _cacheComplete = true;
-                        }
-                    }
-                }
-            }
+            return lists;
+        }
 
-            return result;
+        private synchronized T insert(final T member) {
+            return mergeWithGlobalList(member);
         }
 
         final MethodBase addMethod(final Type<?> declaringType, final MethodBase method, final CacheType cacheType) {
@@ -521,7 +460,7 @@ final class RuntimeTypeCache<T> {
                     throw ContractUtils.unreachable();
             }
 
-            return (MethodBase) insert(list, null, MemberListType.HandleToInfo).get(0);
+            return (MethodBase) insert(list.get(0));
         }
 
         final FieldInfo addField(final FieldInfo field) {
@@ -544,11 +483,10 @@ final class RuntimeTypeCache<T> {
                 )
             );
 
-            return (FieldInfo) insert(list, null, MemberListType.HandleToInfo).get(0);
+            return (FieldInfo) insert(list.get(0));
         }
 
         private void populateRuntimeFields(
-            final Filter filter,
             final FieldList declaredFields,
             final Type<?> declaringType,
             final ArrayList<RuntimeFieldInfo> list) {
@@ -562,10 +500,6 @@ final class RuntimeTypeCache<T> {
             for (int i = 0, n = declaredFields.size(); i < n; i++) {
                 final FieldInfo declaredField = declaredFields.get(i);
 
-                if (!filter.match(declaredField.getName())) {
-                    continue;
-                }
-
                 assert declaredField.getFieldType() != Type.NullType;
 
                 final int fieldModifiers = declaredField.getModifiers();
@@ -592,7 +526,7 @@ final class RuntimeTypeCache<T> {
             }
         }
 
-        private ArrayList<RuntimeFieldInfo> populateFields(final Filter filter) {
+        private ArrayList<RuntimeFieldInfo> populateFields() {
             final ArrayList<RuntimeFieldInfo> list = new ArrayList<>();
             final Type<?> reflectedType = getReflectedType();
 
@@ -603,7 +537,7 @@ final class RuntimeTypeCache<T> {
             }
 
             while (declaringType != null && declaringType != Type.NullType) {
-                populateRuntimeFields(filter, declaringType.getDeclaredFields(), declaringType, list);
+                populateRuntimeFields(declaringType.getDeclaredFields(), declaringType, list);
                 declaringType = declaringType.getBaseType();
             }
 
@@ -614,14 +548,14 @@ final class RuntimeTypeCache<T> {
             for (int i = 0, n = interfaces.size(); i < n; i++) {
                 // Populate literal fields defined on any of the interfaces implemented by the declaring type 
                 final Type<?> interfaceType = interfaces.get(i);
-                populateRuntimeFields(filter, interfaceType.getDeclaredFields(), interfaceType, list);
+                populateRuntimeFields(interfaceType.getDeclaredFields(), interfaceType, list);
             }
 
             return list;
         }
 
         @SuppressWarnings("ConstantConditions")
-        private ArrayList<RuntimeMethodInfo> populateMethods(final Filter filter) {
+        private ArrayList<RuntimeMethodInfo> populateMethods() {
             final HashMap<String, ArrayList<RuntimeMethodInfo>> nameLookup = new HashMap<>();
             final ArrayList<RuntimeMethodInfo> list = new ArrayList<>();
             final Type<?> reflectedType = getReflectedType();
@@ -645,7 +579,7 @@ final class RuntimeTypeCache<T> {
                 for (final MethodInfo method : declaringType.getDeclaredMethods()) {
                     final String name = method.getName();
 
-                    if ((method.getModifiers() & Flags.ACC_BRIDGE) == Flags.ACC_BRIDGE || !filter.match(name)) {
+                    if ((method.getModifiers() & Flags.ACC_BRIDGE) == Flags.ACC_BRIDGE) {
                         continue;
                     }
 
@@ -739,7 +673,7 @@ final class RuntimeTypeCache<T> {
             return false;
         }
 
-        private ArrayList<RuntimeConstructorInfo> populateConstructors(final Filter filter) {
+        private ArrayList<RuntimeConstructorInfo> populateConstructors() {
             final Type<?> reflectedType = getReflectedType();
             final ArrayList<RuntimeConstructorInfo> list = new ArrayList<>();
 
@@ -748,12 +682,6 @@ final class RuntimeTypeCache<T> {
             }
 
             for (final ConstructorInfo constructor : reflectedType.getDeclaredConstructors()) {
-                final String name = constructor.getName();
-
-                if (!filter.match(name)) {
-                    continue;
-                }
-
                 final int modifiers = constructor.getModifiers();
 
                 assert constructor.getDeclaringType() != Type.NullType;
@@ -777,7 +705,7 @@ final class RuntimeTypeCache<T> {
             return list;
         }
 
-        private ArrayList<Type<?>> populateInterfaces(final Filter filter) {
+        private ArrayList<Type<?>> populateInterfaces() {
             final ArrayList<Type<?>> list = new ArrayList<>();
 
             final Type<?> reflectedType = getReflectedType();
@@ -786,9 +714,7 @@ final class RuntimeTypeCache<T> {
             final ImmutableList<Type<?>> interfaceList = Helper.interfaces(reflectedType);
 
             for (final Type interfaceType : interfaceList) {
-                final String name = interfaceType.getFullName();
-
-                if (filter.match(name) && set.add(interfaceType)) {
+                if (set.add(interfaceType)) {
                     list.add(interfaceType);
                 }
             }
@@ -796,7 +722,7 @@ final class RuntimeTypeCache<T> {
             return list;
         }
 
-        private ArrayList<Type<?>> populateNestedClasses(final Filter filter) {
+        private ArrayList<Type<?>> populateNestedClasses() {
             final ArrayList<Type<?>> list = new ArrayList<>();
 
             Type<?> declaringType = getReflectedType();
@@ -814,52 +740,74 @@ final class RuntimeTypeCache<T> {
             final TypeList declaredTypes = declaringType.getDeclaredTypes();
 
             for (int i = 0, n = declaredTypes.size(); i < n; i++) {
-                final Type<?> nestedType = declaredTypes.get(i);
-
-                if (!filter.match(nestedType.getName())) {
-                    continue;
-                }
-
-                list.add(nestedType);
+                list.add(declaredTypes.get(i));
             }
 
             return list;
         }
 
-        private ArrayList<T> populate(final String name, final MemberListType listType, final CacheType cacheType) {
-            final Filter filter;
-
-            if (name == null || name.length() == 0 ||
-                (cacheType == CacheType.Constructor && name.charAt(0) != '.' && name.charAt(0) != '*')) {
-                filter = new Filter(null, listType);
-            }
-            else {
-                filter = new Filter(name, listType);
-            }
-
+        private ArrayList<T> populate(final CacheType cacheType) {
             final ArrayList<T> list;
 
             switch (cacheType) {
                 case Method:
-                    list = (ArrayList<T>) populateMethods(filter);
+                    list = (ArrayList<T>) populateMethods();
                     break;
                 case Field:
-                    list = (ArrayList<T>) populateFields(filter);
+                    list = (ArrayList<T>) populateFields();
                     break;
                 case Constructor:
-                    list = (ArrayList<T>) populateConstructors(filter);
+                    list = (ArrayList<T>) populateConstructors();
                     break;
                 case NestedType:
-                    list = (ArrayList<T>) populateNestedClasses(filter);
+                    list = (ArrayList<T>) populateNestedClasses();
                     break;
                 case Interface:
-                    list = (ArrayList<T>) populateInterfaces(filter);
+                    list = (ArrayList<T>) populateInterfaces();
                     break;
                 default:
                     throw ContractUtils.unreachable();
             }
 
-            return insert(list, name, listType);
+            return list;
+        }
+    }
+
+    private final static class MemberLists<T extends MemberInfo> {
+        final ArrayList<T> all;
+        final ArrayList<T> empty;
+        final HashMap<String, ArrayList<T>> caseSensitive;
+        final HashMap<String, ArrayList<T>> caseInsensitive;
+
+        MemberLists(final ArrayList<T> all, final CacheType cacheType) {
+            this.all = all;
+            this.empty = new ArrayList<>(0);
+            this.caseSensitive = new HashMap<>();
+            this.caseInsensitive = new HashMap<>();
+
+            for (int i = 0, n = all.size(); i < n; i++) {
+                final T member = all.get(i);
+
+                //
+                // Interfaces have always been looked up by their full names.
+                //
+                final String name = cacheType == CacheType.Interface ? ((Type<?>) member).getFullName()
+                                                                     : member.getName();
+
+                add(caseSensitive, name, member);
+                add(caseInsensitive, name.toLowerCase(), member);
+            }
+        }
+
+        private static <T> void add(final HashMap<String, ArrayList<T>> map, final String name, final T member) {
+            ArrayList<T> list = map.get(name);
+
+            if (list == null) {
+                list = new ArrayList<>(1);
+                map.put(name, list);
+            }
+
+            list.add(member);
         }
     }
 }
@@ -1449,12 +1397,12 @@ final class RuntimeType<T> extends Type<T> {
     private final TypeBindings _typeBindings;
     private final TypeBindings _allBindings;
 
-    private Type<? super T> _baseType;
-    private TypeList _interfaces;
-    private FieldList _fields;
-    private ConstructorList _constructors;
-    private MethodList _methods;
-    private TypeList _nestedTypes;
+    private volatile Type<? super T> _baseType;
+    private volatile TypeList _interfaces;
+    private volatile FieldList _fields;
+    private volatile ConstructorList _constructors;
+    private volatile MethodList _methods;
+    private volatile TypeList _nestedTypes;
 
     RuntimeType(final Type<?> reflectedType, final Type<T> basedOn, final TypeBindings allBindings) {
         _reflectedType = VerifyArgument.notNull(reflectedType, "reflectedType");
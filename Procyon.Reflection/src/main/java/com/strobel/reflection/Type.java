@@ -14,6 +14,7 @@
 package com.strobel.reflection;
 
 import com.strobel.annotations.NotNull;
+import com.strobel.collections.ImmutableList;
 import com.strobel.collections.ListBuffer;
 import com.strobel.core.ArrayUtilities;
 import com.strobel.core.Comparer;
@@ -34,6 +35,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * @author Mike Strobel
@@ -165,7 +167,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
         return Type.of(Object.class);
     }
 
-    private TypeList _interfaces;
+    private volatile TypeList _interfaces;
 
     public TypeList getInterfaces() {
         if (_interfaces == null) {
@@ -1122,9 +1124,48 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public final Type<T[]> makeArrayType() {
-        synchronized (CACHE_LOCK) {
-            return CACHE.getArrayType(this);
+        final Type<T[]> arrayType = _arrayType;
+
+        if (arrayType != null) {
+            return arrayType;
         }
+
+        return CACHE.getArrayType(this);
+    }
+
+    //
+    // Each type holds its own array type, so the two become unreachable together.
+    //
+
+    private volatile Type<T[]> _arrayType;
+
+    @SuppressWarnings("rawtypes")
+    private final static AtomicReferenceFieldUpdater<Type, Type> ARRAY_TYPE_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(Type.class, Type.class, "_arrayType");
+
+    final Type<T[]> getCachedArrayType() {
+        return _arrayType;
+    }
+
+    final Type<T[]> cacheArrayType(final Type<T[]> arrayType) {
+        if (ARRAY_TYPE_UPDATER.compareAndSet(this, null, arrayType)) {
+            return arrayType;
+        }
+        return _arrayType;
+    }
+
+    //
+    // Computed by Helper.closure().  The list is immutable, so racing threads may both compute it.
+    //
+
+    private volatile ImmutableList<Type<?>> _closure;
+
+    final ImmutableList<Type<?>> getCachedClosure() {
+        return _closure;
+    }
+
+    final void setCachedClosure(final ImmutableList<Type<?>> closure) {
+        _closure = closure;
     }
 
     protected Type<T[]> createArrayType() {
@@ -1144,7 +1185,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
         );
     }
 
-    private ErasedType<T> _erasedType;
+    private volatile ErasedType<T> _erasedType;
 
     public final Type<?> getErasedType() {
         if (isArray()) {
@@ -1524,6 +1565,11 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     // REFLECTED TYPE CACHE                                                                                               //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    //
+    // CACHE_LOCK serializes the resolution of reflected types and the lazy initialization of
+    // type members.  Lookups in CACHE do not take it.
+    //
+
     final static Object CACHE_LOCK = new Object();
     final static TypeCache CACHE;
     final static Resolver RESOLVER;
@@ -1558,6 +1604,12 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     }
 
     public static <T> Type<T> of(final Class<T> clazz) {
+        final Type<T> cachedType = CACHE.find(clazz);
+
+        if (cachedType != null && isResolved(cachedType)) {
+            return cachedType;
+        }
+
         synchronized (CACHE_LOCK) {
             final Type<T> reflectedType = CACHE.find(clazz);
 
@@ -1588,6 +1640,17 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
         }
     }
 
+    private static boolean isResolved(final Type<?> type) {
+        //
+        // A reflected type is cached while it is still being resolved, and only the resolving
+        // thread (which holds CACHE_LOCK) may see it in that state.
+        //
+        final Type<?> rootElementType = type.getRootElementType();
+
+        return !(rootElementType instanceof ReflectedType<?>) ||
+               ((ReflectedType<?>) rootElementType).isCompleted();
+    }
+
     public static Type<?> forName(final String name) {
         return forName(name, true);
     }
@@ -1753,9 +1816,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
                 return of(classType);
             }
 
-            synchronized (CACHE_LOCK) {
-                return CACHE.find(classType);
-            }
+            return CACHE.find(classType);
         }
 
         return null;
@@ -1867,7 +1928,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     // TYPE HIERARCHY AND MEMBER RESOLUTION INFO                                                                          //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private RuntimeTypeCache<T> _cache;
+    private volatile RuntimeTypeCache<T> _cache;
 
     final RuntimeTypeCache<T> getCache() {
         if (_cache == null) {
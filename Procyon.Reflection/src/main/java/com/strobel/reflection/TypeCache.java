@@ -15,18 +15,56 @@ package com.strobel.reflection;
 
 import com.strobel.core.Comparer;
 import com.strobel.core.HashUtilities;
-import com.strobel.util.TypeUtils;
 
-import java.util.LinkedHashMap;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Reads never block.  Array and generic instantiations are created on demand without locking;
+ * if two threads race to create the same type, both receive whichever instance was cached first.
+ * Resolving a new class still happens under {@link Type#CACHE_LOCK}, but only the thread doing the
+ * resolution takes it.
+ * <p/>
+ * The cache never keeps a class loader alive.  Reflected types are attached to their classes, and
+ * a generic instantiation is attached to a class from the most specific loader it refers to, so
+ * cached types become unreachable together with their loaders.  Array types are held by their
+ * element types.  Only instantiations over classes whose loaders can never be unloaded anyway
+ * (the bootstrap and system loaders, and the loader of this library) are kept in a shared table;
+ * up to {@code com.strobel.reflection.TypeCache.MaxSharedGenericTypes} of those are held strongly,
+ * and any beyond that are held only while something else refers to them.
+ *
  * @author strobelm
  */
 @SuppressWarnings("unchecked")
 final class TypeCache {
-    private final LinkedHashMap<Key, Type<?>> _map = new LinkedHashMap<>();
-    private final LinkedHashMap<String, Type<?>> _definitionMap = new LinkedHashMap<>();
-    private final LinkedHashMap<Type<?>, Type<?>> _arrayMap = new LinkedHashMap<>();
+    private final static String MaxSharedGenericTypesProperty = "com.strobel.reflection.TypeCache.MaxSharedGenericTypes";
+    private final static int MaxSharedGenericTypes = Math.max(0, Integer.getInteger(MaxSharedGenericTypesProperty, Integer.MAX_VALUE));
+
+    private final ClassValue<ClassEntry> _classEntries = new ClassValue<ClassEntry>() {
+        @Override
+        protected ClassEntry computeValue(final Class<?> type) {
+            return new ClassEntry();
+        }
+    };
+
+    private final ConcurrentHashMap<Key, SharedTypeReference> _sharedGenericTypes = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Type<?>> _queue = new ReferenceQueue<>();
+    private final AtomicInteger _strongSharedCount = new AtomicInteger();
+    private final Set<ClassLoader> _permanentLoaders;
+
+    TypeCache() {
+        final Set<ClassLoader> permanentLoaders = Collections.newSetFromMap(new IdentityHashMap<ClassLoader, Boolean>());
+
+        addWithAncestors(permanentLoaders, ClassLoader.getSystemClassLoader());
+        addWithAncestors(permanentLoaders, TypeCache.class.getClassLoader());
+
+        _permanentLoaders = permanentLoaders;
+    }
 
     public Key key(final Type<?> type) {
         return key(type, TypeList.empty());
@@ -36,95 +74,267 @@ final class TypeCache {
         return new Key(type.isGenericType() ? type.getGenericTypeDefinition() : type, typeArguments);
     }
 
-    public Type find(final Key key) {
-        return _map.get(key);
-    }
-
     public <T> Type<T[]> getArrayType(final Type<T> elementType) {
-        Type<T[]> arrayType = (Type<T[]>) _arrayMap.get(elementType);
+        final Type<T[]> arrayType = elementType.getCachedArrayType();
 
         if (arrayType != null) {
             return arrayType;
         }
 
-        arrayType = elementType.createArrayType();
-        add(arrayType);
-
-        return arrayType;
+        return elementType.cacheArrayType(elementType.createArrayType());
     }
 
-    public <T> Type<T> getGenericType(final Type<T> type, final TypeList typeArguments) {
-        final Key key = key(
-            type.isGenericType() ? type.getGenericTypeDefinition() : type,
-            typeArguments
-        );
+    public <T> Type<T> findGenericType(final Type<T> type, final TypeList typeArguments) {
+        final Key key = key(type, typeArguments);
+        final Class<?> anchor = anchorOf(key.definition, typeArguments);
 
-        Type genericType = _map.get(key);
+        if (anchor != null) {
+            return (Type<T>) _classEntries.get(anchor).genericTypes().get(key);
+        }
 
-        if (genericType == null) {
-            genericType = new GenericType(
-                type.getGenericTypeDefinition(),
-                typeArguments
-            );
+        expungeStaleEntries();
 
-            final Type existing = _map.put(key, genericType);
+        final SharedTypeReference reference = _sharedGenericTypes.get(key);
 
-            if (existing != null) {
-                return existing;
-            }
+        return reference != null ? (Type<T>) reference.get() : null;
+    }
+
+    public <T> Type<T> getGenericType(final Type<T> type, final TypeList typeArguments) {
+        final Type<T> cachedType = findGenericType(type, typeArguments);
+
+        if (cachedType != null) {
+            return cachedType;
         }
 
-        return genericType;
+        return (Type<T>) putGenericType(
+            key(type, typeArguments),
+            new GenericType(type.getGenericTypeDefinition(), typeArguments)
+        );
     }
 
     public <T> Type<T> find(final Class<T> clazz) {
-        return (Type<T>) _definitionMap.get(TypeUtils.getInternalName(clazz));
+        if (clazz.isArray()) {
+            final Type<?> componentType = find(clazz.getComponentType());
+            return componentType != null ? (Type<T>) componentType.makeArrayType() : null;
+        }
+
+        return (Type<T>) _classEntries.get(clazz).type();
+    }
+
+    public void add(final Type type) {
+        if (type.isArray()) {
+            type.getElementType().cacheArrayType(type);
+        }
+        else if (type.isGenericType() && !type.isGenericTypeDefinition()) {
+            register(type.getGenericTypeDefinition());
+            putGenericType(key(type, type.getTypeBindings().getBoundTypes()), type);
+        }
+        else {
+            register(type);
+        }
     }
 
-    public int size() {
-        return _map.size();
+    private void register(final Type<?> type) {
+        final Class<?> clazz;
+
+        if (type instanceof ReflectedType<?>) {
+            clazz = ((ReflectedType<?>) type).getRawClass();
+        }
+        else if (type.isPrimitive()) {
+            clazz = type.getErasedClass();
+        }
+        else {
+            return;
+        }
+
+        _classEntries.get(clazz).setTypeIfAbsent(type);
     }
 
-    public void put(final Key key, final Type type) {
-        final String descriptor = key.descriptor;
+    private Type<?> putGenericType(final Key key, final Type<?> type) {
+        final Class<?> anchor = anchorOf(key.definition, key.typeArguments);
+
+        if (anchor != null) {
+            final Type<?> existing = _classEntries.get(anchor).genericTypes().putIfAbsent(key, type);
+            return existing != null ? existing : type;
+        }
+
+        expungeStaleEntries();
+
+        final boolean strong = _strongSharedCount.incrementAndGet() <= MaxSharedGenericTypes;
+        final SharedTypeReference reference = new SharedTypeReference(key, type, strong, _queue);
 
-        if (!_definitionMap.containsKey(descriptor)) {
-            if (type.isGenericType() && !type.isGenericTypeDefinition()) {
-                _definitionMap.put(descriptor, type.getGenericTypeDefinition());
+        while (true) {
+            final SharedTypeReference existing = _sharedGenericTypes.putIfAbsent(key, reference);
+
+            if (existing == null) {
+                if (!strong) {
+                    _strongSharedCount.decrementAndGet();
+                }
+                return type;
             }
-            else {
-                _definitionMap.put(descriptor, type);
+
+            final Type<?> existingType = existing.get();
+
+            if (existingType != null) {
+                _strongSharedCount.decrementAndGet();
+                return existingType;
+            }
+
+            if (_sharedGenericTypes.replace(key, existing, reference)) {
+                if (!strong) {
+                    _strongSharedCount.decrementAndGet();
+                }
+                return type;
             }
         }
+    }
 
-        if (type.isPrimitive() && !_definitionMap.containsKey(type.getName())) {
-            _definitionMap.put(type.getName(), type);
+    private void expungeStaleEntries() {
+        SharedTypeReference reference;
+
+        while ((reference = (SharedTypeReference) _queue.poll()) != null) {
+            _sharedGenericTypes.remove(reference.key, reference);
         }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Class Loader Anchoring">
 
-        _map.put(key, type);
+    //
+    // The anchor of a generic instantiation is the class it should be cached alongside: the class
+    // from the most specific unloadable loader among its definition and type arguments, or null if
+    // every class it refers to comes from a permanent loader.
+    //
+
+    private Class<?> anchorOf(final Type<?> definition, final TypeList typeArguments) {
+        Class<?> anchor = anchorOf(definition);
+
+        if (typeArguments != null) {
+            for (final Type<?> argument : typeArguments) {
+                anchor = moreSpecific(anchor, anchorOf(argument));
+            }
+        }
+
+        return anchor;
+    }
+
+    private Class<?> anchorOf(final Type<?> type) {
+        if (type == null || type.isPrimitive()) {
+            return null;
+        }
 
         if (type.isArray()) {
-            final Type elementType = type.getElementType();
-            if (!_arrayMap.containsKey(elementType)) {
-                _arrayMap.put(elementType, type);
+            return anchorOf(type.getElementType());
+        }
+
+        if (type instanceof ReflectedType<?>) {
+            final Class<?> clazz = ((ReflectedType<?>) type).getRawClass();
+            return isPermanent(clazz.getClassLoader()) ? null : clazz;
+        }
+
+        if (type.isGenericType() && !type.isGenericTypeDefinition()) {
+            return anchorOf(type.getGenericTypeDefinition(), type.getTypeArguments());
+        }
+
+        if (type.isWildcardType()) {
+            return moreSpecific(anchorOf(type.getExtendsBound()), anchorOf(type.getSuperBound()));
+        }
+
+        if (type.isGenericParameter()) {
+            final MethodBase declaringMethod = type.getDeclaringMethod();
+
+            final Type<?> declaringType = declaringMethod != null ? declaringMethod.getDeclaringType()
+                                                                  : type.getDeclaringType();
+
+            return declaringType != null && declaringType != type ? anchorOf(declaringType) : null;
+        }
+
+        return null;
+    }
+
+    private static Class<?> moreSpecific(final Class<?> a, final Class<?> b) {
+        if (a == null) {
+            return b;
+        }
+
+        if (b == null || a == b) {
+            return a;
+        }
+
+        final ClassLoader loaderA = a.getClassLoader();
+
+        for (ClassLoader loader = b.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader == loaderA) {
+                return b;
             }
         }
+
+        return a;
     }
 
-    public void add(final Type type) {
-        final TypeList typeArguments;
+    private boolean isPermanent(final ClassLoader loader) {
+        return loader == null || _permanentLoaders.contains(loader);
+    }
 
-        if (type.isGenericType()) {
-            typeArguments = type.getTypeBindings().getBoundTypes();
+    private static void addWithAncestors(final Set<ClassLoader> loaders, final ClassLoader loader) {
+        for (ClassLoader current = loader; current != null; current = current.getParent()) {
+            loaders.add(current);
         }
-        else {
-            typeArguments = TypeList.empty();
+    }
+
+    // </editor-fold>
+
+    private final static class ClassEntry {
+        private volatile Type<?> _type;
+        private volatile ConcurrentHashMap<Key, Type<?>> _genericTypes;
+
+        Type<?> type() {
+            return _type;
+        }
+
+        synchronized void setTypeIfAbsent(final Type<?> type) {
+            if (_type == null) {
+                _type = type;
+            }
         }
 
-        put(key(type, typeArguments), type);
+        ConcurrentHashMap<Key, Type<?>> genericTypes() {
+            ConcurrentHashMap<Key, Type<?>> genericTypes = _genericTypes;
+
+            if (genericTypes == null) {
+                synchronized (this) {
+                    genericTypes = _genericTypes;
+
+                    if (genericTypes == null) {
+                        _genericTypes = genericTypes = new ConcurrentHashMap<>();
+                    }
+                }
+            }
+
+            return genericTypes;
+        }
+    }
+
+    private final static class SharedTypeReference extends WeakReference<Type<?>> {
+        final Key key;
+
+        @SuppressWarnings({ "FieldCanBeLocal", "UnusedDeclaration" })
+        private final Type<?> _strongReferent;
+
+        SharedTypeReference(
+            final Key key,
+            final Type<?> referent,
+            final boolean strong,
+            final ReferenceQueue<Type<?>> queue) {
+
+            super(referent, queue);
+
+            this.key = key;
+            _strongReferent = strong ? referent : null;
+        }
     }
 
     final static class Key {
+        private final Type<?> definition;
         private final String descriptor;
         private final TypeList typeArguments;
         private final int hashCode;
@@ -134,6 +344,7 @@ final class TypeCache {
         }
 
         public Key(final Type<?> type, final TypeList typeArguments) {
+            this.definition = type;
             this.descriptor = type.getInternalName();
             this.typeArguments = typeArguments;
 
@@ -165,7 +376,10 @@ final class TypeCache {
 
             final Key other = (Key) o;
 
-            if (!this.descriptor.equals(other.descriptor)) {
+            //
+            // Classes from different loaders may share a descriptor, so compare the definitions.
+            //
+            if (this.definition != other.definition) {
                 return false;
             }
 
@@ -0,0 +1,43 @@
+/*
+ * DefinitionStrategy.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.reflection.emit;
+
+/**
+ * Determines which class loader defines the class produced by {@link TypeBuilder#createType()}.
+ * A class can only be unloaded once its defining loader is unreachable, so the choice of loader
+ * decides whether generated code can ever be garbage collected.
+ *
+ * @author Mike Strobel
+ */
+public enum DefinitionStrategy {
+    /**
+     * Define generated classes directly in the thread's context class loader.  They can never be
+     * unloaded while that loader is alive, but they may access package-private members of classes
+     * the context loader defined in the same package.
+     */
+    ContextLoader,
+
+    /**
+     * Define each generated class in a dedicated loader of its own.  The class is unloaded as soon
+     * as it, its instances, and its loader become unreachable.
+     */
+    Isolated,
+
+    /**
+     * Define generated classes in shared loaders, each holding a bounded number of classes.  This
+     * costs fewer loaders than {@link #Isolated}, but a pooled class is only unloaded once every
+     * other class in its pool is unreachable, too.
+     */
+    Pooled
+}
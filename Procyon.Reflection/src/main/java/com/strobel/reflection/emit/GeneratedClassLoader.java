@@ -0,0 +1,158 @@
+/*
+ * GeneratedClassLoader.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.reflection.emit;
+
+import com.strobel.core.VerifyArgument;
+import com.strobel.util.ContractUtils;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A collectible loader for classes generated by {@link TypeBuilder}.  Also keeps track of every
+ * generated class which is still alive, whichever loader defined it.
+ * <p/>
+ * Generated classes have always been able to refer to one another by name because they all lived
+ * in the context class loader.  To preserve that, a generated loader which cannot resolve a name
+ * through its parent falls back to the live generated classes.
+ *
+ * @author Mike Strobel
+ */
+final class GeneratedClassLoader extends ClassLoader {
+    private final static String PoolCapacityProperty = "com.strobel.reflection.emit.TypeBuilder.GeneratedClassPoolCapacity";
+    private final static int PoolCapacity = Math.max(1, Integer.getInteger(PoolCapacityProperty, 64));
+
+    private final static ReferenceQueue<Class<?>> queue = new ReferenceQueue<>();
+    private final static Set<ClassReference> liveClasses = Collections.newSetFromMap(new ConcurrentHashMap<ClassReference, Boolean>());
+    private final static Map<String, ClassReference> classesByName = new ConcurrentHashMap<>();
+    private final static Map<ClassLoader, WeakReference<GeneratedClassLoader>> pools = new WeakHashMap<>();
+
+    private int _definedCount;
+
+    private GeneratedClassLoader(final ClassLoader parent) {
+        super(parent);
+    }
+
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+        final ClassReference reference = classesByName.get(name);
+        final Class<?> generatedClass = reference != null ? reference.get() : null;
+
+        if (generatedClass == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        return generatedClass;
+    }
+
+    static Class<?> define(
+        final DefinitionStrategy strategy,
+        final ClassLoader parent,
+        final String name,
+        final byte[] classBytes,
+        final ProtectionDomain protectionDomain) {
+
+        VerifyArgument.notNull(strategy, "strategy");
+
+        final GeneratedClassLoader loader;
+
+        switch (strategy) {
+            case Isolated:
+                loader = new GeneratedClassLoader(parent);
+                break;
+
+            case Pooled:
+                loader = getPooledLoader(parent);
+                break;
+
+            default:
+                throw ContractUtils.unreachable();
+        }
+
+        final Class<?> generatedClass = loader.defineClass(
+            name,
+            classBytes,
+            0,
+            classBytes.length,
+            protectionDomain
+        );
+
+        register(generatedClass);
+
+        return generatedClass;
+    }
+
+    private static GeneratedClassLoader getPooledLoader(final ClassLoader parent) {
+        synchronized (pools) {
+            final WeakReference<GeneratedClassLoader> reference = pools.get(parent);
+
+            GeneratedClassLoader loader = reference != null ? reference.get() : null;
+
+            if (loader == null || loader._definedCount >= PoolCapacity) {
+                loader = new GeneratedClassLoader(parent);
+                pools.put(parent, new WeakReference<>(loader));
+            }
+
+            ++loader._definedCount;
+            return loader;
+        }
+    }
+
+    static void register(final Class<?> generatedClass) {
+        expungeStaleEntries();
+
+        final ClassReference reference = new ClassReference(generatedClass, queue);
+
+        liveClasses.add(reference);
+        classesByName.put(reference.name, reference);
+    }
+
+    static int getLiveClassCount() {
+        expungeStaleEntries();
+
+        int count = 0;
+
+        for (final ClassReference reference : liveClasses) {
+            if (reference.get() != null) {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    private static void expungeStaleEntries() {
+        ClassReference reference;
+
+        while ((reference = (ClassReference) queue.poll()) != null) {
+            liveClasses.remove(reference);
+            classesByName.remove(reference.name, reference);
+        }
+    }
+
+    private final static class ClassReference extends WeakReference<Class<?>> {
+        final String name;
+
+        ClassReference(final Class<?> referent, final ReferenceQueue<Class<?>> queue) {
+            super(referent, queue);
+            this.name = referent.getName();
+        }
+    }
+}
@@ -47,6 +47,11 @@ public final class TypeBuilder<T> extends Type<T> {
     private final static String DumpGeneratedClassesProperty = "com.strobel.reflection.emit.TypeBuilder.DumpGeneratedClasses";
     private final static String GeneratedClassOutputPathProperty = "com.strobel.reflection.emit.TypeBuilder.GeneratedClassOutputPath";
     private final static String VerifyGeneratedClassesProperty = "com.strobel.reflection.emit.TypeBuilder.VerifyGeneratedClasses";
+    private final static String DefinitionStrategyProperty = "com.strobel.reflection.emit.TypeBuilder.DefinitionStrategy";
+
+    private static volatile DefinitionStrategy defaultDefinitionStrategy = DefinitionStrategy.valueOf(
+        System.getProperty(DefinitionStrategyProperty, DefinitionStrategy.ContextLoader.name())
+    );
 
     final ConstantPool constantPool;
     final ArrayList<ConstructorBuilder> constructorBuilders;
@@ -79,6 +84,8 @@ public final class TypeBuilder<T> extends Type<T> {
     private ReadOnlyList<AnnotationBuilder<? extends Annotation>> _annotations;
     private Map<Class<? extends Annotation>, AnnotationBuilder<? extends Annotation>> _annotationMap;
     private final ProtectionDomain _protectionDomain;
+    private DefinitionStrategy _definitionStrategy = defaultDefinitionStrategy;
+    private boolean _requiresPackageAccess;
 
     // <editor-fold defaultstate="collapsed" desc="Constructors and Initializers">
 
@@ -706,10 +713,47 @@ public final class TypeBuilder<T> extends Type<T> {
         return TypeBuilderInstantiation.makeGenericType(this, typeArguments);
     }
 
+    /**
+     * Gets the strategy used by builders created from now on to define their generated classes.
+     */
+    public static DefinitionStrategy getDefaultDefinitionStrategy() {
+        return defaultDefinitionStrategy;
+    }
+
+    public static void setDefaultDefinitionStrategy(final DefinitionStrategy strategy) {
+        defaultDefinitionStrategy = VerifyArgument.notNull(strategy, "strategy");
+    }
+
+    /**
+     * Returns the number of classes generated by any {@link TypeBuilder} which have not yet been
+     * unloaded.  Classes are counted until the garbage collector has actually reclaimed them.
+     */
+    public static int getLiveGeneratedClassCount() {
+        return GeneratedClassLoader.getLiveClassCount();
+    }
+
+    public DefinitionStrategy getDefinitionStrategy() {
+        return _definitionStrategy;
+    }
+
+    public void setDefinitionStrategy(final DefinitionStrategy strategy) {
+        verifyNotCreated();
+        _definitionStrategy = VerifyArgument.notNull(strategy, "strategy");
+    }
+
     public boolean isCreated() {
         return _hasBeenCreated;
     }
 
+    /**
+     * Returns whether the created class was defined in a loader of its own or a pool, and can
+     * therefore be unloaded.  Anything which caches the class keeps it from being unloaded.
+     */
+    public boolean isCollectible() {
+        verifyCreated();
+        return _generatedClass.getClassLoader() instanceof GeneratedClassLoader;
+    }
+
     public synchronized Type<T> createType() {
         try {
             return createTypeNoLock(null);
@@ -1047,11 +1091,13 @@ public final class TypeBuilder<T> extends Type<T> {
 
     short getTypeToken(final Type<?> type) {
         VerifyArgument.notNull(type, "type");
+        _requiresPackageAccess |= requiresPackageAccess(type);
         return (short) (constantPool.getTypeInfo(erase(type)).index & 0xFFFF);
     }
 
     short getMethodToken(final MethodBase method) {
         VerifyArgument.notNull(method, "method");
+        _requiresPackageAccess |= requiresPackageAccess(method);
         if (method.getDeclaringType().isInterface()) {
             return (short) (constantPool.getInterfaceMethodReference((MethodInfo) method).index & 0xFFFF);
         }
@@ -1060,9 +1106,63 @@ public final class TypeBuilder<T> extends Type<T> {
 
     short getFieldToken(final FieldInfo field) {
         VerifyArgument.notNull(field, "field");
+        _requiresPackageAccess |= requiresPackageAccess(field);
         return (short) (constantPool.getFieldReference(field).index & 0xFFFF);
     }
 
+    //
+    // Classes defined outside the context loader live in a runtime package of their own, so we
+    // note any reference which only resolves from within the referenced type's package.
+    //
+
+    private boolean requiresPackageAccess(final Type<?> type) {
+        Type<?> elementType = type;
+
+        while (elementType.isArray()) {
+            elementType = elementType.getElementType();
+        }
+
+        if (elementType == this || elementType.isPrimitive() || elementType.isGenericParameter()) {
+            return false;
+        }
+
+        for (Type<?> current = elementType; current != null; current = current.getDeclaringType()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean requiresPackageAccess(final MemberInfo member) {
+        final Type<?> declaringType = member.getDeclaringType();
+
+        if (declaringType == null || declaringType == this) {
+            return false;
+        }
+
+        if (requiresPackageAccess(declaringType)) {
+            return true;
+        }
+
+        final int modifiers = member.getModifiers();
+
+        if (Modifier.isPublic(modifiers)) {
+            return false;
+        }
+
+        if (Modifier.isProtected(modifiers)) {
+            for (Type<?> baseType = getBaseType(); baseType != null; baseType = baseType.getBaseType()) {
+                if (baseType.isEquivalentTo(declaringType)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     short getConstantToken(final int value) {
         return (short) (constantPool.getIntegerConstant(value).index & 0xFFFF);
     }
@@ -1231,14 +1331,7 @@ public final class TypeBuilder<T> extends Type<T> {
 
             _hasBeenCreated = true;
 
-            _generatedClass = (Class<T>) getUnsafeInstance().defineClass(
-                fullName,
-                classBytes,
-                0,
-                classBytes.length,
-                Thread.currentThread().getContextClassLoader(),
-                _protectionDomain
-            );
+            _generatedClass = (Class<T>) defineClass(fullName, classBytes);
 
             RuntimeHelpers.ensureClassInitialized(_generatedClass);
 
@@ -1260,6 +1353,32 @@ public final class TypeBuilder<T> extends Type<T> {
         return _generatedType;
     }
 
+    private Class<?> defineClass(final String fullName, final byte[] classBytes) {
+        final ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+
+        if (_definitionStrategy == DefinitionStrategy.ContextLoader || _requiresPackageAccess) {
+            final Class<?> generatedClass = getUnsafeInstance().defineClass(
+                fullName,
+                classBytes,
+                0,
+                classBytes.length,
+                contextLoader,
+                _protectionDomain
+            );
+
+            GeneratedClassLoader.register(generatedClass);
+            return generatedClass;
+        }
+
+        return GeneratedClassLoader.define(
+            _definitionStrategy,
+            contextLoader != null ? contextLoader : TypeBuilder.class.getClassLoader(),
+            fullName,
+            classBytes,
+            _protectionDomain
+        );
+    }
+
     private void createBridgeMethods() {
         for (final MethodOverride methodOverride : methodOverrides) {
             if (isBridgeMethodNeeded(methodOverride)) {
@@ -0,0 +1,124 @@
+/*
+ * TypeCacheContentionBenchmark.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.reflection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of cached type lookups as the number of threads grows.  Each thread
+ * repeatedly resolves a few classes and their array and generic instantiations, all of which are
+ * already cached, so the numbers reflect the cost of the read path alone.
+ * <p/>
+ * Run with {@code java com.strobel.reflection.TypeCacheContentionBenchmark [seconds per run]}.
+ *
+ * @author Mike Strobel
+ */
+public final class TypeCacheContentionBenchmark {
+    private final static int[] THREAD_COUNTS = { 1, 2, 4, 8, 16, 32, 64 };
+    private final static Class<?>[] CLASSES = { String.class, ArrayList.class, HashMap.class, LinkedList.class };
+
+    public static void main(final String[] args) throws Throwable {
+        final long millisPerRun = TimeUnit.SECONDS.toMillis(args.length > 0 ? Integer.parseInt(args[0]) : 2);
+
+        //
+        // Warm up the cache and the JIT before measuring anything.
+        //
+        run(Runtime.getRuntime().availableProcessors(), millisPerRun);
+
+        System.out.printf("%8s %16s %16s%n", "threads", "ops/sec", "ops/sec/thread");
+
+        for (final int threadCount : THREAD_COUNTS) {
+            final double opsPerSecond = run(threadCount, millisPerRun);
+
+            System.out.printf(
+                "%8d %16.0f %16.0f%n",
+                threadCount,
+                opsPerSecond,
+                opsPerSecond / threadCount
+            );
+        }
+    }
+
+    private static double run(final int threadCount, final long millis) throws InterruptedException {
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        }
+                        catch (final InterruptedException e) {
+                            return;
+                        }
+
+                        long count = 0;
+
+                        while (!stop.get()) {
+                            for (final Class<?> c : CLASSES) {
+                                final Type<?> type = Type.of(c);
+
+                                type.makeArrayType();
+
+                                if (type.isGenericTypeDefinition()) {
+                                    final Type<?>[] typeArguments = new Type<?>[type.getGenericTypeParameters().size()];
+
+                                    for (int j = 0; j < typeArguments.length; j++) {
+                                        typeArguments[j] = Types.String;
+                                    }
+
+                                    type.makeGenericType(typeArguments);
+                                }
+
+                                ++count;
+                            }
+                        }
+
+                        operations.addAndGet(count);
+                    }
+                }
+            );
+
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        final long startTime = System.nanoTime();
+
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        return operations.get() / seconds;
+    }
+}
@@ -16,8 +16,19 @@ package com.strobel.reflection;
 import org.junit.Test;
 
 import javax.lang.model.type.TypeKind;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.strobel.core.CollectionUtilities.first;
 import static java.lang.String.format;
@@ -325,6 +336,170 @@ public final class TypeTests {
         assertSame(t, resolvedType);
     }
 
+    @Test
+    public void testConcurrentLookupsShareInstances() throws Throwable {
+        final int threadCount = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Type<?>[]>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(
+                    executor.submit(
+                        new Callable<Type<?>[]>() {
+                            @Override
+                            public Type<?>[] call() throws Exception {
+                                start.await();
+
+                                final Type<?> type = Type.of(ConcurrentSkipListMap.class);
+
+                                return new Type<?>[] {
+                                    type,
+                                    type.makeArrayType(),
+                                    type.makeGenericType(Types.String, Types.Integer),
+                                    type.makeGenericType(Types.String, Types.Integer).makeArrayType()
+                                };
+                            }
+                        }
+                    )
+                );
+            }
+
+            start.countDown();
+
+            final Type<?>[] expected = futures.get(0).get();
+
+            for (final Future<Type<?>[]> future : futures) {
+                final Type<?>[] actual = future.get();
+
+                for (int i = 0; i < expected.length; i++) {
+                    assertSame(expected[i], actual[i]);
+                }
+            }
+
+            assertSame(expected[0], Type.of(ConcurrentSkipListMap.class));
+            assertSame(expected[1], Type.of(ConcurrentSkipListMap[].class));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNamedMethodLookupsShareInstancesWithFullList() throws Throwable {
+        final Type<?> type = Type.of(Overloads.class);
+        final MethodInfo intOverload = type.getMethod("f", PrimitiveTypes.Integer);
+        final MethodInfo stringOverload = type.getMethod("f", Types.String);
+
+        assertNotSame(intOverload, stringOverload);
+
+        final MethodList methods = type.getMethods(BindingFlags.PublicInstance);
+
+        assertTrue(methods.contains(intOverload));
+        assertTrue(methods.contains(stringOverload));
+
+        int found = 0;
+
+        for (final MethodInfo method : methods) {
+            if (method == intOverload || method == stringOverload) {
+                ++found;
+            }
+        }
+
+        assertEquals(2, found);
+        assertSame(intOverload, type.getMethod("f", PrimitiveTypes.Integer));
+    }
+
+    public static class Overloads {
+        public void f(final int i) {
+        }
+
+        public void f(final String s) {
+        }
+
+        public void g() {
+        }
+    }
+
+    @Test
+    public void testCachedTypesDoNotPinClassLoaders() throws Throwable {
+        final WeakReference<ClassLoader> loaderReference = resolveInThrowawayLoader(Collectible.class.getName());
+
+        for (int i = 0; i < 20 && loaderReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertNull(loaderReference.get());
+    }
+
+    private static WeakReference<ClassLoader> resolveInThrowawayLoader(final String className) throws Throwable {
+        final ClassLoader loader = new ThrowawayClassLoader(TypeTests.class.getName(), TypeTests.class.getClassLoader());
+        final Class<?> reloadedClass = loader.loadClass(className);
+        final Type<?> type = Type.of(reloadedClass);
+
+        assertNotSame(Type.of(Collectible.class), type);
+        assertSame(type, Type.of(reloadedClass));
+        assertSame(type.makeArrayType(), Type.of(Array.newInstance(reloadedClass, 0).getClass()));
+        assertSame(Types.List.makeGenericType(type), Types.List.makeGenericType(type));
+
+        Helper.closure(type);
+
+        return new WeakReference<>(loader);
+    }
+
+    public static class Collectible {
+        public List<Collectible> getChildren() {
+            return null;
+        }
+    }
+
+    //
+    // Loads its own copy of a class and all of its nested classes, which must agree with one another
+    // on their InnerClasses attributes.
+    //
+
+    private final static class ThrowawayClassLoader extends ClassLoader {
+        private final String _outerClassName;
+
+        ThrowawayClassLoader(final String outerClassName, final ClassLoader parent) {
+            super(parent);
+            _outerClassName = outerClassName;
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(_outerClassName) && !name.startsWith(_outerClassName + "$")) {
+                return super.loadClass(name, resolve);
+            }
+
+            synchronized (getClassLoadingLock(name)) {
+                final Class<?> loadedClass = findLoadedClass(name);
+
+                if (loadedClass != null) {
+                    return loadedClass;
+                }
+
+                try (final InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    final byte[] buffer = new byte[4096];
+
+                    for (int n; (n = in.read(buffer)) > 0; ) {
+                        out.write(buffer, 0, n);
+                    }
+
+                    final byte[] bytes = out.toByteArray();
+
+                    return defineClass(name, bytes, 0, bytes.length);
+                }
+                catch (final IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+    }
+
     static void testMe(final Class c) {
     }
 
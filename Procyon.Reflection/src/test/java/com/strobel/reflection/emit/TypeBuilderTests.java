@@ -413,4 +413,130 @@ public final class TypeBuilderTests {
         assertTrue(typeVariableArray.isEquivalentTo(createdTypeVariableArray));
         assertTrue(createdTypeVariableArray.isEquivalentTo(typeVariableArray));
     }
+
+    private static TypeBuilder<?> makeSupplier(final String name, final Type<?> returnType) {
+        final TypeBuilder<?> typeBuilder = new TypeBuilder<>(
+            TypeBuilderTests.class.getPackage().getName() + "." + name,
+            Modifier.PUBLIC | Modifier.FINAL,
+            Types.Object,
+            TypeList.empty()
+        );
+
+        final MethodBuilder method = typeBuilder.defineMethod(
+            "get",
+            Modifier.PUBLIC | Modifier.STATIC,
+            returnType
+        );
+
+        final CodeGenerator code = method.getCodeGenerator();
+
+        code.emitDefaultValue(returnType);
+        code.emitReturn(returnType);
+
+        return typeBuilder;
+    }
+
+    @Test
+    public void testIsolatedDefinitionStrategy() throws Throwable {
+        final TypeBuilder<?> first = makeSupplier("TestIsolatedType1", Types.String);
+        final TypeBuilder<?> second = makeSupplier("TestIsolatedType2", Types.String);
+
+        first.setDefinitionStrategy(DefinitionStrategy.Isolated);
+        second.setDefinitionStrategy(DefinitionStrategy.Isolated);
+
+        final Class<?> firstClass = first.createType().getErasedClass();
+        final Class<?> secondClass = second.createType().getErasedClass();
+
+        assertNotSame(Thread.currentThread().getContextClassLoader(), firstClass.getClassLoader());
+        assertNotSame(firstClass.getClassLoader(), secondClass.getClassLoader());
+        assertSame(
+            Thread.currentThread().getContextClassLoader(),
+            firstClass.getClassLoader().getParent()
+        );
+    }
+
+    private static void defineIsolatedSuppliers(final String prefix, final int count) throws Throwable {
+        for (int i = 0; i < count; i++) {
+            final TypeBuilder<?> typeBuilder = makeSupplier(prefix + i, Types.String);
+
+            typeBuilder.setDefinitionStrategy(DefinitionStrategy.Isolated);
+
+            assertNull(typeBuilder.createType().getErasedClass().getMethod("get").invoke(null));
+        }
+    }
+
+    private static boolean awaitLiveGeneratedClassCountBelow(final int count) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (TypeBuilder.getLiveGeneratedClassCount() < count) {
+                return true;
+            }
+
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        return TypeBuilder.getLiveGeneratedClassCount() < count;
+    }
+
+    @Test
+    public void testIsolatedClassesAreUnloaded() throws Throwable {
+        final int liveBefore = TypeBuilder.getLiveGeneratedClassCount();
+
+        defineIsolatedSuppliers("TestUnloadedType", 8);
+
+        final int liveAfter = TypeBuilder.getLiveGeneratedClassCount();
+
+        assertTrue(liveAfter >= liveBefore + 8);
+
+        //
+        // Nothing refers to the classes any more, so they must go once their loaders are collected.
+        //
+        assertTrue(awaitLiveGeneratedClassCountBelow(liveAfter - 7));
+    }
+
+    @Test
+    public void testPooledDefinitionStrategy() throws Throwable {
+        final TypeBuilder<?> first = makeSupplier("TestPooledType1", Types.String);
+        final TypeBuilder<?> second = makeSupplier("TestPooledType2", Types.String);
+
+        first.setDefinitionStrategy(DefinitionStrategy.Pooled);
+        second.setDefinitionStrategy(DefinitionStrategy.Pooled);
+
+        final Class<?> firstClass = first.createType().getErasedClass();
+        final Class<?> secondClass = second.createType().getErasedClass();
+
+        assertNotSame(Thread.currentThread().getContextClassLoader(), firstClass.getClassLoader());
+        assertSame(firstClass.getClassLoader(), secondClass.getClassLoader());
+    }
+
+    @Test
+    public void testPackageAccessKeepsContextLoader() throws Throwable {
+        final TypeBuilder<?> typeBuilder = new TypeBuilder<>(
+            TypeBuilderTests.class.getPackage().getName() + ".TestPackageAccessType",
+            Modifier.PUBLIC | Modifier.FINAL,
+            Types.Object,
+            TypeList.empty()
+        );
+
+        final MethodBuilder method = typeBuilder.defineMethod(
+            "get",
+            Modifier.PUBLIC | Modifier.STATIC,
+            Types.Object
+        );
+
+        //
+        // TestAnnotation is package-private, so the class literal only resolves from this package.
+        //
+        final CodeGenerator code = method.getCodeGenerator();
+
+        code.emitType(Type.of(TestAnnotation.class));
+        code.emitReturn(Types.Object);
+
+        typeBuilder.setDefinitionStrategy(DefinitionStrategy.Isolated);
+
+        final Class<?> createdClass = typeBuilder.createType().getErasedClass();
+
+        assertSame(Thread.currentThread().getContextClassLoader(), createdClass.getClassLoader());
+        assertSame(TestAnnotation.class, createdClass.getMethod("get").invoke(null));
+    }
 }